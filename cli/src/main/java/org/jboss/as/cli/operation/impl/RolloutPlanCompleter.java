@@ -141,6 +141,7 @@ public class RolloutPlanCompleter implements CommandLineCompleter {
         }
 
         if(lastGroup.endsOnPropertyListStart()) {
+            candidates.add(Util.MAX_CONCURRENT_SERVERS + '=');
             candidates.add(Util.MAX_FAILED_SERVERS + '=');
             candidates.add(Util.MAX_FAILURE_PERCENTAGE + '=');
             candidates.add(Util.ROLLING_TO_SERVERS + '=');
@@ -164,6 +165,9 @@ public class RolloutPlanCompleter implements CommandLineCompleter {
                 }
                 return buffer.length();
             } else if(lastGroup.endsOnPropertySeparator()) {
+                if(!lastGroup.hasProperty(Util.MAX_CONCURRENT_SERVERS)) {
+                    candidates.add(Util.MAX_CONCURRENT_SERVERS + '=');
+                }
                 if(!lastGroup.hasProperty(Util.MAX_FAILED_SERVERS)) {
                     candidates.add(Util.MAX_FAILED_SERVERS + '=');
                 }
@@ -176,6 +180,9 @@ public class RolloutPlanCompleter implements CommandLineCompleter {
                 return lastGroup.getLastSeparatorIndex() + 1;
             } else {
                 final String propName = lastGroup.getLastPropertyName();
+                if(Util.MAX_CONCURRENT_SERVERS.startsWith(propName)) {
+                    candidates.add(Util.MAX_CONCURRENT_SERVERS + '=');
+                }
                 if(Util.MAX_FAILED_SERVERS.startsWith(propName)) {
                     candidates.add(Util.MAX_FAILED_SERVERS + '=');
                 }
@@ -0,0 +1,178 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.clustering;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Like {@link SimpleMarshalledValue}, but serialized eagerly, so that the size of its serialized form is known up front,
+ * and optionally compressed once that size exceeds a threshold. Deserialization still only happens on demand.
+ */
+public class CompactMarshalledValue<T> implements MarshalledValue<T, MarshallingContext>, Externalizable {
+    private static final long serialVersionUID = 2947328153652736429L;
+
+    private transient volatile T object;
+    private transient volatile byte[] bytes;
+    private transient volatile boolean compressed;
+
+    /**
+     * Creates a marshalled value, serializing the specified object immediately.
+     * @param object the object to marshal
+     * @param context the marshalling context
+     * @param compressionThreshold the serialized size, in bytes, above which the serialized form is compressed, or a negative value to never compress
+     * @throws IOException if the object could not be serialized
+     */
+    public CompactMarshalledValue(T object, MarshallingContext context, int compressionThreshold) throws IOException {
+        this.object = object;
+        byte[] bytes = new SimpleMarshalledValue<T>(object, context).getBytes();
+        if ((bytes != null) && (compressionThreshold >= 0) && (bytes.length > compressionThreshold)) {
+            byte[] deflated = deflate(bytes);
+            if (deflated.length < bytes.length) {
+                bytes = deflated;
+                this.compressed = true;
+            }
+        }
+        this.bytes = bytes;
+    }
+
+    public CompactMarshalledValue() {
+        // Required for externalization
+    }
+
+    /**
+     * Returns the number of bytes written when this value is replicated.
+     * @return the size of the, possibly compressed, serialized form
+     */
+    public int size() {
+        byte[] bytes = this.bytes;
+        return (bytes != null) ? bytes.length : 0;
+    }
+
+    boolean isCompressed() {
+        return this.compressed;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see org.jboss.as.clustering.MarshalledValue#get(java.lang.Object)
+     */
+    @Override
+    public synchronized T get(MarshallingContext context) throws IOException, ClassNotFoundException {
+        if ((this.object == null) && (this.bytes != null)) {
+            byte[] bytes = this.compressed ? inflate(this.bytes) : this.bytes;
+            this.object = new SimpleMarshalledValue<T>(bytes).get(context);
+        }
+        return this.object;
+    }
+
+    @Override
+    public int hashCode() {
+        return (this.object != null) ? this.object.hashCode() : 0;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if ((object == null) || !(object instanceof CompactMarshalledValue)) return false;
+        @SuppressWarnings("unchecked")
+        CompactMarshalledValue<T> value = (CompactMarshalledValue<T>) object;
+        if ((this.object != null) && (value.object != null)) {
+            return this.object.equals(value.object);
+        }
+        return (this.compressed == value.compressed) && Arrays.equals(this.bytes, value.bytes);
+    }
+
+    @Override
+    public String toString() {
+        if (this.object != null) return this.object.toString();
+        byte[] bytes = this.bytes;
+        return (bytes != null) ? bytes.toString() : null;
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        byte[] bytes = this.bytes;
+        if (bytes != null) {
+            out.writeInt(bytes.length);
+            out.writeBoolean(this.compressed);
+            out.write(bytes);
+        } else {
+            out.writeInt(0);
+        }
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        int size = in.readInt();
+        if (size > 0) {
+            this.compressed = in.readBoolean();
+            byte[] bytes = new byte[size];
+            in.readFully(bytes);
+            this.bytes = bytes;
+        }
+    }
+
+    private static byte[] deflate(byte[] bytes) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            ByteArrayOutputStream output = new ByteArrayOutputStream(bytes.length / 2);
+            byte[] buffer = new byte[Math.min(bytes.length, 8192)];
+            while (!deflater.finished()) {
+                output.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] bytes) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes);
+            ByteArrayOutputStream output = new ByteArrayOutputStream(bytes.length * 2);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if ((count == 0) && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new EOFException();
+                }
+                output.write(buffer, 0, count);
+            }
+            return output.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IOException(e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
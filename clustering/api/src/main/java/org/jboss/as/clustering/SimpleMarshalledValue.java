@@ -58,6 +58,10 @@ public class SimpleMarshalledValue<T> implements MarshalledValue<T, MarshallingC
         // Required for externalization
     }
 
+    SimpleMarshalledValue(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
     T peek() {
         return this.object;
     }
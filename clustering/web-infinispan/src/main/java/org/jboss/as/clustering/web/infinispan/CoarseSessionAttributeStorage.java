@@ -22,7 +22,12 @@
 package org.jboss.as.clustering.web.infinispan;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.jboss.as.clustering.web.OutgoingSessionGranularitySessionData;
 import org.jboss.as.clustering.web.SessionAttributeMarshaller;
@@ -30,6 +35,11 @@ import org.jboss.metadata.web.jboss.ReplicationGranularity;
 
 /**
  * Handles session attribute load/store operations for {@link ReplicationGranularity#SESSION} distributed session managers.
+ * <p/>
+ * The entire attribute map is stored as a single entry. Attributes replicated as a delta are stored as separate entries
+ * keyed by attribute name, and the names of removed attributes in a {@link SessionMapEntry#REMOVED_ATTRIBUTES} entry,
+ * so that only the delta is sent to the other owners of the session. Deltas are applied on top of the attribute map
+ * when loading, and discarded whenever the entire attribute map is stored again.
  *
  * @author Paul Ferraro
  */
@@ -46,11 +56,66 @@ public class CoarseSessionAttributeStorage implements SessionAttributeStorage<Ou
      * @see org.jboss.as.clustering.web.infinispan.SessionAttributeStorage#store(java.util.Map, org.jboss.as.clustering.web.OutgoingDistributableSessionData)
      */
     @Override
-    public void store(Map<Object, Object> map, OutgoingSessionGranularitySessionData sessionData) throws IOException {
+    public long store(Map<Object, Object> map, OutgoingSessionGranularitySessionData sessionData) throws IOException {
         Map<String, Object> attributes = sessionData.getSessionAttributes();
-        if (attributes != null) {
-            SessionMapEntry.ATTRIBUTES.put(map, this.marshaller.marshal(attributes));
+        if (attributes == null) {
+            return this.storeDelta(map, sessionData);
         }
+        Object value = this.marshaller.marshal(attributes);
+        SessionMapEntry.ATTRIBUTES.put(map, value);
+
+        // Any previous delta is now part of the attribute map
+        List<Object> deltaKeys = new ArrayList<Object>();
+        for (Object key : map.keySet()) {
+            if (key instanceof String) {
+                deltaKeys.add(key);
+            }
+        }
+        for (Object key : deltaKeys) {
+            map.remove(key);
+        }
+        SessionMapEntry.REMOVED_ATTRIBUTES.remove(map);
+
+        return this.marshaller.getMarshalledSize(value);
+    }
+
+    private long storeDelta(Map<Object, Object> map, OutgoingSessionGranularitySessionData sessionData) throws IOException {
+        Map<String, Object> modified = sessionData.getModifiedSessionAttributes();
+        Set<String> removed = sessionData.getRemovedSessionAttributes();
+        long bytes = 0;
+
+        if (((modified == null) || modified.isEmpty()) && ((removed == null) || removed.isEmpty())) {
+            return bytes;
+        }
+
+        Set<String> previouslyRemoved = SessionMapEntry.REMOVED_ATTRIBUTES.get(map);
+        Set<String> allRemoved = (previouslyRemoved != null) ? new HashSet<String>(previouslyRemoved) : new HashSet<String>();
+
+        if (modified != null) {
+            for (Map.Entry<String, Object> entry : modified.entrySet()) {
+                Object value = this.marshaller.marshal(entry.getValue());
+                map.put(entry.getKey(), value);
+                allRemoved.remove(entry.getKey());
+                int size = this.marshaller.getMarshalledSize(value);
+                bytes = ((bytes < 0) || (size < 0)) ? -1 : bytes + size;
+            }
+        }
+
+        if (removed != null) {
+            for (String attribute : removed) {
+                map.remove(attribute);
+                allRemoved.add(attribute);
+            }
+        }
+
+        if ((previouslyRemoved != null) ? !previouslyRemoved.equals(allRemoved) : !allRemoved.isEmpty()) {
+            if (allRemoved.isEmpty()) {
+                SessionMapEntry.REMOVED_ATTRIBUTES.remove(map);
+            } else {
+                SessionMapEntry.REMOVED_ATTRIBUTES.put(map, allRemoved);
+            }
+        }
+        return bytes;
     }
 
     /**
@@ -61,6 +126,30 @@ public class CoarseSessionAttributeStorage implements SessionAttributeStorage<Ou
     @SuppressWarnings("unchecked")
     @Override
     public Map<String, Object> load(Map<Object, Object> map) throws IOException, ClassNotFoundException {
-        return (Map<String, Object>) this.marshaller.unmarshal(SessionMapEntry.ATTRIBUTES.get(map));
+        Map<String, Object> attributes = (Map<String, Object>) this.marshaller.unmarshal(SessionMapEntry.ATTRIBUTES.get(map));
+        Set<String> removed = SessionMapEntry.REMOVED_ATTRIBUTES.get(map);
+        Map<String, Object> result = null;
+
+        for (Map.Entry<Object, Object> entry : map.entrySet()) {
+            Object key = entry.getKey();
+            if (key instanceof String) {
+                if (result == null) {
+                    result = copy(attributes);
+                }
+                result.put((String) key, this.marshaller.unmarshal(entry.getValue()));
+            }
+        }
+        if (removed != null) {
+            if (result == null) {
+                result = copy(attributes);
+            }
+            result.keySet().removeAll(removed);
+        }
+
+        return (result != null) ? result : attributes;
+    }
+
+    private static Map<String, Object> copy(Map<String, Object> attributes) {
+        return (attributes != null) ? new HashMap<String, Object>(attributes) : new HashMap<String, Object>();
     }
 }
@@ -48,12 +48,16 @@ public class FineSessionAttributeStorage implements SessionAttributeStorage<Outg
      * @see org.jboss.as.clustering.web.infinispan.SessionAttributeStorage#store(java.util.Map, org.jboss.as.clustering.web.OutgoingDistributableSessionData)
      */
     @Override
-    public void store(Map<Object, Object> map, OutgoingAttributeGranularitySessionData sessionData) throws IOException {
+    public long store(Map<Object, Object> map, OutgoingAttributeGranularitySessionData sessionData) throws IOException {
         Map<String, Object> modified = sessionData.getModifiedSessionAttributes();
+        long bytes = 0;
 
         if (modified != null) {
             for (Map.Entry<String, Object> entry : modified.entrySet()) {
-                map.put(entry.getKey(), this.marshaller.marshal(entry.getValue()));
+                Object value = this.marshaller.marshal(entry.getValue());
+                map.put(entry.getKey(), value);
+                int size = this.marshaller.getMarshalledSize(value);
+                bytes = ((bytes < 0) || (size < 0)) ? -1 : bytes + size;
             }
         }
 
@@ -64,6 +68,7 @@ public class FineSessionAttributeStorage implements SessionAttributeStorage<Outg
                 map.remove(attribute);
             }
         }
+        return bytes;
     }
 
     /**
@@ -32,7 +32,11 @@ import org.jboss.as.clustering.web.OutgoingDistributableSessionData;
  * @author Paul Ferraro
  */
 public interface SessionAttributeStorage<T extends OutgoingDistributableSessionData> {
-    void store(Map<Object, Object> data, T sessionData) throws IOException;
+    /**
+     * Stores the attributes of the specified session data into the specified cache entry.
+     * @return the number of attribute bytes that will be replicated, or -1 if unknown
+     */
+    long store(Map<Object, Object> data, T sessionData) throws IOException;
 
     Map<String, Object> load(Map<Object, Object> data) throws IOException, ClassNotFoundException;
 }
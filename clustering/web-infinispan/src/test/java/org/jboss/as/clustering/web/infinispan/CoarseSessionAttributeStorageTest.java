@@ -25,6 +25,7 @@ import static org.mockito.Mockito.*;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 
 import org.jboss.as.clustering.web.OutgoingSessionGranularitySessionData;
@@ -89,4 +90,51 @@ public class CoarseSessionAttributeStorageTest {
 
         Assert.assertSame(attributes, result);
     }
+
+    @Test
+    public void storeDelta() throws Exception {
+        Map<Object, Object> map = new HashMap<Object, Object>();
+        Map<String, Object> attributes = new HashMap<String, Object>();
+        attributes.put("a", "1");
+        attributes.put("b", "2");
+        Object marshalledAttributes = new Object();
+        Object marshalledValue = new Object();
+
+        OutgoingSessionGranularitySessionData full = mock(OutgoingSessionGranularitySessionData.class);
+        when(full.getSessionAttributes()).thenReturn(attributes);
+        when(this.marshaller.marshal(attributes)).thenReturn(marshalledAttributes);
+        when(this.marshaller.getMarshalledSize(marshalledAttributes)).thenReturn(100);
+
+        Assert.assertEquals(100, this.storage.store(map, full));
+
+        OutgoingSessionGranularitySessionData delta = mock(OutgoingSessionGranularitySessionData.class);
+        when(delta.getSessionAttributes()).thenReturn(null);
+        when(delta.getModifiedSessionAttributes()).thenReturn(Collections.<String, Object>singletonMap("c", "3"));
+        when(delta.getRemovedSessionAttributes()).thenReturn(Collections.singleton("a"));
+        when(this.marshaller.marshal("3")).thenReturn(marshalledValue);
+        when(this.marshaller.getMarshalledSize(marshalledValue)).thenReturn(10);
+
+        Assert.assertEquals(10, this.storage.store(map, delta));
+        Assert.assertSame(marshalledAttributes, map.get(Byte.valueOf((byte) SessionMapEntry.ATTRIBUTES.ordinal())));
+        Assert.assertSame(marshalledValue, map.get("c"));
+        Assert.assertEquals(Collections.singleton("a"), map.get(Byte.valueOf((byte) SessionMapEntry.REMOVED_ATTRIBUTES.ordinal())));
+
+        when(this.marshaller.unmarshal(same(marshalledAttributes))).thenReturn(attributes);
+        when(this.marshaller.unmarshal(same(marshalledValue))).thenReturn("3");
+
+        Map<String, Object> result = this.storage.load(map);
+
+        Assert.assertEquals(2, result.size());
+        Assert.assertEquals("2", result.get("b"));
+        Assert.assertEquals("3", result.get("c"));
+        // The attribute map itself must be left untouched
+        Assert.assertEquals(2, attributes.size());
+        Assert.assertTrue(attributes.containsKey("a"));
+
+        // A full snapshot discards the delta
+        this.storage.store(map, full);
+
+        Assert.assertEquals(1, map.size());
+        Assert.assertSame(attributes, this.storage.load(map));
+    }
 }
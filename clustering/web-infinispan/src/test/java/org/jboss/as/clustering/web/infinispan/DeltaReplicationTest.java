@@ -0,0 +1,144 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.clustering.web.infinispan;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jboss.as.clustering.SimpleClassResolver;
+import org.jboss.as.clustering.web.LocalDistributableSessionManager;
+import org.jboss.as.clustering.web.OutgoingSessionGranularitySessionData;
+import org.jboss.as.clustering.web.SessionAttributeMarshaller;
+import org.jboss.as.clustering.web.impl.SessionAttributeMarshallerFactoryImpl;
+import org.jboss.logging.Logger;
+import org.jboss.marshalling.Marshalling;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Verifies that replicating only the attribute modified by a request of a
+ * {@link org.jboss.metadata.web.jboss.ReplicationGranularity#SESSION} session holding many attributes replicates far
+ * less than the entire attribute map, and yields the same session.
+ */
+public class DeltaReplicationTest {
+    private static final Logger log = Logger.getLogger(DeltaReplicationTest.class);
+    private static final int ATTRIBUTES = 64;
+    private static final int REQUESTS = 100;
+
+    private final SessionAttributeMarshaller marshaller;
+    private final SessionAttributeStorage<OutgoingSessionGranularitySessionData> storage;
+
+    public DeltaReplicationTest() {
+        LocalDistributableSessionManager manager = mock(LocalDistributableSessionManager.class);
+        when(manager.getApplicationClassResolver()).thenReturn(new SimpleClassResolver(this.getClass().getClassLoader()));
+        // Compact marshalling reports the replicated size of each attribute
+        this.marshaller = new SessionAttributeMarshallerFactoryImpl(Marshalling.getMarshallerFactory("river", Marshalling.class.getClassLoader()), true, -1).createMarshaller(manager);
+        this.storage = new CoarseSessionAttributeStorage(this.marshaller);
+    }
+
+    @Test
+    public void deltaReplication() throws Exception {
+        Map<String, Object> attributes = new HashMap<String, Object>();
+        for (int i = 0; i < ATTRIBUTES; ++i) {
+            attributes.put("attribute" + i, new Item("item" + i, i, new Date(i)));
+        }
+
+        long full = this.replicate(attributes, false);
+        long delta = this.replicate(attributes, true);
+
+        log.debugf("%d attributes, %d requests: full replication %d bytes/request, delta replication %d bytes/request",
+                ATTRIBUTES, REQUESTS, full / REQUESTS, delta / REQUESTS);
+
+        Assert.assertTrue(full > 0);
+        Assert.assertTrue(delta > 0);
+        Assert.assertTrue(delta * 10 < full);
+
+        // Both must yield the same session
+        Map<Object, Object> map = new HashMap<Object, Object>();
+        this.storage.store(map, full(attributes));
+        attributes.put("attribute0", new Item("modified", 0, new Date(0)));
+        this.storage.store(map, delta(Collections.singletonMap("attribute0", attributes.get("attribute0"))));
+        Assert.assertEquals(attributes, this.storage.load(map));
+    }
+
+    private long replicate(Map<String, Object> attributes, boolean delta) throws IOException {
+        Map<Object, Object> map = new HashMap<Object, Object>();
+        this.storage.store(map, full(attributes));
+
+        long bytes = 0;
+        for (int i = 0; i < REQUESTS; ++i) {
+            // Each request modifies a single attribute
+            String name = "attribute" + (i % ATTRIBUTES);
+            Item item = new Item("item" + i, i, new Date(i));
+            attributes.put(name, item);
+            bytes += this.storage.store(map, delta ? delta(Collections.<String, Object>singletonMap(name, item)) : full(attributes));
+        }
+        return bytes;
+    }
+
+    private static OutgoingSessionGranularitySessionData full(Map<String, Object> attributes) {
+        OutgoingSessionGranularitySessionData data = mock(OutgoingSessionGranularitySessionData.class);
+        when(data.getSessionAttributes()).thenReturn(new HashMap<String, Object>(attributes));
+        return data;
+    }
+
+    private static OutgoingSessionGranularitySessionData delta(Map<String, Object> modified) {
+        OutgoingSessionGranularitySessionData data = mock(OutgoingSessionGranularitySessionData.class);
+        when(data.getSessionAttributes()).thenReturn(null);
+        when(data.getModifiedSessionAttributes()).thenReturn(modified);
+        when(data.getRemovedSessionAttributes()).thenReturn(null);
+        return data;
+    }
+
+    static class Item implements Serializable {
+        private static final long serialVersionUID = 5212793562736496618L;
+
+        private final String name;
+        private final int quantity;
+        private final Date date;
+
+        Item(String name, int quantity, Date date) {
+            this.name = name;
+            this.quantity = quantity;
+            this.date = date;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.name.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (!(object instanceof Item)) return false;
+            Item item = (Item) object;
+            return this.name.equals(item.name) && (this.quantity == item.quantity) && this.date.equals(item.date);
+        }
+    }
+}
@@ -183,7 +183,7 @@ public class DistributedCacheManagerTest {
 
 //        verify(this.sessionCache).endBatch(true);
 
-        CacheInvoker.Operation<String, Map<Object, Object>, Void> operation = capturedOperation.getValue();
+        CacheInvoker.Operation<String, Map<Object, Object>, Long> operation = capturedOperation.getValue();
 
         int version = 10;
         long timestamp = System.currentTimeMillis();
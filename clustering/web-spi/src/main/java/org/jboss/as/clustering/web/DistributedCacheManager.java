@@ -53,8 +53,9 @@ public interface DistributedCacheManager<T extends OutgoingDistributableSessionD
     /**
      * Store or update a session in the distributed cache.
      * @param sessionData the session
+     * @return the number of session attribute bytes replicated, or -1 if unknown
      */
-    void storeSessionData(T sessionData);
+    long storeSessionData(T sessionData);
 
     /**
      * Globally remove a session from the distributed cache.
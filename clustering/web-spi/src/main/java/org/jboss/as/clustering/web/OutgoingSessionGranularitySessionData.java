@@ -23,6 +23,7 @@
 package org.jboss.as.clustering.web;
 
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Expands on {@link OutgoingDistributableSessionData} to expose the session's attribute map.
@@ -36,4 +37,18 @@ public interface OutgoingSessionGranularitySessionData extends OutgoingDistribut
      *         session will be included in the map, not just those that have been modified
      */
     Map<String, Object> getSessionAttributes();
+
+    /**
+     * Gets those attributes modified versus what is already present in the distributed cache, if only a delta of the
+     * attribute map is to be replicated. Only consulted if {@link #getSessionAttributes()} returns <code>null</code>.
+     * @return map containing the modified attributes, or <code>null</code> if there are none
+     */
+    Map<String, Object> getModifiedSessionAttributes();
+
+    /**
+     * Gets the names of the attributes removed versus what is already present in the distributed cache, if only a delta
+     * of the attribute map is to be replicated. Only consulted if {@link #getSessionAttributes()} returns <code>null</code>.
+     * @return the removed attribute names, or <code>null</code> if there are none
+     */
+    Set<String> getRemovedSessionAttributes();
 }
@@ -30,4 +30,11 @@ public interface SessionAttributeMarshaller {
     Object marshal(Object object) throws IOException;
 
     Object unmarshal(Object object) throws IOException, ClassNotFoundException;
+
+    /**
+     * Returns the number of bytes that will be replicated for the specified result of {@link #marshal(Object)}.
+     * @param marshalled a marshalled attribute value
+     * @return the replicated size in bytes, or -1 if the size is not known before replication
+     */
+    int getMarshalledSize(Object marshalled);
 }
@@ -0,0 +1,76 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.clustering.web.impl;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+import org.jboss.as.clustering.CompactMarshalledValue;
+import org.jboss.as.clustering.MarshallingContext;
+
+import static org.jboss.as.clustering.web.impl.ClusteringWebMessages.MESSAGES;
+
+/**
+ * Session attribute marshaller that marshals attribute values eagerly using a {@link CompactMarshalledValue},
+ * compressing those whose serialized form exceeds a threshold.
+ * Values marshalled by {@link SessionAttributeMarshallerImpl} can still be unmarshalled.
+ */
+public class CompactSessionAttributeMarshaller extends SessionAttributeMarshallerImpl {
+    private final MarshallingContext context;
+    private final int compressionThreshold;
+
+    /**
+     * @param context the marshalling context
+     * @param compressionThreshold the serialized size, in bytes, above which values are compressed, or a negative value to disable compression
+     */
+    public CompactSessionAttributeMarshaller(MarshallingContext context, int compressionThreshold) {
+        super(context);
+        this.context = context;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.jboss.as.clustering.web.SessionAttributeMarshaller#marshal(Object)
+     */
+    @Override
+    public Object marshal(Object value) throws IOException {
+        if ((value == null) || isTypeExcluded(value.getClass())) {
+            return value;
+        }
+        if (!(value instanceof Serializable)) {
+            throw MESSAGES.interfaceNotImplemented(value, Serializable.class.getName());
+        }
+        return new CompactMarshalledValue<Object>(value, this.context, this.compressionThreshold);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.jboss.as.clustering.web.SessionAttributeMarshaller#getMarshalledSize(Object)
+     */
+    @Override
+    public int getMarshalledSize(Object marshalled) {
+        return (marshalled instanceof CompactMarshalledValue) ? ((CompactMarshalledValue<?>) marshalled).size() : super.getMarshalledSize(marshalled);
+    }
+}
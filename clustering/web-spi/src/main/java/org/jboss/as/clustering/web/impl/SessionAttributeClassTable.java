@@ -0,0 +1,185 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.clustering.web.impl;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.Serializable;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jboss.marshalling.ClassResolver;
+import org.jboss.marshalling.ClassTable;
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.Unmarshaller;
+
+/**
+ * Class table used by the compact session attribute marshalling mode.
+ * Common JDK types are written as a single byte index into a dictionary shared by every node of the cluster;
+ * any other serializable application class is written as a marker byte followed by its name, and its class descriptor
+ * is resolved locally on the receiving node instead of being sent along with every attribute.
+ * This requires every node to run the same version of the application, which is already the case for a distributable web application.
+ * <p/>
+ * The dictionary is part of the wire format: entries may only ever be appended.
+ */
+class SessionAttributeClassTable implements ClassTable {
+    static final int APPLICATION_CLASS = 0xFF;
+
+    private static final Class<?>[] classes = new Class<?>[] {
+        Serializable.class,
+        Externalizable.class,
+        Object.class,
+        Number.class,
+        Enum.class,
+        BigDecimal.class,
+        BigInteger.class,
+        Date.class,
+        java.sql.Date.class,
+        java.sql.Time.class,
+        java.sql.Timestamp.class,
+        Calendar.class,
+        GregorianCalendar.class,
+        TimeZone.class,
+        Locale.class,
+        UUID.class,
+        StringBuilder.class,
+        StringBuffer.class,
+        AtomicBoolean.class,
+        AtomicInteger.class,
+        AtomicLong.class,
+        ArrayList.class,
+        LinkedList.class,
+        Vector.class,
+        CopyOnWriteArrayList.class,
+        HashSet.class,
+        LinkedHashSet.class,
+        TreeSet.class,
+        HashMap.class,
+        LinkedHashMap.class,
+        TreeMap.class,
+        ConcurrentHashMap.class,
+        Collections.emptyList().getClass(),
+        Collections.emptySet().getClass(),
+        Collections.emptyMap().getClass(),
+        Collections.singletonList(null).getClass(),
+        Collections.singleton(null).getClass(),
+        Collections.singletonMap(null, null).getClass(),
+        Collections.unmodifiableList(new ArrayList<Object>()).getClass(),
+        Collections.unmodifiableList(new LinkedList<Object>()).getClass(),
+        Collections.unmodifiableSet(new HashSet<Object>()).getClass(),
+        Collections.unmodifiableMap(new HashMap<Object, Object>()).getClass(),
+        Collections.synchronizedList(new ArrayList<Object>()).getClass(),
+        Collections.synchronizedList(new LinkedList<Object>()).getClass(),
+        Collections.synchronizedSet(new HashSet<Object>()).getClass(),
+        Collections.synchronizedMap(new HashMap<Object, Object>()).getClass(),
+    };
+
+    private static final Map<Class<?>, Writer> writers = createWriters();
+    private static Map<Class<?>, Writer> createWriters() {
+        Map<Class<?>, Writer> writers = new IdentityHashMap<Class<?>, Writer>();
+        for (int i = 0; i < classes.length; i++) {
+            writers.put(classes[i], new ByteWriter((byte) i));
+        }
+        return writers;
+    }
+
+    private static final Writer applicationClassWriter = new Writer() {
+        @Override
+        public void writeClass(Marshaller marshaller, Class<?> targetClass) throws IOException {
+            marshaller.writeByte(APPLICATION_CLASS);
+            marshaller.writeUTF(targetClass.getName());
+        }
+    };
+
+    private final ClassResolver resolver;
+
+    SessionAttributeClassTable(ClassResolver resolver) {
+        this.resolver = resolver;
+    }
+
+    @Override
+    public Writer getClassWriter(Class<?> targetClass) throws IOException {
+        Writer writer = writers.get(targetClass);
+        if ((writer == null) && isApplicationClass(targetClass)) {
+            writer = applicationClassWriter;
+        }
+        return writer;
+    }
+
+    @Override
+    public Class<?> readClass(Unmarshaller unmarshaller) throws IOException, ClassNotFoundException {
+        int index = unmarshaller.readUnsignedByte();
+        if (index == APPLICATION_CLASS) {
+            return this.resolver.resolveClass(unmarshaller, unmarshaller.readUTF(), 0L);
+        }
+        if (index >= classes.length) {
+            throw ClusteringWebMessages.MESSAGES.classIndexNotFoundInClassTable(this.getClass().getName(), index);
+        }
+        return classes[index];
+    }
+
+    /**
+     * Only classes loaded by an application class loader are written by name; JDK classes not in the dictionary,
+     * arrays and proxies are left to the marshaller.
+     */
+    private static boolean isApplicationClass(Class<?> targetClass) {
+        return Serializable.class.isAssignableFrom(targetClass) && !targetClass.isArray() && !Proxy.isProxyClass(targetClass)
+                && (targetClass.getClassLoader() != null);
+    }
+
+    private static final class ByteWriter implements Writer {
+        final byte[] bytes;
+
+        ByteWriter(final byte... bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void writeClass(final Marshaller marshaller, final Class<?> clazz) throws IOException {
+            marshaller.write(bytes);
+        }
+    }
+}
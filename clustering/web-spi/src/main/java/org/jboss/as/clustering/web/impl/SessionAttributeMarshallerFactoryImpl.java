@@ -24,6 +24,7 @@ package org.jboss.as.clustering.web.impl;
 import java.io.Externalizable;
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -44,12 +45,23 @@ import org.jboss.marshalling.reflect.SunReflectiveCreator;
 
 /**
  * Default factory for creating session attribute marshallers.
+ * <p/>
+ * Setting the {@value #MARSHALLING_PROPERTY} system property to {@value #COMPACT_MARSHALLING} selects the compact marshalling mode,
+ * which uses a {@link SessionAttributeClassTable} and optionally compresses values larger than
+ * {@value #COMPRESSION_THRESHOLD_PROPERTY} bytes.
  *
  * @author Paul Ferraro
  */
 public class SessionAttributeMarshallerFactoryImpl implements SessionAttributeMarshallerFactory, ClassTable, VersionedMarshallingConfiguration {
+    public static final String MARSHALLING_PROPERTY = "jboss.web.clustered.session.marshalling";
+    public static final String COMPACT_MARSHALLING = "compact";
+    public static final String COMPRESSION_THRESHOLD_PROPERTY = "jboss.web.clustered.session.compression.threshold";
+
     private static final int CURRENT_VERSION = 1;
+    private static final int COMPACT_VERSION = 2;
     private final MarshallerFactory factory;
+    private final boolean compact;
+    private final int compressionThreshold;
     private final Map<Integer, MarshallingConfiguration> configurations = new ConcurrentHashMap<Integer, MarshallingConfiguration>();
 
     public SessionAttributeMarshallerFactoryImpl() {
@@ -57,7 +69,18 @@ public class SessionAttributeMarshallerFactoryImpl implements SessionAttributeMa
     }
 
     public SessionAttributeMarshallerFactoryImpl(MarshallerFactory factory) {
+        this(factory, COMPACT_MARSHALLING.equalsIgnoreCase(System.getProperty(MARSHALLING_PROPERTY)), Integer.getInteger(COMPRESSION_THRESHOLD_PROPERTY, -1).intValue());
+    }
+
+    /**
+     * @param factory the marshaller factory
+     * @param compact indicates whether to use the compact marshalling mode
+     * @param compressionThreshold in compact mode, the serialized size, in bytes, above which values are compressed, or a negative value to disable compression
+     */
+    public SessionAttributeMarshallerFactoryImpl(MarshallerFactory factory, boolean compact, int compressionThreshold) {
         this.factory = factory;
+        this.compact = compact;
+        this.compressionThreshold = compressionThreshold;
     }
 
     /**
@@ -73,7 +96,19 @@ public class SessionAttributeMarshallerFactoryImpl implements SessionAttributeMa
         configuration.setExternalizerCreator(new ReflectiveCreator());
         configuration.setClassTable(this);
         this.configurations.put(CURRENT_VERSION, configuration);
-        return new SessionAttributeMarshallerImpl(new MarshallingContext(this.factory, this));
+        if (!this.compact) {
+            return new SessionAttributeMarshallerImpl(new MarshallingContext(this.factory, this));
+        }
+        // The class table resolves application classes by name, so it is specific to this deployment
+        MarshallingConfiguration compactConfiguration = new MarshallingConfiguration();
+        compactConfiguration.setClassResolver(manager.getApplicationClassResolver());
+        compactConfiguration.setSerializedCreator(new SunReflectiveCreator());
+        compactConfiguration.setExternalizerCreator(new ReflectiveCreator());
+        compactConfiguration.setClassTable(new SessionAttributeClassTable(manager.getApplicationClassResolver()));
+        Map<Integer, MarshallingConfiguration> configurations = new HashMap<Integer, MarshallingConfiguration>();
+        configurations.put(CURRENT_VERSION, configuration);
+        configurations.put(COMPACT_VERSION, compactConfiguration);
+        return new CompactSessionAttributeMarshaller(new MarshallingContext(this.factory, new CompactMarshallingConfiguration(configurations)), this.compressionThreshold);
     }
 
     @Override
@@ -90,6 +125,28 @@ public class SessionAttributeMarshallerFactoryImpl implements SessionAttributeMa
         return config;
     }
 
+    private static class CompactMarshallingConfiguration implements VersionedMarshallingConfiguration {
+        private final Map<Integer, MarshallingConfiguration> configurations;
+
+        CompactMarshallingConfiguration(Map<Integer, MarshallingConfiguration> configurations) {
+            this.configurations = configurations;
+        }
+
+        @Override
+        public int getCurrentMarshallingVersion() {
+            return COMPACT_VERSION;
+        }
+
+        @Override
+        public MarshallingConfiguration getMarshallingConfiguration(int version) {
+            MarshallingConfiguration config = this.configurations.get(version);
+            if (config == null) {
+                throw ClusteringWebMessages.MESSAGES.unsupportedMarshallingVersion(version);
+            }
+            return config;
+        }
+    }
+
     // List session attribute classes for optimization
     private static final Class<?>[] classes = new Class<?>[] {
         Serializable.class,
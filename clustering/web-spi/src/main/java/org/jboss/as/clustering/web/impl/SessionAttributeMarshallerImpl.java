@@ -23,7 +23,9 @@ package org.jboss.as.clustering.web.impl;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.lang.reflect.Array;
 
+import org.jboss.as.clustering.MarshalledValue;
 import org.jboss.as.clustering.MarshallingContext;
 import org.jboss.as.clustering.SimpleMarshalledValue;
 import org.jboss.as.clustering.web.SessionAttributeMarshaller;
@@ -65,13 +67,92 @@ public class SessionAttributeMarshallerImpl implements SessionAttributeMarshalle
      */
     @Override
     public Object unmarshal(Object object) throws IOException, ClassNotFoundException {
-        if ((object == null) || !(object instanceof SimpleMarshalledValue)) {
+        if ((object == null) || !(object instanceof MarshalledValue)) {
             return object;
         }
-        SimpleMarshalledValue<?> value = (SimpleMarshalledValue<?>) object;
+        @SuppressWarnings("unchecked")
+        MarshalledValue<?, MarshallingContext> value = (MarshalledValue<?, MarshallingContext>) object;
         return value.get(this.context);
     }
 
+    /**
+     * {@inheritDoc}
+     * A {@link SimpleMarshalledValue} is only serialized during replication, so its size is unknown.
+     * Values of {@link #isTypeExcluded(Class) excluded types} are replicated as is, so their size is that of their data,
+     * not counting any type information written by the transport.
+     *
+     * @see org.jboss.as.clustering.web.SessionAttributeMarshaller#getMarshalledSize(Object)
+     */
+    @Override
+    public int getMarshalledSize(Object marshalled) {
+        if (marshalled == null) {
+            return 0;
+        }
+        return (marshalled instanceof MarshalledValue) ? -1 : getExcludedTypeSize(marshalled);
+    }
+
+    private static int getExcludedTypeSize(Object value) {
+        Class<?> type = value.getClass();
+        if (type.isArray()) {
+            int length = Array.getLength(value);
+            Class<?> componentType = type.getComponentType();
+            if (componentType.isPrimitive()) {
+                return length * getPrimitiveSize(componentType);
+            }
+            int size = 0;
+            for (int i = 0; i < length; ++i) {
+                Object element = Array.get(value, i);
+                if (element != null) {
+                    int elementSize = getExcludedTypeSize(element);
+                    if (elementSize < 0) {
+                        return -1;
+                    }
+                    size += elementSize;
+                }
+            }
+            return size;
+        }
+        if (type.equals(String.class)) {
+            return getUTFLength((String) value);
+        }
+        return getPrimitiveSize(type);
+    }
+
+    private static int getPrimitiveSize(Class<?> type) {
+        if (type.equals(Boolean.class) || type.equals(Boolean.TYPE) || type.equals(Byte.class) || type.equals(Byte.TYPE)) {
+            return 1;
+        }
+        if (type.equals(Character.class) || type.equals(Character.TYPE) || type.equals(Short.class) || type.equals(Short.TYPE)) {
+            return 2;
+        }
+        if (type.equals(Integer.class) || type.equals(Integer.TYPE) || type.equals(Float.class) || type.equals(Float.TYPE)) {
+            return 4;
+        }
+        if (type.equals(Long.class) || type.equals(Long.TYPE) || type.equals(Double.class) || type.equals(Double.TYPE)) {
+            return 8;
+        }
+        if (type.equals(Void.class)) {
+            return 0;
+        }
+        return -1;
+    }
+
+    // Length of the modified UTF-8 encoding used by DataOutput.writeUTF(String)
+    private static int getUTFLength(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            if ((c >= 0x0001) && (c <= 0x007F)) {
+                length += 1;
+            } else if (c <= 0x07FF) {
+                length += 2;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
     public static boolean isTypeExcluded(Class<?> type) {
         return type.equals(String.class) || type.isPrimitive() || type.equals(Void.class) || type.equals(Boolean.class)
                 || type.equals(Character.class) || type.equals(Byte.class) || type.equals(Short.class)
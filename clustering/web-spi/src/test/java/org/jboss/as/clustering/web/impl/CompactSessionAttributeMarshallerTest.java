@@ -0,0 +1,171 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.clustering.web.impl;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jboss.as.clustering.SimpleClassResolver;
+import org.jboss.as.clustering.web.LocalDistributableSessionManager;
+import org.jboss.as.clustering.web.SessionAttributeMarshaller;
+import org.jboss.marshalling.MarshallerFactory;
+import org.jboss.marshalling.Marshalling;
+import org.junit.Test;
+
+public class CompactSessionAttributeMarshallerTest {
+    private final MarshallerFactory factory = Marshalling.getMarshallerFactory("river", Marshalling.class.getClassLoader());
+    private final LocalDistributableSessionManager manager = mock(LocalDistributableSessionManager.class);
+
+    public CompactSessionAttributeMarshallerTest() {
+        when(this.manager.getApplicationClassResolver()).thenReturn(new SimpleClassResolver(this.getClass().getClassLoader()));
+    }
+
+    private SessionAttributeMarshaller createMarshaller(boolean compact, int compressionThreshold) {
+        return new SessionAttributeMarshallerFactoryImpl(this.factory, compact, compressionThreshold).createMarshaller(this.manager);
+    }
+
+    @Test
+    public void excluded() throws IOException, ClassNotFoundException {
+        SessionAttributeMarshaller marshaller = this.createMarshaller(true, -1);
+        assertTrue(marshaller instanceof CompactSessionAttributeMarshaller);
+
+        String value = "test";
+        Object marshalled = marshaller.marshal(value);
+        assertSame(value, marshalled);
+        assertEquals(4, marshaller.getMarshalledSize(marshalled));
+        assertSame(value, marshaller.unmarshal(marshalled));
+
+        assertEquals(0, marshaller.getMarshalledSize(null));
+        assertEquals(4, marshaller.getMarshalledSize(marshaller.marshal(Integer.valueOf(42))));
+        assertEquals(8, marshaller.getMarshalledSize(marshaller.marshal(Long.valueOf(42L))));
+        assertEquals(1, marshaller.getMarshalledSize(marshaller.marshal(Boolean.TRUE)));
+        assertEquals(3, marshaller.getMarshalledSize(marshaller.marshal("\u00e9t")));
+        assertEquals(16, marshaller.getMarshalledSize(marshaller.marshal(new int[] { 1, 2, 3, 4 })));
+        assertEquals(5, marshaller.getMarshalledSize(marshaller.marshal(new String[] { "ab", null, "cde" })));
+    }
+
+    @Test
+    public void replicate() throws IOException, ClassNotFoundException {
+        SessionAttributeMarshaller marshaller = this.createMarshaller(true, -1);
+
+        Map<String, Object> attributes = new HashMap<String, Object>();
+        attributes.put("date", new Date(System.currentTimeMillis()));
+        attributes.put("person", new Person("Jane", 42));
+        List<Person> people = new ArrayList<Person>();
+        people.add(new Person("John", 24));
+        attributes.put("people", people);
+
+        Object marshalled = marshaller.marshal(attributes);
+        assertTrue(marshaller.getMarshalledSize(marshalled) > 0);
+
+        Object replicated = replicate(marshalled);
+        assertNotSame(marshalled, replicated);
+        assertEquals(marshaller.getMarshalledSize(marshalled), marshaller.getMarshalledSize(replicated));
+        assertEquals(attributes, marshaller.unmarshal(replicated));
+    }
+
+    @Test
+    public void compress() throws IOException, ClassNotFoundException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 256; ++i) {
+            builder.append("session-attribute-");
+        }
+        Person person = new Person(builder.toString(), 42);
+
+        SessionAttributeMarshaller uncompressed = this.createMarshaller(true, -1);
+        SessionAttributeMarshaller compressed = this.createMarshaller(true, 1024);
+
+        int uncompressedSize = uncompressed.getMarshalledSize(uncompressed.marshal(person));
+        assertTrue(uncompressedSize > 1024);
+
+        Object marshalled = compressed.marshal(person);
+        int compressedSize = compressed.getMarshalledSize(marshalled);
+        assertTrue(String.format("compressed %d >= uncompressed %d", compressedSize, uncompressedSize), compressedSize < uncompressedSize);
+
+        assertEquals(person, compressed.unmarshal(replicate(marshalled)));
+
+        // Values below the threshold are left as is
+        Person small = new Person("Jane", 42);
+        assertEquals(uncompressed.getMarshalledSize(uncompressed.marshal(small)), compressed.getMarshalledSize(compressed.marshal(small)));
+    }
+
+    @Test
+    public void readDefault() throws IOException, ClassNotFoundException {
+        SessionAttributeMarshaller marshaller = this.createMarshaller(true, -1);
+        SessionAttributeMarshaller defaultMarshaller = this.createMarshaller(false, -1);
+
+        Person person = new Person("Jane", 42);
+        Object marshalled = defaultMarshaller.marshal(person);
+        assertEquals(-1, defaultMarshaller.getMarshalledSize(marshalled));
+        assertEquals(person, marshaller.unmarshal(replicate(marshalled)));
+    }
+
+    private static Object replicate(Object object) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream output = new ObjectOutputStream(bytes);
+        output.writeObject(object);
+        output.close();
+        ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        try {
+            return input.readObject();
+        } finally {
+            input.close();
+        }
+    }
+
+    static class Person implements Serializable {
+        private static final long serialVersionUID = -2736181473634484613L;
+
+        private final String name;
+        private final int age;
+
+        Person(String name, int age) {
+            this.name = name;
+            this.age = age;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.name.hashCode() ^ this.age;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (!(object instanceof Person)) return false;
+            Person person = (Person) object;
+            return this.name.equals(person.name) && (this.age == person.age);
+        }
+    }
+}
@@ -29,6 +29,8 @@ public class CmpConfig {
     private boolean syncOnCommitOnly;
     private boolean insertAfterEjbPostCreate;
     private boolean callEjbStoreOnClean;
+    private int tableCacheMaxCapacity;
+    private boolean tableCacheSoftRows;
 
     public boolean isSyncOnCommitOnly() {
         return syncOnCommitOnly;
@@ -53,4 +55,23 @@ public class CmpConfig {
     public void setCallEjbStoreOnClean(boolean callEjbStoreOnClean) {
         this.callEjbStoreOnClean = callEjbStoreOnClean;
     }
+
+    /**
+     * The maximum number of rows cached per table by the jdbc2 store manager, 0 disables the table cache.
+     */
+    public int getTableCacheMaxCapacity() {
+        return tableCacheMaxCapacity;
+    }
+
+    public void setTableCacheMaxCapacity(int tableCacheMaxCapacity) {
+        this.tableCacheMaxCapacity = tableCacheMaxCapacity;
+    }
+
+    public boolean isTableCacheSoftRows() {
+        return tableCacheSoftRows;
+    }
+
+    public void setTableCacheSoftRows(boolean tableCacheSoftRows) {
+        this.tableCacheSoftRows = tableCacheSoftRows;
+    }
 }
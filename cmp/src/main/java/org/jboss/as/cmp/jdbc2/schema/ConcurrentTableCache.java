@@ -0,0 +1,586 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.cmp.jdbc2.schema;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.transaction.Transaction;
+
+import org.jboss.as.cmp.CmpMessages;
+
+/**
+ * Row cache for tables that are read a lot more often than they are written.
+ * <p/>
+ * Rows are looked up in a {@link ConcurrentHashMap} without taking any lock, a cached row is an immutable snapshot that
+ * is replaced as a whole when the row is put again. Writes, update locks and eviction lock only the segment the primary
+ * key hashes to. Eviction follows the CLOCK approximation of LRU: a hit only marks the row as referenced, and a
+ * segment over its capacity gives referenced rows a second chance before evicting the least recently added ones.
+ * <p/>
+ * With soft rows the snapshots are only softly reachable, so the garbage collector can reclaim rows of large tables
+ * before the cache reaches its capacity.
+ * <p/>
+ * Each operation is atomic on its own. {@link #lock(Object)} holds the segment lock of a primary key, so that the
+ * fields and relations read under it come from the same snapshot: {@link #getFields(Object)} pins the snapshot it read
+ * until {@link #unlock(Object)}, and {@link #getRelations(Object)} reads the relations of that pinned snapshot, which
+ * neither a concurrent put nor the garbage collector can replace meanwhile. {@link #lock()} and {@link #unlock()} do
+ * nothing.
+ */
+public class ConcurrentTableCache implements Cache {
+    private volatile Cache.Listener listener = Cache.Listener.NOOP;
+    private final ConcurrentMap<Object, CachedRow> rowsById;
+    private final Segment[] segments;
+    private final int segmentMask;
+    private final int minCapacity;
+    private final boolean softRows;
+    private final ReferenceQueue<RowState> clearedRows;
+    private volatile int maxCapacity;
+    private volatile int maxSegmentCapacity;
+
+    public ConcurrentTableCache(int minCapacity, int maxCapacity, boolean softRows) {
+        this(minCapacity, maxCapacity, 4 * Runtime.getRuntime().availableProcessors(), softRows);
+    }
+
+    public ConcurrentTableCache(int minCapacity, int maxCapacity, int concurrency, boolean softRows) {
+        int segmentCount = 1;
+        while (segmentCount < concurrency) {
+            segmentCount <<= 1;
+        }
+        this.minCapacity = minCapacity;
+        this.softRows = softRows;
+        this.clearedRows = softRows ? new ReferenceQueue<RowState>() : null;
+        rowsById = new ConcurrentHashMap<Object, CachedRow>(minCapacity, 0.75f, segmentCount);
+        segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; ++i) {
+            segments[i] = new Segment(i);
+        }
+        segmentMask = segmentCount - 1;
+        setMaxCapacity(maxCapacity);
+    }
+
+    /**
+     * @jmx.managed-operation
+     */
+    public void registerListener(Cache.Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @jmx.managed-operation
+     */
+    public int size() {
+        return rowsById.size();
+    }
+
+    /**
+     * @jmx.managed-attribute
+     */
+    public int getMaxCapacity() {
+        return maxCapacity;
+    }
+
+    /**
+     * @jmx.managed-attribute
+     */
+    public void setMaxCapacity(int maxCapacity) {
+        this.maxCapacity = maxCapacity;
+        this.maxSegmentCapacity = maxCapacity / segments.length + 1;
+    }
+
+    /**
+     * @jmx.managed-attribute
+     */
+    public int getMinCapacity() {
+        return minCapacity;
+    }
+
+    /**
+     * @jmx.managed-attribute
+     */
+    public int getSegmentsTotal() {
+        return segments.length;
+    }
+
+    /**
+     * @jmx.managed-attribute
+     */
+    public boolean isSoftRows() {
+        return softRows;
+    }
+
+    /**
+     * @jmx.managed-attribute
+     */
+    public long getHitCount() {
+        long hits = 0;
+        for (Segment segment : segments) {
+            hits += segment.hits.get();
+        }
+        return hits;
+    }
+
+    /**
+     * @jmx.managed-attribute
+     */
+    public long getMissCount() {
+        long misses = 0;
+        for (Segment segment : segments) {
+            misses += segment.misses.get();
+        }
+        return misses;
+    }
+
+    /**
+     * @jmx.managed-attribute
+     */
+    public long getEvictionCount() {
+        long evictions = 0;
+        for (Segment segment : segments) {
+            evictions += segment.evictions.get();
+        }
+        return evictions;
+    }
+
+    /**
+     * @jmx.managed-operation
+     */
+    public void resetStatistics() {
+        for (Segment segment : segments) {
+            segment.hits.set(0);
+            segment.misses.set(0);
+            segment.evictions.set(0);
+        }
+    }
+
+    public void lock() {
+    }
+
+    public void lock(Object key) {
+        segmentFor(key).lock();
+    }
+
+    public void unlock() {
+    }
+
+    public void unlock(Object key) {
+        final Segment segment = segmentFor(key);
+        if (segment.getHoldCount() == 1) {
+            segment.unpin();
+        }
+        segment.unlock();
+    }
+
+    public Object[] getFields(Object pk) {
+        final Segment segment = segmentFor(pk);
+        final CachedRow row = rowsById.get(pk);
+        final RowState state = row == null || row.locker != null ? null : row.getState();
+        if (state == null) {
+            segment.misses.incrementAndGet();
+            listener.miss(segment.index);
+            return null;
+        }
+        row.referenced = true;
+        if (segment.isHeldByCurrentThread()) {
+            segment.pinnedPk = pk;
+            segment.pinnedState = state;
+        }
+        segment.hits.incrementAndGet();
+        listener.hit(segment.index);
+        final Object[] fields = new Object[state.fields.length];
+        System.arraycopy(state.fields, 0, fields, 0, fields.length);
+        return fields;
+    }
+
+    public Object[] getRelations(Object pk) {
+        final Segment segment = segmentFor(pk);
+        final RowState state;
+        if (segment.isHeldByCurrentThread() && pk.equals(segment.pinnedPk)) {
+            state = segment.pinnedState;
+        } else {
+            final CachedRow row = rowsById.get(pk);
+            state = row == null || row.locker != null ? null : row.getState();
+            if (state != null) {
+                row.referenced = true;
+            }
+        }
+        if (state == null || state.relations == null) {
+            return null;
+        }
+        final Object[] relations = new Object[state.relations.length];
+        System.arraycopy(state.relations, 0, relations, 0, relations.length);
+        return relations;
+    }
+
+    public void put(Transaction tx, Object pk, Object[] fields, Object[] relations) {
+        final Segment segment = segmentFor(pk);
+        segment.lock();
+        try {
+            segment.unpin(pk);
+            purgeClearedRows();
+            CachedRow row = rowsById.get(pk);
+            if (row == null) { // the row is not cached
+                row = new CachedRow(pk);
+                row.setState(new RowState(copy(fields), copy(relations)));
+                rowsById.put(pk, row);
+                segment.link(row);
+            } else if (row.locker == null || row.locker.equals(tx)) { // the row is cached
+                final RowState current = row.getState();
+                final Object[] newRelations;
+                if (relations != null) {
+                    newRelations = copy(relations);
+                } else {
+                    newRelations = current == null ? null : current.relations;
+                }
+                row.setState(new RowState(copy(fields), newRelations));
+                row.referenced = true;
+                row.locker = null;
+            }
+            segment.evict(maxSegmentCapacity);
+        } finally {
+            segment.unlock();
+        }
+    }
+
+    public void ageOut(long lastUpdated) {
+        for (Segment segment : segments) {
+            segment.lock();
+            try {
+                segment.ageOut(lastUpdated);
+            } finally {
+                segment.unlock();
+            }
+        }
+    }
+
+    public void remove(Transaction tx, Object pk) {
+        final Segment segment = segmentFor(pk);
+        segment.lock();
+        try {
+            segment.unpin(pk);
+            final CachedRow row = rowsById.get(pk);
+            if (row == null) {
+                throw CmpMessages.MESSAGES.removeRejected(pk, tx);
+            }
+            if (row.locker != null && !tx.equals(row.locker)) {
+                throw CmpMessages.MESSAGES.removeRejected(pk, tx, row.locker);
+            }
+            rowsById.remove(pk);
+            segment.unlink(row);
+            row.locker = null;
+        } finally {
+            segment.unlock();
+        }
+    }
+
+    public boolean contains(Transaction tx, Object pk) {
+        final CachedRow row = rowsById.get(pk);
+        if (row == null) {
+            return false;
+        }
+        final Transaction locker = row.locker;
+        return locker == null || tx.equals(locker);
+    }
+
+    public void lockForUpdate(Transaction tx, Object pk) throws Exception {
+        final Segment segment = segmentFor(pk);
+        segment.lock();
+        try {
+            final CachedRow row = rowsById.get(pk);
+            if (row != null) {
+                if (row.locker != null && !tx.equals(row.locker)) {
+                    throw CmpMessages.MESSAGES.lockAcquisitionRejected(tx, row.locker, pk);
+                }
+                row.locker = tx;
+            }
+        } finally {
+            segment.unlock();
+        }
+    }
+
+    public void releaseLock(Transaction tx, Object pk) throws Exception {
+        final Segment segment = segmentFor(pk);
+        segment.lock();
+        try {
+            final CachedRow row = rowsById.get(pk);
+            if (row != null) {
+                if (!tx.equals(row.locker)) {
+                    throw CmpMessages.MESSAGES.lockReleaseRejected(tx, row.locker, pk);
+                }
+                row.locker = null;
+            }
+        } finally {
+            segment.unlock();
+        }
+    }
+
+    public void flush() {
+        for (Segment segment : segments) {
+            segment.lock();
+            try {
+                segment.clear();
+            } finally {
+                segment.unlock();
+            }
+        }
+    }
+
+    public String toString() {
+        StringBuffer buf = new StringBuffer();
+        buf.append('[');
+        for (CachedRow row : rowsById.values()) {
+            final RowState state = row.getState();
+            if (state == null) {
+                continue;
+            }
+            buf.append('(')
+                    .append(row.pk)
+                    .append('|');
+            for (int i = 0; i < state.fields.length; ++i) {
+                if (i > 0) {
+                    buf.append(',');
+                }
+                buf.append(state.fields[i]);
+            }
+            buf.append(')');
+        }
+        buf.append(']');
+        return buf.toString();
+    }
+
+    // Private
+
+    private Segment segmentFor(Object pk) {
+        int hash = pk.hashCode();
+        // spread the high bits, primary keys like sequential numbers differ in the low bits only
+        hash ^= (hash >>> 20) ^ (hash >>> 12);
+        hash ^= (hash >>> 7) ^ (hash >>> 4);
+        return segments[hash & segmentMask];
+    }
+
+    /**
+     * Drops the rows whose soft snapshot has been collected, only called while holding a segment lock.
+     */
+    private void purgeClearedRows() {
+        if (clearedRows == null) {
+            return;
+        }
+        Reference<? extends RowState> ref;
+        while ((ref = clearedRows.poll()) != null) {
+            final CachedRow row = ((SoftRowState) ref).row;
+            final Segment segment = segmentFor(row.pk);
+            // never wait for another segment while holding one, a row that is skipped stays a miss until evicted
+            if (segment.tryLock()) {
+                try {
+                    if (row.getState() == null && rowsById.remove(row.pk, row)) {
+                        segment.unlink(row);
+                    }
+                } finally {
+                    segment.unlock();
+                }
+            }
+        }
+    }
+
+    private static Object[] copy(Object[] values) {
+        if (values == null) {
+            return null;
+        }
+        final Object[] copy = new Object[values.length];
+        System.arraycopy(values, 0, copy, 0, values.length);
+        return copy;
+    }
+
+    /**
+     * Rows of one segment, kept in the order of the CLOCK hand: the head is the next eviction candidate.
+     */
+    private final class Segment extends ReentrantLock {
+        private final int index;
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        private final AtomicLong evictions = new AtomicLong();
+        private CachedRow head;
+        private CachedRow tail;
+        private int size;
+        /**
+         * The snapshot last read by {@link #getFields(Object)} while the lock is held through {@link #lock(Object)}
+         */
+        private Object pinnedPk;
+        private RowState pinnedState;
+
+        private Segment(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public void lock() {
+            if (!tryLock()) {
+                final long start = System.currentTimeMillis();
+                super.lock();
+                listener.contention(index, System.currentTimeMillis() - start);
+            }
+        }
+
+        private void unpin() {
+            pinnedPk = null;
+            pinnedState = null;
+        }
+
+        private void unpin(Object pk) {
+            if (pk.equals(pinnedPk)) {
+                unpin();
+            }
+        }
+
+        private void link(CachedRow row) {
+            if (tail == null) {
+                head = row;
+            } else {
+                tail.next = row;
+                row.prev = tail;
+            }
+            tail = row;
+            ++size;
+        }
+
+        private void unlink(CachedRow row) {
+            final CachedRow next = row.next;
+            final CachedRow prev = row.prev;
+            if (row == head) {
+                head = next;
+            }
+            if (row == tail) {
+                tail = prev;
+            }
+            if (next != null) {
+                next.prev = prev;
+            }
+            if (prev != null) {
+                prev.next = next;
+            }
+            row.next = null;
+            row.prev = null;
+            --size;
+        }
+
+        private void evict(int maxSize) {
+            // one sweep of second chances, rows that are read again meanwhile do not get another one
+            int secondChances = size;
+            // rows locked for update can not be evicted at all
+            int locked = 0;
+            while (size > maxSize && locked < size) {
+                final CachedRow victim = head;
+                unlink(victim);
+                if (victim.locker != null) {
+                    ++locked;
+                    link(victim);
+                } else if (victim.referenced && secondChances-- > 0) {
+                    victim.referenced = false;
+                    link(victim);
+                } else {
+                    rowsById.remove(victim.pk, victim);
+                    evictions.incrementAndGet();
+                    listener.eviction(index, victim.pk, rowsById.size());
+                }
+            }
+        }
+
+        private void ageOut(long lastUpdated) {
+            CachedRow cursor = head;
+            while (cursor != null) {
+                final CachedRow next = cursor.next;
+                final RowState state = cursor.getState();
+                if (cursor.locker == null && (state == null || state.lastUpdated < lastUpdated)) {
+                    unlink(cursor);
+                    rowsById.remove(cursor.pk, cursor);
+                    evictions.incrementAndGet();
+                    listener.eviction(index, cursor.pk, rowsById.size());
+                }
+                cursor = next;
+            }
+        }
+
+        private void clear() {
+            CachedRow cursor = head;
+            while (cursor != null) {
+                rowsById.remove(cursor.pk, cursor);
+                cursor = cursor.next;
+            }
+            head = null;
+            tail = null;
+            size = 0;
+        }
+    }
+
+    private final class CachedRow {
+        private final Object pk;
+        /**
+         * Either the {@link RowState} or a {@link SoftRowState} referring to it
+         */
+        private volatile Object state;
+        private volatile Transaction locker;
+        private volatile boolean referenced;
+
+        // guarded by the segment lock
+        private CachedRow next;
+        private CachedRow prev;
+
+        private CachedRow(Object pk) {
+            this.pk = pk;
+        }
+
+        private RowState getState() {
+            final Object state = this.state;
+            if (state instanceof SoftRowState) {
+                return ((SoftRowState) state).get();
+            }
+            return (RowState) state;
+        }
+
+        private void setState(RowState state) {
+            this.state = softRows ? new SoftRowState(state, clearedRows, this) : state;
+        }
+    }
+
+    private static final class RowState {
+        private final Object[] fields;
+        private final Object[] relations;
+        private final long lastUpdated = System.currentTimeMillis();
+
+        private RowState(Object[] fields, Object[] relations) {
+            this.fields = fields;
+            this.relations = relations;
+        }
+    }
+
+    private static final class SoftRowState extends SoftReference<RowState> {
+        private final CachedRow row;
+
+        private SoftRowState(RowState state, ReferenceQueue<RowState> queue, CachedRow row) {
+            super(state, queue);
+            this.row = row;
+        }
+    }
+}
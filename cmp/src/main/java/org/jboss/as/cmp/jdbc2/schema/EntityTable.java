@@ -118,11 +118,10 @@ public class EntityTable implements Table {
         dontFlushCreated = containerConf.isInsertAfterEjbPostCreate();
 
 
-        // TODO: jeb - make cache configurable
         int minCapacity;
         int maxCapacity;
         minCapacity = 1000;
-        maxCapacity = 10000;
+        maxCapacity = containerConf.getTableCacheMaxCapacity();
         int partitionsTotal;
         final boolean invalidable;
         final Element batchCommitStrategy;
@@ -131,7 +130,11 @@ public class EntityTable implements Table {
         batchCommitStrategy = null;
         invalidable = false;
 
-        cache = Cache.NONE;
+        if (maxCapacity > 0) {
+            cache = new ConcurrentTableCache(Math.min(minCapacity, maxCapacity), maxCapacity, containerConf.isTableCacheSoftRows());
+        } else {
+            cache = Cache.NONE;
+        }
 
         if (batchCommitStrategy == null) {
             insertStrategy = NON_BATCH_UPDATE;
@@ -356,6 +359,10 @@ public class EntityTable implements Table {
         }
     }
 
+    public Cache getCache() {
+        return cache;
+    }
+
     // Table implementation
 
     public int getTableId() {
@@ -0,0 +1,243 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.cmp.jdbc2.schema;
+
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.transaction.Transaction;
+
+import junit.framework.Assert;
+import org.junit.Test;
+
+/**
+ * Tests {@link ConcurrentTableCache}
+ */
+public class ConcurrentTableCacheTestCase {
+
+    private final Transaction tx1 = mock(Transaction.class);
+    private final Transaction tx2 = mock(Transaction.class);
+
+    @Test
+    public void testPutAndGet() {
+        final ConcurrentTableCache cache = new ConcurrentTableCache(10, 100, 4, false);
+        final Object[] fields = {"a", 1};
+        cache.put(tx1, "pk", fields, null);
+        fields[0] = "changed";
+
+        final Object[] cached = cache.getFields("pk");
+        Assert.assertEquals("a", cached[0]);
+        Assert.assertEquals(1, cached[1]);
+        Assert.assertNull(cache.getRelations("pk"));
+        cached[0] = "changed";
+        Assert.assertEquals("a", cache.getFields("pk")[0]);
+
+        // relations are kept when a put does not pass any
+        cache.put(tx1, "pk", new Object[]{"b", 2}, new Object[]{"r"});
+        cache.put(tx1, "pk", new Object[]{"c", 3}, null);
+        Assert.assertEquals("c", cache.getFields("pk")[0]);
+        Assert.assertEquals("r", cache.getRelations("pk")[0]);
+
+        Assert.assertNull(cache.getFields("other"));
+        Assert.assertEquals(3, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testLockReadsFieldsAndRelationsOfOneSnapshot() throws Exception {
+        final ConcurrentTableCache cache = new ConcurrentTableCache(10, 100, 4, true);
+        cache.put(tx1, "pk", new Object[]{"a"}, new Object[]{"r1"});
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<?> put;
+            cache.lock("pk");
+            try {
+                Assert.assertEquals("a", cache.getFields("pk")[0]);
+                put = executor.submit(new Runnable() {
+                    public void run() {
+                        cache.put(tx2, "pk", new Object[]{"b"}, new Object[]{"r2"});
+                    }
+                });
+                // the put waits for the lock
+                Thread.sleep(100);
+                Assert.assertFalse(put.isDone());
+                Assert.assertEquals("r1", cache.getRelations("pk")[0]);
+            } finally {
+                cache.unlock("pk");
+            }
+            put.get();
+            Assert.assertEquals("b", cache.getFields("pk")[0]);
+            Assert.assertEquals("r2", cache.getRelations("pk")[0]);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testLockForUpdate() throws Exception {
+        final ConcurrentTableCache cache = new ConcurrentTableCache(10, 100, 4, false);
+        cache.put(tx1, "pk", new Object[]{"a"}, null);
+        cache.lockForUpdate(tx1, "pk");
+
+        Assert.assertNull(cache.getFields("pk"));
+        Assert.assertTrue(cache.contains(tx1, "pk"));
+        Assert.assertFalse(cache.contains(tx2, "pk"));
+        try {
+            cache.lockForUpdate(tx2, "pk");
+            Assert.fail("the row is locked by another transaction");
+        } catch (Exception expected) {
+        }
+        try {
+            cache.remove(tx2, "pk");
+            Assert.fail("the row is locked by another transaction");
+        } catch (Cache.RemoveException expected) {
+        }
+
+        // a put of another transaction is ignored while the row is locked
+        cache.put(tx2, "pk", new Object[]{"b"}, null);
+        cache.put(tx1, "pk", new Object[]{"c"}, null);
+        Assert.assertEquals("c", cache.getFields("pk")[0]);
+        Assert.assertTrue(cache.contains(tx2, "pk"));
+
+        cache.lockForUpdate(tx2, "pk");
+        cache.releaseLock(tx2, "pk");
+        cache.remove(tx1, "pk");
+        Assert.assertFalse(cache.contains(tx1, "pk"));
+        try {
+            cache.remove(tx1, "pk");
+            Assert.fail("the row is no longer cached");
+        } catch (Cache.RemoveException expected) {
+        }
+    }
+
+    @Test
+    public void testEviction() {
+        // a single segment, so the capacity is exact
+        final ConcurrentTableCache cache = new ConcurrentTableCache(10, 9, 1, false);
+        for (int i = 0; i < 10; ++i) {
+            cache.put(tx1, i, new Object[]{i}, null);
+        }
+        Assert.assertEquals(10, cache.size());
+        Assert.assertEquals(0, cache.getEvictionCount());
+
+        // row 0 was read, so it gets a second chance
+        cache.getFields(0);
+        cache.put(tx1, 10, new Object[]{10}, null);
+        Assert.assertEquals(10, cache.size());
+        Assert.assertEquals(1, cache.getEvictionCount());
+        Assert.assertNotNull(cache.getFields(0));
+        Assert.assertNull(cache.getFields(1));
+
+        cache.setMaxCapacity(4);
+        cache.put(tx1, 11, new Object[]{11}, null);
+        Assert.assertEquals(5, cache.size());
+
+        cache.flush();
+        Assert.assertEquals(0, cache.size());
+        Assert.assertNull(cache.getFields(11));
+    }
+
+    @Test
+    public void testAgeOut() throws Exception {
+        final ConcurrentTableCache cache = new ConcurrentTableCache(10, 100, 4, false);
+        cache.put(tx1, "old", new Object[]{"a"}, null);
+        cache.put(tx1, "locked", new Object[]{"b"}, null);
+        cache.lockForUpdate(tx1, "locked");
+        Thread.sleep(10);
+        final long lastUpdated = System.currentTimeMillis();
+        Thread.sleep(10);
+        cache.put(tx1, "new", new Object[]{"c"}, null);
+
+        cache.ageOut(lastUpdated);
+        Assert.assertNull(cache.getFields("old"));
+        Assert.assertNotNull(cache.getFields("new"));
+        Assert.assertTrue(cache.contains(tx1, "locked"));
+        Assert.assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testSoftRows() {
+        final ConcurrentTableCache cache = new ConcurrentTableCache(10, 100, 4, true);
+        cache.put(tx1, "pk", new Object[]{"a"}, new Object[]{"r"});
+        cache.put(tx1, "pk", new Object[]{"b"}, null);
+        Assert.assertTrue(cache.isSoftRows());
+        Assert.assertEquals("b", cache.getFields("pk")[0]);
+        Assert.assertEquals("r", cache.getRelations("pk")[0]);
+    }
+
+    /**
+     * Readers must always see a complete row as it was put, never a mix of two puts.
+     */
+    @Test
+    public void testConcurrentReadsAndWrites() throws Exception {
+        final int threads = 16;
+        final int keys = 64;
+        final int iterations = 20000;
+        final ConcurrentTableCache cache = new ConcurrentTableCache(10, keys / 2, 4, false);
+        final List<String> failures = Collections.synchronizedList(new ArrayList<String>());
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<Void>> results = new ArrayList<Future<Void>>();
+            for (int i = 0; i < threads; i++) {
+                final int seed = i;
+                results.add(executor.submit(new Callable<Void>() {
+                    public Void call() throws Exception {
+                        start.await();
+                        for (int j = 0; j < iterations; j++) {
+                            final Integer key = (seed * 31 + j) % keys;
+                            if (j % 8 == 0) {
+                                final Integer value = seed * iterations + j;
+                                cache.put(tx1, key, new Object[]{key, value, value}, null);
+                            } else {
+                                final Object[] fields = cache.getFields(key);
+                                if (fields != null && (!key.equals(fields[0]) || !fields[1].equals(fields[2]))) {
+                                    failures.add("inconsistent row " + key + ": " + fields[1] + " " + fields[2]);
+                                }
+                            }
+                        }
+                        return null;
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Assert.assertTrue(failures.toString(), failures.isEmpty());
+        // each of the four segments may hold one row more than its share
+        Assert.assertTrue(String.valueOf(cache.size()), cache.size() <= keys / 2 + 4);
+        Assert.assertEquals(threads * iterations / 8 * 7, cache.getHitCount() + cache.getMissCount());
+    }
+}
@@ -30,6 +30,7 @@
     import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_ONLY;
     import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.REQUIRED;
     import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.TYPE;
+    import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.VALUE_TYPE;
 
     import java.util.Arrays;
     import java.util.HashMap;
@@ -116,6 +117,10 @@
                     if (plugin.getType(name) == long.class) {
                         modelType = ModelType.LONG;
                     }
+                    if (Map.class.isAssignableFrom(plugin.getType(name))) {
+                        modelType = ModelType.OBJECT;
+                        node.get(VALUE_TYPE).set(ModelType.LONG);
+                    }
                     node.get(TYPE).set(modelType);
                     node.get(REQUIRED).set(false);
                     node.get(ACCESS_TYPE, READ_ONLY).set(true);
@@ -23,6 +23,7 @@
 package org.jboss.as.connector.subsystems.common.pool;
 
 import java.util.List;
+import java.util.Map;
 import static org.jboss.as.connector.logging.ConnectorMessages.MESSAGES;
 import org.jboss.as.connector.util.ConnectorServices;
 import org.jboss.as.controller.OperationContext;
@@ -97,7 +98,16 @@ public abstract class PoolMetrics implements OperationStepHandler {
                         if (managementRepoService != null) {
                             try {
                                 final ModelNode result = context.getResult();
-                                result.set("" + stats.getValue(attributeName));
+                                final Object value = stats.getValue(attributeName);
+                                if (value instanceof Map) {
+                                    // histograms and the like, keyed by bucket
+                                    result.setEmptyObject();
+                                    for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                                        result.get(String.valueOf(entry.getKey())).set(String.valueOf(entry.getValue()));
+                                    }
+                                } else {
+                                    result.set("" + value);
+                                }
 
                             } catch (Exception e) {
                                throw new OperationFailedException(MESSAGES.failedToGetMetrics(e.getLocalizedMessage()));
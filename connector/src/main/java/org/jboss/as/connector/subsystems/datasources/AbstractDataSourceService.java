@@ -44,6 +44,7 @@ import org.jboss.jca.common.metadata.ds.DriverImpl;
 import org.jboss.jca.core.api.connectionmanager.ccm.CachedConnectionManager;
 import org.jboss.jca.core.api.management.ManagementRepository;
 import org.jboss.jca.core.connectionmanager.ConnectionManager;
+import org.jboss.jca.core.spi.statistics.StatisticsPlugin;
 import org.jboss.jca.core.spi.mdr.NotFoundException;
 import org.jboss.jca.core.spi.transaction.TransactionIntegration;
 import org.jboss.jca.deployers.DeployersLogger;
@@ -98,6 +99,9 @@ public abstract class AbstractDataSourceService implements Service<DataSource> {
 
     protected CommonDeployment deploymentMD;
     private javax.sql.DataSource sqlDataSource;
+    private volatile boolean adaptivePoolSizing;
+    private WaitTimeHistogram waitTimes;
+    private AdaptivePoolSizer adaptivePoolSizer;
 
     /**
      * The class loader to use. If null the Driver class loader will be used instead.
@@ -113,11 +117,18 @@ public abstract class AbstractDataSourceService implements Service<DataSource> {
         try {
             final ServiceContainer container = startContext.getController().getServiceContainer();
 
+            // picked up by the managed connection factory while deploying
+            waitTimes = adaptivePoolSizing ? new WaitTimeHistogram() : null;
             deploymentMD = getDeployer().deploy(container);
             if (deploymentMD.getCfs().length != 1) {
                 throw MESSAGES.cannotStartDs();
             }
             sqlDataSource = (javax.sql.DataSource) deploymentMD.getCfs()[0];
+            if (waitTimes != null) {
+                final org.jboss.jca.core.api.management.DataSource mgtDs = deploymentMD.getDataSources()[0];
+                adaptivePoolSizer = new AdaptivePoolSizer(jndiName, mgtDs.getPoolConfiguration(), mgtDs.getPool(), waitTimes);
+                adaptivePoolSizer.start();
+            }
             DS_DEPLOYER_LOGGER.debugf("Adding datasource: %s", deploymentMD.getCfJndiNames()[0]);
         } catch (Throwable t) {
             throw MESSAGES.deploymentError(t, jndiName);
@@ -127,6 +138,10 @@ public abstract class AbstractDataSourceService implements Service<DataSource> {
     protected abstract AS7DataSourceDeployer getDeployer() throws ValidateException ;
 
     public synchronized void stop(StopContext stopContext) {
+        if (adaptivePoolSizer != null) {
+            adaptivePoolSizer.stop();
+            adaptivePoolSizer = null;
+        }
         if (deploymentMD != null) {
 
             if (deploymentMD.getDataSources() != null && managementRepositoryValue.getValue() != null) {
@@ -149,6 +164,20 @@ public abstract class AbstractDataSourceService implements Service<DataSource> {
         return deploymentMD;
     }
 
+    /**
+     * Whether the pool is sized from the observed load on the next start, see {@link AdaptivePoolSizer}.
+     */
+    public void setAdaptivePoolSizing(final boolean adaptivePoolSizing) {
+        this.adaptivePoolSizing = adaptivePoolSizing;
+    }
+
+    /**
+     * @return the wait time and sizing statistics of the pool, or null if the pool is not sized adaptively
+     */
+    public synchronized StatisticsPlugin getAdaptivePoolStatistics() {
+        return adaptivePoolSizer == null ? null : adaptivePoolSizer.getStatistics();
+    }
+
     public synchronized DataSource getValue() throws IllegalStateException, IllegalArgumentException {
         return sqlDataSource;
     }
@@ -421,7 +450,7 @@ public abstract class AbstractDataSourceService implements Service<DataSource> {
         @Override
         protected ManagedConnectionFactory createMcf(org.jboss.jca.common.api.metadata.ds.DataSource arg0, String arg1,
                 ClassLoader arg2) throws NotFoundException, DeployException {
-            final LocalManagedConnectionFactory managedConnectionFactory = new LocalManagedConnectionFactory();
+            final LocalManagedConnectionFactory managedConnectionFactory = new MyLocalMCF();
             managedConnectionFactory.setUserTransactionJndiName("java:comp/UserTransaction");
             managedConnectionFactory.setDriverClass(dataSourceConfig.getDriverClass());
 
@@ -568,6 +597,15 @@ public abstract class AbstractDataSourceService implements Service<DataSource> {
 
     }
 
+    /**
+     * Times the connection requests of the data-source the factory creates when the pool is sized adaptively. The
+     * data-source itself, which is what gets bound, stays the one of the adapter.
+     */
+    private javax.resource.spi.ConnectionManager timed(final javax.resource.spi.ConnectionManager cm) {
+        final WaitTimeHistogram waitTimes = this.waitTimes;
+        return waitTimes == null ? cm : new TimedConnectionManager(cm, waitTimes);
+    }
+
     private class MyXaMCF extends XAManagedConnectionFactory {
 
         private static final long serialVersionUID = 4876371551002746953L;
@@ -576,5 +614,19 @@ public abstract class AbstractDataSourceService implements Service<DataSource> {
             xaProps.putAll(inputProperties);
         }
 
+        @Override
+        public Object createConnectionFactory(javax.resource.spi.ConnectionManager cm) throws ResourceException {
+            return super.createConnectionFactory(timed(cm));
+        }
+    }
+
+    private class MyLocalMCF extends LocalManagedConnectionFactory {
+
+        private static final long serialVersionUID = -1738237411474373950L;
+
+        @Override
+        public Object createConnectionFactory(javax.resource.spi.ConnectionManager cm) throws ResourceException {
+            return super.createConnectionFactory(timed(cm));
+        }
     }
 }
@@ -0,0 +1,274 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.connector.subsystems.datasources;
+
+import static org.jboss.as.connector.logging.ConnectorLogger.DS_DEPLOYER_LOGGER;
+
+import java.security.AccessController;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.jca.core.api.connectionmanager.pool.Pool;
+import org.jboss.jca.core.api.connectionmanager.pool.PoolConfiguration;
+import org.jboss.jca.core.spi.statistics.StatisticsPlugin;
+import org.jboss.threads.JBossThreadFactory;
+
+/**
+ * Sizes the pool of a data-source from the load it observes, within the bounds of its configuration.
+ * <p/>
+ * Every second the number of connections in use is sampled, and every {@link #SAMPLES_PER_ADJUSTMENT} samples the
+ * minimum size of the pool is moved towards the 95th percentile of those samples plus some headroom. It grows at
+ * once, by at least a step, when the 95th percentile of the time callers waited for a connection during the interval
+ * exceeds {@link #WAIT_TIME_THRESHOLD_MILLIS}; it shrinks by at most a step per interval. The step is a quarter of
+ * the range between the configured minimum and maximum sizes.
+ * <p/>
+ * The sizer only moves the minimum size of the pool, with prefill enabled while it runs; creating and destroying the
+ * connections is left to the pool, so the sizer never competes with callers for connections. When the pool went
+ * completely idle it is flushed, so that it drops back to the configured minimum.
+ * <p/>
+ * The configured minimum and maximum sizes are read from the {@link PoolConfiguration} the management model updates,
+ * so changing them at runtime moves the bounds.
+ */
+final class AdaptivePoolSizer {
+
+    /**
+     * The pool statistic holding the number of connections that can still be checked out
+     */
+    static final String AVAILABLE_COUNT = "AvailableCount";
+
+    static final String WAIT_TIME_HISTOGRAM = "WaitTimeHistogram";
+    static final String WAIT_TIME_MEDIAN = "WaitTimeMedian";
+    static final String WAIT_TIME_95TH_PERCENTILE = "WaitTime95thPercentile";
+    static final String WAIT_TIME_99TH_PERCENTILE = "WaitTime99thPercentile";
+    static final String IN_USE_95TH_PERCENTILE = "InUse95thPercentile";
+    static final String ADAPTIVE_MIN_POOL_SIZE = "AdaptiveMinPoolSize";
+
+    static final long WAIT_TIME_THRESHOLD_MILLIS = 10;
+    private static final long SAMPLE_INTERVAL_MILLIS = 1000;
+    private static final int SAMPLES_PER_ADJUSTMENT = 30;
+    private static final double PERCENTILE = 0.95;
+
+    private final String name;
+    private final PoolConfiguration poolConfiguration;
+    private final Pool pool;
+    private final WaitTimeHistogram waitTimes;
+    private final Statistics statistics = new Statistics();
+
+    /**
+     * The samples of the current interval, only accessed by the sizer thread
+     */
+    private final int[] inUse = new int[SAMPLES_PER_ADJUSTMENT];
+    private int samples;
+    private int floor;
+    private boolean prefill;
+
+    private volatile int minSize;
+    private volatile int inUsePercentile;
+    private ScheduledExecutorService executor;
+
+    AdaptivePoolSizer(final String name, final PoolConfiguration poolConfiguration, final Pool pool, final WaitTimeHistogram waitTimes) {
+        this.name = name;
+        this.poolConfiguration = poolConfiguration;
+        this.pool = pool;
+        this.waitTimes = waitTimes;
+    }
+
+    synchronized void start() {
+        floor = poolConfiguration.getMinSize();
+        minSize = floor;
+        prefill = poolConfiguration.isPrefill();
+        poolConfiguration.setPrefill(true);
+        executor = Executors.newSingleThreadScheduledExecutor(new JBossThreadFactory(new ThreadGroup("AdaptivePoolSizer " + name),
+                Boolean.TRUE, null, "%G - %t", null, null, AccessController.getContext()));
+        executor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                sample();
+            }
+        }, SAMPLE_INTERVAL_MILLIS, SAMPLE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    synchronized void stop() {
+        executor.shutdownNow();
+        executor = null;
+        if (poolConfiguration.getMinSize() == minSize) {
+            poolConfiguration.setMinSize(floor);
+        }
+        poolConfiguration.setPrefill(prefill);
+    }
+
+    StatisticsPlugin getStatistics() {
+        return statistics;
+    }
+
+    private void sample() {
+        try {
+            inUse[samples++] = currentInUse();
+            if (samples == inUse.length) {
+                samples = 0;
+                adjust();
+            }
+        } catch (Throwable t) {
+            // keep sampling, the next interval may do better
+            DS_DEPLOYER_LOGGER.debugf(t, "Adaptive sizing of the pool of %s failed", name);
+        }
+    }
+
+    private int currentInUse() {
+        final Object available = pool.getStatistics().getValue(AVAILABLE_COUNT);
+        return available instanceof Number ? Math.max(0, poolConfiguration.getMaxSize() - ((Number) available).intValue()) : 0;
+    }
+
+    void adjust() {
+        final long[] waits = waitTimes.drainInterval();
+        long requests = 0;
+        for (long count : waits) {
+            requests += count;
+        }
+        final long waitTime = WaitTimeHistogram.percentile(waits, PERCENTILE);
+        final int busy = percentile(inUse, PERCENTILE);
+        inUsePercentile = busy;
+
+        final int current = poolConfiguration.getMinSize();
+        if (current != minSize) {
+            // min-pool-size was written through management
+            floor = current;
+        }
+        final int target = target(floor, poolConfiguration.getMaxSize(), current, busy, waitTime);
+        minSize = target;
+
+        if (target != current) {
+            DS_DEPLOYER_LOGGER.debugf("Adaptive sizing of the pool of %s: %d in use, %d ms wait time, minimum size %d -> %d",
+                    name, busy, waitTime, current, target);
+            poolConfiguration.setMinSize(target);
+        }
+        if (target < current && target == floor && requests == 0 && busy == 0) {
+            // the pool went idle, release the connections it kept for the load right away
+            pool.flush();
+        }
+    }
+
+    /**
+     * Decides the next minimum size of the pool.
+     *
+     * @param floor    the configured minimum size
+     * @param max      the configured maximum size
+     * @param current  the current minimum size
+     * @param busy     the percentile of the connections in use during the last interval
+     * @param waitTime the percentile of the time callers waited for a connection during the last interval
+     * @return the new minimum size
+     */
+    static int target(final int floor, final int max, final int current, final int busy, final long waitTime) {
+        final int step = Math.max(1, (max - floor) / 4);
+        // headroom above the connections in use, none once the pool is idle
+        int target = busy == 0 ? floor : busy + step;
+        if (waitTime > WAIT_TIME_THRESHOLD_MILLIS) {
+            target = Math.max(target, current + step);
+        } else if (target < current) {
+            target = Math.max(target, current - step);
+        }
+        return Math.max(floor, Math.min(max, target));
+    }
+
+    /**
+     * @return the given percentile of the samples, which are left as they are
+     */
+    static int percentile(final int[] samples, final double percentile) {
+        final int[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) Math.ceil(sorted.length * percentile) - 1];
+    }
+
+    /**
+     * The wait time histogram and sizing decisions, published next to the statistics of the pool.
+     */
+    private final class Statistics implements StatisticsPlugin {
+
+        private final Set<String> names = Collections.unmodifiableSet(new LinkedHashSet<String>(Arrays.asList(WAIT_TIME_HISTOGRAM,
+                WAIT_TIME_MEDIAN, WAIT_TIME_95TH_PERCENTILE, WAIT_TIME_99TH_PERCENTILE, IN_USE_95TH_PERCENTILE, ADAPTIVE_MIN_POOL_SIZE)));
+
+        public Set<String> getNames() {
+            return names;
+        }
+
+        public Class getType(final String name) {
+            if (WAIT_TIME_HISTOGRAM.equals(name)) {
+                return Map.class;
+            } else if (IN_USE_95TH_PERCENTILE.equals(name) || ADAPTIVE_MIN_POOL_SIZE.equals(name)) {
+                return int.class;
+            } else if (names.contains(name)) {
+                return long.class;
+            }
+            return null;
+        }
+
+        public String getDescription(final String name) {
+            return getDescription(name, Locale.getDefault());
+        }
+
+        public String getDescription(final String name, final Locale locale) {
+            try {
+                return ResourceBundle.getBundle(DataSourcesSubsystemProviders.RESOURCE_NAME, locale).getString("statistics." + name);
+            } catch (MissingResourceException e) {
+                return name;
+            }
+        }
+
+        public Object getValue(final String name) {
+            if (WAIT_TIME_HISTOGRAM.equals(name)) {
+                return waitTimes.toMap();
+            } else if (WAIT_TIME_MEDIAN.equals(name)) {
+                return WaitTimeHistogram.percentile(waitTimes.getTotals(), 0.5);
+            } else if (WAIT_TIME_95TH_PERCENTILE.equals(name)) {
+                return WaitTimeHistogram.percentile(waitTimes.getTotals(), 0.95);
+            } else if (WAIT_TIME_99TH_PERCENTILE.equals(name)) {
+                return WaitTimeHistogram.percentile(waitTimes.getTotals(), 0.99);
+            } else if (IN_USE_95TH_PERCENTILE.equals(name)) {
+                return inUsePercentile;
+            } else if (ADAPTIVE_MIN_POOL_SIZE.equals(name)) {
+                return minSize;
+            }
+            return null;
+        }
+
+        public boolean isEnabled() {
+            return waitTimes.isEnabled();
+        }
+
+        public void setEnabled(final boolean value) {
+            waitTimes.setEnabled(value);
+        }
+
+        public void clear() {
+            waitTimes.clear();
+        }
+    }
+}
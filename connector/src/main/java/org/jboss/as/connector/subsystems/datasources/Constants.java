@@ -134,6 +134,8 @@ class Constants {
 
     private static final String SPY_NAME = "spy";
 
+    private static final String POOL_ADAPTIVE_SIZING_NAME = "pool-adaptive-sizing";
+
     private static final String USE_CCM_NAME = "use-ccm";
 
     private static final String STALECONNECTIONCHECKERCLASSNAME_NAME = "stale-connection-checker-class-name";
@@ -280,6 +282,8 @@ class Constants {
 
     static SimpleAttributeDefinition SPY = new SimpleAttributeDefinition(SPY_NAME, DataSource.Attribute.SPY.getLocalName(), new ModelNode().set(Defaults.SPY), ModelType.BOOLEAN, true, true, MeasurementUnit.NONE);
 
+    static SimpleAttributeDefinition POOL_ADAPTIVE_SIZING = new SimpleAttributeDefinition(POOL_ADAPTIVE_SIZING_NAME, "adaptive-sizing", new ModelNode().set(false), ModelType.BOOLEAN, true, true, MeasurementUnit.NONE);
+
     static SimpleAttributeDefinition USE_CCM = new SimpleAttributeDefinition(USE_CCM_NAME, DataSource.Attribute.USE_CCM.getLocalName(), new ModelNode().set(Defaults.USE_CCM), ModelType.BOOLEAN, true, true, MeasurementUnit.NONE);
 
     static SimpleAttributeDefinition XADATASOURCECLASS = new SimpleAttributeDefinition(XADATASOURCECLASS_NAME, XaDataSource.Tag.XA_DATASOURCE_CLASS.getLocalName(),  new ModelNode(), ModelType.STRING, true, true, MeasurementUnit.NONE);
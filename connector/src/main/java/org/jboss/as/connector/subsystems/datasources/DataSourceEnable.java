@@ -46,6 +46,7 @@ import java.util.List;
 import static org.jboss.as.connector.logging.ConnectorLogger.SUBSYSTEM_DATASOURCES_LOGGER;
 import static org.jboss.as.connector.logging.ConnectorMessages.MESSAGES;
 import static org.jboss.as.connector.subsystems.datasources.Constants.JNDINAME;
+import static org.jboss.as.connector.subsystems.datasources.Constants.POOL_ADAPTIVE_SIZING;
 import static org.jboss.as.connector.subsystems.datasources.DataSourceModelNodeUtil.from;
 import static org.jboss.as.connector.subsystems.datasources.DataSourceModelNodeUtil.xaFrom;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ENABLED;
@@ -191,6 +192,8 @@ public class DataSourceEnable implements OperationStepHandler {
 
         if (dataSourceController != null) {
             if (!ServiceController.State.UP.equals(dataSourceController.getState())) {
+                ((AbstractDataSourceService) dataSourceController.getService())
+                        .setAdaptivePoolSizing(POOL_ADAPTIVE_SIZING.resolveModelAttribute(context, model).asBoolean());
                 dataSourceController.setMode(ServiceController.Mode.ACTIVE);
             } else {
                 throw new OperationFailedException(new ModelNode().set(MESSAGES.serviceAlreadyStarted("Data-source", dsName)));
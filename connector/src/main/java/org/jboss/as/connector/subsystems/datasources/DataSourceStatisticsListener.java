@@ -38,12 +38,18 @@ public class DataSourceStatisticsListener extends AbstractServiceListener<Object
         switch (transition) {
             case STARTING_to_UP: {
 
-                CommonDeployment deploymentMD = ((AbstractDataSourceService) controller.getService()).getDeploymentMD();
+                final AbstractDataSourceService service = (AbstractDataSourceService) controller.getService();
+                CommonDeployment deploymentMD = service.getDeploymentMD();
 
                 StatisticsPlugin jdbcStats = deploymentMD.getDataSources()[0].getStatistics();
                 StatisticsPlugin poolStats = deploymentMD.getDataSources()[0].getPool().getStatistics();
+                StatisticsPlugin adaptiveStats = service.getAdaptivePoolStatistics();
+                StatisticsPlugin[] poolPlugins = adaptiveStats == null ? new StatisticsPlugin[] { poolStats } : new StatisticsPlugin[] { poolStats, adaptiveStats };
                 int jdbcStatsSize = jdbcStats.getNames().size();
-                int poolStatsSize = poolStats.getNames().size();
+                int poolStatsSize = 0;
+                for (StatisticsPlugin plugin : poolPlugins) {
+                    poolStatsSize += plugin.getNames().size();
+                }
                 if (jdbcStatsSize > 0 || poolStatsSize > 0) {
                     ManagementResourceRegistration subRegistration = registration.isAllowsOverride() ? registration.registerOverrideModel(dsName, DataSourcesSubsystemProviders.OVERRIDE_DS_DESC) : registration;
 
@@ -60,12 +66,14 @@ public class DataSourceStatisticsListener extends AbstractServiceListener<Object
                     }
 
                     if (poolStatsSize > 0) {
-                        ManagementResourceRegistration poolRegistration = subRegistration.registerSubModel(POOL_STATISTICS, new StatisticsDescriptionProvider(DataSourcesSubsystemProviders.RESOURCE_NAME, "statistics", poolStats));
+                        ManagementResourceRegistration poolRegistration = subRegistration.registerSubModel(POOL_STATISTICS, new StatisticsDescriptionProvider(DataSourcesSubsystemProviders.RESOURCE_NAME, "statistics", poolPlugins));
                         poolRegistration.setRuntimeOnly(true);
-                        poolRegistration.registerOperationHandler("clear-statistics", new ClearStatisticsHandler(poolStats), DataSourcesSubsystemProviders.CLEAR_STATISTICS_DESC, false);
+                        poolRegistration.registerOperationHandler("clear-statistics", new ClearStatisticsHandler(poolPlugins), DataSourcesSubsystemProviders.CLEAR_STATISTICS_DESC, false);
 
-                        for (String statName : poolStats.getNames()) {
-                            poolRegistration.registerMetric(statName, new PoolMetrics.ParametrizedPoolMetricsHandler(poolStats));
+                        for (StatisticsPlugin plugin : poolPlugins) {
+                            for (String statName : plugin.getNames()) {
+                                poolRegistration.registerMetric(statName, new PoolMetrics.ParametrizedPoolMetricsHandler(plugin));
+                            }
                         }
 
                         resource.registerChild(POOL_STATISTICS, new PlaceholderResource.PlaceholderResourceEntry(JDBC_STATISTICS));
@@ -63,6 +63,7 @@ import static org.jboss.as.connector.subsystems.datasources.Constants.NOTXSEPARA
 import static org.jboss.as.connector.subsystems.datasources.Constants.NO_RECOVERY;
 import static org.jboss.as.connector.subsystems.datasources.Constants.PAD_XID;
 import static org.jboss.as.connector.subsystems.datasources.Constants.PASSWORD;
+import static org.jboss.as.connector.subsystems.datasources.Constants.POOL_ADAPTIVE_SIZING;
 import static org.jboss.as.connector.subsystems.datasources.Constants.PREPAREDSTATEMENTSCACHESIZE;
 import static org.jboss.as.connector.subsystems.datasources.Constants.QUERYTIMEOUT;
 import static org.jboss.as.connector.subsystems.datasources.Constants.REAUTHPLUGIN_CLASSNAME;
@@ -449,7 +450,8 @@ public class DataSourcesExtension implements Extension {
                         MAX_POOL_SIZE.isMarshallable(dataSourceNode) ||
                         POOL_PREFILL.isMarshallable(dataSourceNode) ||
                         POOL_USE_STRICT_MIN.isMarshallable(dataSourceNode) ||
-                        POOL_FLUSH_STRATEGY.isMarshallable(dataSourceNode);
+                        POOL_FLUSH_STRATEGY.isMarshallable(dataSourceNode) ||
+                        POOL_ADAPTIVE_SIZING.isMarshallable(dataSourceNode);
                 if (isXADataSource) {
                     poolRequired = poolRequired
                             || SAME_RM_OVERRIDE.isMarshallable(dataSourceNode) ||
@@ -466,6 +468,7 @@ public class DataSourcesExtension implements Extension {
                     POOL_PREFILL.marshallAsElement(dataSourceNode, writer);
                     POOL_USE_STRICT_MIN.marshallAsElement(dataSourceNode, writer);
                     POOL_FLUSH_STRATEGY.marshallAsElement(dataSourceNode, writer);
+                    POOL_ADAPTIVE_SIZING.marshallAsElement(dataSourceNode, writer);
                     if (dataSourceNode.get(ALLOW_MULTIPLE_USERS.getName()).asBoolean(false)) {
                         writer.writeEmptyElement(ALLOW_MULTIPLE_USERS.getXmlName());
                     }
@@ -63,6 +63,7 @@ import static org.jboss.as.connector.subsystems.datasources.Constants.NOTXSEPARA
 import static org.jboss.as.connector.subsystems.datasources.Constants.NO_RECOVERY;
 import static org.jboss.as.connector.subsystems.datasources.Constants.PAD_XID;
 import static org.jboss.as.connector.subsystems.datasources.Constants.PASSWORD;
+import static org.jboss.as.connector.subsystems.datasources.Constants.POOL_ADAPTIVE_SIZING;
 import static org.jboss.as.connector.subsystems.datasources.Constants.POOLNAME_NAME;
 import static org.jboss.as.connector.subsystems.datasources.Constants.PREPAREDSTATEMENTSCACHESIZE;
 import static org.jboss.as.connector.subsystems.datasources.Constants.QUERYTIMEOUT;
@@ -740,6 +741,11 @@ public class DsParser extends AbstractParser {
                     break;
                 }
                 case START_ELEMENT: {
+                    if (POOL_ADAPTIVE_SIZING.getXmlName().equals(reader.getLocalName())) {
+                        String value = rawElementText(reader);
+                        POOL_ADAPTIVE_SIZING.parseAndSetParameter(value, operation, reader);
+                        break;
+                    }
                     switch (DsPool.Tag.forName(reader.getLocalName())) {
                         case MAX_POOL_SIZE: {
                             String value = rawElementText(reader);
@@ -802,6 +808,11 @@ public class DsParser extends AbstractParser {
                     break;
                 }
                 case START_ELEMENT: {
+                    if (POOL_ADAPTIVE_SIZING.getXmlName().equals(reader.getLocalName())) {
+                        String value = rawElementText(reader);
+                        POOL_ADAPTIVE_SIZING.parseAndSetParameter(value, operation, reader);
+                        break;
+                    }
                     switch (DsXaPool.Tag.forName(reader.getLocalName())) {
                         case MAX_POOL_SIZE: {
                             String value = rawElementText(reader);
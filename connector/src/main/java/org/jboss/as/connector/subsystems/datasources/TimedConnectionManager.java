@@ -0,0 +1,57 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.connector.subsystems.datasources;
+
+import javax.resource.ResourceException;
+import javax.resource.spi.ConnectionManager;
+import javax.resource.spi.ConnectionRequestInfo;
+import javax.resource.spi.ManagedConnectionFactory;
+
+/**
+ * The connection manager given to the data-source of a pool which is sized adaptively. It records the time every
+ * caller waited for a connection in the {@link WaitTimeHistogram} the {@link AdaptivePoolSizer} reads.
+ */
+final class TimedConnectionManager implements ConnectionManager {
+
+    private static final long serialVersionUID = 6270487245633286468L;
+
+    private final ConnectionManager delegate;
+    // only meaningful on the server that created it
+    private final transient WaitTimeHistogram waitTimes;
+
+    TimedConnectionManager(final ConnectionManager delegate, final WaitTimeHistogram waitTimes) {
+        this.delegate = delegate;
+        this.waitTimes = waitTimes;
+    }
+
+    @Override
+    public Object allocateConnection(final ManagedConnectionFactory mcf, final ConnectionRequestInfo cxRequestInfo) throws ResourceException {
+        final long start = System.nanoTime();
+        try {
+            return delegate.allocateConnection(mcf, cxRequestInfo);
+        } finally {
+            if (waitTimes != null) {
+                waitTimes.record((System.nanoTime() - start) / 1000000L);
+            }
+        }
+    }
+}
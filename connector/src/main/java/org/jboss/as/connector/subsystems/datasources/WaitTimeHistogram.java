@@ -0,0 +1,135 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.connector.subsystems.datasources;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of the time callers waited for a connection, with fixed, roughly logarithmic buckets.
+ * <p/>
+ * Two sets of counters are kept: the totals, published as runtime statistics, and those of the current interval,
+ * drained by the {@link AdaptivePoolSizer} at each adjustment.
+ */
+final class WaitTimeHistogram {
+
+    /**
+     * The inclusive upper bounds of the buckets in milliseconds, the last bucket holds everything above
+     */
+    static final long[] BOUNDS = { 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000 };
+
+    private final AtomicLongArray totals = new AtomicLongArray(BOUNDS.length + 1);
+    private final AtomicLongArray interval = new AtomicLongArray(BOUNDS.length + 1);
+    private volatile boolean enabled = true;
+
+    void record(final long millis) {
+        if (!enabled) {
+            return;
+        }
+        final int bucket = bucket(millis);
+        totals.incrementAndGet(bucket);
+        interval.incrementAndGet(bucket);
+    }
+
+    static int bucket(final long millis) {
+        for (int i = 0; i < BOUNDS.length; i++) {
+            if (millis <= BOUNDS[i]) {
+                return i;
+            }
+        }
+        return BOUNDS.length;
+    }
+
+    /**
+     * @return the counts of the current interval, which are reset
+     */
+    long[] drainInterval() {
+        final long[] counts = new long[BOUNDS.length + 1];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = interval.getAndSet(i, 0);
+        }
+        return counts;
+    }
+
+    long[] getTotals() {
+        final long[] counts = new long[BOUNDS.length + 1];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = totals.get(i);
+        }
+        return counts;
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    void clear() {
+        for (int i = 0; i < BOUNDS.length + 1; i++) {
+            totals.set(i, 0);
+        }
+    }
+
+    /**
+     * @return the total counts keyed by bucket, e.g. {@code "<=5ms"}
+     */
+    Map<String, Long> toMap() {
+        final long[] counts = getTotals();
+        final Map<String, Long> result = new LinkedHashMap<String, Long>();
+        for (int i = 0; i < BOUNDS.length; i++) {
+            result.put("<=" + BOUNDS[i] + "ms", counts[i]);
+        }
+        result.put(">" + BOUNDS[BOUNDS.length - 1] + "ms", counts[BOUNDS.length]);
+        return result;
+    }
+
+    /**
+     * Estimates a percentile as the upper bound of the bucket it falls in. The unbounded last bucket is reported as
+     * twice the largest bound.
+     *
+     * @param counts     the counts per bucket
+     * @param percentile the percentile, between 0 and 1
+     * @return the estimated wait time in milliseconds, 0 if nothing was recorded
+     */
+    static long percentile(final long[] counts, final double percentile) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        final long rank = (long) Math.ceil(total * percentile);
+        long seen = 0;
+        for (int i = 0; i < BOUNDS.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return BOUNDS[i];
+            }
+        }
+        return 2 * BOUNDS[BOUNDS.length - 1];
+    }
+}
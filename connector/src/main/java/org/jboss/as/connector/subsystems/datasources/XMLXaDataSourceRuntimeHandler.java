@@ -380,6 +380,9 @@ public class XMLXaDataSourceRuntimeHandler extends AbstractXMLDataSourceRuntimeH
                 return;
             }
             setStringIfNotNull(context, dataSource.getTransactionIsolation().name());
+        } else if (attributeName.equals(Constants.POOL_ADAPTIVE_SIZING.getName())) {
+            // the pools of deployed data-sources are not sized adaptively
+            setBooleanIfNotNull(context, Boolean.FALSE);
         } else if (attributeName.equals(Constants.SPY.getName())) {
             setBooleanIfNotNull(context, dataSource.isSpy());
         } else if (attributeName.equals(Constants.USE_CCM.getName())) {
@@ -0,0 +1,83 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.connector.subsystems.datasources;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests the sizing decisions of {@link AdaptivePoolSizer}
+ */
+public class AdaptivePoolSizerTestCase {
+
+    private static final long FAST = 1;
+    private static final long SLOW = AdaptivePoolSizer.WAIT_TIME_THRESHOLD_MILLIS + 1;
+
+    @Test
+    public void testHeadroomAboveConnectionsInUse() {
+        // min 4, max 20: a step is 4 connections
+        assertEquals(14, AdaptivePoolSizer.target(4, 20, 14, 10, FAST));
+        assertEquals(16, AdaptivePoolSizer.target(4, 20, 12, 12, FAST));
+    }
+
+    @Test
+    public void testGrowsAtLeastAStepWhenCallersWait() {
+        // the connections in use do not call for more, but callers waited too long
+        assertEquals(12, AdaptivePoolSizer.target(4, 20, 8, 2, SLOW));
+        assertEquals(20, AdaptivePoolSizer.target(4, 20, 18, 2, SLOW));
+    }
+
+    @Test
+    public void testShrinksOneStepAtATime() {
+        assertEquals(16, AdaptivePoolSizer.target(4, 20, 20, 2, FAST));
+        assertEquals(5, AdaptivePoolSizer.target(4, 20, 8, 1, FAST));
+    }
+
+    @Test
+    public void testIdlePoolDropsTowardsConfiguredMinimum() {
+        assertEquals(4, AdaptivePoolSizer.target(4, 20, 6, 0, FAST));
+        assertEquals(4, AdaptivePoolSizer.target(4, 20, 4, 0, FAST));
+    }
+
+    @Test
+    public void testStaysWithinConfiguredBounds() {
+        assertEquals(20, AdaptivePoolSizer.target(4, 20, 20, 20, SLOW));
+        assertEquals(5, AdaptivePoolSizer.target(5, 5, 5, 5, SLOW));
+        // the step is at least one connection
+        assertEquals(3, AdaptivePoolSizer.target(0, 3, 2, 0, SLOW));
+    }
+
+    @Test
+    public void testPercentile() {
+        final int[] samples = new int[30];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = samples.length - i;
+        }
+        final int[] copy = samples.clone();
+        assertEquals(29, AdaptivePoolSizer.percentile(samples, 0.95));
+        assertEquals(15, AdaptivePoolSizer.percentile(samples, 0.5));
+        assertEquals(30, AdaptivePoolSizer.percentile(samples, 1.0));
+        assertArrayEquals(copy, samples);
+    }
+}
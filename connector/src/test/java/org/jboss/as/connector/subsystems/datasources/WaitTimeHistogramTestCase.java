@@ -0,0 +1,109 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.connector.subsystems.datasources;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link WaitTimeHistogram}
+ */
+public class WaitTimeHistogramTestCase {
+
+    @Test
+    public void testBuckets() {
+        assertEquals(0, WaitTimeHistogram.bucket(0));
+        assertEquals(0, WaitTimeHistogram.bucket(1));
+        assertEquals(1, WaitTimeHistogram.bucket(2));
+        assertEquals(2, WaitTimeHistogram.bucket(3));
+        assertEquals(3, WaitTimeHistogram.bucket(10));
+        assertEquals(4, WaitTimeHistogram.bucket(11));
+        assertEquals(WaitTimeHistogram.BOUNDS.length - 1, WaitTimeHistogram.bucket(10000));
+        assertEquals(WaitTimeHistogram.BOUNDS.length, WaitTimeHistogram.bucket(10001));
+    }
+
+    @Test
+    public void testPercentile() {
+        final long[] counts = new long[WaitTimeHistogram.BOUNDS.length + 1];
+        assertEquals(0, WaitTimeHistogram.percentile(counts, 0.95));
+
+        // 90 fast requests, 9 at 50ms and one very slow one
+        counts[WaitTimeHistogram.bucket(1)] = 90;
+        counts[WaitTimeHistogram.bucket(50)] = 9;
+        counts[WaitTimeHistogram.bucket(60000)] = 1;
+        assertEquals(1, WaitTimeHistogram.percentile(counts, 0.5));
+        assertEquals(1, WaitTimeHistogram.percentile(counts, 0.8));
+        assertEquals(50, WaitTimeHistogram.percentile(counts, 0.95));
+        assertEquals(50, WaitTimeHistogram.percentile(counts, 0.99));
+        assertEquals(20000, WaitTimeHistogram.percentile(counts, 1.0));
+    }
+
+    @Test
+    public void testDrainInterval() {
+        final WaitTimeHistogram histogram = new WaitTimeHistogram();
+        histogram.record(1);
+        histogram.record(15);
+        histogram.record(15);
+
+        final long[] interval = histogram.drainInterval();
+        assertEquals(1, interval[WaitTimeHistogram.bucket(1)]);
+        assertEquals(2, interval[WaitTimeHistogram.bucket(15)]);
+        assertArrayEquals(new long[WaitTimeHistogram.BOUNDS.length + 1], histogram.drainInterval());
+
+        // the totals are kept across intervals
+        histogram.record(15);
+        assertEquals(3, histogram.getTotals()[WaitTimeHistogram.bucket(15)]);
+        assertEquals(1, histogram.drainInterval()[WaitTimeHistogram.bucket(15)]);
+    }
+
+    @Test
+    public void testClearAndDisable() {
+        final WaitTimeHistogram histogram = new WaitTimeHistogram();
+        histogram.record(5);
+        histogram.clear();
+        assertArrayEquals(new long[WaitTimeHistogram.BOUNDS.length + 1], histogram.getTotals());
+        // clearing the statistics does not hide the load of the current interval from the sizer
+        assertEquals(1, histogram.drainInterval()[WaitTimeHistogram.bucket(5)]);
+
+        histogram.setEnabled(false);
+        histogram.record(5);
+        assertArrayEquals(new long[WaitTimeHistogram.BOUNDS.length + 1], histogram.getTotals());
+        assertArrayEquals(new long[WaitTimeHistogram.BOUNDS.length + 1], histogram.drainInterval());
+    }
+
+    @Test
+    public void testToMap() {
+        final WaitTimeHistogram histogram = new WaitTimeHistogram();
+        histogram.record(3);
+        histogram.record(60000);
+
+        final Map<String, Long> map = histogram.toMap();
+        assertEquals(WaitTimeHistogram.BOUNDS.length + 1, map.size());
+        assertEquals(Long.valueOf(1), map.get("<=5ms"));
+        assertEquals(Long.valueOf(0), map.get("<=1ms"));
+        assertEquals(Long.valueOf(1), map.get(">10000ms"));
+    }
+}
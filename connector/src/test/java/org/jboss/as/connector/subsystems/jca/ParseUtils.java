@@ -55,6 +55,7 @@ public class ParseUtils {
         params.put("pool-prefill","true");
         params.put("pool-use-strict-min","true");
         params.put("flush-strategy","EntirePool");
+        params.put("pool-adaptive-sizing","true");
         //security
         params.put("user-name","sa");
         params.put("password","sa");
@@ -0,0 +1,148 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.controller.client.helpers;
+
+import static org.jboss.as.controller.client.ControllerClientMessages.MESSAGES;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+import org.jboss.as.controller.client.ModelControllerClient;
+import org.jboss.as.controller.client.Operation;
+import org.jboss.as.controller.client.OperationBuilder;
+import org.jboss.as.controller.client.OperationMessageHandler;
+import org.jboss.dmr.ModelNode;
+import org.jboss.threads.AsyncFuture;
+
+/**
+ * Executes operations over a {@link ModelControllerClient} without waiting for the result of one operation before
+ * sending the next.
+ * <p/>
+ * Every request on the management channel carries its own request id, and the controller answers each one as soon as
+ * it completes, so several operations can be in flight at the same time and their responses may arrive in any order.
+ * A pipeline keeps up to {@code maxInFlight} operations outstanding; {@link #submit(ModelNode)} only blocks once that
+ * window is full. A client issuing many small reads therefore pays roughly one round trip per window instead of one
+ * per operation.
+ * <p/>
+ * Operations in a pipeline may be executed concurrently by the controller, so it should only be used for operations
+ * which do not depend on each other, e.g. reads.
+ */
+public class OperationPipeline {
+
+    public static final int DEFAULT_MAX_IN_FLIGHT = 64;
+
+    private final ModelControllerClient client;
+    private final Semaphore window;
+
+    public OperationPipeline(final ModelControllerClient client) {
+        this(client, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    public OperationPipeline(final ModelControllerClient client, final int maxInFlight) {
+        if (client == null) {
+            throw MESSAGES.nullVar("client");
+        }
+        if (maxInFlight < 1) {
+            throw MESSAGES.invalidValue("maxInFlight", maxInFlight, 0);
+        }
+        this.client = client;
+        this.window = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Send an operation, waiting only if the maximum number of operations is already in flight.
+     *
+     * @param operation the operation
+     * @return the future result of the operation
+     * @throws InterruptedException if interrupted while waiting for a free slot
+     */
+    public AsyncFuture<ModelNode> submit(final ModelNode operation) throws InterruptedException {
+        return submit(OperationBuilder.create(operation).build());
+    }
+
+    /**
+     * Send an operation, waiting only if the maximum number of operations is already in flight.
+     *
+     * @param operation the operation
+     * @return the future result of the operation
+     * @throws InterruptedException if interrupted while waiting for a free slot
+     */
+    public AsyncFuture<ModelNode> submit(final Operation operation) throws InterruptedException {
+        window.acquire();
+        final AsyncFuture<ModelNode> future;
+        try {
+            future = client.executeAsync(operation, OperationMessageHandler.DISCARD);
+        } catch (RuntimeException e) {
+            window.release();
+            throw e;
+        }
+        future.addListener(new AsyncFuture.Listener<ModelNode, Void>() {
+            @Override
+            public void handleComplete(final AsyncFuture<? extends ModelNode> future, final Void attachment) {
+                window.release();
+            }
+
+            @Override
+            public void handleFailed(final AsyncFuture<? extends ModelNode> future, final Throwable cause, final Void attachment) {
+                window.release();
+            }
+
+            @Override
+            public void handleCancelled(final AsyncFuture<? extends ModelNode> future, final Void attachment) {
+                window.release();
+            }
+        }, null);
+        return future;
+    }
+
+    /**
+     * Execute a list of operations through the pipeline and wait for all of them.
+     *
+     * @param operations the operations
+     * @return the results, in the order of the operations
+     * @throws IOException if an operation could not be executed
+     */
+    public List<ModelNode> executeAll(final List<ModelNode> operations) throws IOException {
+        final List<AsyncFuture<ModelNode>> futures = new ArrayList<AsyncFuture<ModelNode>>(operations.size());
+        try {
+            for (final ModelNode operation : operations) {
+                futures.add(submit(operation));
+            }
+            final List<ModelNode> results = new ArrayList<ModelNode>(futures.size());
+            for (final AsyncFuture<ModelNode> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (final AsyncFuture<ModelNode> future : futures) {
+                future.asyncCancel(true);
+            }
+            throw new InterruptedIOException();
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+}
@@ -104,6 +104,7 @@ public abstract class AbstractControllerService implements Service<ModelControll
     private final ExpressionResolver expressionResolver;
     private volatile ModelControllerImpl controller;
     private ConfigurationPersister configurationPersister;
+    private final OperationMetrics operationMetrics = new OperationMetrics();
 
     /**
      * Construct a new instance.
@@ -144,7 +145,7 @@ public abstract class AbstractControllerService implements Service<ModelControll
                 ManagementResourceRegistration.Factory.create(rootDescriptionProvider),
                 new ContainerStateMonitor(container, serviceController),
                 configurationPersister, processType, runningModeControl, prepareStep,
-                processState, executorService, expressionResolver);
+                processState, executorService, expressionResolver, operationMetrics);
         initModel(controller.getRootResource(), controller.getRootRegistration());
         this.controller = controller;
 
@@ -204,6 +205,16 @@ public abstract class AbstractControllerService implements Service<ModelControll
         controller = null;
     }
 
+    /**
+     * Gets the latency and allocation figures of the operations executed by this controller, for registration as
+     * runtime attributes of the model in {@link #initModel(Resource, ManagementResourceRegistration)}.
+     *
+     * @return the operation metrics
+     */
+    protected final OperationMetrics getOperationMetrics() {
+        return operationMetrics;
+    }
+
     public ModelController getValue() throws IllegalStateException, IllegalArgumentException {
         final ModelController controller = this.controller;
         if (controller == null) {
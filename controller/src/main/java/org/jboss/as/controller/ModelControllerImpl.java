@@ -56,6 +56,7 @@ import org.jboss.as.controller.extension.ParallelExtensionAddHandler;
 import org.jboss.as.controller.operations.common.Util;
 import org.jboss.as.controller.persistence.ConfigurationPersistenceException;
 import org.jboss.as.controller.persistence.ConfigurationPersister;
+import org.jboss.as.controller.registry.CopyOnWriteResourceTree;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.controller.registry.Resource;
 import org.jboss.dmr.ModelNode;
@@ -86,12 +87,13 @@ class ModelControllerImpl implements ModelController {
     private final ControlledProcessState processState;
     private final ExecutorService executorService;
     private final ExpressionResolver expressionResolver;
+    private final OperationMetrics operationMetrics;
 
     ModelControllerImpl(final ServiceRegistry serviceRegistry, final ServiceTarget serviceTarget, final ManagementResourceRegistration rootRegistration,
                         final ContainerStateMonitor stateMonitor, final ConfigurationPersister persister,
                         final ProcessType processType, final RunningModeControl runningModeControl,
                         final OperationStepHandler prepareStep, final ControlledProcessState processState, final ExecutorService executorService,
-                        final ExpressionResolver expressionResolver) {
+                        final ExpressionResolver expressionResolver, final OperationMetrics operationMetrics) {
         this.serviceRegistry = serviceRegistry;
         this.serviceTarget = serviceTarget;
         this.rootRegistration = rootRegistration;
@@ -104,11 +106,21 @@ class ModelControllerImpl implements ModelController {
         this.serviceTarget.addListener(ServiceListener.Inheritance.ALL, stateMonitor);
         this.executorService = executorService;
         this.expressionResolver = expressionResolver;
+        this.operationMetrics = operationMetrics;
     }
 
 
     public ModelNode execute(final ModelNode operation, final OperationMessageHandler handler, final OperationTransactionControl control, final OperationAttachments attachments) {
-        return internalExecute(operation, handler, control, attachments, prepareStep);
+        // only operations coming in through the controller are measured, not the ones the process executes internally
+        final boolean measureAllocations = OperationMetrics.ALLOCATIONS_MEASURED;
+        final long start = System.nanoTime();
+        final long allocated = measureAllocations ? OperationMetrics.currentThreadAllocatedBytes() : 0;
+        final ModelNode response = internalExecute(operation, handler, control, attachments, prepareStep);
+        if (operation.hasDefined(OP)) {
+            final long elapsed = System.nanoTime() - start;
+            operationMetrics.record(operation.get(OP).asString(), elapsed, measureAllocations ? OperationMetrics.currentThreadAllocatedBytes() - allocated : -1);
+        }
+        return response;
     }
 
     protected ModelNode internalExecute(final ModelNode operation, final OperationMessageHandler handler, final OperationTransactionControl control, final OperationAttachments attachments, final OperationStepHandler prepareStep) {
@@ -390,6 +402,16 @@ class ModelControllerImpl implements ModelController {
         };
     }
 
+    /**
+     * Creates a writable copy of the current model. Only the resources which get modified through the copy are
+     * actually copied, everything else is shared with the current model.
+     *
+     * @return the writable copy
+     */
+    CopyOnWriteResourceTree createWritableModel() {
+        return new CopyOnWriteResourceTree(model.getDelegate());
+    }
+
     ConfigurationPersister.PersistenceResource writeModel(final Resource resource, Set<PathAddress> affectedAddresses) throws ConfigurationPersistenceException {
         final ModelNode newModel = Resource.Tools.readModel(resource);  // Get the model representation
         final ConfigurationPersister.PersistenceResource delegate = persister.store(newModel, affectedAddresses);
@@ -476,7 +498,7 @@ class ModelControllerImpl implements ModelController {
 
     /**
      * The root resource, maintains a read-only reference to the current model. All write operations have to performed
-     * after acquiring the write lock on a clone of the underlying model.
+     * after acquiring the write lock on a copy of the underlying model, see {@link #createWritableModel()}.
      */
     private class RootResource implements Resource {
 
@@ -476,6 +476,22 @@ public interface OperationContext extends ExpressionResolver {
      */
     Resource readResourceFromRoot(PathAddress address, boolean recursive);
 
+    /**
+     * Get the resource for read only operations, relative to the executed operation address, without copying it. Reads
+     * never block. Unlike {@link #readResource(PathAddress, boolean)} the returned resource is the one held by the
+     * management model, so neither it, its model nor its children may be modified, and it must not be used once the
+     * current step has completed. Handlers that only read the model once can use this to avoid copying it.
+     * <p>
+     * The subtrees below a deployment are changed in place by deployment processors, so for an address inside one of
+     * them a {@link Resource.Tools#snapshot(Resource) snapshot} is returned instead. Callers that walk down from the
+     * returned resource must check {@link Resource.Tools#isModifiedInPlace(PathElement)} themselves.
+     *
+     * @param relativeAddress the (possibly empty) address of the resource. The address is relative to the
+     *                address of the operation being executed
+     * @return the resource, which must not be modified
+     */
+    Resource readResourceView(PathAddress relativeAddress);
+
     /**
      * Get an addressable resource for update operations. Since only one operation may write at a time, this operation
      * may block until other writing operations have completed.
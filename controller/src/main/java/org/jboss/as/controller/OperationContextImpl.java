@@ -48,6 +48,7 @@ import org.jboss.as.controller.client.OperationMessageHandler;
 import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
 import org.jboss.as.controller.persistence.ConfigurationPersistenceException;
 import org.jboss.as.controller.persistence.ConfigurationPersister;
+import org.jboss.as.controller.registry.CopyOnWriteResourceTree;
 import org.jboss.as.controller.registry.DelegatingImmutableManagementResourceRegistration;
 import org.jboss.as.controller.registry.ImmutableManagementResourceRegistration;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
@@ -100,6 +101,9 @@ final class OperationContextImpl extends AbstractOperationContext {
 
     private volatile Resource model;
 
+    /** The copy of the model being written to, null until a step gets write access to the model */
+    private volatile CopyOnWriteResourceTree writableModel;
+
     private volatile Resource originalModel;
 
     /** Tracks whether any steps have gotten write access to the runtime */
@@ -414,10 +418,7 @@ final class OperationContextImpl extends AbstractOperationContext {
             throw MESSAGES.stageAlreadyComplete(Stage.MODEL);
         }
         authorizeModelUpdate();
-        if (!isModelAffected()) {
-            takeWriteLock();
-            model = model.clone();
-        }
+        ensureWritableModel();
         affectsModel.put(address, NULL);
         Resource model = this.model;
         final Iterator<PathElement> i = address.iterator();
@@ -435,13 +436,13 @@ final class OperationContextImpl extends AbstractOperationContext {
                         throw MESSAGES.noChildType(key);
                     }
                     final Resource newModel = Resource.Factory.create();
-                    model.registerChild(element, newModel);
+                    writableModel.registerChild(model, element, newModel);
                     model = newModel;
                 } else {
-                    model = requireChild(model, element, address);
+                    model = requireWritableChild(model, element, address);
                 }
             } else {
-                model = requireChild(model, element, address);
+                model = requireWritableChild(model, element, address);
             }
         }
         if(model == null) {
@@ -507,6 +508,25 @@ final class OperationContextImpl extends AbstractOperationContext {
         }
     }
 
+    public Resource readResourceView(final PathAddress requestAddress) {
+        final PathAddress address = activeStep.address.append(requestAddress);
+        assert isControllingThread();
+        Stage currentStage = this.currentStage;
+        if (currentStage == null) {
+            throw MESSAGES.operationAlreadyComplete();
+        }
+        // Operations replace the published model rather than changing it, and a writable copy is only changed by this
+        // operation's own steps, so no copy is needed as long as the caller is done with the view before its step
+        // completes. The exception are the subtrees that deployment processors change in place, which are copied.
+        Resource model = this.model;
+        boolean modifiedInPlace = false;
+        for (final PathElement element : address) {
+            model = requireChild(model, element, address);
+            modifiedInPlace |= Resource.Tools.isModifiedInPlace(element);
+        }
+        return modifiedInPlace ? Resource.Tools.snapshot(model) : model;
+    }
+
     public Resource readResourceForUpdate(PathAddress requestAddress) {
         final PathAddress address = activeStep.address.append(requestAddress);
         assert isControllingThread();
@@ -518,18 +538,17 @@ final class OperationContextImpl extends AbstractOperationContext {
             throw MESSAGES.stageAlreadyComplete(Stage.MODEL);
         }
         authorizeModelUpdate();
-        if (!isModelAffected()) {
-            takeWriteLock();
-            model = model.clone();
-        }
+        ensureWritableModel();
         affectsModel.put(address, NULL);
         Resource resource = this.model;
         for (PathElement element : address) {
             if (element.isMultiTarget()) {
                 throw MESSAGES.cannotWriteTo("*");
             }
-            resource = requireChild(resource, element, address);
+            resource = requireWritableChild(resource, element, address);
         }
+        // the caller may modify the whole subtree
+        writableModel.detachSubtree(resource);
         return resource;
     }
 
@@ -558,10 +577,7 @@ final class OperationContextImpl extends AbstractOperationContext {
             throw MESSAGES.duplicateResourceAddress(absoluteAddress);
         }
         authorizeModelUpdate();
-        if (!isModelAffected()) {
-            takeWriteLock();
-            model = model.clone();
-        }
+        ensureWritableModel();
         affectsModel.put(absoluteAddress, NULL);
         Resource model = this.model;
         final Iterator<PathElement> i = absoluteAddress.iterator();
@@ -580,11 +596,11 @@ final class OperationContextImpl extends AbstractOperationContext {
                     if(!childrenNames.contains(key)) {
                         throw MESSAGES.noChildType(key);
                     }
-                    model.registerChild(element, toAdd);
+                    writableModel.registerChild(model, element, toAdd);
                     model = toAdd;
                 }
             } else {
-                model = model.getChild(element);
+                model = writableModel.getWritableChild(model, element);
                 if (model == null) {
                     PathAddress ancestor = PathAddress.EMPTY_ADDRESS;
                     for (PathElement pe : absoluteAddress) {
@@ -610,10 +626,7 @@ final class OperationContextImpl extends AbstractOperationContext {
             throw MESSAGES.stageAlreadyComplete(Stage.MODEL);
         }
         authorizeModelUpdate();
-        if (!isModelAffected()) {
-            takeWriteLock();
-            model = model.clone();
-        }
+        ensureWritableModel();
         affectsModel.put(address, NULL);
         Resource model = this.model;
         final Iterator<PathElement> i = address.iterator();
@@ -625,7 +638,7 @@ final class OperationContextImpl extends AbstractOperationContext {
             if (! i.hasNext()) {
                 model = model.removeChild(element);
             } else {
-                model = requireChild(model, element, address);
+                model = requireWritableChild(model, element, address);
             }
         }
         return model;
@@ -696,6 +709,22 @@ final class OperationContextImpl extends AbstractOperationContext {
         }
     }
 
+    /**
+     * Takes the write lock and creates the writable copy of the model, unless a step already did so.
+     */
+    private void ensureWritableModel() {
+        if (!isModelAffected()) {
+            takeWriteLock();
+            writableModel = modelController.createWritableModel();
+            model = writableModel.getRoot();
+        }
+    }
+
+    private Resource requireWritableChild(final Resource resource, final PathElement childPath, final PathAddress fullAddress) {
+        requireChild(resource, childPath, fullAddress);
+        return writableModel.getWritableChild(resource, childPath);
+    }
+
     private static Resource requireChild(final Resource resource, final PathElement childPath, final PathAddress fullAddress) {
         if (resource.hasChild(childPath)) {
             return resource.requireChild(childPath);
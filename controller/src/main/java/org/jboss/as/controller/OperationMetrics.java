@@ -0,0 +1,174 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.controller;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency and allocation figures of the operations executed by a {@link ModelController}, kept per operation name.
+ * Times are in nanoseconds, and allocations in bytes. They are exposed as runtime attributes of
+ * {@code core-service=management} by {@link org.jboss.as.controller.operations.common.OperationMetricsHandler}.
+ * <p/>
+ * Allocations are read from {@code com.sun.management.ThreadMXBean} when the JVM provides it and has allocation
+ * measurement enabled, and are otherwise not collected.
+ */
+public final class OperationMetrics {
+
+    /**
+     * Clients may send anything as an operation name, so stop keeping track of new names past this many.
+     */
+    private static final int MAX_OPERATIONS = 512;
+
+    /**
+     * The bean allocations are read from, or {@code null} if they cannot be measured. Resolved once, so that
+     * executing an operation costs two direct calls at most.
+     */
+    private static final com.sun.management.ThreadMXBean ALLOCATION_BEAN = allocationBean();
+
+    /**
+     * Whether the allocations of the executing thread can be measured. Checked before reading them.
+     */
+    static final boolean ALLOCATIONS_MEASURED = ALLOCATION_BEAN != null;
+
+    private final ConcurrentMap<String, Metric> metrics = new ConcurrentHashMap<String, Metric>(64);
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        try {
+            final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                final com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) bean;
+                if (allocationBean.isThreadAllocatedMemorySupported() && allocationBean.isThreadAllocatedMemoryEnabled()) {
+                    return allocationBean;
+                }
+            }
+        } catch (LinkageError ignored) {
+            // not a HotSpot JVM
+        }
+        return null;
+    }
+
+    /**
+     * Gets the number of bytes allocated so far by the current thread. Only call this if {@link #ALLOCATIONS_MEASURED}.
+     *
+     * @return the allocated bytes
+     */
+    static long currentThreadAllocatedBytes() {
+        return ALLOCATION_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Records an execution of an operation.
+     *
+     * @param operationName  the name of the operation
+     * @param elapsed        the execution time in nanoseconds
+     * @param allocated      the bytes allocated during the execution, or a negative value if unknown
+     */
+    void record(final String operationName, final long elapsed, final long allocated) {
+        Metric metric = metrics.get(operationName);
+        if (metric == null) {
+            if (metrics.size() >= MAX_OPERATIONS) {
+                return;
+            }
+            final Metric existing = metrics.putIfAbsent(operationName, metric = new Metric());
+            if (existing != null) {
+                metric = existing;
+            }
+        }
+        metric.invocations.incrementAndGet();
+        metric.totalTime.addAndGet(elapsed);
+        long max;
+        while (elapsed > (max = metric.maxTime.get()) && !metric.maxTime.compareAndSet(max, elapsed)) {
+            // retry
+        }
+        if (allocated >= 0) {
+            metric.allocated.addAndGet(allocated);
+        }
+    }
+
+    /**
+     * Gets the number of times each operation was executed.
+     *
+     * @return the invocation counts
+     */
+    public Map<String, Long> getInvocationCounts() {
+        final Map<String, Long> result = new HashMap<String, Long>();
+        for (Map.Entry<String, Metric> entry : metrics.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().invocations.get());
+        }
+        return result;
+    }
+
+    /**
+     * Gets the total time spent executing each operation.
+     *
+     * @return the total execution times
+     */
+    public Map<String, Long> getTotalExecutionTimes() {
+        final Map<String, Long> result = new HashMap<String, Long>();
+        for (Map.Entry<String, Metric> entry : metrics.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().totalTime.get());
+        }
+        return result;
+    }
+
+    /**
+     * Gets the longest time a single execution of each operation took.
+     *
+     * @return the maximum execution times
+     */
+    public Map<String, Long> getMaxExecutionTimes() {
+        final Map<String, Long> result = new HashMap<String, Long>();
+        for (Map.Entry<String, Metric> entry : metrics.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().maxTime.get());
+        }
+        return result;
+    }
+
+    /**
+     * Gets the total number of bytes allocated by the thread executing each operation, or an empty map if the JVM
+     * cannot measure allocations.
+     *
+     * @return the allocated bytes
+     */
+    public Map<String, Long> getAllocatedBytes() {
+        final Map<String, Long> result = new HashMap<String, Long>();
+        if (ALLOCATIONS_MEASURED) {
+            for (Map.Entry<String, Metric> entry : metrics.entrySet()) {
+                result.put(entry.getKey(), entry.getValue().allocated.get());
+            }
+        }
+        return result;
+    }
+
+    private static final class Metric {
+        private final AtomicLong invocations = new AtomicLong();
+        private final AtomicLong totalTime = new AtomicLong();
+        private final AtomicLong maxTime = new AtomicLong();
+        private final AtomicLong allocated = new AtomicLong();
+    }
+}
@@ -209,6 +209,12 @@ class ParallelBootOperationContext extends AbstractOperationContext {
         return primaryContext.readResourceFromRoot(address, recursive);
     }
 
+    @Override
+    public Resource readResourceView(PathAddress address) {
+        PathAddress fullAddress = activeStep.address.append(address);
+        return primaryContext.readResourceView(fullAddress);
+    }
+
     @Override
     public Resource readResourceForUpdate(PathAddress address) {
         PathAddress fullAddress = activeStep.address.append(address);
@@ -141,6 +141,7 @@ public class ModelDescriptionConstants {
     public static final String MASK = "mask";
     public static final String MASTER = "master";
     public static final String MAX = "max";
+    public static final String MAX_CONCURRENT_SERVERS = "max-concurrent-servers";
     public static final String MAX_FAILED_SERVERS = "max-failed-servers";
     public static final String MAX_FAILURE_PERCENTAGE = "max-failure-percentage";
     public static final String MAX_LENGTH = "max-length";
@@ -35,6 +35,7 @@ import java.util.ResourceBundle;
 
 import org.jboss.as.controller.descriptions.ResourceDescriptionResolver;
 import org.jboss.as.controller.descriptions.StandardResourceDescriptionResolver;
+import org.jboss.as.controller.operations.common.OperationMetricsHandler;
 import org.jboss.dmr.ModelNode;
 
 /**
@@ -65,6 +66,7 @@ public class ManagementDescription {
         final ResourceBundle bundle = getResourceBundle(locale);
         final ModelNode root = new ModelNode();
         root.get(DESCRIPTION).set(bundle.getString("core.management"));
+        OperationMetricsHandler.addDescriptions(bundle, root);
         root.get(OPERATIONS).setEmptyObject();
 
         root.get(CHILDREN, SECURITY_REALM, DESCRIPTION).set(bundle.getString("core.management.security-realms"));
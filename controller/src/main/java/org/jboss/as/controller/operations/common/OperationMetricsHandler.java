@@ -0,0 +1,125 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.operations.common;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
+
+import java.util.Map;
+import java.util.ResourceBundle;
+
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.OperationMetrics;
+import org.jboss.as.controller.OperationStepHandler;
+import org.jboss.as.controller.SimpleAttributeDefinition;
+import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
+import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+
+/**
+ * Reads the {@link OperationMetrics} of the process' controller. Each metric is an object keyed by operation name.
+ */
+public class OperationMetricsHandler implements OperationStepHandler {
+
+    public static final SimpleAttributeDefinition OPERATION_INVOCATION_COUNTS =
+            new SimpleAttributeDefinitionBuilder("operation-invocation-counts", ModelType.OBJECT, true)
+                    .setStorageRuntime()
+                    .build();
+    public static final SimpleAttributeDefinition OPERATION_TOTAL_TIMES =
+            new SimpleAttributeDefinitionBuilder("operation-total-times", ModelType.OBJECT, true)
+                    .setMeasurementUnit(MeasurementUnit.NANOSECONDS)
+                    .setStorageRuntime()
+                    .build();
+    public static final SimpleAttributeDefinition OPERATION_MAX_TIMES =
+            new SimpleAttributeDefinitionBuilder("operation-max-times", ModelType.OBJECT, true)
+                    .setMeasurementUnit(MeasurementUnit.NANOSECONDS)
+                    .setStorageRuntime()
+                    .build();
+    public static final SimpleAttributeDefinition OPERATION_ALLOCATED_BYTES =
+            new SimpleAttributeDefinitionBuilder("operation-allocated-bytes", ModelType.OBJECT, true)
+                    .setMeasurementUnit(MeasurementUnit.BYTES)
+                    .setStorageRuntime()
+                    .build();
+
+    public static final SimpleAttributeDefinition[] METRICS = {
+            OPERATION_INVOCATION_COUNTS,
+            OPERATION_TOTAL_TIMES,
+            OPERATION_MAX_TIMES,
+            OPERATION_ALLOCATED_BYTES
+    };
+
+    private final OperationMetrics metrics;
+
+    public OperationMetricsHandler(final OperationMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Registers the metrics on the {@code core-service=management} resource.
+     *
+     * @param management the registration of {@code core-service=management}
+     * @param metrics    the metrics of the controller the model belongs to
+     */
+    public static void registerMetrics(final ManagementResourceRegistration management, final OperationMetrics metrics) {
+        final OperationMetricsHandler handler = new OperationMetricsHandler(metrics);
+        for (SimpleAttributeDefinition metric : METRICS) {
+            management.registerMetric(metric, handler);
+        }
+    }
+
+    /**
+     * Adds the descriptions of the metrics to the description of the {@code core-service=management} resource.
+     *
+     * @param bundle      the bundle holding the {@code core.management} texts
+     * @param description the resource description
+     */
+    public static void addDescriptions(final ResourceBundle bundle, final ModelNode description) {
+        for (SimpleAttributeDefinition metric : METRICS) {
+            metric.addResourceAttributeDescription(bundle, "core.management", description)
+                    .get(ModelDescriptionConstants.VALUE_TYPE).set(ModelType.LONG);
+        }
+    }
+
+    @Override
+    public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
+        final String attributeName = operation.require(NAME).asString();
+        final Map<String, Long> values;
+        if (OPERATION_INVOCATION_COUNTS.getName().equals(attributeName)) {
+            values = metrics.getInvocationCounts();
+        } else if (OPERATION_TOTAL_TIMES.getName().equals(attributeName)) {
+            values = metrics.getTotalExecutionTimes();
+        } else if (OPERATION_MAX_TIMES.getName().equals(attributeName)) {
+            values = metrics.getMaxExecutionTimes();
+        } else {
+            values = metrics.getAllocatedBytes();
+        }
+        final ModelNode result = context.getResult().setEmptyObject();
+        for (Map.Entry<String, Long> entry : values.entrySet()) {
+            result.get(entry.getKey()).set(entry.getValue());
+        }
+        context.completeStep();
+    }
+}
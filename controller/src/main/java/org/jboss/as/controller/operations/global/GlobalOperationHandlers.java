@@ -154,6 +154,30 @@ public class GlobalOperationHandlers {
             final boolean defaults = operation.get(INCLUDE_DEFAULTS).asBoolean(true);
             final boolean attributesOnly = operation.get(ATTRIBUTES_ONLY).asBoolean(false);
 
+            if (recursive && !queryRuntime) {
+                // A recursive read of the configuration is answered in a single pass over the model when nothing in
+                // the tree needs a handler of its own, instead of one step per child resource whose results are then
+                // copied into the parent's result, level by level.
+                final ImmutableManagementResourceRegistration registry = context.getResourceRegistration();
+                if (registry != null && !registry.isRuntimeOnly() && !registry.isRemote()) {
+                    final Resource resource = context.readResourceView(PathAddress.EMPTY_ADDRESS);
+                    final Locale locale = getLocale(context, operation);
+                    final ModelNode result = context.getResult();
+                    // The view is already a copy if the address is inside a subtree that is changed in place
+                    boolean copied = false;
+                    for (PathElement element : address) {
+                        copied |= Resource.Tools.isModifiedInPlace(element);
+                    }
+                    if (readModelTree(context, address, registry, resource, copied, operation.get(RECURSIVE).asBoolean(false),
+                            recursiveDepth, true, proxies, aliases, defaults, locale, result)) {
+                        context.completeStep(OperationContext.RollbackHandler.NOOP_ROLLBACK_HANDLER);
+                        return;
+                    }
+                    // Discard what was read so far and go through the handlers
+                    result.set(new ModelNode());
+                }
+            }
+
             // Attributes read directly from the model with no special read handler step in the middle
             final Map<String, ModelNode> directAttributes = new HashMap<String, ModelNode>();
             // Children names read directly from the model with no special read handler step in the middle
@@ -298,6 +322,114 @@ public class GlobalOperationHandlers {
             context.completeStep(OperationContext.RollbackHandler.NOOP_ROLLBACK_HANDLER);
         }
 
+        /**
+         * Writes the read-resource result for a resource and, recursively, its children straight into {@code target},
+         * reading the model through {@link OperationContext#readResourceView(PathAddress)} so that each value is copied
+         * only once. The result is the same as the one assembled by {@link ReadResourceAssemblyHandler}. Subtrees
+         * that deployment processors change in place are copied with {@link Resource.Tools#snapshot(Resource)} before
+         * they are walked.
+         *
+         * @param copied          whether {@code resource} is a private copy rather than part of the published model
+         * @param recursiveParam  the value of the "recursive" parameter of the original operation
+         * @param recursive       whether the children of this resource should be read as well
+         * @return {@code false} if something in the tree needs its own handler to be read, in which case
+         *         {@code target} holds a partial result
+         */
+        private static boolean readModelTree(final OperationContext context, final PathAddress address, final ImmutableManagementResourceRegistration registry,
+                                             final Resource resource, final boolean copied, final boolean recursiveParam, final int recursiveDepth, final boolean recursive,
+                                             final boolean proxies, final boolean aliases, final boolean defaults, final Locale locale, final ModelNode target) throws OperationFailedException {
+
+            for (final String attributeName : registry.getAttributeNames(PathAddress.EMPTY_ADDRESS)) {
+                final AttributeAccess access = registry.getAttributeAccess(PathAddress.EMPTY_ADDRESS, attributeName);
+                if (access == null || access.getFlags().contains(AttributeAccess.Flag.ALIAS) && !aliases) {
+                    continue;
+                }
+                if (access.getStorageType() == AttributeAccess.Storage.CONFIGURATION && access.getReadHandler() != null) {
+                    return false;
+                }
+            }
+
+            final Map<String, Set<String>> childrenByType = getChildAddresses(context, address, registry, resource, null);
+            final Map<String, ModelNode> sortedAttributes = new TreeMap<String, ModelNode>();
+            final ModelNode model = resource.getModel();
+            if (model.isDefined()) {
+                for (String key : model.keys()) {
+                    if (!childrenByType.containsKey(key)) {
+                        sortedAttributes.put(key, model.get(key));
+                    }
+                }
+                if (defaults) {
+                    final ModelNode nodeDescription = registry.getModelDescription(PathAddress.EMPTY_ADDRESS).getModelDescription(locale);
+                    if (nodeDescription.isDefined() && nodeDescription.hasDefined(ATTRIBUTES)) {
+                        for (String key : nodeDescription.get(ATTRIBUTES).keys()) {
+                            if ((!childrenByType.containsKey(key)) &&
+                                    (!sortedAttributes.containsKey(key) || !sortedAttributes.get(key).isDefined()) &&
+                                    nodeDescription.get(ATTRIBUTES).hasDefined(key) &&
+                                    nodeDescription.get(ATTRIBUTES, key).hasDefined(DEFAULT)) {
+                                sortedAttributes.put(key, nodeDescription.get(ATTRIBUTES, key, DEFAULT));
+                            }
+                        }
+                    }
+                }
+            }
+            final Map<String, Set<String>> sortedChildren = new TreeMap<String, Set<String>>();
+            for (Map.Entry<String, Set<String>> entry : childrenByType.entrySet()) {
+                if (entry.getValue().isEmpty()) {
+                    // Just treat it like an undefined attribute
+                    sortedAttributes.put(entry.getKey(), new ModelNode());
+                } else {
+                    sortedChildren.put(entry.getKey(), entry.getValue());
+                }
+            }
+
+            target.setEmptyObject();
+            for (Map.Entry<String, ModelNode> entry : sortedAttributes.entrySet()) {
+                target.get(entry.getKey()).set(entry.getValue());
+            }
+            for (Map.Entry<String, Set<String>> entry : sortedChildren.entrySet()) {
+                final String childType = entry.getKey();
+                if (!recursive) {
+                    final ModelNode childMap = target.get(childType).setEmptyObject();
+                    for (String child : entry.getValue()) {
+                        childMap.get(child);
+                    }
+                    continue;
+                }
+                for (String child : entry.getValue()) {
+                    final PathElement childPE = PathElement.pathElement(childType, child);
+                    final ImmutableManagementResourceRegistration childReg = registry.getSubModel(PathAddress.pathAddress(childPE));
+                    if (childReg == null) {
+                        throw new OperationFailedException(new ModelNode().set(MESSAGES.noChildRegistry(childType, child)));
+                    }
+                    // Same decision as the handler, bearing in mind that runtime resources are not queried
+                    final boolean proxy = childReg.isRemote();
+                    final boolean runtimeResource = childReg.isRuntimeOnly();
+                    if (runtimeResource && !(proxies && proxy) || !aliases && childReg.isAlias()) {
+                        continue;
+                    }
+                    if (proxy || runtimeResource || childReg.isAlias()) {
+                        return false;
+                    }
+                    final OperationStepHandler handler = childReg.getOperationHandler(PathAddress.EMPTY_ADDRESS, READ_RESOURCE_OPERATION);
+                    Resource childResource = resource.getChild(childPE);
+                    if (handler == null || handler.getClass() != ReadResourceHandler.class || childResource == null) {
+                        return false;
+                    }
+                    final boolean copyChild = !copied && Resource.Tools.isModifiedInPlace(childPE);
+                    if (copyChild) {
+                        childResource = Resource.Tools.snapshot(childResource);
+                    }
+                    final int newDepth = recursiveDepth > 0 ? recursiveDepth - 1 : 0;
+                    final boolean childRecursive = newDepth > 0 || recursiveParam;
+                    if (!readModelTree(context, address.append(childPE), childReg, childResource, copied || copyChild, recursiveParam, newDepth, childRecursive,
+                            proxies, aliases, defaults, locale, target.get(childType, child))) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
         /**
          *  Provides a resource for the current step, either from the context, if the context doesn't have one
          *  and {@code registry} is runtime-only, it creates a dummy resource.
@@ -435,7 +567,8 @@ public class GlobalOperationHandlers {
             final String attributeName = operation.require(NAME).asString();
             final boolean defaults = operation.get(INCLUDE_DEFAULTS).asBoolean(true);
 
-            final ModelNode subModel = safeReadModel(context);
+            // Not a copy, so only ever look up keys known to exist as get() would otherwise add them to the model
+            final ModelNode subModel = safeReadModelView(context);
             final ImmutableManagementResourceRegistration registry = context.getResourceRegistration();
             final AttributeAccess attributeAccess = registry.getAttributeAccess(PathAddress.EMPTY_ADDRESS, attributeName);
 
@@ -467,9 +600,11 @@ public class GlobalOperationHandlers {
                 context.completeStep(OperationContext.RollbackHandler.NOOP_ROLLBACK_HANDLER);
             } else if (attributeAccess.getReadHandler() == null) {
                 // We know the attribute name is legit as it's in the registry, so this case is simpler
-                if (subModel.hasDefined(attributeName) || !defaults) {
+                if (subModel.hasDefined(attributeName)) {
                     final ModelNode result = subModel.get(attributeName);
                     context.getResult().set(result);
+                } else if (!defaults) {
+                    context.getResult(); // this initializes the "result" to ModelType.UNDEFINED
                 } else {
                     // It wasn't in the model, but user wants a default value from metadata if there is one
                     final ModelNode nodeDescription = getNodeDescription(registry, context, operation);
@@ -1175,9 +1310,12 @@ public class GlobalOperationHandlers {
         }
     }
 
-    private static ModelNode safeReadModel(final OperationContext context) {
+    /**
+     * Reads the model of the current resource without copying it, so the returned node must not be modified.
+     */
+    private static ModelNode safeReadModelView(final OperationContext context) {
         try {
-            final Resource resource = context.readResource(PathAddress.EMPTY_ADDRESS, false);
+            final Resource resource = context.readResourceView(PathAddress.EMPTY_ADDRESS);
             final ModelNode result = resource.getModel();
             if (result.isDefined()) {
                 return result;
@@ -1224,7 +1362,7 @@ public class GlobalOperationHandlers {
                     //PathAddress target = aliasEntry.getTargetAddress();
                     PathAddress target = aliasEntry.convertToTargetAddress(addr.append(element));
                     PathAddress targetParent = target.subAddress(0, target.size() - 1);
-                    Resource parentResource =  context.readResourceFromRoot(targetParent);
+                    Resource parentResource =  context.readResourceFromRoot(targetParent, false);
                     if (parentResource.hasChildren(target.getLastElement().getKey())) {
                         set.add(element.getValue());
                     }
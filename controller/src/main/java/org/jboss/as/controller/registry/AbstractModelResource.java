@@ -234,6 +234,21 @@ public abstract class AbstractModelResource implements Resource {
                 return children.remove(name);
             }
         }
+
+        /**
+         * Replace an existing child, keeping its position in the iteration order.
+         *
+         * @param name the name of the child
+         * @param resource the new child
+         */
+        void replace(String name, Resource resource) {
+            synchronized (children) {
+                if (!children.containsKey(name)) {
+                    throw new IllegalStateException();
+                }
+                children.put(name, resource);
+            }
+        }
     }
 
     abstract static class DelegateResource implements ResourceEntry {
@@ -22,6 +22,7 @@
 
 package org.jboss.as.controller.registry;
 
+import org.jboss.as.controller.PathElement;
 import org.jboss.dmr.ModelNode;
 
 import java.util.ConcurrentModificationException;
@@ -30,7 +31,8 @@ import java.util.ConcurrentModificationException;
  * Standard {@link Resource} implementation.
  *
  * <p>Concurrency note: if a thread needs to modify a BasicResource, it must use the clone() method to obtain its
- * own copy of the resource. That instance cannot be made visible to other threads until all writes are complete.</p>
+ * own copy of the resource, or copy the path to it using a {@link CopyOnWriteResourceTree}. That instance cannot be
+ * made visible to other threads until all writes are complete.</p>
  *
  * @author Emanuel Muckenhuber
  */
@@ -76,4 +78,31 @@ class BasicResource extends AbstractModelResource implements Resource {
         return clone;
     }
 
+    /**
+     * Creates a copy of this resource with its own model, but sharing all the children with this resource.
+     *
+     * @return the copy
+     */
+    BasicResource shallowCopy() {
+        final BasicResource copy = new BasicResource();
+        copy.writeModel(model.clone());
+        for(final String childType : getChildTypes()) {
+            for(final String childName : getChildrenNames(childType)) {
+                final PathElement element = PathElement.pathElement(childType, childName);
+                copy.registerChild(element, getChild(element));
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Replaces an existing child with a different resource, keeping the order of the children.
+     *
+     * @param address the address of the child
+     * @param resource the new child
+     */
+    void replaceChild(final PathElement address, final Resource resource) {
+        ((DefaultResourceProvider) getProvider(address.getKey())).replace(address.getValue(), resource);
+    }
+
 }
@@ -0,0 +1,139 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.controller.registry;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.jboss.as.controller.PathElement;
+
+/**
+ * A writable copy of a {@link Resource} tree which copies resources lazily, only along the paths that are
+ * actually written to. Everything else stays shared with the original tree, which must therefore never be modified
+ * while it, or any copy made from it, may still be read.
+ *
+ * <p>A {@link BasicResource} on a written path is copied on its own, its children stay shared until they get written
+ * to themselves. Any other kind of resource is copied as a whole using {@link Resource#clone()}.</p>
+ *
+ * <p>Concurrency note: this class is thread safe, but the resources returned by it follow the same rules as any other
+ * resource which is being modified.</p>
+ */
+public final class CopyOnWriteResourceTree {
+
+    /** The resources private to this tree, mapped to whether their whole subtree is private as well. */
+    private final Map<Resource, Boolean> writable = new IdentityHashMap<Resource, Boolean>();
+    private final Resource root;
+
+    /**
+     * Create a writable copy of the given tree.
+     *
+     * @param original the root of the tree to copy
+     */
+    public CopyOnWriteResourceTree(final Resource original) {
+        this.root = copy(original);
+    }
+
+    /**
+     * Gets the writable root of the tree.
+     *
+     * @return the root
+     */
+    public Resource getRoot() {
+        return root;
+    }
+
+    /**
+     * Gets a child of a writable resource for update, copying it first if it is still shared with the original tree.
+     *
+     * @param parent the writable parent
+     * @param element the path element of the child
+     * @return the writable child, or {@code null} if there is no such child
+     */
+    public synchronized Resource getWritableChild(final Resource parent, final PathElement element) {
+        final Boolean privateSubtree = writable.get(parent);
+        assert privateSubtree != null : "parent is not writable";
+        final Resource child = parent.getChild(element);
+        if (child == null || privateSubtree || writable.containsKey(child)) {
+            return child;
+        }
+        final Resource copy = copy(child);
+        ((BasicResource) parent).replaceChild(element, copy);
+        return copy;
+    }
+
+    /**
+     * Registers a new child with a writable resource. The child itself, and everything below it, is considered to be
+     * writable from now on.
+     *
+     * @param parent the writable parent
+     * @param element the path element of the child
+     * @param child the new child
+     */
+    public synchronized void registerChild(final Resource parent, final PathElement element, final Resource child) {
+        assert writable.containsKey(parent) : "parent is not writable";
+        parent.registerChild(element, child);
+        writable.put(child, Boolean.TRUE);
+    }
+
+    /**
+     * Makes sure that no resource below a writable resource is shared with the original tree anymore, so that the whole
+     * subtree can be modified directly.
+     *
+     * @param resource the writable resource
+     */
+    public synchronized void detachSubtree(final Resource resource) {
+        final Boolean privateSubtree = writable.get(resource);
+        assert privateSubtree != null : "resource is not writable";
+        if (privateSubtree) {
+            return;
+        }
+        // only a BasicResource is ever copied on its own
+        final BasicResource parent = (BasicResource) resource;
+        for (final String childType : parent.getChildTypes()) {
+            for (final String childName : parent.getChildrenNames(childType)) {
+                final PathElement element = PathElement.pathElement(childType, childName);
+                final Resource child = parent.getChild(element);
+                final Boolean childPrivate = writable.get(child);
+                if (childPrivate == null) {
+                    final Resource clone = child.clone();
+                    parent.replaceChild(element, clone);
+                    writable.put(clone, Boolean.TRUE);
+                } else if (!childPrivate) {
+                    detachSubtree(child);
+                }
+            }
+        }
+        writable.put(resource, Boolean.TRUE);
+    }
+
+    private Resource copy(final Resource resource) {
+        final Resource copy;
+        if (resource instanceof BasicResource) {
+            copy = ((BasicResource) resource).shallowCopy();
+            writable.put(copy, Boolean.FALSE);
+        } else {
+            copy = resource.clone();
+            writable.put(copy, Boolean.TRUE);
+        }
+        return copy;
+    }
+}
@@ -28,9 +28,13 @@ import org.jboss.as.controller.PathAddress;
 import org.jboss.as.controller.PathElement;
 import org.jboss.dmr.ModelNode;
 
+import java.util.ConcurrentModificationException;
 import java.util.NoSuchElementException;
 import java.util.Set;
 
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.DEPLOYMENT;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUBDEPLOYMENT;
+
 /**
  * A addressable resource in the management model, representing a local model and child resources.
  * <p>Instances of this class are <b>not</b> thread-safe and need to be synchronized externally.
@@ -271,6 +275,51 @@ public interface Resource extends Cloneable {
             return r;
         }
 
+        /**
+         * Whether the children of the resource at {@code element}, and the models of its descendants, may be changed
+         * in place while they are part of the published model. Deployment processors add and remove the resources
+         * below a deployment as the deployment is (re)processed, so readers have to work on a copy of them.
+         *
+         * @param element the path element of the resource. Cannot be {@code null}
+         * @return {@code true} if the subtree can change at runtime without the model being replaced
+         */
+        public static boolean isModifiedInPlace(final PathElement element) {
+            final String key = element.getKey();
+            return DEPLOYMENT.equals(key) || SUBDEPLOYMENT.equals(key);
+        }
+
+        /**
+         * Copies a subtree that may be {@link #isModifiedInPlace(PathElement) modified in place}. Whoever changes the
+         * children of such a resource holds its monitor, so each resource is copied while holding it. Its model may
+         * still be written concurrently, in which case the copy of the model is retried.
+         *
+         * @param resource the root of the subtree. Cannot be {@code null}
+         * @return a copy of the subtree that is not visible to any other thread
+         */
+        public static Resource snapshot(final Resource resource) {
+            if (resource.isRuntime() || resource.isProxy()) {
+                return resource.clone();
+            }
+            final Resource copy = Factory.create();
+            synchronized (resource) {
+                for (;;) {
+                    try {
+                        copy.writeModel(resource.getModel());
+                        break;
+                    } catch (ConcurrentModificationException ignore) {
+                        // written by a deployment processor, try again
+                    }
+                }
+                for (final String childType : resource.getChildTypes()) {
+                    for (final String childName : resource.getChildrenNames(childType)) {
+                        final PathElement element = PathElement.pathElement(childType, childName);
+                        copy.registerChild(element, snapshot(resource.getChild(element)));
+                    }
+                }
+            }
+            return copy;
+        }
+
     }
 
     /**
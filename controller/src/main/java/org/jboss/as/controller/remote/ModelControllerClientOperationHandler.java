@@ -131,21 +131,23 @@ public class ModelControllerClientOperationHandler implements ManagementRequestH
 
             final ManagementRequestHeader header = ManagementRequestHeader.class.cast(context.getRequestHeader());
             final int batchId = header.getBatchId();
-            final ModelNode result = new ModelNode();
+            ModelNode result;
             final OperationMessageHandlerProxy messageHandlerProxy = new OperationMessageHandlerProxy(channelAssociation, batchId);
             final OperationAttachmentsProxy attachmentsProxy = OperationAttachmentsProxy.create(channelAssociation, batchId, attachmentsLength);
             try {
                 ROOT_LOGGER.tracef("Executing client request %d(%d)", batchId, header.getRequestId());
-                result.set(controller.execute(
+                // The response is not shared with anything else, so there is no need to copy it before it gets
+                // written out to the channel
+                result = controller.execute(
                         operation,
                         messageHandlerProxy,
                         ModelController.OperationTransactionControl.COMMIT,
-                        attachmentsProxy));
+                        attachmentsProxy);
             } catch (Exception e) {
                 final ModelNode failure = new ModelNode();
                 failure.get(OUTCOME).set(FAILED);
                 failure.get(FAILURE_DESCRIPTION).set(e.getClass().getName() + ":" + e.getMessage());
-                result.set(failure);
+                result = failure;
                 attachmentsProxy.shutdown(e);
             } finally {
                 ROOT_LOGGER.tracef("Executed client request %d", batchId);
@@ -27,10 +27,12 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -39,6 +41,7 @@ import org.jboss.as.controller.client.ModelControllerClient;
 import org.jboss.as.controller.client.OperationAttachments;
 import org.jboss.as.controller.client.OperationBuilder;
 import org.jboss.as.controller.client.OperationMessageHandler;
+import org.jboss.as.controller.client.helpers.OperationPipeline;
 import org.jboss.as.controller.remote.ExistingChannelModelControllerClient;
 import org.jboss.as.controller.remote.ModelControllerClientOperationHandler;
 import org.jboss.as.controller.support.RemoteChannelPairSetup;
@@ -304,6 +307,56 @@ public class ModelControllerClientTestCase {
 
     }
 
+    /**
+     * Compares sending small operations one at a time with sending them through an {@link OperationPipeline}, over a
+     * loopback connection.
+     */
+    @Test
+    public void testPipelinedThroughput() throws Exception {
+        MockModelController controller = new MockModelController() {
+            @Override
+            public ModelNode execute(ModelNode operation, OperationMessageHandler handler, OperationTransactionControl control, OperationAttachments attachments) {
+                ModelNode result = new ModelNode();
+                result.get("testing").set(operation.get("test"));
+                return result;
+            }
+        };
+        final ModelControllerClient client = setupTestClient(controller);
+        try {
+            final int count = 2000;
+            final List<ModelNode> operations = new ArrayList<ModelNode>(count);
+            for (int i = 0; i < count; i++) {
+                ModelNode operation = new ModelNode();
+                operation.get("test").set(i);
+                operations.add(operation);
+            }
+            // warm up both paths
+            for (int i = 0; i < 100; i++) {
+                client.execute(operations.get(i));
+            }
+            new OperationPipeline(client).executeAll(operations.subList(0, 100));
+
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                assertEquals(i, client.execute(operations.get(i)).get("testing").asInt());
+            }
+            final long sequential = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            final List<ModelNode> results = new OperationPipeline(client).executeAll(operations);
+            final long pipelined = System.nanoTime() - start;
+            assertEquals(count, results.size());
+            for (int i = 0; i < count; i++) {
+                assertEquals(i, results.get(i).get("testing").asInt());
+            }
+
+            log.infof("%d operations: sequential %d ops/s, pipelined %d ops/s", count,
+                    count * TimeUnit.SECONDS.toNanos(1) / sequential, count * TimeUnit.SECONDS.toNanos(1) / pipelined);
+        } finally {
+            IoUtils.safeClose(client);
+        }
+    }
+
     private void assertArrays(byte[] expected, byte[] actual) {
         assertEquals(expected.length, actual.length);
         for (int i = 0 ; i < expected.length ; i++) {
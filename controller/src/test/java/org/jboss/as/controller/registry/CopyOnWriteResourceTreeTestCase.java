@@ -0,0 +1,251 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.controller.registry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.dmr.ModelNode;
+import org.jboss.logging.Logger;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link CopyOnWriteResourceTree}.
+ */
+public class CopyOnWriteResourceTreeTestCase {
+
+    private static final Logger log = Logger.getLogger(CopyOnWriteResourceTreeTestCase.class);
+
+    private static final PathElement SUBSYSTEM_A = PathElement.pathElement("subsystem", "a");
+    private static final PathElement SUBSYSTEM_B = PathElement.pathElement("subsystem", "b");
+    private static final PathElement CHILD = PathElement.pathElement("child", "one");
+    private static final PathElement OTHER_CHILD = PathElement.pathElement("child", "two");
+    private static final PathElement SUBSYSTEM_0 = PathElement.pathElement("subsystem", "0");
+    private static final PathElement CHILD_0 = PathElement.pathElement("child", "0");
+
+    private Resource original;
+    private ModelNode originalModel;
+
+    @Before
+    public void setup() {
+        original = Resource.Factory.create();
+        original.getModel().get("attr").set("root");
+        for (PathElement subsystem : new PathElement[] {SUBSYSTEM_A, SUBSYSTEM_B}) {
+            final Resource resource = Resource.Factory.create();
+            resource.getModel().get("attr").set(subsystem.getValue());
+            for (PathElement child : new PathElement[] {CHILD, OTHER_CHILD}) {
+                final Resource childResource = Resource.Factory.create();
+                childResource.getModel().get("attr").set(child.getValue());
+                resource.registerChild(child, childResource);
+            }
+            original.registerChild(subsystem, resource);
+        }
+        originalModel = Resource.Tools.readModel(original);
+    }
+
+    @Test
+    public void testOnlyWrittenPathIsCopied() {
+        final CopyOnWriteResourceTree tree = new CopyOnWriteResourceTree(original);
+        final Resource root = tree.getRoot();
+        assertNotSame(original, root);
+
+        final Resource a = tree.getWritableChild(root, SUBSYSTEM_A);
+        final Resource child = tree.getWritableChild(a, CHILD);
+        child.getModel().get("attr").set("changed");
+
+        // the written path is copied, everything else is shared
+        assertNotSame(original.getChild(SUBSYSTEM_A), a);
+        assertNotSame(original.getChild(SUBSYSTEM_A).getChild(CHILD), child);
+        assertSame(original.getChild(SUBSYSTEM_A).getChild(OTHER_CHILD), a.getChild(OTHER_CHILD));
+        assertSame(original.getChild(SUBSYSTEM_B), root.getChild(SUBSYSTEM_B));
+
+        // the original is untouched
+        assertEquals(originalModel, Resource.Tools.readModel(original));
+        assertEquals("changed", root.navigate(PathAddress.pathAddress(SUBSYSTEM_A, CHILD)).getModel().get("attr").asString());
+
+        // a resource is only copied once
+        assertSame(a, tree.getWritableChild(root, SUBSYSTEM_A));
+        assertSame(child, tree.getWritableChild(a, CHILD));
+    }
+
+    @Test
+    public void testChildOrderIsKept() {
+        final CopyOnWriteResourceTree tree = new CopyOnWriteResourceTree(original);
+        tree.getWritableChild(tree.getRoot(), SUBSYSTEM_A);
+        tree.getWritableChild(tree.getRoot(), SUBSYSTEM_B);
+
+        final List<String> names = new ArrayList<String>(tree.getRoot().getChildrenNames("subsystem"));
+        assertEquals("a", names.get(0));
+        assertEquals("b", names.get(1));
+    }
+
+    @Test
+    public void testRegisterAndRemove() {
+        final CopyOnWriteResourceTree tree = new CopyOnWriteResourceTree(original);
+        final Resource a = tree.getWritableChild(tree.getRoot(), SUBSYSTEM_A);
+        final Resource added = Resource.Factory.create();
+        final PathElement newChild = PathElement.pathElement("child", "three");
+        tree.registerChild(a, newChild, added);
+        a.removeChild(OTHER_CHILD);
+
+        // a registered child is writable as it is
+        assertSame(added, tree.getWritableChild(a, newChild));
+        assertTrue(a.hasChild(newChild));
+        assertFalse(a.hasChild(OTHER_CHILD));
+        assertNull(tree.getWritableChild(a, OTHER_CHILD));
+
+        assertEquals(originalModel, Resource.Tools.readModel(original));
+    }
+
+    @Test
+    public void testDetachSubtree() {
+        final CopyOnWriteResourceTree tree = new CopyOnWriteResourceTree(original);
+        final Resource a = tree.getWritableChild(tree.getRoot(), SUBSYSTEM_A);
+        final Resource child = tree.getWritableChild(a, CHILD);
+        tree.detachSubtree(a);
+
+        // already copied children are kept, shared ones are replaced by private copies
+        assertSame(child, a.getChild(CHILD));
+        assertNotSame(original.getChild(SUBSYSTEM_A).getChild(OTHER_CHILD), a.getChild(OTHER_CHILD));
+
+        a.getChild(OTHER_CHILD).getModel().get("attr").set("changed");
+        assertEquals(originalModel, Resource.Tools.readModel(original));
+
+        // below a detached resource nothing is copied anymore
+        assertSame(a.getChild(OTHER_CHILD), tree.getWritableChild(a, OTHER_CHILD));
+    }
+
+    @Test
+    public void testModelIsCopied() {
+        original.getModel().get("list").add("one");
+        originalModel = Resource.Tools.readModel(original);
+
+        final CopyOnWriteResourceTree tree = new CopyOnWriteResourceTree(original);
+        tree.getRoot().getModel().get("list").add("two");
+        tree.getRoot().getModel().get("attr").set("changed");
+
+        assertEquals(originalModel, Resource.Tools.readModel(original));
+    }
+
+    /**
+     * Compares the latency and garbage of a single attribute write between the full clone of the model which used to
+     * be made for every write and the path copy, as the model grows. The allocation figures need a JVM whose
+     * {@link ThreadMXBean} implements {@code com.sun.management.ThreadMXBean}.
+     */
+    @Test
+    public void testWriteCost() {
+        final int iterations = 50;
+        for (int size : new int[] {100, 1000, 10000}) {
+            final Resource model = createModel(size);
+            final ModelNode before = Resource.Tools.readModel(model);
+            for (WriteStrategy strategy : WriteStrategy.values()) {
+                // warm up
+                final Resource written = write(strategy, model, iterations);
+                assertEquals("changed", written.getChild(SUBSYSTEM_0).getChild(CHILD_0).getModel().get("attr").asString());
+
+                final long allocatedBefore = allocatedBytes();
+                final long start = System.nanoTime();
+                write(strategy, model, iterations);
+                final long nanos = System.nanoTime() - start;
+                final long allocated = allocatedBytes() - allocatedBefore;
+                log.infof("%s with %d resources: %d us/write, %s bytes/write", strategy, size, nanos / 1000 / iterations,
+                        allocatedBefore < 0 ? "n/a" : String.valueOf(allocated / iterations));
+            }
+            // neither strategy touches the model it started from
+            assertEquals(before, Resource.Tools.readModel(model));
+        }
+    }
+
+    private enum WriteStrategy {
+        FULL_CLONE {
+            Resource write(Resource model) {
+                final Resource copy = model.clone();
+                copy.getChild(SUBSYSTEM_0).getChild(CHILD_0).getModel().get("attr").set("changed");
+                return copy;
+            }
+        },
+        PATH_COPY {
+            Resource write(Resource model) {
+                final CopyOnWriteResourceTree tree = new CopyOnWriteResourceTree(model);
+                final Resource subsystem = tree.getWritableChild(tree.getRoot(), SUBSYSTEM_0);
+                tree.getWritableChild(subsystem, CHILD_0).getModel().get("attr").set("changed");
+                return tree.getRoot();
+            }
+        };
+
+        abstract Resource write(Resource model);
+    }
+
+    private static Resource write(final WriteStrategy strategy, final Resource model, final int iterations) {
+        Resource current = model;
+        for (int i = 0; i < iterations; i++) {
+            current = strategy.write(current);
+        }
+        return current;
+    }
+
+    /**
+     * Creates a two level model with roughly the given number of resources, each of them holding a few attributes.
+     */
+    private static Resource createModel(final int size) {
+        final int childrenPerSubsystem = 10;
+        final Resource root = Resource.Factory.create();
+        final int subsystems = Math.max(1, size / (childrenPerSubsystem + 1));
+        for (int i = 0; i < subsystems; i++) {
+            final Resource subsystem = createResource(i);
+            for (int j = 0; j < childrenPerSubsystem; j++) {
+                subsystem.registerChild(PathElement.pathElement("child", String.valueOf(j)), createResource(j));
+            }
+            root.registerChild(PathElement.pathElement("subsystem", String.valueOf(i)), subsystem);
+        }
+        return root;
+    }
+
+    private static Resource createResource(final int index) {
+        final Resource resource = Resource.Factory.create();
+        resource.getModel().get("attr").set("value-" + index);
+        resource.getModel().get("enabled").set(true);
+        resource.getModel().get("size").set(index);
+        resource.getModel().get("list").add("one").add("two");
+        return resource;
+    }
+
+    private static long allocatedBytes() {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
@@ -43,6 +43,7 @@ import org.jboss.as.controller.ExpressionResolver;
 import org.jboss.as.controller.ModelController;
 import org.jboss.as.controller.OperationContext;
 import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.OperationMetrics;
 import org.jboss.as.controller.PathAddress;
 import org.jboss.as.controller.PathElement;
 import org.jboss.as.controller.ProcessType;
@@ -82,6 +83,7 @@ public abstract class AbstractControllerTestBase {
 
     private ServiceContainer container;
     private ModelController controller;
+    private volatile OperationMetrics operationMetrics;
     protected final ProcessType processType;
 
     protected AbstractControllerTestBase(ProcessType processType) {
@@ -100,6 +102,13 @@ public abstract class AbstractControllerTestBase {
         return container;
     }
 
+    /**
+     * Gets the metrics of the operations executed by the controller, available from {@link #initModel} on.
+     */
+    protected OperationMetrics getOperationMetrics() {
+        return operationMetrics;
+    }
+
     protected ModelNode createOperation(String operationName, String...address) {
         ModelNode operation = new ModelNode();
         operation.get(OP).set(operationName);
@@ -193,6 +202,7 @@ public abstract class AbstractControllerTestBase {
         }
 
         protected void initModel(Resource rootResource, ManagementResourceRegistration rootRegistration) {
+            AbstractControllerTestBase.this.operationMetrics = getOperationMetrics();
             try {
                 AbstractControllerTestBase.this.initModel(rootResource, rootRegistration);
             } catch(Exception e) {
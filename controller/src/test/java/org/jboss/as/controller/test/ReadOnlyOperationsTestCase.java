@@ -0,0 +1,312 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.controller.test;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ATTRIBUTES;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.CORE_SERVICE;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.DEFAULT;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.DEPLOYMENT;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.DESCRIPTION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.INCLUDE_DEFAULTS;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.MANAGEMENT;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_ATTRIBUTE_OPERATION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_RESOURCE_OPERATION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RECURSIVE;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RECURSIVE_DEPTH;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUBSYSTEM;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.TYPE;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import junit.framework.Assert;
+
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.OperationStepHandler;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.as.controller.descriptions.DescriptionProvider;
+import org.jboss.as.controller.descriptions.common.CommonProviders;
+import org.jboss.as.controller.operations.common.OperationMetricsHandler;
+import org.jboss.as.controller.operations.global.GlobalOperationHandlers;
+import org.jboss.as.controller.registry.AttributeAccess;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.as.controller.registry.OperationEntry;
+import org.jboss.as.controller.registry.OperationEntry.Flag;
+import org.jboss.as.controller.registry.Resource;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.junit.Test;
+
+/**
+ * Tests the read-resource and read-attribute operations which read the model without copying it.
+ */
+public class ReadOnlyOperationsTestCase extends AbstractControllerTestBase {
+
+    private volatile Resource grabbed;
+
+    @Test
+    public void testRecursiveReadFromModel() throws Exception {
+        ModelNode op = createOperation(READ_RESOURCE_OPERATION, "test", "one");
+        op.get(RECURSIVE).set(true);
+
+        ModelNode expected = new ModelNode();
+        expected.get("default").set("x");
+        expected.get("prop").set("A");
+        expected.get("item", "i", "value").set("I");
+        Assert.assertEquals(expected, executeForResult(op));
+
+        op.get(INCLUDE_DEFAULTS).set(false);
+        expected.remove("default");
+        Assert.assertEquals(expected, executeForResult(op));
+    }
+
+    @Test
+    public void testRecursiveDepth() throws Exception {
+        ModelNode op = createOperation(READ_RESOURCE_OPERATION, "test", "one");
+        op.get(RECURSIVE_DEPTH).set(1);
+        ModelNode result = executeForResult(op);
+        Assert.assertEquals("I", result.get("item", "i", "value").asString());
+
+        op = createOperation(READ_RESOURCE_OPERATION);
+        op.get(RECURSIVE_DEPTH).set(1);
+        result = executeForResult(op);
+        Assert.assertEquals("A", result.get("test", "one", "prop").asString());
+        // one level down the children are only listed
+        Assert.assertTrue(result.get("test", "one", "item").has("i"));
+        Assert.assertFalse(result.get("test", "one", "item", "i").isDefined());
+    }
+
+    @Test
+    public void testRecursiveReadWithReadHandler() throws Exception {
+        ModelNode op = createOperation(READ_RESOURCE_OPERATION);
+        op.get(RECURSIVE).set(true);
+        ModelNode result = executeForResult(op);
+        Assert.assertEquals("handled", result.get("other", "o", "value").asString());
+        Assert.assertEquals("A", result.get("test", "one", "prop").asString());
+        Assert.assertEquals("I", result.get("test", "one", "item", "i", "value").asString());
+        Assert.assertEquals("x", result.get("test", "two", "default").asString());
+    }
+
+    @Test
+    public void testReadAttributeDoesNotModifyModel() throws Exception {
+        ModelNode op = createOperation(READ_ATTRIBUTE_OPERATION, "test", "two");
+        op.get(NAME).set("prop");
+        op.get(INCLUDE_DEFAULTS).set(false);
+        Assert.assertFalse(executeForResult(op).isDefined());
+
+        op = createOperation(READ_RESOURCE_OPERATION, "test", "two");
+        op.get(INCLUDE_DEFAULTS).set(false);
+        Assert.assertFalse(executeForResult(op).has("prop"));
+
+        op = createOperation(READ_ATTRIBUTE_OPERATION, "test", "one");
+        op.get(NAME).set("prop");
+        Assert.assertEquals("A", executeForResult(op).asString());
+    }
+
+    @Test
+    public void testOperationMetrics() throws Exception {
+        executeForResult(createOperation(READ_RESOURCE_OPERATION));
+        executeForResult(createOperation(READ_RESOURCE_OPERATION));
+
+        ModelNode op = createOperation(READ_ATTRIBUTE_OPERATION, CORE_SERVICE, MANAGEMENT);
+        op.get(NAME).set(OperationMetricsHandler.OPERATION_INVOCATION_COUNTS.getName());
+        Assert.assertEquals(2L, executeForResult(op).get(READ_RESOURCE_OPERATION).asLong());
+
+        op.get(NAME).set(OperationMetricsHandler.OPERATION_TOTAL_TIMES.getName());
+        Assert.assertTrue(executeForResult(op).get(READ_RESOURCE_OPERATION).asLong() > 0);
+        // the read of the counts has been recorded by now
+        Assert.assertTrue(executeForResult(op).has(READ_ATTRIBUTE_OPERATION));
+
+        op.get(NAME).set(OperationMetricsHandler.OPERATION_MAX_TIMES.getName());
+        Assert.assertTrue(executeForResult(op).get(READ_RESOURCE_OPERATION).asLong() > 0);
+    }
+
+    @Test
+    public void testRecursiveReadOfDeploymentChangedInPlace() throws Exception {
+        // deployment processors add and remove the resources below a deployment on the published model
+        executeForResult(createOperation("grab"));
+        final Resource deployment = grabbed;
+        Assert.assertNotNull(deployment);
+        final PathElement subsystem = PathElement.pathElement(SUBSYSTEM, "s");
+        final AtomicBoolean done = new AtomicBoolean();
+        final Thread processor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (!done.get()) {
+                    synchronized (deployment) {
+                        if (deployment.hasChild(subsystem)) {
+                            deployment.removeChild(subsystem);
+                        } else {
+                            final Resource resource = Resource.Factory.create();
+                            resource.getModel().get("value").set("V");
+                            deployment.registerChild(subsystem, resource);
+                        }
+                    }
+                }
+            }
+        });
+        processor.start();
+        try {
+            final ModelNode rootOp = createOperation(READ_RESOURCE_OPERATION);
+            rootOp.get(RECURSIVE).set(true);
+            final ModelNode deploymentOp = createOperation(READ_RESOURCE_OPERATION, DEPLOYMENT, "d");
+            deploymentOp.get(RECURSIVE).set(true);
+            for (int i = 0; i < 500; i++) {
+                assertDeployment(executeForResult(rootOp).get(DEPLOYMENT, "d"));
+                assertDeployment(executeForResult(deploymentOp));
+            }
+        } finally {
+            done.set(true);
+            processor.join();
+        }
+    }
+
+    private static void assertDeployment(final ModelNode deployment) {
+        Assert.assertEquals("d", deployment.get("name").asString());
+        if (deployment.hasDefined(SUBSYSTEM)) {
+            Assert.assertEquals("V", deployment.get(SUBSYSTEM, "s", "value").asString());
+        }
+    }
+
+    @Override
+    protected DescriptionProvider getRootDescriptionProvider() {
+        return new DescriptionProvider() {
+            @Override
+            public ModelNode getModelDescription(Locale locale) {
+                return new ModelNode();
+            }
+        };
+    }
+
+    @Override
+    protected void initModel(Resource rootResource, ManagementResourceRegistration registration) {
+        ManagementResourceRegistration management = registration.registerSubModel(PathElement.pathElement(CORE_SERVICE, MANAGEMENT), CommonProviders.MANAGEMENT_WITH_INTERFACES_PROVIDER);
+        OperationMetricsHandler.registerMetrics(management, getOperationMetrics());
+        rootResource.registerChild(PathElement.pathElement(CORE_SERVICE, MANAGEMENT), Resource.Factory.create());
+
+        ManagementResourceRegistration deploymentReg = registration.registerSubModel(PathElement.pathElement(DEPLOYMENT), new DescriptionProvider() {
+            @Override
+            public ModelNode getModelDescription(Locale locale) {
+                ModelNode node = new ModelNode();
+                node.get(DESCRIPTION).set("A deployment");
+                node.get(ATTRIBUTES, "name", TYPE).set(ModelType.STRING);
+                node.get(ATTRIBUTES, "name", DESCRIPTION).set("A name");
+                return node;
+            }
+        });
+        deploymentReg.registerSubModel(PathElement.pathElement(SUBSYSTEM), new DescriptionProvider() {
+            @Override
+            public ModelNode getModelDescription(Locale locale) {
+                ModelNode node = new ModelNode();
+                node.get(DESCRIPTION).set("A deployment subsystem added while the deployment is processed");
+                node.get(ATTRIBUTES, "value", TYPE).set(ModelType.STRING);
+                node.get(ATTRIBUTES, "value", DESCRIPTION).set("A value");
+                return node;
+            }
+        });
+        registration.registerOperationHandler("grab", new OperationStepHandler() {
+            @Override
+            public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
+                // the root is not copied, so this is the deployment resource held by the published model
+                grabbed = context.readResourceView(PathAddress.EMPTY_ADDRESS).getChild(PathElement.pathElement(DEPLOYMENT, "d"));
+                context.completeStep();
+            }
+        }, new DescriptionProvider() {
+            @Override
+            public ModelNode getModelDescription(Locale locale) {
+                return new ModelNode();
+            }
+        }, false, OperationEntry.EntryType.PRIVATE);
+
+        registration.registerOperationHandler(READ_RESOURCE_OPERATION, GlobalOperationHandlers.READ_RESOURCE, CommonProviders.READ_RESOURCE_PROVIDER, true, EnumSet.of(Flag.RUNTIME_ONLY));
+        registration.registerOperationHandler(READ_ATTRIBUTE_OPERATION, GlobalOperationHandlers.READ_ATTRIBUTE, CommonProviders.READ_ATTRIBUTE_PROVIDER, true, EnumSet.of(Flag.RUNTIME_ONLY));
+        registration.registerOperationHandler("setup", new OperationStepHandler() {
+            @Override
+            public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
+                final ModelNode model = new ModelNode();
+                model.get("test", "one", "prop").set("A");
+                model.get("test", "one", "item", "i", "value").set("I");
+                model.get("test", "two", "name").set("two");
+                model.get("other", "o", "name").set("o");
+                model.get(DEPLOYMENT, "d", "name").set("d");
+                createModel(context, model);
+                context.completeStep();
+            }
+        }, new DescriptionProvider() {
+            @Override
+            public ModelNode getModelDescription(Locale locale) {
+                return new ModelNode();
+            }
+        }, false, OperationEntry.EntryType.PRIVATE);
+
+        ManagementResourceRegistration testReg = registration.registerSubModel(PathElement.pathElement("test"), new DescriptionProvider() {
+            @Override
+            public ModelNode getModelDescription(Locale locale) {
+                ModelNode node = new ModelNode();
+                node.get(DESCRIPTION).set("A test node");
+                node.get(ATTRIBUTES, "name", TYPE).set(ModelType.STRING);
+                node.get(ATTRIBUTES, "name", DESCRIPTION).set("A name");
+                node.get(ATTRIBUTES, "prop", TYPE).set(ModelType.STRING);
+                node.get(ATTRIBUTES, "prop", DESCRIPTION).set("A test property");
+                node.get(ATTRIBUTES, "default", TYPE).set(ModelType.STRING);
+                node.get(ATTRIBUTES, "default", DESCRIPTION).set("A property with a default");
+                node.get(ATTRIBUTES, "default", DEFAULT).set("x");
+                return node;
+            }
+        });
+        testReg.registerReadOnlyAttribute("prop", null, AttributeAccess.Storage.CONFIGURATION);
+        testReg.registerSubModel(PathElement.pathElement("item"), new DescriptionProvider() {
+            @Override
+            public ModelNode getModelDescription(Locale locale) {
+                ModelNode node = new ModelNode();
+                node.get(DESCRIPTION).set("A nested test node");
+                node.get(ATTRIBUTES, "value", TYPE).set(ModelType.STRING);
+                node.get(ATTRIBUTES, "value", DESCRIPTION).set("A value");
+                return node;
+            }
+        });
+
+        ManagementResourceRegistration otherReg = registration.registerSubModel(PathElement.pathElement("other"), new DescriptionProvider() {
+            @Override
+            public ModelNode getModelDescription(Locale locale) {
+                ModelNode node = new ModelNode();
+                node.get(DESCRIPTION).set("A node with an attribute read by a handler");
+                node.get(ATTRIBUTES, "name", TYPE).set(ModelType.STRING);
+                node.get(ATTRIBUTES, "name", DESCRIPTION).set("A name");
+                node.get(ATTRIBUTES, "value", TYPE).set(ModelType.STRING);
+                node.get(ATTRIBUTES, "value", DESCRIPTION).set("A handled value");
+                return node;
+            }
+        });
+        otherReg.registerReadOnlyAttribute("value", new OperationStepHandler() {
+            @Override
+            public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
+                context.getResult().set("handled");
+                context.completeStep();
+            }
+        }, AttributeAccess.Storage.CONFIGURATION);
+    }
+}
@@ -105,7 +105,8 @@ class TestModelControllerService extends ModelTestModelControllerService {
                     null /*vaultReader*/,
                     new ExtensionRegistry(ProcessType.STANDALONE_SERVER, runningModeControl),
                     false /*parallelBoot*/,
-                    pathManagerService);
+                    pathManagerService,
+                    getOperationMetrics());
 
             //Add the same stuff as is added in ServerService.initModel()
             rootResource.registerChild(PathElement.pathElement(ModelDescriptionConstants.CORE_SERVICE, ModelDescriptionConstants.MANAGEMENT), Resource.Factory.create());
@@ -147,7 +148,8 @@ class TestModelControllerService extends ModelTestModelControllerService {
                     null /*vaultReader*/,
                     ignoredRegistry,
                     null /*processState*/,
-                    pathManagerService);
+                    pathManagerService,
+                    getOperationMetrics());
         } else if (type == ModelType.DOMAIN){
             final HostControllerEnvironment env = createHostControllerEnvironment();
             final LocalHostControllerInfoImpl info = createLocalHostControllerInfo(env);
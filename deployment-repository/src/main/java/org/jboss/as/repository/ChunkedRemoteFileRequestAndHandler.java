@@ -0,0 +1,435 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.repository;
+
+import static org.jboss.as.protocol.mgmt.ProtocolUtils.expectHeader;
+import static org.jboss.as.repository.DeploymentRepositoryMessages.MESSAGES;
+
+import java.io.DataInput;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import org.jboss.as.protocol.StreamUtils;
+import org.jboss.as.protocol.mgmt.ActiveOperation;
+import org.jboss.as.protocol.mgmt.FlushableDataOutput;
+import org.jboss.as.protocol.mgmt.ManagementRequestContext;
+import org.jboss.as.protocol.mgmt.ManagementResponseHeader;
+import org.jboss.as.repository.RemoteFileRequestAndHandler.CannotCreateLocalDirectoryException;
+import org.jboss.as.repository.RemoteFileRequestAndHandler.RootFileReader;
+import org.jboss.logging.BasicLogger;
+
+/**
+ * Protocol code for getting content from a remote repository in chunks, so that an interrupted transfer can be resumed.
+ * <p/>
+ * The content is first received into a staging directory next to its final location. When requesting the content the
+ * receiving side sends the SHA-1 hash of every chunk it already has in there, and the sending side only sends the
+ * chunks which differ. Once everything arrived the content is checked against its expected hash and moved in place,
+ * so a partial transfer is never mistaken for the complete content.
+ * <p/>
+ * This is only suitable for content which does not change, such as deployment content addressed by its hash.
+ */
+public abstract class ChunkedRemoteFileRequestAndHandler {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+    private static final int MIN_CHUNK_SIZE = 8 * 1024;
+    private static final int MAX_CHUNK_SIZE = 64 * 1024 * 1024;
+    private static final int HASH_LENGTH = 20;
+    private static final String STAGING_SUFFIX = ".part";
+
+    private final ChunkedFileProtocolIdMapper protocol;
+    private final Executor asyncExecutor;
+    private final int chunkSize;
+
+    protected ChunkedRemoteFileRequestAndHandler(ChunkedFileProtocolIdMapper protocol, Executor asyncExecutor, int chunkSize) {
+        this.protocol = protocol;
+        this.asyncExecutor = asyncExecutor;
+        this.chunkSize = checkChunkSize(chunkSize);
+    }
+
+    /**
+     * Gets the directory content for the given local path is received into.
+     *
+     * @param localPath the final location of the content
+     * @return the staging directory
+     */
+    public static File getStagingDirectory(File localPath) {
+        return new File(localPath.getParentFile(), localPath.getName() + STAGING_SUFFIX);
+    }
+
+    public void sendRequest(FlushableDataOutput output, byte rootId, String filePath, File localPath) throws IOException {
+        output.writeByte(protocol.paramRootId());
+        output.writeByte(rootId);
+        output.writeByte(protocol.paramFilePath());
+        output.writeUTF(filePath);
+        output.writeByte(protocol.paramChunkSize());
+        output.writeInt(chunkSize);
+        // Tell the other side which chunks we already have from a previous attempt
+        final File staging = getStagingDirectory(localPath);
+        final List<File> files = staging.isDirectory() ? getChildFiles(staging) : Collections.<File>emptyList();
+        output.writeByte(protocol.paramNumFiles());
+        output.writeInt(files.size());
+        final byte[] buffer = new byte[chunkSize];
+        final MessageDigest digest = createDigest();
+        for (File file : files) {
+            final List<byte[]> hashes = hashChunks(file, buffer, digest);
+            output.writeByte(protocol.paramFilePath());
+            output.writeUTF(getRelativePath(staging, file));
+            output.writeByte(protocol.paramNumChunks());
+            output.writeInt(hashes.size());
+            for (byte[] hash : hashes) {
+                output.write(hash);
+            }
+        }
+    }
+
+    /**
+     * Receive the requested content.
+     *
+     * @param input the input
+     * @param localPath the final location of the content
+     * @param expectedHash the SHA-1 hash the content must have if it is a single file, or {@code null} to skip the check
+     * @param log the logger
+     * @param resultHandler the result handler
+     * @param context the request context
+     */
+    public void handleResponse(DataInput input, File localPath, byte[] expectedHash, BasicLogger log, ActiveOperation.ResultHandler<File> resultHandler, ManagementRequestContext<Void> context)
+            throws IOException, CannotCreateLocalDirectoryException, ContentHashMismatchException {
+        expectHeader(input, protocol.paramNumFiles());
+        int numFiles = input.readInt();
+        log.debugf("Received %d files for %s", numFiles, localPath);
+        switch (numFiles) {
+            case -1: { // Not found remotely
+                break;
+            }
+            case 0: { // Found remotely, but was an empty dir
+                if (!localPath.mkdirs()) {
+                    throw new CannotCreateLocalDirectoryException(localPath);
+                }
+                break;
+            }
+            default: {
+                final File staging = getStagingDirectory(localPath);
+                if (!staging.exists() && !staging.mkdirs()) {
+                    throw new CannotCreateLocalDirectoryException(staging);
+                }
+                // Only a single file can be checked against the hash of the content
+                final MessageDigest digest = numFiles == 1 && expectedHash != null ? createDigest() : null;
+                for (int i = 0; i < numFiles; i++) {
+                    readFile(input, staging, digest, log);
+                }
+                if (digest != null && !Arrays.equals(expectedHash, digest.digest())) {
+                    // Start over next time
+                    deleteRecursively(staging);
+                    throw new ContentHashMismatchException(HashUtil.bytesToHexString(expectedHash));
+                }
+                if (!localPath.getParentFile().exists() && !localPath.getParentFile().mkdirs()) {
+                    throw new CannotCreateLocalDirectoryException(localPath.getParentFile());
+                }
+                if (!staging.renameTo(localPath)) {
+                    throw new CannotCreateLocalDirectoryException(localPath);
+                }
+            }
+        }
+        resultHandler.done(localPath);
+    }
+
+    private void readFile(final DataInput input, final File staging, final MessageDigest digest, final BasicLogger log)
+            throws IOException, CannotCreateLocalDirectoryException {
+        expectHeader(input, protocol.fileStart());
+        expectHeader(input, protocol.paramFilePath());
+        final String path = input.readUTF();
+        expectHeader(input, protocol.paramFileSize());
+        final long length = input.readLong();
+        expectHeader(input, protocol.paramChunkSize());
+        final int size = checkChunkSize(input.readInt());
+        final File file = new File(staging, path);
+        if (!file.getParentFile().exists() && !file.getParentFile().mkdirs()) {
+            throw new CannotCreateLocalDirectoryException(file.getParentFile());
+        }
+        final byte[] buffer = new byte[size];
+        int received = 0;
+        final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            final FileChannel channel = raf.getChannel();
+            long position = 0;
+            while (position < length) {
+                final int len = (int) Math.min(size, length - position);
+                final byte marker = input.readByte();
+                if (marker == protocol.chunkPresent()) {
+                    if (digest != null) {
+                        readFully(channel, buffer, len, position);
+                        digest.update(buffer, 0, len);
+                    }
+                } else {
+                    expectHeader(marker, protocol.chunkData());
+                    input.readFully(buffer, 0, len);
+                    final ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, len);
+                    while (bytes.hasRemaining()) {
+                        channel.write(bytes, position + bytes.position());
+                    }
+                    if (digest != null) {
+                        digest.update(buffer, 0, len);
+                    }
+                    received++;
+                }
+                position += len;
+            }
+            channel.truncate(length);
+        } finally {
+            StreamUtils.safeClose(raf);
+        }
+        log.debugf("Received file [%s] of length %d, %d of its chunks were transferred", path, length, received);
+        expectHeader(input, protocol.fileEnd());
+    }
+
+    public void handleRequest(final DataInput input, final RootFileReader reader, final ManagementRequestContext<Void> context) throws IOException {
+        final ChunkedFileRequest request = readRequest(input);
+
+        ManagementRequestContext.AsyncTask<Void> task = new ManagementRequestContext.AsyncTask<Void>() {
+            @Override
+            public void execute(ManagementRequestContext<Void> context) throws Exception {
+                final File localPath = reader.readRootFile(request.rootId, request.filePath);
+                FlushableDataOutput output = context.writeMessage(ManagementResponseHeader.create(context.getRequestHeader()));
+                try {
+                    writeResponse(localPath, request.existing, request.chunkSize, output);
+                    output.close();
+                } finally {
+                    StreamUtils.safeClose(output);
+                }
+            }
+        };
+
+        if (asyncExecutor == null) {
+            context.executeAsync(task);
+        } else {
+            context.executeAsync(task, asyncExecutor);
+        }
+    }
+
+    ChunkedFileRequest readRequest(final DataInput input) throws IOException {
+        expectHeader(input, protocol.paramRootId());
+        final byte rootId = input.readByte();
+        expectHeader(input, protocol.paramFilePath());
+        final String filePath = input.readUTF();
+        expectHeader(input, protocol.paramChunkSize());
+        final int size = checkChunkSize(input.readInt());
+        expectHeader(input, protocol.paramNumFiles());
+        final int numFiles = input.readInt();
+        final Map<String, List<byte[]>> existing = new HashMap<String, List<byte[]>>();
+        for (int i = 0; i < numFiles; i++) {
+            expectHeader(input, protocol.paramFilePath());
+            final String path = input.readUTF();
+            expectHeader(input, protocol.paramNumChunks());
+            final int numChunks = input.readInt();
+            final List<byte[]> hashes = new ArrayList<byte[]>(numChunks);
+            for (int j = 0; j < numChunks; j++) {
+                final byte[] hash = new byte[HASH_LENGTH];
+                input.readFully(hash);
+                hashes.add(hash);
+            }
+            existing.put(path, hashes);
+        }
+        return new ChunkedFileRequest(rootId, filePath, size, existing);
+    }
+
+    void writeResponse(final File localPath, final Map<String, List<byte[]>> existing, final int size, final FlushableDataOutput output) throws IOException {
+        output.writeByte(protocol.paramNumFiles());
+        if (localPath == null || !localPath.exists()) {
+            output.writeInt(-1);
+            return;
+        }
+        final List<File> files = localPath.isFile() ? Collections.singletonList(localPath) : getChildFiles(localPath);
+        output.writeInt(files.size());
+        // A single buffer per transfer, every chunk is read exactly once
+        final byte[] buffer = new byte[size];
+        final MessageDigest digest = createDigest();
+        for (File file : files) {
+            final String path = file == localPath ? localPath.getName() : getRelativePath(localPath, file);
+            writeFile(file, path, existing.get(path), buffer, digest, output);
+        }
+    }
+
+    private void writeFile(final File file, final String path, final List<byte[]> hashes, final byte[] buffer, final MessageDigest digest,
+                           final FlushableDataOutput output) throws IOException {
+        final long length = file.length();
+        output.writeByte(protocol.fileStart());
+        output.writeByte(protocol.paramFilePath());
+        output.writeUTF(path);
+        output.writeByte(protocol.paramFileSize());
+        output.writeLong(length);
+        output.writeByte(protocol.paramChunkSize());
+        output.writeInt(buffer.length);
+        final FileInputStream in = new FileInputStream(file);
+        try {
+            final FileChannel channel = in.getChannel();
+            long position = 0;
+            int index = 0;
+            while (position < length) {
+                final int len = (int) Math.min(buffer.length, length - position);
+                readFully(channel, buffer, len, position);
+                if (hashes != null && index < hashes.size() && Arrays.equals(hashes.get(index), hash(digest, buffer, len))) {
+                    output.writeByte(protocol.chunkPresent());
+                } else {
+                    output.writeByte(protocol.chunkData());
+                    output.write(buffer, 0, len);
+                }
+                position += len;
+                index++;
+            }
+        } finally {
+            StreamUtils.safeClose(in);
+        }
+        output.writeByte(protocol.fileEnd());
+    }
+
+    private static List<byte[]> hashChunks(final File file, final byte[] buffer, final MessageDigest digest) throws IOException {
+        final List<byte[]> hashes = new ArrayList<byte[]>();
+        final FileInputStream in = new FileInputStream(file);
+        try {
+            final FileChannel channel = in.getChannel();
+            final long length = channel.size();
+            long position = 0;
+            while (position < length) {
+                final int len = (int) Math.min(buffer.length, length - position);
+                readFully(channel, buffer, len, position);
+                hashes.add(hash(digest, buffer, len));
+                position += len;
+            }
+        } finally {
+            StreamUtils.safeClose(in);
+        }
+        return hashes;
+    }
+
+    private static void readFully(final FileChannel channel, final byte[] buffer, final int len, final long position) throws IOException {
+        final ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, len);
+        while (bytes.hasRemaining()) {
+            if (channel.read(bytes, position + bytes.position()) < 0) {
+                throw new EOFException();
+            }
+        }
+    }
+
+    private static byte[] hash(final MessageDigest digest, final byte[] buffer, final int len) {
+        digest.reset();
+        digest.update(buffer, 0, len);
+        return digest.digest();
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw MESSAGES.cannotObtainSha1(e, MessageDigest.class.getSimpleName());
+        }
+    }
+
+    private static int checkChunkSize(final int size) {
+        return Math.min(MAX_CHUNK_SIZE, Math.max(MIN_CHUNK_SIZE, size));
+    }
+
+    private static List<File> getChildFiles(final File base) {
+        final List<File> childFiles = new ArrayList<File>();
+        getChildFiles(base, childFiles);
+        return childFiles;
+    }
+
+    private static void getChildFiles(final File base, final List<File> childFiles) {
+        for (File child : base.listFiles()) {
+            if (child.isFile()) {
+                childFiles.add(child);
+            } else {
+                getChildFiles(child, childFiles);
+            }
+        }
+    }
+
+    private static String getRelativePath(final File parent, final File child) {
+        return child.getAbsolutePath().substring(parent.getAbsolutePath().length() + 1);
+    }
+
+    private static void deleteRecursively(final File file) {
+        if (file.isDirectory()) {
+            for (File child : file.listFiles()) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
+    /**
+     * A request as read by the sending side
+     */
+    static final class ChunkedFileRequest {
+        final byte rootId;
+        final String filePath;
+        final int chunkSize;
+        final Map<String, List<byte[]>> existing;
+
+        ChunkedFileRequest(byte rootId, String filePath, int chunkSize, Map<String, List<byte[]>> existing) {
+            this.rootId = rootId;
+            this.filePath = filePath;
+            this.chunkSize = chunkSize;
+            this.existing = existing;
+        }
+    }
+
+    /**
+     * Maps the expected protocol codes to the actual protocol
+     */
+    public interface ChunkedFileProtocolIdMapper extends RemoteFileRequestAndHandler.RemoteFileProtocolIdMapper {
+        byte paramChunkSize();
+        byte paramNumChunks();
+        byte chunkPresent();
+        byte chunkData();
+    }
+
+    /**
+     * Indicates the received content does not match its hash
+     */
+    public static class ContentHashMismatchException extends Exception {
+        private static final long serialVersionUID = 1L;
+        final String hash;
+
+        private ContentHashMismatchException(String hash) {
+            this.hash = hash;
+        }
+
+        public String getHash() {
+            return hash;
+        }
+    }
+}
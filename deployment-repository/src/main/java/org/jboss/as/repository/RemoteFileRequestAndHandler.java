@@ -240,7 +240,7 @@ public abstract class RemoteFileRequestAndHandler {
         private static final long serialVersionUID = 1L;
         final File dir;
 
-        private CannotCreateLocalDirectoryException(File dir) {
+        CannotCreateLocalDirectoryException(File dir) {
             this.dir = dir;
         }
 
@@ -256,7 +256,7 @@ public abstract class RemoteFileRequestAndHandler {
         private static final long serialVersionUID = 1L;
         final long missing;
 
-        private DidNotReadEntireFileException(long missing) {
+        DidNotReadEntireFileException(long missing) {
             this.missing = missing;
         }
 
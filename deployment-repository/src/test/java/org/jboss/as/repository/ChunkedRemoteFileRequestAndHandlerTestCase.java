@@ -0,0 +1,280 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.repository;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.util.Random;
+
+import org.jboss.as.protocol.mgmt.ActiveOperation;
+import org.jboss.as.protocol.mgmt.FlushableDataOutput;
+import org.jboss.as.repository.ChunkedRemoteFileRequestAndHandler.ChunkedFileRequest;
+import org.jboss.as.repository.ChunkedRemoteFileRequestAndHandler.ContentHashMismatchException;
+import org.jboss.logging.Logger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link ChunkedRemoteFileRequestAndHandler} by passing requests and responses through byte arrays.
+ */
+public class ChunkedRemoteFileRequestAndHandlerTestCase {
+
+    private static final int CHUNK_SIZE = 8 * 1024;
+    private static final Logger log = Logger.getLogger(ChunkedRemoteFileRequestAndHandlerTestCase.class);
+
+    private final ChunkedRemoteFileRequestAndHandler handler = new ChunkedRemoteFileRequestAndHandler(new TestMapper(), null, CHUNK_SIZE) {
+    };
+
+    private File root;
+    private File source;
+    private File target;
+    private byte[] content;
+
+    @Before
+    public void before() throws Exception {
+        root = File.createTempFile("chunked-transfer", "");
+        root.delete();
+        root.mkdirs();
+        source = new File(new File(root, "master"), "content");
+        source.getParentFile().mkdirs();
+        target = new File(new File(root, "slave"), "content");
+        // three and a half chunks
+        content = new byte[CHUNK_SIZE * 7 / 2];
+        new Random(42).nextBytes(content);
+        write(source, content, content.length);
+    }
+
+    @After
+    public void after() {
+        delete(root);
+    }
+
+    @Test
+    public void testCompleteTransfer() throws Exception {
+        final byte[] response = transfer();
+        assertTrue(response.length > content.length);
+
+        final File result = receive(response, sha1(content));
+        assertSame(target, result);
+        assertArrayEquals(content, read(target));
+        assertFalse(ChunkedRemoteFileRequestAndHandler.getStagingDirectory(target).exists());
+    }
+
+    @Test
+    public void testResumePartialTransfer() throws Exception {
+        // A previous attempt received the first two chunks and part of the third
+        final File staging = ChunkedRemoteFileRequestAndHandler.getStagingDirectory(target);
+        staging.mkdirs();
+        write(new File(staging, target.getName()), content, CHUNK_SIZE * 5 / 2);
+
+        final byte[] response = transfer();
+        // Only the last one and a half chunks are sent again
+        assertTrue(response.length > CHUNK_SIZE * 3 / 2);
+        assertTrue(response.length < CHUNK_SIZE * 2);
+
+        receive(response, sha1(content));
+        assertArrayEquals(content, read(target));
+        assertFalse(staging.exists());
+    }
+
+    @Test
+    public void testResumeDamagedPartialTransfer() throws Exception {
+        final File staging = ChunkedRemoteFileRequestAndHandler.getStagingDirectory(target);
+        staging.mkdirs();
+        final byte[] damaged = content.clone();
+        damaged[CHUNK_SIZE + 1] ^= 0xff;
+        write(new File(staging, target.getName()), damaged, CHUNK_SIZE * 2);
+
+        // The damaged second chunk is sent again along with the ones missing
+        final byte[] response = transfer();
+        assertTrue(response.length > CHUNK_SIZE * 5 / 2);
+        assertTrue(response.length < CHUNK_SIZE * 3);
+
+        receive(response, sha1(content));
+        assertArrayEquals(content, read(target));
+    }
+
+    @Test
+    public void testHashMismatch() throws Exception {
+        final byte[] expected = sha1(content);
+        expected[0] ^= 0xff;
+        try {
+            receive(transfer(), expected);
+            fail("Content with the wrong hash should not be accepted");
+        } catch (ContentHashMismatchException e) {
+            assertEquals(HashUtil.bytesToHexString(expected), e.getHash());
+        }
+        assertFalse(target.exists());
+        // Nothing is kept from a transfer that failed verification
+        assertFalse(ChunkedRemoteFileRequestAndHandler.getStagingDirectory(target).exists());
+    }
+
+    @Test
+    public void testNotFound() throws Exception {
+        delete(source);
+        final File result = receive(transfer(), sha1(content));
+        assertSame(target, result);
+        assertFalse(target.exists());
+    }
+
+    /**
+     * Sends the request for the target and returns the response of the master
+     */
+    private byte[] transfer() throws IOException {
+        final ByteArrayOutputStream request = new ByteArrayOutputStream();
+        final TestOutput requestOutput = new TestOutput(request);
+        handler.sendRequest(requestOutput, (byte) 1, "content", target);
+        requestOutput.flush();
+
+        final ChunkedFileRequest received = handler.readRequest(new DataInputStream(new ByteArrayInputStream(request.toByteArray())));
+        assertEquals("content", received.filePath);
+        assertEquals(CHUNK_SIZE, received.chunkSize);
+
+        final ByteArrayOutputStream response = new ByteArrayOutputStream();
+        final TestOutput responseOutput = new TestOutput(response);
+        handler.writeResponse(source, received.existing, received.chunkSize, responseOutput);
+        responseOutput.flush();
+        return response.toByteArray();
+    }
+
+    private File receive(final byte[] response, final byte[] expectedHash) throws Exception {
+        final ResultHandler result = new ResultHandler();
+        handler.handleResponse(new DataInputStream(new ByteArrayInputStream(response)), target, expectedHash, log, result, null);
+        return result.result;
+    }
+
+    private static byte[] sha1(final byte[] bytes) throws Exception {
+        return MessageDigest.getInstance("SHA-1").digest(bytes);
+    }
+
+    private static void write(final File file, final byte[] bytes, final int length) throws IOException {
+        final FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(bytes, 0, length);
+        } finally {
+            out.close();
+        }
+    }
+
+    private static byte[] read(final File file) throws IOException {
+        final byte[] bytes = new byte[(int) file.length()];
+        final DataInputStream in = new DataInputStream(new FileInputStream(file));
+        try {
+            in.readFully(bytes);
+        } finally {
+            in.close();
+        }
+        return bytes;
+    }
+
+    private static void delete(final File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static class TestOutput extends java.io.DataOutputStream implements FlushableDataOutput {
+        TestOutput(final OutputStream out) {
+            super(out);
+        }
+    }
+
+    private static class ResultHandler implements ActiveOperation.ResultHandler<File> {
+        File result;
+
+        @Override
+        public boolean done(final File result) {
+            this.result = result;
+            return true;
+        }
+
+        @Override
+        public boolean failed(final Exception e) {
+            return false;
+        }
+
+        @Override
+        public void cancel() {
+        }
+    }
+
+    private static class TestMapper implements ChunkedRemoteFileRequestAndHandler.ChunkedFileProtocolIdMapper {
+        public byte paramRootId() {
+            return 0x01;
+        }
+
+        public byte paramNumFiles() {
+            return 0x02;
+        }
+
+        public byte fileStart() {
+            return 0x03;
+        }
+
+        public byte paramFilePath() {
+            return 0x04;
+        }
+
+        public byte paramFileSize() {
+            return 0x05;
+        }
+
+        public byte fileEnd() {
+            return 0x06;
+        }
+
+        public byte paramChunkSize() {
+            return 0x07;
+        }
+
+        public byte paramNumChunks() {
+            return 0x08;
+        }
+
+        public byte chunkPresent() {
+            return 0x09;
+        }
+
+        public byte chunkData() {
+            return 0x0a;
+        }
+    }
+}
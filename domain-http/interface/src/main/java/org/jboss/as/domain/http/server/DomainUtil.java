@@ -22,18 +22,31 @@
 
 package org.jboss.as.domain.http.server;
 
+import static org.jboss.as.domain.http.server.Constants.ACCEPT_ENCODING;
 import static org.jboss.as.domain.http.server.Constants.APPLICATION_DMR_ENCODED;
 import static org.jboss.as.domain.http.server.Constants.APPLICATION_JSON;
+import static org.jboss.as.domain.http.server.Constants.CONTENT_ENCODING;
 import static org.jboss.as.domain.http.server.Constants.CONTENT_TYPE;
+import static org.jboss.as.domain.http.server.Constants.ETAG;
+import static org.jboss.as.domain.http.server.Constants.GZIP;
 import static org.jboss.as.domain.http.server.Constants.HOST;
 import static org.jboss.as.domain.http.server.Constants.HTTP;
 import static org.jboss.as.domain.http.server.Constants.HTTPS;
+import static org.jboss.as.domain.http.server.Constants.IF_NONE_MATCH;
+import static org.jboss.as.domain.http.server.Constants.NOT_MODIFIED;
 import static org.jboss.as.domain.http.server.Constants.OK;
+import static org.jboss.as.domain.http.server.Constants.VARY;
 
 import java.io.Closeable;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 import org.jboss.com.sun.net.httpserver.Headers;
 import org.jboss.com.sun.net.httpserver.HttpExchange;
@@ -47,12 +60,28 @@ import org.jboss.dmr.ModelNode;
  */
 class DomainUtil {
 
+    private static final int BUFFER_SIZE = 8192;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final OutputStream NULL_OUTPUT = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
     // Prevent Instantiation
     private DomainUtil() {
     }
 
     /**
      * Writes the HTTP response to the output stream.
+     * <p/>
+     * The payload is serialized straight into the response body, gzip compressed if the client accepts it. Successful
+     * GET responses carry an ETag derived from their content, and are answered with 304 (Not Modified) and no body if
+     * the client already has that version.
      *
      * @param http The HttpExchange object that allows access to the request and response.
      * @param isGet Flag indicating whether or not the request was a GET request or POST request.
@@ -64,17 +93,31 @@ class DomainUtil {
      */
     static void writeResponse(final HttpExchange http, boolean isGet, boolean pretty, ModelNode response, int status,
             boolean encode, String contentType) throws IOException {
+        final Headers requestHeaders = http.getRequestHeaders();
         final Headers responseHeaders = http.getResponseHeaders();
         responseHeaders.add(CONTENT_TYPE, contentType);
-        http.sendResponseHeaders(status, 0);
 
         // GET (read) operations will never have a compensating update, and the status is already
         // available via the http response status code, so unwrap them.
         if (isGet && status == OK) {
             response = response.get("result");
+
+            final String etag = calculateETag(response, contentType);
+            responseHeaders.add(ETAG, etag);
+            if (matchesETag(requestHeaders.get(IF_NONE_MATCH), etag)) {
+                http.sendResponseHeaders(NOT_MODIFIED, -1);
+                return;
+            }
         }
 
-        final OutputStream out = http.getResponseBody();
+        final boolean gzip = acceptsGzip(requestHeaders.get(ACCEPT_ENCODING));
+        if (gzip) {
+            responseHeaders.add(CONTENT_ENCODING, GZIP);
+        }
+        responseHeaders.add(VARY, ACCEPT_ENCODING);
+        http.sendResponseHeaders(status, 0);
+
+        final OutputStream out = gzip ? new GZIPOutputStream(http.getResponseBody(), BUFFER_SIZE) : http.getResponseBody();
         final PrintWriter print = new PrintWriter(out);
 
         try {
@@ -97,6 +140,92 @@ class DomainUtil {
          writeResponse(http, isGet, pretty, response, status, encode, contentType);
      }
 
+    /**
+     * Calculate a weak entity tag for a response payload, as the SHA-1 of its binary DMR form. No text is produced, so
+     * this is considerably cheaper than serializing the response to JSON.
+     *
+     * @param response the response payload
+     * @param contentType the content type the payload will be sent as
+     * @return the entity tag
+     * @throws IOException if the payload cannot be written
+     */
+    static String calculateETag(final ModelNode response, final String contentType) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        final DataOutputStream out = new DataOutputStream(new DigestOutputStream(NULL_OUTPUT, digest));
+        out.writeUTF(contentType);
+        response.writeExternal(out);
+        out.flush();
+
+        final StringBuilder etag = new StringBuilder("W/\"");
+        for (byte b : digest.digest()) {
+            etag.append(HEX[(b >> 4) & 0xf]).append(HEX[b & 0xf]);
+        }
+        return etag.append('"').toString();
+    }
+
+    /**
+     * Checks the If-None-Match request header values against the current entity tag, using the weak comparison.
+     *
+     * @param ifNoneMatch the values of the If-None-Match header, may be {@code null}
+     * @param etag the current entity tag
+     * @return {@code true} if the client already has the current entity
+     */
+    static boolean matchesETag(final List<String> ifNoneMatch, final String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        final String opaque = stripWeak(etag);
+        for (String value : ifNoneMatch) {
+            for (String candidate : value.split(",")) {
+                candidate = candidate.trim();
+                if ("*".equals(candidate) || opaque.equals(stripWeak(candidate))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(final String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    /**
+     * Checks whether the Accept-Encoding request header values allow a gzip coded response.
+     *
+     * @param acceptEncoding the values of the Accept-Encoding header, may be {@code null}
+     * @return {@code true} if gzip is acceptable
+     */
+    static boolean acceptsGzip(final List<String> acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String value : acceptEncoding) {
+            for (String coding : value.split(",")) {
+                final String[] parts = coding.split(";");
+                if (GZIP.equalsIgnoreCase(parts[0].trim())) {
+                    for (int i = 1; i < parts.length; i++) {
+                        final String param = parts[i].trim();
+                        if (param.startsWith("q=")) {
+                            try {
+                                return Float.parseFloat(param.substring(2)) > 0;
+                            } catch (NumberFormatException e) {
+                                return false;
+                            }
+                        }
+                    }
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     static void safeClose(Closeable close) {
         try {
             close.close();
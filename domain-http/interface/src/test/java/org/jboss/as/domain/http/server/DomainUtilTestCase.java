@@ -0,0 +1,150 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.domain.http.server;
+
+import static org.jboss.as.domain.http.server.Constants.APPLICATION_DMR_ENCODED;
+import static org.jboss.as.domain.http.server.Constants.APPLICATION_JSON;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.jboss.dmr.ModelNode;
+import org.junit.Test;
+
+/**
+ * Tests the header handling that decides between a 304 (Not Modified) and a full, possibly gzip coded, response.
+ */
+public class DomainUtilTestCase {
+
+    private static final String ETAG = "W/\"0123abcd\"";
+
+    @Test
+    public void testAcceptsGzip() {
+        assertFalse(DomainUtil.acceptsGzip(null));
+        assertFalse(DomainUtil.acceptsGzip(Collections.<String>emptyList()));
+        assertTrue(DomainUtil.acceptsGzip(values("gzip")));
+        assertTrue(DomainUtil.acceptsGzip(values("GZIP")));
+        assertTrue(DomainUtil.acceptsGzip(values("deflate, gzip")));
+        assertFalse(DomainUtil.acceptsGzip(values("deflate, identity")));
+        // a coding that merely starts with gzip is a different coding
+        assertFalse(DomainUtil.acceptsGzip(values("gzipped")));
+    }
+
+    @Test
+    public void testAcceptsGzipQuality() {
+        assertTrue(DomainUtil.acceptsGzip(values("gzip;q=0.5")));
+        assertTrue(DomainUtil.acceptsGzip(values("gzip; q=0.5, identity;q=1")));
+        assertTrue(DomainUtil.acceptsGzip(values("gzip;q=1.0")));
+        // q=0 means "not acceptable"
+        assertFalse(DomainUtil.acceptsGzip(values("gzip;q=0")));
+        assertFalse(DomainUtil.acceptsGzip(values("gzip;q=0.000")));
+        assertFalse(DomainUtil.acceptsGzip(values("deflate, gzip ; q=0")));
+        assertFalse(DomainUtil.acceptsGzip(values("gzip;q=invalid")));
+    }
+
+    @Test
+    public void testAcceptsGzipFromAnyHeaderLine() {
+        assertTrue(DomainUtil.acceptsGzip(values("deflate", "gzip")));
+        assertFalse(DomainUtil.acceptsGzip(values("deflate", "gzip;q=0")));
+    }
+
+    @Test
+    public void testMatchesETag() {
+        assertFalse(DomainUtil.matchesETag(null, ETAG));
+        assertFalse(DomainUtil.matchesETag(Collections.<String>emptyList(), ETAG));
+        assertTrue(DomainUtil.matchesETag(values(ETAG), ETAG));
+        assertTrue(DomainUtil.matchesETag(values(" " + ETAG + " "), ETAG));
+        assertFalse(DomainUtil.matchesETag(values("W/\"0123abce\""), ETAG));
+        // the opaque tag is compared as a whole, including its quotes
+        assertFalse(DomainUtil.matchesETag(values("W/0123abcd"), ETAG));
+    }
+
+    @Test
+    public void testMatchesETagWeakComparison() {
+        // If-None-Match uses the weak comparison, so a strong tag matches the weak tag with the same opaque value
+        assertTrue(DomainUtil.matchesETag(values("\"0123abcd\""), ETAG));
+        assertTrue(DomainUtil.matchesETag(values(ETAG), "\"0123abcd\""));
+        assertTrue(DomainUtil.matchesETag(values("\"0123abcd\""), "\"0123abcd\""));
+        assertFalse(DomainUtil.matchesETag(values("\"0123abce\""), ETAG));
+    }
+
+    @Test
+    public void testMatchesETagMultipleValues() {
+        assertTrue(DomainUtil.matchesETag(values("W/\"1\", " + ETAG + ", \"2\""), ETAG));
+        assertTrue(DomainUtil.matchesETag(values("W/\"1\"", ETAG), ETAG));
+        assertFalse(DomainUtil.matchesETag(values("W/\"1\", \"2\"", "W/\"3\""), ETAG));
+    }
+
+    @Test
+    public void testMatchesAnyETag() {
+        assertTrue(DomainUtil.matchesETag(values("*"), ETAG));
+        assertTrue(DomainUtil.matchesETag(values("W/\"1\", *"), ETAG));
+    }
+
+    @Test
+    public void testCalculateETag() throws Exception {
+        final String etag = DomainUtil.calculateETag(createResult("value"), APPLICATION_JSON);
+        assertTrue(etag, etag.startsWith("W/\""));
+        assertTrue(etag, etag.endsWith("\""));
+        // a SHA-1 digest in hex
+        assertEquals(etag, 40 + 4, etag.length());
+
+        // the same result, read again, has the same tag
+        assertEquals(etag, DomainUtil.calculateETag(createResult("value"), APPLICATION_JSON));
+        assertTrue(DomainUtil.matchesETag(values(etag), DomainUtil.calculateETag(createResult("value"), APPLICATION_JSON)));
+    }
+
+    @Test
+    public void testCalculateETagChangesWithResult() throws Exception {
+        final String etag = DomainUtil.calculateETag(createResult("value"), APPLICATION_JSON);
+        assertFalse(etag.equals(DomainUtil.calculateETag(createResult("other"), APPLICATION_JSON)));
+
+        final ModelNode added = createResult("value");
+        added.get("added").set(true);
+        assertFalse(etag.equals(DomainUtil.calculateETag(added, APPLICATION_JSON)));
+
+        final ModelNode typed = createResult("value");
+        typed.get("number").set(1L);
+        assertFalse(etag.equals(DomainUtil.calculateETag(typed, APPLICATION_JSON)));
+
+        // the same result sent with another representation is another entity
+        assertFalse(etag.equals(DomainUtil.calculateETag(createResult("value"), APPLICATION_DMR_ENCODED)));
+        assertFalse(DomainUtil.matchesETag(values(etag), DomainUtil.calculateETag(createResult("other"), APPLICATION_JSON)));
+    }
+
+    private static ModelNode createResult(final String value) {
+        final ModelNode result = new ModelNode();
+        result.get("name").set("test");
+        result.get("value").set(value);
+        result.get("number").set(1);
+        return result;
+    }
+
+    private static List<String> values(final String... values) {
+        return Arrays.asList(values);
+    }
+}
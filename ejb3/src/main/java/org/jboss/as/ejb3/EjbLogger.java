@@ -800,6 +800,34 @@ public interface EjbLogger extends BasicLogger {
     @Message(id = 14259, value = "BMT stateful bean '%s' did not complete user transaction properly status=%s")
     void transactionNotComplete(String componentName, String status);
 
+    @LogMessage(level = ERROR)
+    @Message(id = 14260, value = "Failed to hand expired timeouts over to executor %s")
+    void failedToDispatchExpiredTimeouts(Object executor, @Cause Throwable cause);
+
+    @LogMessage(level = ERROR)
+    @Message(id = 14261, value = "Expired timeout %s failed")
+    void expiredTimeoutFailed(Object timeout, @Cause Throwable cause);
+
+    @LogMessage(level = WARN)
+    @Message(id = 14262, value = "Timer journal segment %s is corrupt at offset %d, discarding the rest of the segment")
+    void corruptTimerJournalSegment(File segment, long offset);
+
+    @LogMessage(level = WARN)
+    @Message(id = 14263, value = "Ignoring timer journal index %s, the whole journal will be replayed")
+    void ignoringTimerJournalIndex(File index, @Cause Throwable cause);
+
+    @LogMessage(level = ERROR)
+    @Message(id = 14264, value = "Could not restore timer %s of %s from the timer journal")
+    void failToRestoreTimerFromJournal(String timerId, String timedObjectId, @Cause Throwable cause);
+
+    @LogMessage(level = ERROR)
+    @Message(id = 14265, value = "Failed to compact timer journal in %s")
+    void failedToCompactTimerJournal(File directory, @Cause Throwable cause);
+
+    @LogMessage(level = WARN)
+    @Message(id = 14266, value = "Failed to compact passivation store segment %s, it will be retried")
+    void failedToCompactPassivationStoreSegment(File segment, @Cause Throwable cause);
+
 
     // Don't add message ids greater that 14299!!! If you need more first check what EjbMessages is
     // using and take more (lower) numbers from the available range for this module. If the range for the module is
@@ -2078,6 +2078,33 @@ public interface EjbMessages {
     @Message(id = 14581, value = "EJB 3.1 FR 13.3.3: BMT bean %s should complete transaction before returning.")
     String transactionNotComplete(String componentName);
 
+    /**
+     * Creates an exception indicating a timer scheduler setting is not positive
+     *
+     * @param name  the name of the setting
+     * @param value the invalid value
+     * @return an {@link IllegalArgumentException} for the error
+     */
+    @Message(id = 14582, value = "Timer scheduler %s must be greater than 0, was %d")
+    IllegalArgumentException timerSchedulerValueNotPositive(String name, long value);
+
+    /**
+     * Creates an exception indicating the delay of a timeout is negative
+     *
+     * @param delay the invalid delay
+     * @return an {@link IllegalArgumentException} for the error
+     */
+    @Message(id = 14583, value = "Timeout delay cannot be negative, was %d")
+    IllegalArgumentException negativeTimeoutDelay(long delay);
+
+    /**
+     * Creates an exception indicating the timer scheduler is not running
+     *
+     * @return an {@link IllegalStateException} for the error
+     */
+    @Message(id = 14584, value = "Timer scheduler is not running")
+    IllegalStateException timerSchedulerNotRunning();
+
     // STOP!!! Don't add message ids greater that 14599!!! If you need more first check what EjbLogger is
     // using and take more (lower) numbers from the available range for this module. If the range for the module is
     // all used, go to https://community.jboss.org/docs/DOC-16810 and allocate another block for this subsystem
@@ -25,6 +25,7 @@ package org.jboss.as.ejb3.cache;
 import java.io.Serializable;
 import java.util.Set;
 
+import org.jboss.as.ejb3.cache.spi.impl.BucketedExpirationScheduler;
 import org.jboss.msc.service.Service;
 import org.jboss.msc.service.ServiceBuilder;
 import org.jboss.msc.service.ServiceName;
@@ -81,6 +82,13 @@ public abstract class CacheFactoryService<K extends Serializable, V extends Iden
 
     protected abstract CacheFactory<K, V> createCacheFactory();
 
+    /**
+     * @return the scheduler expiring and passivating the beans of the caches this factory creates, or null if there is none
+     */
+    public BucketedExpirationScheduler getExpirationScheduler() {
+        return null;
+    }
+
     /**
      * {@inheritDoc}
      * @see org.jboss.msc.service.Service#stop(org.jboss.msc.service.StopContext)
@@ -32,6 +32,7 @@ import org.jboss.as.ejb3.cache.spi.GroupAwareBackingCache;
 import org.jboss.as.ejb3.cache.spi.PassivatingBackingCache;
 import org.jboss.as.ejb3.cache.spi.SerializationGroup;
 import org.jboss.as.ejb3.cache.spi.SerializationGroupMember;
+import org.jboss.as.ejb3.cache.spi.impl.BucketedExpirationScheduler;
 import org.jboss.ejb.client.Affinity;
 
 /**
@@ -77,6 +78,15 @@ public class GroupAwareBackingCacheImpl<K extends Serializable, V extends Cachea
         this.memberContainer.setBackingCache(this);
     }
 
+    public GroupAwareBackingCacheImpl(StatefulObjectFactory<V> factory, SerializationGroupMemberContainer<K, V, G> memberContainer,
+            PassivatingBackingCache<G, Cacheable<G>, SerializationGroup<K, V, G>> groupCache, BucketedExpirationScheduler scheduler) {
+        super(factory, memberContainer, memberContainer, memberContainer, scheduler);
+
+        this.groupCache = groupCache;
+        this.memberContainer = memberContainer;
+        this.memberContainer.setBackingCache(this);
+    }
+
     @Override
     public boolean hasAffinity(K key) {
         return this.memberContainer.hasAffinity(key);
@@ -26,6 +26,7 @@ import java.io.Serializable;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
@@ -47,6 +48,7 @@ import org.jboss.as.ejb3.cache.spi.PassivatingBackingCache;
 import org.jboss.as.ejb3.cache.spi.BackingCacheLifecycleListener.LifecycleState;
 import org.jboss.as.ejb3.cache.spi.ReplicationPassivationManager;
 import org.jboss.as.ejb3.cache.spi.impl.AbstractBackingCache;
+import org.jboss.as.ejb3.cache.spi.impl.BucketedExpirationScheduler;
 import org.jboss.as.ejb3.cache.spi.impl.PassivateTask;
 import org.jboss.as.ejb3.cache.spi.impl.RemoveTask;
 import org.jboss.as.ejb3.component.stateful.StatefulTimeoutInfo;
@@ -69,26 +71,37 @@ public class PassivatingBackingCacheImpl<K extends Serializable, V extends Cache
     private volatile ScheduledExecutorService executor;
     private final Map<K, Future<?>> expirationFutures = new ConcurrentHashMap<K, Future<?>>();
     private final Map<K, Future<?>> passivationFutures = new ConcurrentHashMap<K, Future<?>>();
+    private final BucketedExpirationScheduler scheduler;
+    private final ConcurrentMap<K, BucketedExpirationScheduler.Entry> expirationEntries = new ConcurrentHashMap<K, BucketedExpirationScheduler.Entry>();
+    private final ConcurrentMap<K, BucketedExpirationScheduler.Entry> passivationEntries = new ConcurrentHashMap<K, BucketedExpirationScheduler.Entry>();
 
     public PassivatingBackingCacheImpl(StatefulObjectFactory<V> factory, BackingCacheEntryFactory<K, V, E> entryFactory, ReplicationPassivationManager<K, E> passivationManager, BackingCacheEntryStore<K, V, E> store) {
-        this(factory, entryFactory, passivationManager, store, null, null);
+        this(factory, entryFactory, passivationManager, store, null, null, null);
     }
 
     public PassivatingBackingCacheImpl(StatefulObjectFactory<V> factory, BackingCacheEntryFactory<K, V, E> entryFactory, ReplicationPassivationManager<K, E> passivationManager, BackingCacheEntryStore<K, V, E> store, ThreadFactory threadFactory) {
-        this(factory, entryFactory, passivationManager, store, threadFactory, null);
+        this(factory, entryFactory, passivationManager, store, threadFactory, null, null);
     }
 
     public PassivatingBackingCacheImpl(StatefulObjectFactory<V> factory, BackingCacheEntryFactory<K, V, E> entryFactory, ReplicationPassivationManager<K, E> passivationManager, BackingCacheEntryStore<K, V, E> store, ScheduledExecutorService executor) {
-        this(factory, entryFactory, passivationManager, store, null, executor);
+        this(factory, entryFactory, passivationManager, store, null, executor, null);
     }
 
-    private PassivatingBackingCacheImpl(StatefulObjectFactory<V> factory, BackingCacheEntryFactory<K, V, E> entryFactory, ReplicationPassivationManager<K, E> passivationManager, BackingCacheEntryStore<K, V, E> store, ThreadFactory threadFactory, ScheduledExecutorService executor) {
+    /**
+     * Creates a cache whose entries are expired and passivated by a scheduler shared with other caches.
+     */
+    public PassivatingBackingCacheImpl(StatefulObjectFactory<V> factory, BackingCacheEntryFactory<K, V, E> entryFactory, ReplicationPassivationManager<K, E> passivationManager, BackingCacheEntryStore<K, V, E> store, BucketedExpirationScheduler scheduler) {
+        this(factory, entryFactory, passivationManager, store, null, null, scheduler);
+    }
+
+    private PassivatingBackingCacheImpl(StatefulObjectFactory<V> factory, BackingCacheEntryFactory<K, V, E> entryFactory, ReplicationPassivationManager<K, E> passivationManager, BackingCacheEntryStore<K, V, E> store, ThreadFactory threadFactory, ScheduledExecutorService executor, BucketedExpirationScheduler scheduler) {
         this.factory = factory;
         this.entryFactory = entryFactory;
         this.passivationManager = passivationManager;
         this.store = store;
         this.threadFactory = threadFactory;
         this.executor = executor;
+        this.scheduler = scheduler;
     }
 
     @Override
@@ -193,6 +206,7 @@ public class PassivatingBackingCacheImpl<K extends Serializable, V extends Cache
             entry.invalidate();
 
             store.passivate(entry);
+            this.cancel(this.passivationEntries.remove(key));
         } finally {
             entry.unlock();
         }
@@ -236,6 +250,7 @@ public class PassivatingBackingCacheImpl<K extends Serializable, V extends Cache
 
     @Override
     public void discard(K key) {
+        this.forgetExpirationPassivation(key);
         store.remove(key);
     }
 
@@ -244,6 +259,7 @@ public class PassivatingBackingCacheImpl<K extends Serializable, V extends Cache
         this.trace("remove(%s)", key);
 
         this.cancelExpirationPassivation(key);
+        this.forgetExpirationPassivation(key);
 
         E entry = store.remove(key);
 
@@ -263,7 +279,10 @@ public class PassivatingBackingCacheImpl<K extends Serializable, V extends Cache
     }
 
     private void cancelExpirationPassivation(K id) {
-        if (this.executor != null) {
+        if (this.scheduler != null) {
+            this.cancel(this.expirationEntries.get(id));
+            this.cancel(this.passivationEntries.get(id));
+        } else if (this.executor != null) {
             if (this.store.getTimeout() != null) {
                 this.cancel(this.expirationFutures, id);
             }
@@ -271,6 +290,19 @@ public class PassivatingBackingCacheImpl<K extends Serializable, V extends Cache
         }
     }
 
+    private void cancel(BucketedExpirationScheduler.Entry entry) {
+        if (entry != null) {
+            this.scheduler.cancel(entry);
+        }
+    }
+
+    private void forgetExpirationPassivation(K id) {
+        if (this.scheduler != null) {
+            this.cancel(this.expirationEntries.remove(id));
+            this.cancel(this.passivationEntries.remove(id));
+        }
+    }
+
     private void cancel(Map<K, Future<?>> futures, K id) {
         Future<?> future = futures.remove(id);
         if (future != null) {
@@ -279,7 +311,14 @@ public class PassivatingBackingCacheImpl<K extends Serializable, V extends Cache
     }
 
     private void scheduleExpirationPassivation(K id) {
-        if (this.executor != null) {
+        if (this.scheduler != null) {
+            StatefulTimeoutInfo timeout = this.store.getTimeout();
+            if (timeout != null && timeout.getValue() != -1) {
+                this.schedule(this.expirationEntries, id, this.removeTaskFactory, false, timeout.getValue(), timeout.getTimeUnit());
+            }
+            BackingCacheEntryStoreConfig config = this.store.getConfig();
+            this.schedule(this.passivationEntries, id, this.passivateTaskFactory, true, config.getIdleTimeout(), config.getIdleTimeoutUnit());
+        } else if (this.executor != null) {
             StatefulTimeoutInfo timeout = this.store.getTimeout();
             if (timeout != null && timeout.getValue() != -1) {
                 this.schedule(this.expirationFutures, id, this.removeTaskFactory, timeout.getValue(), timeout.getTimeUnit());
@@ -289,6 +328,19 @@ public class PassivatingBackingCacheImpl<K extends Serializable, V extends Cache
         }
     }
 
+    private void schedule(ConcurrentMap<K, BucketedExpirationScheduler.Entry> entries, K id, TaskFactory<K> factory, boolean passivation, long time, TimeUnit unit) {
+        // the entry is kept until the bean is passivated or removed, so that an access only moves it to a later bucket
+        BucketedExpirationScheduler.Entry entry = entries.get(id);
+        if (entry == null) {
+            entry = this.scheduler.createEntry(factory.createTask(id), passivation);
+            BucketedExpirationScheduler.Entry existing = entries.putIfAbsent(id, entry);
+            if (existing != null) {
+                entry = existing;
+            }
+        }
+        this.scheduler.schedule(entry, time, unit);
+    }
+
     private void schedule(Map<K, Future<?>> futures, K id, TaskFactory<K> factory, long time, TimeUnit unit) {
         Future<?> future = futures.put(id, this.executor.schedule(factory.createTask(id), time, unit));
         if (future != null) {
@@ -318,6 +370,15 @@ public class PassivatingBackingCacheImpl<K extends Serializable, V extends Cache
             if (this.threadFactory != null) {
                 this.executor.shutdownNow();
             }
+            // The scheduler is shared, so just cancel our entries
+            for (BucketedExpirationScheduler.Entry entry : this.expirationEntries.values()) {
+                this.cancel(entry);
+            }
+            for (BucketedExpirationScheduler.Entry entry : this.passivationEntries.values()) {
+                this.cancel(entry);
+            }
+            this.expirationEntries.clear();
+            this.passivationEntries.clear();
             store.stop();
             notifyLifecycleListeners(LifecycleState.STOPPED);
         } catch (RuntimeException e) {
@@ -24,7 +24,6 @@ package org.jboss.as.ejb3.cache.impl.factory;
 
 import java.io.Serializable;
 import java.util.UUID;
-import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -46,6 +45,7 @@ import org.jboss.as.ejb3.cache.spi.GroupAwareBackingCache;
 import org.jboss.as.ejb3.cache.spi.PassivatingBackingCache;
 import org.jboss.as.ejb3.cache.spi.SerializationGroup;
 import org.jboss.as.ejb3.cache.spi.SerializationGroupMember;
+import org.jboss.as.ejb3.cache.spi.impl.BucketedExpirationScheduler;
 import org.jboss.as.ejb3.component.stateful.StatefulTimeoutInfo;
 
 /**
@@ -60,9 +60,11 @@ public class GroupAwareCacheFactory<K extends Serializable, V extends Cacheable<
     private final AtomicReference<SerializationGroupContainer<K, V>> groupContainerRef = new AtomicReference<SerializationGroupContainer<K, V>>();
     private final AtomicInteger memberCounter = new AtomicInteger();
     private final BackingCacheEntryStoreSource<K, V, UUID> storeSource;
+    private final BucketedExpirationScheduler scheduler;
 
-    public GroupAwareCacheFactory(BackingCacheEntryStoreSource<K, V, UUID> storeSource) {
+    public GroupAwareCacheFactory(BackingCacheEntryStoreSource<K, V, UUID> storeSource, BucketedExpirationScheduler scheduler) {
         this.storeSource = storeSource;
+        this.scheduler = scheduler;
     }
 
     @Override
@@ -87,7 +89,7 @@ public class GroupAwareCacheFactory<K extends Serializable, V extends Cacheable<
         container.setBackingCacheEntryStore(store);
 
         // Set up the backing cache with the store and group cache
-        GroupAwareBackingCache<K, V, UUID, SerializationGroupMember<K, V, UUID>> backingCache = new GroupAwareBackingCacheImpl<K, V, UUID>(factory, container, groupCache, Executors.defaultThreadFactory());
+        GroupAwareBackingCache<K, V, UUID, SerializationGroupMember<K, V, UUID>> backingCache = new GroupAwareBackingCacheImpl<K, V, UUID>(factory, container, groupCache, this.scheduler);
 
         // Listen for backing cache lifecycle changes so we know when to start/stop groupCache
         backingCache.addLifecycleListener(this);
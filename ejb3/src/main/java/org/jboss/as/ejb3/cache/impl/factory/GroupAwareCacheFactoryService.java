@@ -25,14 +25,19 @@ package org.jboss.as.ejb3.cache.impl.factory;
 import java.io.Serializable;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.jboss.as.ejb3.cache.CacheFactory;
 import org.jboss.as.ejb3.cache.CacheFactoryService;
 import org.jboss.as.ejb3.cache.Cacheable;
 import org.jboss.as.ejb3.cache.spi.BackingCacheEntryStoreSource;
 import org.jboss.as.ejb3.cache.spi.BackingCacheEntryStoreSourceService;
+import org.jboss.as.ejb3.cache.spi.impl.BucketedExpirationScheduler;
 import org.jboss.msc.service.ServiceBuilder;
 import org.jboss.msc.service.ServiceTarget;
+import org.jboss.msc.service.StartContext;
+import org.jboss.msc.service.StopContext;
 import org.jboss.msc.value.InjectedValue;
 
 /**
@@ -40,8 +45,11 @@ import org.jboss.msc.value.InjectedValue;
  */
 public class GroupAwareCacheFactoryService<K extends Serializable, V extends Cacheable<K>> extends CacheFactoryService<K, V> {
 
+    private static final long EXPIRATION_TICK_MILLIS = 250;
+
     @SuppressWarnings("rawtypes")
     private final InjectedValue<BackingCacheEntryStoreSource> storeSource = new InjectedValue<BackingCacheEntryStoreSource>();
+    private volatile BucketedExpirationScheduler scheduler;
 
     public GroupAwareCacheFactoryService(String name, Set<String> aliases) {
         super(name, aliases);
@@ -51,10 +59,29 @@ public class GroupAwareCacheFactoryService<K extends Serializable, V extends Cac
         return super.build(target).addDependency(BackingCacheEntryStoreSourceService.getServiceName(backingCache), BackingCacheEntryStoreSource.class, this.storeSource);
     }
 
+    @Override
+    public void start(StartContext context) {
+        this.scheduler = new BucketedExpirationScheduler(Executors.defaultThreadFactory(), Runtime.getRuntime().availableProcessors(), EXPIRATION_TICK_MILLIS, TimeUnit.MILLISECONDS);
+        this.scheduler.start();
+        super.start(context);
+    }
+
+    @Override
+    public void stop(StopContext context) {
+        super.stop(context);
+        this.scheduler.stop();
+        this.scheduler = null;
+    }
+
+    @Override
+    public BucketedExpirationScheduler getExpirationScheduler() {
+        return this.scheduler;
+    }
+
     @Override
     protected CacheFactory<K, V> createCacheFactory() {
         @SuppressWarnings("unchecked")
         BackingCacheEntryStoreSource<K, V, UUID> source = this.storeSource.getValue();
-        return new GroupAwareCacheFactory<K, V>(source);
+        return new GroupAwareCacheFactory<K, V>(source, this.scheduler);
     }
 }
\ No newline at end of file
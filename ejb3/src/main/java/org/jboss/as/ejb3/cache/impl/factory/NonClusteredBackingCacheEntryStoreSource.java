@@ -35,7 +35,9 @@ import org.jboss.as.ejb3.cache.spi.BackingCacheEntryStoreSource;
 import org.jboss.as.ejb3.cache.spi.SerializationGroup;
 import org.jboss.as.ejb3.cache.spi.SerializationGroupMember;
 import org.jboss.as.ejb3.cache.spi.impl.AbstractBackingCacheEntryStoreSource;
+import org.jboss.as.ejb3.cache.spi.PersistentObjectStore;
 import org.jboss.as.ejb3.cache.spi.impl.FilePersistentObjectStore;
+import org.jboss.as.ejb3.cache.spi.impl.SegmentedPersistentObjectStore;
 import org.jboss.as.ejb3.component.stateful.StatefulTimeoutInfo;
 import org.jboss.as.server.ServerEnvironment;
 import org.jboss.as.server.ServerEnvironmentService;
@@ -44,8 +46,8 @@ import org.jboss.msc.service.ServiceTarget;
 import org.jboss.msc.value.InjectedValue;
 
 /**
- * {@link BackingCacheEntryStoreSource} for a non-clustered cache. Uses a {@link FilePersistentObjectStore} store for
- * persistence.
+ * {@link BackingCacheEntryStoreSource} for a non-clustered cache. Uses a {@link FilePersistentObjectStore} or a
+ * {@link SegmentedPersistentObjectStore} store for persistence, depending on the {@link #getStoreType() store type}.
  *
  * @author Brian Stansberry
  * @author Paul Ferraro
@@ -63,6 +65,7 @@ public class NonClusteredBackingCacheEntryStoreSource<K extends Serializable, V
 
     public static final String DEFAULT_RELATIVE_TO = ServerEnvironment.SERVER_DATA_DIR;
     public static final int DEFAULT_SUBDIRECTORY_COUNT = 100;
+    public static final PersistentObjectStoreType DEFAULT_STORE_TYPE = PersistentObjectStoreType.FILE;
 
     private final InjectedValue<PathManager> pathManager = new InjectedValue<PathManager>();
     private final InjectedValue<ServerEnvironment> environment = new InjectedValue<ServerEnvironment>();
@@ -70,11 +73,12 @@ public class NonClusteredBackingCacheEntryStoreSource<K extends Serializable, V
     private String groupDirectoryName = DEFAULT_GROUP_DIRECTORY_NAME;
     private String relativeToRef = DEFAULT_RELATIVE_TO;
     private int subdirectoryCount = DEFAULT_SUBDIRECTORY_COUNT;
+    private PersistentObjectStoreType storeType = DEFAULT_STORE_TYPE;
     private volatile PathManager.Callback.Handle callbackHandle;
 
     @Override
     public <E extends SerializationGroup<K, V, G>> BackingCacheEntryStore<G, Cacheable<G>, E> createGroupIntegratedObjectStore(IdentifierFactory<G> identifierFactory, PassivationManager<G, E> passivationManager, StatefulTimeoutInfo timeout) {
-        FilePersistentObjectStore<G, E> objectStore = new FilePersistentObjectStore<G, E>(passivationManager, this.getStoragePath(null, this.groupDirectoryName), subdirectoryCount);
+        PersistentObjectStore<G, E> objectStore = this.createObjectStore(passivationManager, this.getStoragePath(null, this.groupDirectoryName));
 
         SimpleBackingCacheEntryStore<G, Cacheable<G>, E> store = new SimpleBackingCacheEntryStore<G, Cacheable<G>, E>(identifierFactory, objectStore, this.environment.getValue(), timeout, this);
 
@@ -83,7 +87,7 @@ public class NonClusteredBackingCacheEntryStoreSource<K extends Serializable, V
 
     @Override
     public <E extends SerializationGroupMember<K, V, G>> BackingCacheEntryStore<K, V, E> createIntegratedObjectStore(String beanName, IdentifierFactory<K> identifierFactory, PassivationManager<K, E> passivationManager, StatefulTimeoutInfo timeout) {
-        FilePersistentObjectStore<K, E> objectStore = new FilePersistentObjectStore<K, E>(passivationManager, this.getStoragePath(beanName, this.sessionDirectoryName), subdirectoryCount);
+        PersistentObjectStore<K, E> objectStore = this.createObjectStore(passivationManager, this.getStoragePath(beanName, this.sessionDirectoryName));
 
         SimpleBackingCacheEntryStore<K, V, E> store = new SimpleBackingCacheEntryStore<K, V, E>(identifierFactory, objectStore, this.environment.getValue(), timeout, this);
 
@@ -96,6 +100,15 @@ public class NonClusteredBackingCacheEntryStoreSource<K extends Serializable, V
         builder.addDependency(ServerEnvironmentService.SERVICE_NAME, ServerEnvironment.class, this.environment);
     }
 
+    private <I extends Serializable, E extends Cacheable<I>> PersistentObjectStore<I, E> createObjectStore(PassivationManager<I, E> passivationManager, String path) {
+        switch (this.storeType) {
+            case SEGMENTED:
+                return new SegmentedPersistentObjectStore<I, E>(passivationManager, path);
+            default:
+                return new FilePersistentObjectStore<I, E>(passivationManager, path, subdirectoryCount);
+        }
+    }
+
     private String getStoragePath(String beanName, String subDirectory) {
         File path = new File(pathManager.getValue().resolveRelativePathEntry(subDirectory, relativeToRef));
         return path.getAbsolutePath();
@@ -150,6 +163,20 @@ public class NonClusteredBackingCacheEntryStoreSource<K extends Serializable, V
         this.subdirectoryCount = subdirectoryCount;
     }
 
+    /**
+     * Gets the kind of store the sessions/groups are passivated to. Default is {@link #DEFAULT_STORE_TYPE}.
+     */
+    public PersistentObjectStoreType getStoreType() {
+        return storeType;
+    }
+
+    /**
+     * Sets the kind of store the sessions/groups are passivated to. Only affects caches created afterwards.
+     */
+    public void setStoreType(PersistentObjectStoreType storeType) {
+        this.storeType = storeType;
+    }
+
     public String getRelativeTo() {
         return this.relativeToRef;
     }
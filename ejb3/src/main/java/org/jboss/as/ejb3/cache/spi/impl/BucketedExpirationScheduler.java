@@ -0,0 +1,288 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache.spi.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jboss.logging.Logger;
+
+/**
+ * Schedules the idle expiration and passivation of cache entries in buckets of time, instead of one scheduled future
+ * per entry.
+ * <p/>
+ * Every {@link Entry} sits in the bucket of the tick its deadline falls in. Scheduling an entry again, on every
+ * access of the bean it stands for, only moves it to a newer bucket; nothing is allocated for it besides the
+ * bucket's set node. A ticker thread hands the buckets that came due to a pool of sweeper threads, in batches of
+ * {@link #BATCH_SIZE} entries, which run the tasks of the entries that have not moved on in the meantime.
+ * <p/>
+ * Deadlines are rounded up to the next tick, so a task runs at most one tick plus the time the sweepers take late.
+ */
+public class BucketedExpirationScheduler {
+    private static final Logger log = Logger.getLogger(BucketedExpirationScheduler.class);
+
+    static final int BATCH_SIZE = 256;
+    private static final long THROUGHPUT_WINDOW_MILLIS = 5000;
+
+    private final ThreadFactory threadFactory;
+    private final int sweepers;
+    private final long tickMillis;
+    private final ConcurrentSkipListMap<Long, Bucket> buckets = new ConcurrentSkipListMap<Long, Bucket>();
+
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong passivations = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private volatile long windowStart;
+    private volatile long windowPassivations;
+    private volatile double passivationThroughput;
+
+    private volatile ScheduledExecutorService ticker;
+    private volatile ExecutorService sweeperPool;
+
+    public BucketedExpirationScheduler(ThreadFactory threadFactory, int sweepers, long tick, TimeUnit unit) {
+        this.threadFactory = threadFactory;
+        this.sweepers = sweepers;
+        this.tickMillis = Math.max(1, unit.toMillis(tick));
+    }
+
+    public synchronized void start() {
+        this.sweeperPool = Executors.newFixedThreadPool(this.sweepers, this.threadFactory);
+        this.ticker = Executors.newSingleThreadScheduledExecutor(this.threadFactory);
+        this.windowStart = System.currentTimeMillis();
+        this.ticker.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                BucketedExpirationScheduler.this.sweep();
+            }
+        }, this.tickMillis, this.tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        this.ticker.shutdownNow();
+        this.sweeperPool.shutdownNow();
+        this.buckets.clear();
+        this.backlog.set(0);
+    }
+
+    /**
+     * Creates an unscheduled entry.
+     *
+     * @param task the task to run once the entry expires
+     * @param passivation whether the task passivates, for the metrics
+     * @return the entry
+     */
+    public Entry createEntry(Runnable task, boolean passivation) {
+        return new Entry(task, passivation);
+    }
+
+    /**
+     * Schedules the task of the given entry to run after the given delay, replacing any earlier deadline.
+     */
+    public void schedule(Entry entry, long delay, TimeUnit unit) {
+        final long tick = (System.currentTimeMillis() + unit.toMillis(delay) + this.tickMillis - 1) / this.tickMillis;
+        synchronized (entry) {
+            final Bucket previous = entry.bucket;
+            if (previous != null && previous.tick == tick) {
+                return;
+            }
+            Bucket bucket;
+            do {
+                bucket = this.bucketOf(tick);
+                entry.bucket = bucket;
+                bucket.entries.add(entry);
+                // a closed bucket is being swept, and may not see the entry
+            } while (bucket.closed);
+            if (previous != null) {
+                previous.entries.remove(entry);
+            }
+        }
+    }
+
+    /**
+     * Cancels the deadline of the given entry, if any. The entry can be scheduled again.
+     */
+    public void cancel(Entry entry) {
+        synchronized (entry) {
+            final Bucket bucket = entry.bucket;
+            if (bucket != null) {
+                entry.bucket = null;
+                bucket.entries.remove(entry);
+            }
+        }
+    }
+
+    private Bucket bucketOf(long tick) {
+        Bucket bucket = this.buckets.get(tick);
+        if (bucket == null || bucket.closed) {
+            final Bucket newBucket = new Bucket(tick);
+            if (bucket == null) {
+                bucket = this.buckets.putIfAbsent(tick, newBucket);
+                if (bucket == null) {
+                    bucket = newBucket;
+                }
+            } else if (this.buckets.replace(tick, bucket, newBucket)) {
+                bucket = newBucket;
+            } else {
+                bucket = this.bucketOf(tick);
+            }
+        }
+        return bucket;
+    }
+
+    void sweep() {
+        final long now = System.currentTimeMillis();
+        final ConcurrentNavigableMap<Long, Bucket> due = this.buckets.headMap(now / this.tickMillis, true);
+        for (Map.Entry<Long, Bucket> dueBucket : due.entrySet()) {
+            final Bucket bucket = dueBucket.getValue();
+            if (!this.buckets.remove(dueBucket.getKey(), bucket)) {
+                continue;
+            }
+            bucket.closed = true;
+            List<Entry> batch = new ArrayList<Entry>(BATCH_SIZE);
+            for (Entry entry : bucket.entries) {
+                batch.add(entry);
+                if (batch.size() == BATCH_SIZE) {
+                    this.submit(bucket, batch);
+                    batch = new ArrayList<Entry>(BATCH_SIZE);
+                }
+            }
+            if (!batch.isEmpty()) {
+                this.submit(bucket, batch);
+            }
+        }
+        if (now - this.windowStart >= THROUGHPUT_WINDOW_MILLIS) {
+            final long count = this.passivations.get();
+            this.passivationThroughput = (count - this.windowPassivations) * 1000d / (now - this.windowStart);
+            this.windowPassivations = count;
+            this.windowStart = now;
+        }
+    }
+
+    private void submit(final Bucket bucket, final List<Entry> batch) {
+        this.backlog.addAndGet(batch.size());
+        try {
+            this.sweeperPool.execute(new Runnable() {
+                @Override
+                public void run() {
+                    for (Entry entry : batch) {
+                        BucketedExpirationScheduler.this.backlog.decrementAndGet();
+                        if (!Thread.currentThread().isInterrupted() && entry.expire(bucket)) {
+                            BucketedExpirationScheduler.this.run(entry);
+                        }
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // stopping
+            this.backlog.addAndGet(-batch.size());
+        }
+    }
+
+    void run(Entry entry) {
+        try {
+            entry.task.run();
+        } catch (RuntimeException e) {
+            log.warn(e.getMessage(), e);
+        }
+        (entry.passivation ? this.passivations : this.expirations).incrementAndGet();
+    }
+
+    /**
+     * @return the number of entries that came due but were not handled by a sweeper yet
+     */
+    public long getBacklog() {
+        return this.backlog.get();
+    }
+
+    /**
+     * @return the number of entries whose deadline has not come yet
+     */
+    public long getScheduledCount() {
+        long count = 0;
+        for (Bucket bucket : this.buckets.values()) {
+            count += bucket.entries.size();
+        }
+        return count;
+    }
+
+    public long getPassivationCount() {
+        return this.passivations.get();
+    }
+
+    public long getExpirationCount() {
+        return this.expirations.get();
+    }
+
+    /**
+     * @return the passivations per second over the last few seconds
+     */
+    public double getPassivationThroughput() {
+        return this.passivationThroughput;
+    }
+
+    static final class Bucket {
+        final long tick;
+        final Set<Entry> entries = Collections.newSetFromMap(new ConcurrentHashMap<Entry, Boolean>());
+        volatile boolean closed;
+
+        Bucket(long tick) {
+            this.tick = tick;
+        }
+    }
+
+    /**
+     * The handle of a scheduled task, kept for as long as the task may be scheduled again.
+     */
+    public static final class Entry {
+        final Runnable task;
+        final boolean passivation;
+        // guarded by this
+        Bucket bucket;
+
+        Entry(Runnable task, boolean passivation) {
+            this.task = task;
+            this.passivation = passivation;
+        }
+
+        synchronized boolean expire(Bucket sweptBucket) {
+            if (this.bucket != sweptBucket) {
+                // moved on or cancelled since
+                return false;
+            }
+            this.bucket = null;
+            return true;
+        }
+    }
+}
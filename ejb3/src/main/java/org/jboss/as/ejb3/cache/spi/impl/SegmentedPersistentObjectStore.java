@@ -0,0 +1,502 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache.spi.impl;
+
+import static org.jboss.as.ejb3.EjbLogger.ROOT_LOGGER;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.security.PrivilegedActionException;
+import java.security.PrivilegedExceptionAction;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.jboss.as.ejb3.EjbMessages;
+import org.jboss.as.ejb3.cache.Cacheable;
+import org.jboss.as.ejb3.cache.PassivationManager;
+import org.jboss.as.ejb3.cache.spi.PersistentObjectStore;
+import org.jboss.logging.Logger;
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.MarshallerFactory;
+import org.jboss.marshalling.Marshalling;
+import org.jboss.marshalling.MarshallingConfiguration;
+import org.jboss.marshalling.SimpleDataInput;
+import org.jboss.marshalling.SimpleDataOutput;
+import org.jboss.marshalling.Unmarshaller;
+
+/**
+ * Stores objects in append-only segment files, instead of one file per object like {@link FilePersistentObjectStore}.
+ * <p/>
+ * Every stored object is appended to the active segment, in the order in which the objects are stored, and the
+ * location of its latest copy is kept in an in-memory index. Loading an object removes it from the index, which
+ * turns its bytes in the segment into dead space. Once less than half of a full segment is live, a background thread
+ * copies the remaining objects to the active segment and deletes the old one.
+ * <p/>
+ * Like the files of {@link FilePersistentObjectStore}, the segments do not survive the store: they are written to a
+ * directory of their own, which is deleted on {@link #stop()}.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class SegmentedPersistentObjectStore<K extends Serializable, V extends Cacheable<K>> implements PersistentObjectStore<K, V> {
+    private static final Logger log = Logger.getLogger(SegmentedPersistentObjectStore.class);
+
+    public static final long DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    private static final String DIRECTORY_PREFIX = "segments-";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final MarshallerFactory marshallerFactory = Marshalling.getMarshallerFactory("river", MarshallerFactory.class.getClassLoader());
+    private final PassivationManager<K, V> passivationManager;
+    private final File baseDirectory;
+    private final long segmentSize;
+    private final ThreadFactory threadFactory;
+
+    /**
+     * The location of the latest copy of every stored object
+     */
+    private final ConcurrentMap<K, Location> index = new ConcurrentHashMap<K, Location>();
+    /**
+     * Guards appending to the active segment and rolling it
+     */
+    private final Lock appendLock = new ReentrantLock();
+    /**
+     * Reads happen under the read lock, segments are only closed and deleted under the write lock
+     */
+    private final ReadWriteLock segmentLock = new ReentrantReadWriteLock();
+    private final Map<Long, Segment> segments = new ConcurrentHashMap<Long, Segment>();
+    // guarded by appendLock
+    private Segment active;
+    private long nextSegmentId;
+
+    private volatile File directory;
+    private volatile ThreadPoolExecutor compactor;
+
+    public SegmentedPersistentObjectStore(PassivationManager<K, V> passivationManager, String directoryName) {
+        this(passivationManager, directoryName, DEFAULT_SEGMENT_SIZE, Executors.defaultThreadFactory());
+    }
+
+    public SegmentedPersistentObjectStore(PassivationManager<K, V> passivationManager, String directoryName, long segmentSize, ThreadFactory threadFactory) {
+        this.passivationManager = passivationManager;
+        this.baseDirectory = new File(directoryName);
+        this.segmentSize = segmentSize;
+        this.threadFactory = threadFactory;
+    }
+
+    @Override
+    public void start() {
+        establishDirectory(this.baseDirectory);
+        File directory = new File(this.baseDirectory, DIRECTORY_PREFIX + UUID.randomUUID());
+        establishDirectory(directory);
+        this.directory = directory;
+        // compaction is rare, so do not keep a thread around for it
+        this.compactor = new ThreadPoolExecutor(0, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), this.threadFactory);
+        this.appendLock.lock();
+        try {
+            this.roll();
+        } catch (IOException e) {
+            throw EjbMessages.MESSAGES.passivationDirectoryCreationFailed(directory.getPath());
+        } finally {
+            this.appendLock.unlock();
+        }
+    }
+
+    @Override
+    public void stop() {
+        ThreadPoolExecutor compactor = this.compactor;
+        if (compactor != null) {
+            // no shutdownNow(), interrupting a thread in the middle of a channel operation closes the channel
+            compactor.shutdown();
+            try {
+                compactor.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        this.appendLock.lock();
+        try {
+            this.segmentLock.writeLock().lock();
+            try {
+                for (Segment segment : this.segments.values()) {
+                    segment.delete();
+                }
+                this.segments.clear();
+                this.index.clear();
+                this.active = null;
+                if (this.directory != null) {
+                    DeleteFileAction.delete(this.directory);
+                }
+            } finally {
+                this.segmentLock.writeLock().unlock();
+            }
+        } finally {
+            this.appendLock.unlock();
+        }
+    }
+
+    @Override
+    public void store(V obj) {
+        K id = obj.getId();
+        log.tracef("Storing state of %s", id);
+        try {
+            // marshal outside of the lock, only the append itself is serialized
+            byte[] data = this.marshal(obj);
+            this.appendLock.lock();
+            try {
+                Location previous = this.index.put(id, this.append(data));
+                if (previous != null) {
+                    this.release(previous);
+                }
+            } finally {
+                this.appendLock.unlock();
+            }
+        } catch (IOException e) {
+            throw EjbMessages.MESSAGES.passivationFailed(e, id);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V load(K key) {
+        Location location;
+        byte[] data;
+        this.segmentLock.readLock().lock();
+        try {
+            location = this.index.remove(key);
+            if (location == null) {
+                return null;
+            }
+            log.tracef("Loading state of %s from %s", key, location.segment.file);
+            data = location.read();
+        } catch (IOException e) {
+            throw EjbMessages.MESSAGES.activationFailed(e, key);
+        } finally {
+            this.segmentLock.readLock().unlock();
+        }
+        this.release(location);
+        try {
+            SimpleDataInput input = new SimpleDataInput(Marshalling.createByteInput(new ByteArrayInputStream(data)));
+            int version = input.readInt();
+            MarshallingConfiguration config = this.passivationManager.getMarshallingConfiguration(version);
+            Unmarshaller unmarshaller = this.marshallerFactory.createUnmarshaller(config);
+            unmarshaller.start(input);
+            try {
+                V value = (V) unmarshaller.readObject();
+                unmarshaller.finish();
+                return value;
+            } finally {
+                unmarshaller.close();
+            }
+        } catch (Exception e) {
+            throw EjbMessages.MESSAGES.activationFailed(e, key);
+        }
+    }
+
+    /**
+     * @return the number of objects currently stored
+     */
+    public int size() {
+        return this.index.size();
+    }
+
+    /**
+     * @return the number of segment files currently in use
+     */
+    public int getSegmentCount() {
+        return this.segments.size();
+    }
+
+    private byte[] marshal(V obj) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SimpleDataOutput output = new SimpleDataOutput(Marshalling.createByteOutput(bytes));
+        int version = this.passivationManager.getCurrentMarshallingVersion();
+        output.writeInt(version);
+        MarshallingConfiguration config = this.passivationManager.getMarshallingConfiguration(version);
+        Marshaller marshaller = this.marshallerFactory.createMarshaller(config);
+        marshaller.start(output);
+        try {
+            marshaller.writeObject(obj);
+            marshaller.finish();
+        } finally {
+            marshaller.close();
+        }
+        output.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Appends the given bytes to the active segment, rolling it first if they do not fit. Must be called with the
+     * append lock held.
+     */
+    private Location append(byte[] data) throws IOException {
+        Segment segment = this.active;
+        if (segment.size > 0 && segment.size + data.length > this.segmentSize) {
+            this.roll();
+            segment = this.active;
+        }
+        long offset = segment.size;
+        writeFully(segment.channel, ByteBuffer.wrap(data), offset);
+        segment.size += data.length;
+        segment.live.addAndGet(data.length);
+        return new Location(segment, offset, data.length);
+    }
+
+    /**
+     * Seals the active segment and starts a new one. Must be called with the append lock held.
+     */
+    private void roll() throws IOException {
+        Segment previous = this.active;
+        File file = new File(this.directory, String.format("%s%016x%s", SEGMENT_PREFIX, this.nextSegmentId, SEGMENT_SUFFIX));
+        Segment segment = new Segment(this.nextSegmentId++, file);
+        this.segments.put(segment.id, segment);
+        this.active = segment;
+        if (previous != null) {
+            previous.sealed = true;
+            this.compactIfSparse(previous, previous.live.get());
+        }
+    }
+
+    /**
+     * Marks the bytes at the given location as dead.
+     */
+    private void release(Location location) {
+        this.compactIfSparse(location.segment, location.segment.live.addAndGet(-location.length));
+    }
+
+    private void compactIfSparse(final Segment segment, long live) {
+        if (segment.sealed && (live * 2 < segment.size) && segment.compacting.compareAndSet(false, true)) {
+            ThreadPoolExecutor compactor = this.compactor;
+            if (compactor == null) {
+                return;
+            }
+            try {
+                compactor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        SegmentedPersistentObjectStore.this.compact(segment);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // stopping, the segment is deleted anyway
+            }
+        }
+    }
+
+    /**
+     * Copies the objects still live in the given sealed segment to the active segment, and deletes it.
+     */
+    void compact(Segment segment) {
+        try {
+            // no new locations in a sealed segment ever show up in the index, so a single pass finds them all
+            for (Map.Entry<K, Location> entry : this.index.entrySet()) {
+                Location location = entry.getValue();
+                if (location.segment != segment) {
+                    continue;
+                }
+                // only compaction deletes segments, and it is single threaded, so no need for the segment lock here
+                byte[] data = location.read();
+                Location copy;
+                this.appendLock.lock();
+                try {
+                    copy = this.append(data);
+                } finally {
+                    this.appendLock.unlock();
+                }
+                if (this.index.replace(entry.getKey(), location, copy)) {
+                    segment.live.addAndGet(-location.length);
+                } else {
+                    // loaded or stored again in the meantime
+                    this.release(copy);
+                }
+            }
+            this.segmentLock.writeLock().lock();
+            try {
+                this.segments.remove(segment.id);
+                segment.delete();
+            } finally {
+                this.segmentLock.writeLock().unlock();
+            }
+        } catch (IOException e) {
+            ROOT_LOGGER.failedToCompactPassivationStoreSegment(segment.file, e);
+            segment.compacting.set(false);
+        }
+    }
+
+    private static void establishDirectory(File dir) {
+        if (!dir.exists()) {
+            if (MkdirsFileAction.mkdirs(dir)) {
+                dir.deleteOnExit();
+            } else if (!dir.exists()) { // this method can be called concurrently, so another thread may have created the dir
+                throw EjbMessages.MESSAGES.passivationDirectoryCreationFailed(dir.getPath());
+            }
+        }
+
+        if (!dir.isDirectory()) {
+            throw EjbMessages.MESSAGES.passivationPathNotADirectory(dir.getPath());
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of passivation store segment");
+            }
+            position += read;
+        }
+    }
+
+    private static final class Segment {
+        final long id;
+        final File file;
+        final RandomAccessFile raf;
+        final FileChannel channel;
+        final AtomicLong live = new AtomicLong();
+        final AtomicBoolean compacting = new AtomicBoolean();
+        // written under the append lock, read by others only once sealed
+        volatile long size;
+        volatile boolean sealed;
+
+        Segment(long id, File file) throws IOException {
+            this.id = id;
+            this.file = file;
+            this.raf = RAFAction.open(file);
+            this.channel = this.raf.getChannel();
+            file.deleteOnExit();
+        }
+
+        void delete() {
+            try {
+                this.raf.close();
+            } catch (IOException ignore) {
+                //
+            }
+            DeleteFileAction.delete(this.file);
+        }
+    }
+
+    private static final class Location {
+        final Segment segment;
+        final long offset;
+        final int length;
+
+        Location(Segment segment, long offset, int length) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        byte[] read() throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(this.length);
+            readFully(this.segment.channel, buffer, this.offset);
+            return buffer.array();
+        }
+    }
+
+    private static class DeleteFileAction implements PrivilegedAction<Boolean> {
+        File file;
+
+        DeleteFileAction(File file) {
+            this.file = file;
+        }
+
+        @Override
+        public Boolean run() {
+            return file.delete();
+        }
+
+        static boolean delete(File file) {
+            DeleteFileAction action = new DeleteFileAction(file);
+            return AccessController.doPrivileged(action);
+        }
+    }
+
+    private static class MkdirsFileAction implements PrivilegedAction<Boolean> {
+        File file;
+
+        MkdirsFileAction(File file) {
+            this.file = file;
+        }
+
+        @Override
+        public Boolean run() {
+            return file.mkdirs();
+        }
+
+        static boolean mkdirs(File file) {
+            MkdirsFileAction action = new MkdirsFileAction(file);
+            return AccessController.doPrivileged(action);
+        }
+    }
+
+    private static class RAFAction implements PrivilegedExceptionAction<RandomAccessFile> {
+        File file;
+
+        RAFAction(File file) {
+            this.file = file;
+        }
+
+        @Override
+        public RandomAccessFile run() throws FileNotFoundException {
+            return new RandomAccessFile(file, "rw");
+        }
+
+        static RandomAccessFile open(File file) throws FileNotFoundException {
+            RAFAction action = new RAFAction(file);
+            try {
+                return AccessController.doPrivileged(action);
+            } catch (PrivilegedActionException e) {
+                throw (FileNotFoundException) e.getException();
+            }
+        }
+    }
+}
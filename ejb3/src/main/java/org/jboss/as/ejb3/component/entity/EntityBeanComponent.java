@@ -36,7 +36,7 @@ import org.jboss.as.ee.component.Component;
 import org.jboss.as.ejb3.component.EJBComponent;
 import org.jboss.as.ejb3.component.allowedmethods.AllowedMethodsInformation;
 import org.jboss.as.ejb3.component.entity.entitycache.ReadyEntityCache;
-import org.jboss.as.ejb3.component.entity.entitycache.ReferenceCountingEntityCache;
+import org.jboss.as.ejb3.component.entity.entitycache.StripedReferenceCountingEntityCache;
 import org.jboss.as.ejb3.component.entity.entitycache.TransactionLocalEntityCache;
 import org.jboss.as.ejb3.component.pool.PoolConfig;
 import org.jboss.as.ejb3.component.pool.PooledComponent;
@@ -161,7 +161,7 @@ public class EntityBeanComponent extends EJBComponent implements PooledComponent
 
     protected ReadyEntityCache createEntityCache(EntityBeanComponentCreateService ejbComponentCreateService) {
         if (optimisticLocking == null || !optimisticLocking) {
-            return new ReferenceCountingEntityCache(this);
+            return new StripedReferenceCountingEntityCache(this);
         } else {
             return new TransactionLocalEntityCache(this);
         }
@@ -0,0 +1,264 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.component.entity.entitycache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.ejb.NoSuchEntityException;
+
+import org.jboss.as.ejb3.EjbLogger;
+import org.jboss.as.ejb3.component.entity.EntityBeanComponent;
+import org.jboss.as.ejb3.component.entity.EntityBeanComponentInstance;
+
+/**
+ * A reference counting cache with the semantics of {@link ReferenceCountingEntityCache}, which does not serialize all
+ * callers on the cache monitor.
+ * <p/>
+ * Every operation only touches the entry of a single primary key, so it is enough to lock the stripe that key hashes
+ * to. The stripe is never held while calling out of the cache: instances are taken from the pool and associated, and
+ * passivated and released to the pool, outside of it. An entity bean that looks up other entities in ejbLoad or
+ * ejbPassivate can therefore not deadlock with another thread doing the same in the opposite order.
+ * <p/>
+ * An entry stays in the cache while its instance is passivated, so that a caller looking up or creating the same key
+ * waits for the passivation to complete instead of loading the entity while its state is still being written.
+ * <p/>
+ * The one difference is that two threads missing the same key at the same time both associate an instance with it.
+ * Only one of them is cached, the other one is passivated and released to the pool again.
+ */
+public class StripedReferenceCountingEntityCache implements ReadyEntityCache {
+    private final ConcurrentMap<Object, CacheEntry> cache = new ConcurrentHashMap<Object, CacheEntry>();
+    private final EntityBeanComponent component;
+    private final Object[] stripes;
+    private final int stripeMask;
+
+    public StripedReferenceCountingEntityCache(final EntityBeanComponent component) {
+        this(component, 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    public StripedReferenceCountingEntityCache(final EntityBeanComponent component, final int concurrency) {
+        this.component = component;
+        int stripeCount = 1;
+        while (stripeCount < concurrency) {
+            stripeCount <<= 1;
+        }
+        this.stripes = new Object[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Object();
+        }
+        this.stripeMask = stripeCount - 1;
+    }
+
+    public void create(final EntityBeanComponentInstance instance) {
+        final Object stripe = stripe(instance.getPrimaryKey());
+        synchronized (stripe) {
+            awaitEntry(stripe, instance.getPrimaryKey());
+            final CacheEntry entry = realCreate(instance);
+            entry.referenceCount++;
+        }
+    }
+
+    private CacheEntry realCreate(final EntityBeanComponentInstance instance) {
+        final CacheEntry cacheEntry = new CacheEntry(instance);
+        final CacheEntry existing = cache.putIfAbsent(instance.getPrimaryKey(), cacheEntry);
+        if (existing != null) {
+            if (existing.instance.isRemoved()) {
+                //this happens in an instance is removed and then re-added in the space of the same transaction
+                existing.replacedInstance = instance;
+            } else {
+                throw EjbLogger.EJB3_LOGGER.instanceAlreadyRegisteredForPK(instance.getPrimaryKey());
+            }
+        }
+        return cacheEntry;
+    }
+
+    public EntityBeanComponentInstance get(final Object key) throws NoSuchEntityException {
+        final Object stripe = stripe(key);
+        synchronized (stripe) {
+            final CacheEntry cacheEntry = awaitEntry(stripe, key);
+            if (cacheEntry != null) {
+                return cacheEntry.reference();
+            }
+        }
+        // associating calls ejbActivate and ejbLoad, so do it without holding the stripe
+        final EntityBeanComponentInstance instance = createInstance(key);
+        final EntityBeanComponentInstance result;
+        synchronized (stripe) {
+            final CacheEntry cacheEntry = awaitEntry(stripe, key);
+            if (cacheEntry == null) {
+                final CacheEntry newEntry = new CacheEntry(instance);
+                cache.put(key, newEntry);
+                return newEntry.reference();
+            }
+            result = cacheEntry.reference();
+        }
+        // another thread got there first
+        releaseInstance(instance);
+        return result;
+    }
+
+    public void release(final EntityBeanComponentInstance instance, boolean success) {
+        if (instance.isDiscarded()) {
+            return;
+        }
+        final Object pk = instance.getPrimaryKey();
+        if (pk == null) return;  // TODO: Should this be an Exception
+        final Object stripe = stripe(pk);
+        final CacheEntry cacheEntry;
+        synchronized (stripe) {
+            cacheEntry = cache.get(pk);
+            if (cacheEntry == null) {
+                throw EjbLogger.EJB3_LOGGER.entityBeanInstanceNotFoundInCache(instance);
+            }
+            if (cacheEntry.replacedInstance != null) {
+                //this can happen if an entity is removed and a new entity with the same PK is added in a transactions
+                if (instance == cacheEntry.replacedInstance) {
+                    if (success) {
+                        cacheEntry.instance = cacheEntry.replacedInstance;
+                    } else if (cacheEntry.instance.isDiscarded()) {
+                        //if the TX was a failure, and the previous instance has been discarded
+                        //we just remove the entry and return
+                        cache.remove(pk);
+                        return;
+                    }
+                    cacheEntry.replacedInstance = null;
+                }
+            }
+            //TODO: this should probably be somewhere else
+            //roll back unsuccessful removal
+            if (!success && instance.isRemoved()) {
+                instance.setRemoved(false);
+            }
+            if (--cacheEntry.referenceCount != 0) {
+                return;
+            }
+            // no longer referenced, callers of the same key wait until the instance is passivated
+            cacheEntry.passivating = true;
+        }
+        try {
+            releaseInstance(instance);
+        } finally {
+            synchronized (stripe) {
+                cache.remove(pk, cacheEntry);
+                stripe.notifyAll();
+            }
+        }
+    }
+
+    public void discard(final EntityBeanComponentInstance instance) {
+        final Object pk = instance.getPrimaryKey();
+        if (pk == null) {
+            //instance has already been passivated
+            return;
+        }
+        synchronized (stripe(pk)) {
+            final CacheEntry entry = cache.get(pk);
+            // an entry being passivated is removed once it is done
+            if (entry != null && !entry.passivating) {
+                if (instance == entry.replacedInstance) {
+                    //this instance that is being discarded is the new instance
+                    //we can just set it to null
+                    entry.replacedInstance = null;
+                } else if (entry.replacedInstance == null) {
+                    //if there is a new instance we cannot discard the entry entirely
+                    cache.remove(pk);
+                }
+            }
+        }
+    }
+
+    public void start() {
+    }
+
+    public void stop() {
+    }
+
+    protected EntityBeanComponentInstance createInstance(final Object pk) {
+        final EntityBeanComponentInstance instance = component.acquireUnAssociatedInstance();
+        instance.associate(pk);
+        return instance;
+    }
+
+    protected void releaseInstance(final EntityBeanComponentInstance instance) {
+        instance.passivate();
+        component.releaseEntityBeanInstance(instance);
+    }
+
+    /**
+     * Gets the entry of a key, waiting while its instance is passivated. Must be called while holding the stripe of
+     * the key.
+     */
+    private CacheEntry awaitEntry(final Object stripe, final Object key) {
+        CacheEntry entry = cache.get(key);
+        if (entry == null || !entry.passivating) {
+            return entry;
+        }
+        boolean interrupted = false;
+        try {
+            do {
+                try {
+                    stripe.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+                entry = cache.get(key);
+            } while (entry != null && entry.passivating);
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return entry;
+    }
+
+    private Object stripe(final Object key) {
+        int hash = key.hashCode();
+        // spread the high bits, keys like sequential numbers differ in the low bits only
+        hash ^= (hash >>> 20) ^ (hash >>> 12);
+        hash ^= (hash >>> 7) ^ (hash >>> 4);
+        return stripes[hash & stripeMask];
+    }
+
+    /**
+     * An entry of the cache, only read or written while holding the stripe of its key.
+     */
+    private static final class CacheEntry {
+        private int referenceCount;
+        /** Set once the entry is no longer referenced, until its instance is passivated and the entry removed */
+        private boolean passivating;
+        private EntityBeanComponentInstance instance;
+        private EntityBeanComponentInstance replacedInstance;
+
+        private CacheEntry(EntityBeanComponentInstance instance) {
+            this.instance = instance;
+        }
+
+        EntityBeanComponentInstance reference() {
+            referenceCount++;
+            if (replacedInstance != null) {
+                return replacedInstance;
+            } else {
+                return instance;
+            }
+        }
+    }
+}
@@ -21,37 +21,53 @@
  */
 package org.jboss.as.ejb3.component.invocationmetrics;
 
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.atomic.AtomicReference;
 
 /**
+ * The invocation metrics of a component, kept per business method. The component totals are summed up from those of
+ * the methods when read.
+ *
  * @author <a href="mailto:cdewolf@redhat.com">Carlo de Wolf</a>
  */
 public class InvocationMetrics {
-    private static class Values {
-        final long invocations;
-        final long executionTime;
-        final long waitTime;
-
-        private Values(final long invocations, final long waitTime, final long executionTime) {
-            this.invocations = invocations;
-            this.executionTime = executionTime;
-            this.waitTime = waitTime;
-        }
-    }
-
-    private final AtomicReference<Values> values = new AtomicReference<Values>(new Values(0, 0, 0));
+    private final ConcurrentMap<Method, MethodInvocationMetrics> methods = new ConcurrentHashMap<Method, MethodInvocationMetrics>();
+    /**
+     * The invocations that do not target a method
+     */
+    private final MethodInvocationMetrics other = new MethodInvocationMetrics();
     private final AtomicLong concurrent = new AtomicLong(0);
     private final AtomicLong peakConcurrent = new AtomicLong(0);
 
-    void finishInvocation(final long invocationWaitTime, final long invocationExecutionTime) {
+    /**
+     * @param method                  the invoked method, may be null
+     * @param invocationWaitTime      the time waited for an instance, in nanoseconds
+     * @param invocationExecutionTime the time spent in the method, in nanoseconds
+     */
+    void finishInvocation(final Method method, final long invocationWaitTime, final long invocationExecutionTime) {
         concurrent.decrementAndGet();
-        for(;;) {
-            final Values oldv = values.get();
-            final Values newv = new Values(oldv.invocations + 1, oldv.waitTime + invocationWaitTime, oldv.executionTime + invocationExecutionTime);
-            if (values.compareAndSet(oldv, newv))
-                return;
+        metricsOf(method).record(invocationWaitTime, invocationExecutionTime);
+    }
+
+    private MethodInvocationMetrics metricsOf(final Method method) {
+        if (method == null) {
+            return other;
+        }
+        MethodInvocationMetrics metrics = methods.get(method);
+        if (metrics == null) {
+            metrics = new MethodInvocationMetrics();
+            final MethodInvocationMetrics existing = methods.putIfAbsent(method, metrics);
+            if (existing != null) {
+                metrics = existing;
+            }
         }
+        return metrics;
     }
 
     public long getConcurrent() {
@@ -59,11 +75,19 @@ public class InvocationMetrics {
     }
 
     public long getExecutionTime() {
-        return values.get().executionTime;
+        long executionTime = other.getExecutionTimeNanos();
+        for (MethodInvocationMetrics metrics : methods.values()) {
+            executionTime += metrics.getExecutionTimeNanos();
+        }
+        return TimeUnit.NANOSECONDS.toMillis(executionTime);
     }
 
     public long getInvocations() {
-        return values.get().invocations;
+        long invocations = other.getInvocations();
+        for (MethodInvocationMetrics metrics : methods.values()) {
+            invocations += metrics.getInvocations();
+        }
+        return invocations;
     }
 
     public long getPeakConcurrent() {
@@ -71,13 +95,83 @@ public class InvocationMetrics {
     }
 
     public long getWaitTime() {
-        return values.get().waitTime;
+        long waitTime = other.getWaitTimeNanos();
+        for (MethodInvocationMetrics metrics : methods.values()) {
+            waitTime += metrics.getWaitTimeNanos();
+        }
+        return TimeUnit.NANOSECONDS.toMillis(waitTime);
+    }
+
+    /**
+     * @param percentile the percentile, between 0 and 1
+     * @return the execution time at that percentile over all methods, in microseconds
+     */
+    public long getExecutionTimePercentile(final double percentile) {
+        final long[] counts = new long[LatencyHistogram.BUCKETS];
+        other.getExecutionTimes().addTo(counts);
+        for (MethodInvocationMetrics metrics : methods.values()) {
+            metrics.getExecutionTimes().addTo(counts);
+        }
+        return LatencyHistogram.percentile(counts, percentile);
+    }
+
+    /**
+     * @param percentile the percentile, between 0 and 1
+     * @return the wait time at that percentile over all methods, in microseconds
+     */
+    public long getWaitTimePercentile(final double percentile) {
+        final long[] counts = new long[LatencyHistogram.BUCKETS];
+        other.getWaitTimes().addTo(counts);
+        for (MethodInvocationMetrics metrics : methods.values()) {
+            metrics.getWaitTimes().addTo(counts);
+        }
+        return LatencyHistogram.percentile(counts, percentile);
+    }
+
+    /**
+     * @return the metrics of the methods invoked so far, keyed and sorted by signature, e.g. {@code echo(java.lang.String)}
+     */
+    public Map<String, MethodInvocationMetrics> getMethods() {
+        final Map<String, MethodInvocationMetrics> result = new TreeMap<String, MethodInvocationMetrics>();
+        for (Map.Entry<Method, MethodInvocationMetrics> entry : methods.entrySet()) {
+            result.put(signature(entry.getKey()), entry.getValue());
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    private static String signature(final Method method) {
+        final StringBuilder signature = new StringBuilder(method.getName()).append('(');
+        final Class<?>[] types = method.getParameterTypes();
+        for (int i = 0; i < types.length; i++) {
+            if (i > 0) {
+                signature.append(", ");
+            }
+            signature.append(typeName(types[i]));
+        }
+        return signature.append(')').toString();
+    }
+
+    private static String typeName(final Class<?> type) {
+        return type.isArray() ? typeName(type.getComponentType()) + "[]" : type.getName();
+    }
+
+    /**
+     * Clears all metrics. The peak of concurrent invocations starts over from the current number.
+     */
+    public void reset() {
+        other.reset();
+        for (MethodInvocationMetrics metrics : methods.values()) {
+            metrics.reset();
+        }
+        peakConcurrent.set(concurrent.get());
     }
 
     void startInvocation() {
         final long v = concurrent.incrementAndGet();
         // concurrent might decrement here, but we take that missing peak for granted.
-        if (peakConcurrent.get() < v)
-            peakConcurrent.incrementAndGet();
+        long peak;
+        while (v > (peak = peakConcurrent.get()) && !peakConcurrent.compareAndSet(peak, v)) {
+            // somebody else raised the peak, check again
+        }
     }
 }
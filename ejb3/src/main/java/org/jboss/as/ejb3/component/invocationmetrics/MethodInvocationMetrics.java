@@ -0,0 +1,137 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.component.invocationmetrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The invocation metrics of a single business method.
+ * <p/>
+ * The totals are kept in stripes selected by the calling thread, each on its own cache line, so that concurrent
+ * invocations do not contend on a counter. Latencies are recorded in {@link LatencyHistogram}s.
+ */
+public final class MethodInvocationMetrics {
+
+    private static final int INVOCATIONS = 0;
+    private static final int EXECUTION_TIME = 1;
+    private static final int WAIT_TIME = 2;
+    /**
+     * The longs per stripe, a 64 byte cache line
+     */
+    private static final int STRIDE = 8;
+    private static final int STRIPE_MASK = powerOfTwo(Runtime.getRuntime().availableProcessors()) - 1;
+
+    private final AtomicLongArray stripes = new AtomicLongArray((STRIPE_MASK + 1) * STRIDE);
+    private final LatencyHistogram executionTimes = new LatencyHistogram();
+    private final LatencyHistogram waitTimes = new LatencyHistogram();
+
+    MethodInvocationMetrics() {
+    }
+
+    private static int powerOfTwo(final int value) {
+        int result = 1;
+        while (result < value) {
+            result <<= 1;
+        }
+        return result;
+    }
+
+    /**
+     * @param waitTime      the time waited for an instance, in nanoseconds
+     * @param executionTime the time spent in the method, in nanoseconds
+     */
+    void record(final long waitTime, final long executionTime) {
+        final int stripe = ((int) Thread.currentThread().getId() & STRIPE_MASK) * STRIDE;
+        stripes.incrementAndGet(stripe + INVOCATIONS);
+        stripes.addAndGet(stripe + EXECUTION_TIME, executionTime);
+        stripes.addAndGet(stripe + WAIT_TIME, waitTime);
+        executionTimes.record(TimeUnit.NANOSECONDS.toMicros(executionTime));
+        waitTimes.record(TimeUnit.NANOSECONDS.toMicros(waitTime));
+    }
+
+    private long sum(final int counter) {
+        long sum = 0;
+        for (int i = counter; i < stripes.length(); i += STRIDE) {
+            sum += stripes.get(i);
+        }
+        return sum;
+    }
+
+    public long getInvocations() {
+        return sum(INVOCATIONS);
+    }
+
+    /**
+     * @return the total time spent in the method, in milliseconds
+     */
+    public long getExecutionTime() {
+        return TimeUnit.NANOSECONDS.toMillis(sum(EXECUTION_TIME));
+    }
+
+    /**
+     * @return the total time waited for an instance, in milliseconds
+     */
+    public long getWaitTime() {
+        return TimeUnit.NANOSECONDS.toMillis(sum(WAIT_TIME));
+    }
+
+    long getExecutionTimeNanos() {
+        return sum(EXECUTION_TIME);
+    }
+
+    long getWaitTimeNanos() {
+        return sum(WAIT_TIME);
+    }
+
+    /**
+     * @param percentile the percentile, between 0 and 1
+     * @return the execution time at that percentile, in microseconds
+     */
+    public long getExecutionTimePercentile(final double percentile) {
+        return executionTimes.getPercentile(percentile);
+    }
+
+    /**
+     * @param percentile the percentile, between 0 and 1
+     * @return the wait time at that percentile, in microseconds
+     */
+    public long getWaitTimePercentile(final double percentile) {
+        return waitTimes.getPercentile(percentile);
+    }
+
+    LatencyHistogram getExecutionTimes() {
+        return executionTimes;
+    }
+
+    LatencyHistogram getWaitTimes() {
+        return waitTimes;
+    }
+
+    void reset() {
+        for (int i = 0; i < stripes.length(); i++) {
+            stripes.set(i, 0);
+        }
+        executionTimes.reset();
+        waitTimes.reset();
+    }
+}
@@ -39,7 +39,7 @@ public class WaitTimeInterceptor extends AbstractEJBInterceptor {
 
     @Override
     public Object processInvocation(final InterceptorContext context) throws Exception {
-        context.putPrivateData(START_WAIT_TIME, System.currentTimeMillis());
+        context.putPrivateData(START_WAIT_TIME, System.nanoTime());
         return context.proceed();
     }
 }
@@ -0,0 +1,316 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.pool.strictmax;
+
+import static org.jboss.as.ejb3.EjbLogger.ROOT_LOGGER;
+import static org.jboss.as.ejb3.EjbMessages.MESSAGES;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.jboss.as.ejb3.pool.AbstractPool;
+import org.jboss.as.ejb3.pool.StatelessObjectFactory;
+
+/**
+ * A pool with a maximum size which, unlike {@link StrictMaxPool}, does not serialize all callers on a single monitor.
+ * <p/>
+ * Free instances are kept in a number of lock-free stripes, and a thread first looks in its own stripe before
+ * stealing from the others. Permits are handed out by a non-fair {@link Semaphore}, so an uncontended
+ * {@link #get()} or {@link #release(Object)} is a couple of CAS operations. The maximum number of instances in use
+ * and the acquisition timeout are enforced exactly as in {@link StrictMaxPool}, but waiting callers are not
+ * guaranteed to be served in FIFO order.
+ * <p/>
+ * With thread affinity enabled every thread additionally keeps the instance it released last, and gets that same
+ * instance back on its next {@link #get()}. Such parked instances still count as free: other threads steal them
+ * once the stripes are empty, so the pool never creates more instances than {@link StrictMaxPool} would. Only the
+ * slots that had an instance parked are queued for stealing, so the threads that once used the pool but hold no
+ * instance are neither scanned nor kept reachable by the pool.
+ */
+public class StripedStrictMaxPool<T> extends AbstractPool<T> {
+
+    /**
+     * Hands out at most maxSize permits. Deliberately not fair, fairness forces every acquire through the queue.
+     */
+    private final Semaphore semaphore;
+    /**
+     * The maximum number of instances allowed in the pool
+     */
+    private final int maxSize;
+    /**
+     * The time to wait for the semaphore.
+     */
+    private final long timeout;
+    private final TimeUnit timeUnit;
+    /**
+     * The free instances, spread over a power of two number of stripes
+     */
+    private final AtomicReferenceArray<Queue<T>> stripes;
+    private final int stripeMask;
+    /**
+     * The number of free instances, in the stripes and the affinity slots
+     */
+    private final AtomicInteger pooled = new AtomicInteger();
+    /**
+     * The per thread slot holding the instance last released by that thread, null if affinity is disabled
+     */
+    private final ThreadLocal<AffinitySlot<T>> affinity;
+    /**
+     * The affinity slots an instance was parked in, so that parked instances can be stolen and destroyed on stop.
+     * A slot is queued at most once; a slot whose owner took its instance back stays queued until a steal drops it.
+     */
+    private final Queue<AffinitySlot<T>> parkedSlots;
+
+    public StripedStrictMaxPool(StatelessObjectFactory<T> factory, int maxSize, long timeout, TimeUnit timeUnit) {
+        this(factory, maxSize, timeout, timeUnit, false);
+    }
+
+    public StripedStrictMaxPool(StatelessObjectFactory<T> factory, int maxSize, long timeout, TimeUnit timeUnit, boolean threadAffinity) {
+        this(factory, maxSize, timeout, timeUnit, threadAffinity, Runtime.getRuntime().availableProcessors());
+    }
+
+    public StripedStrictMaxPool(StatelessObjectFactory<T> factory, int maxSize, long timeout, TimeUnit timeUnit, boolean threadAffinity, int concurrency) {
+        super(factory);
+        this.maxSize = maxSize;
+        this.semaphore = new Semaphore(maxSize, false);
+        this.timeout = timeout;
+        this.timeUnit = timeUnit;
+        // no point in having more stripes than instances
+        final int stripeCount = powerOfTwo(Math.max(1, Math.min(concurrency, maxSize)));
+        this.stripes = new AtomicReferenceArray<Queue<T>>(stripeCount);
+        for (int i = 0; i < stripeCount; i++) {
+            stripes.set(i, new ConcurrentLinkedQueue<T>());
+        }
+        this.stripeMask = stripeCount - 1;
+        if (threadAffinity) {
+            this.parkedSlots = new ConcurrentLinkedQueue<AffinitySlot<T>>();
+            this.affinity = new ThreadLocal<AffinitySlot<T>>() {
+                @Override
+                protected AffinitySlot<T> initialValue() {
+                    return new AffinitySlot<T>();
+                }
+            };
+        } else {
+            this.parkedSlots = null;
+            this.affinity = null;
+        }
+    }
+
+    private static int powerOfTwo(final int value) {
+        int result = 1;
+        while (result < value) {
+            result <<= 1;
+        }
+        return result;
+    }
+
+    public void discard(T ctx) {
+        if (ROOT_LOGGER.isTraceEnabled()) {
+            ROOT_LOGGER.tracef("Discard instance %s#%s", this, ctx);
+        }
+
+        semaphore.release();
+
+        // Let the super do any other remove stuff
+        super.doRemove(ctx);
+    }
+
+    public int getCurrentSize() {
+        return getCreateCount() - getRemoveCount();
+    }
+
+    public int getAvailableCount() {
+        return semaphore.availablePermits();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        throw MESSAGES.methodNotImplemented();
+    }
+
+    public boolean isThreadAffinity() {
+        return affinity != null;
+    }
+
+    /**
+     * Get an instance without identity.
+     * Can be used by finders,create-methods, and activation
+     *
+     * @return Context /w instance
+     */
+    public T get() {
+        try {
+            if (!semaphore.tryAcquire()) {
+                boolean acquired = semaphore.tryAcquire(timeout, timeUnit);
+                if (!acquired)
+                    throw MESSAGES.failedToAcquirePermit(timeout, timeUnit);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw MESSAGES.acquireSemaphoreInterrupted();
+        }
+
+        final T pooledInstance = poll();
+        if (pooledInstance != null) {
+            return pooledInstance;
+        }
+
+        T bean = null;
+        try {
+            // Pool is empty, create an instance
+            bean = create();
+        } finally {
+            if (bean == null) {
+                semaphore.release();
+            }
+        }
+        return bean;
+    }
+
+    /**
+     * Return an instance after invocation.
+     *
+     * @param obj
+     */
+    public void release(T obj) {
+        if (ROOT_LOGGER.isTraceEnabled()) {
+            ROOT_LOGGER.tracef("%s/%s Free instance: %s", pooled.get(), maxSize, this);
+        }
+
+        if (pooled.incrementAndGet() > maxSize) {
+            pooled.decrementAndGet();
+            destroy(obj);
+        } else {
+            // park the instance with this thread, moving whatever was parked before to the shared stripes
+            final T displaced = affinity == null ? obj : park(obj);
+            if (displaced != null) {
+                stripes.get(homeStripe()).offer(displaced);
+            }
+        }
+        semaphore.release();
+    }
+
+    @Override
+    @Deprecated
+    public void remove(T ctx) {
+        if (ROOT_LOGGER.isTraceEnabled()) {
+            ROOT_LOGGER.tracef("Removing instance: %s#%s", this, ctx);
+        }
+
+        semaphore.release();
+        // let the super do the other remove stuff
+        super.doRemove(ctx);
+    }
+
+    public void start() {
+    }
+
+    public void stop() {
+        T obj;
+        while ((obj = poll()) != null) {
+            destroy(obj);
+        }
+    }
+
+    /**
+     * Parks an instance in the calling thread's affinity slot, and queues the slot for stealing unless it already is.
+     *
+     * @param obj the instance to park
+     * @return the instance parked before, or null if there was none
+     */
+    private T park(final T obj) {
+        final AffinitySlot<T> slot = affinity.get();
+        final T displaced = slot.getAndSet(obj);
+        if (slot.queued.compareAndSet(false, true)) {
+            parkedSlots.offer(slot);
+        }
+        return displaced;
+    }
+
+    /**
+     * Steals an instance parked with another thread. The slots found empty are dropped from the queue, they are
+     * queued again once their owner parks another instance.
+     *
+     * @return a parked instance, or null if there is none
+     */
+    private T steal() {
+        AffinitySlot<T> slot;
+        while ((slot = parkedSlots.poll()) != null) {
+            // dequeue before taking the instance, so an instance parked meanwhile queues the slot again
+            slot.queued.set(false);
+            final T obj = slot.getAndSet(null);
+            if (obj != null) {
+                return obj;
+            }
+        }
+        return null;
+    }
+
+    private int homeStripe() {
+        return (int) Thread.currentThread().getId() & stripeMask;
+    }
+
+    /**
+     * Takes a free instance, preferring the calling thread's affinity slot and stripe.
+     *
+     * @return a free instance, or null if there is none
+     */
+    private T poll() {
+        T obj = null;
+        if (affinity != null) {
+            obj = affinity.get().getAndSet(null);
+        }
+        if (obj == null) {
+            final int home = homeStripe();
+            for (int i = 0; i <= stripeMask && obj == null; i++) {
+                obj = stripes.get((home + i) & stripeMask).poll();
+            }
+        }
+        if (obj == null && parkedSlots != null) {
+            obj = steal();
+        }
+        if (obj != null) {
+            pooled.decrementAndGet();
+        }
+        return obj;
+    }
+
+    /**
+     * The slot an instance is parked in with a thread.
+     */
+    private static final class AffinitySlot<T> extends AtomicReference<T> {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Whether this slot is in the queue of parked slots
+         */
+        final AtomicBoolean queued = new AtomicBoolean();
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.subsystem;
+
+import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
+import org.jboss.as.ejb3.cache.CacheFactoryService;
+import org.jboss.as.ejb3.cache.spi.impl.BucketedExpirationScheduler;
+import org.jboss.dmr.ModelNode;
+import org.jboss.msc.service.ServiceController;
+
+/**
+ * Reads the expiration and passivation metrics of a cache factory. Caches that do not use a
+ * {@link BucketedExpirationScheduler} report zero for all of them.
+ */
+public class CacheFactoryMetricsHandler extends AbstractRuntimeOnlyHandler {
+
+    public static final CacheFactoryMetricsHandler INSTANCE = new CacheFactoryMetricsHandler();
+
+    private CacheFactoryMetricsHandler() {
+    }
+
+    @Override
+    protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
+        final String name = PathAddress.pathAddress(operation.require(ModelDescriptionConstants.OP_ADDR)).getLastElement().getValue();
+        final String metric = operation.require(ModelDescriptionConstants.NAME).asString();
+        final ServiceController<?> controller = context.getServiceRegistry(false).getService(CacheFactoryService.getServiceName(name));
+        BucketedExpirationScheduler scheduler = null;
+        if (controller != null && controller.getState() == ServiceController.State.UP) {
+            scheduler = ((CacheFactoryService<?, ?>) controller.getService()).getExpirationScheduler();
+        }
+        final ModelNode result = context.getResult();
+        if (EJB3SubsystemModel.PASSIVATION_THROUGHPUT.equals(metric)) {
+            result.set(scheduler != null ? scheduler.getPassivationThroughput() : 0.0);
+        } else if (EJB3SubsystemModel.PASSIVATIONS.equals(metric)) {
+            result.set(scheduler != null ? scheduler.getPassivationCount() : 0L);
+        } else if (EJB3SubsystemModel.EXPIRATIONS.equals(metric)) {
+            result.set(scheduler != null ? scheduler.getExpirationCount() : 0L);
+        } else if (EJB3SubsystemModel.PASSIVATION_BACKLOG.equals(metric)) {
+            result.set(scheduler != null ? scheduler.getBacklog() : 0L);
+        } else if (EJB3SubsystemModel.SCHEDULED_EXPIRATIONS.equals(metric)) {
+            result.set(scheduler != null ? scheduler.getScheduledCount() : 0L);
+        }
+        context.completeStep();
+    }
+}
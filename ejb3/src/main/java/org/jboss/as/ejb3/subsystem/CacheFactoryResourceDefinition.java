@@ -32,6 +32,7 @@ import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.SimpleResourceDefinition;
 import org.jboss.as.controller.StringListAttributeDefinition;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
 import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.controller.registry.OperationEntry;
@@ -70,17 +71,45 @@ public class CacheFactoryResourceDefinition extends SimpleResourceDefinition {
                     .setFlags(AttributeAccess.Flag.RESTART_NONE)
                     .build();
 
+    public static final SimpleAttributeDefinition PASSIVATIONS =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.PASSIVATIONS, ModelType.LONG, true)
+                    .setStorageRuntime()
+                    .build();
+
+    public static final SimpleAttributeDefinition EXPIRATIONS =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.EXPIRATIONS, ModelType.LONG, true)
+                    .setStorageRuntime()
+                    .build();
+
+    public static final SimpleAttributeDefinition PASSIVATION_THROUGHPUT =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.PASSIVATION_THROUGHPUT, ModelType.DOUBLE, true)
+                    .setMeasurementUnit(MeasurementUnit.PER_SECOND)
+                    .setStorageRuntime()
+                    .build();
+
+    public static final SimpleAttributeDefinition PASSIVATION_BACKLOG =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.PASSIVATION_BACKLOG, ModelType.LONG, true)
+                    .setStorageRuntime()
+                    .build();
+
+    public static final SimpleAttributeDefinition SCHEDULED_EXPIRATIONS =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.SCHEDULED_EXPIRATIONS, ModelType.LONG, true)
+                    .setStorageRuntime()
+                    .build();
+
     private static final AttributeDefinition[] ATTRIBUTES = new AttributeDefinition[] { ALIASES, PASSIVATION_STORE };
+    static final AttributeDefinition[] METRICS = new AttributeDefinition[] { PASSIVATIONS, EXPIRATIONS, PASSIVATION_THROUGHPUT, PASSIVATION_BACKLOG, SCHEDULED_EXPIRATIONS };
     private static final CacheFactoryAdd ADD_HANDLER = new CacheFactoryAdd(ATTRIBUTES);
     private static final CacheFactoryRemove REMOVE_HANDLER = new CacheFactoryRemove(ADD_HANDLER);
 
-    public static final CacheFactoryResourceDefinition INSTANCE = new CacheFactoryResourceDefinition();
+    private final boolean registerRuntimeOnly;
 
-    private CacheFactoryResourceDefinition() {
+    public CacheFactoryResourceDefinition(boolean registerRuntimeOnly) {
         super(PathElement.pathElement(EJB3SubsystemModel.CACHE),
                 EJB3Extension.getResourceDescriptionResolver(EJB3SubsystemModel.CACHE),
                 ADD_HANDLER, REMOVE_HANDLER,
                 OperationEntry.Flag.RESTART_NONE, OperationEntry.Flag.RESTART_RESOURCE_SERVICES);
+        this.registerRuntimeOnly = registerRuntimeOnly;
     }
 
     @Override
@@ -89,5 +118,10 @@ public class CacheFactoryResourceDefinition extends SimpleResourceDefinition {
         for (AttributeDefinition attribute: ATTRIBUTES) {
             resourceRegistration.registerReadWriteAttribute(attribute,  null, handler);
         }
+        if (this.registerRuntimeOnly) {
+            for (AttributeDefinition metric : METRICS) {
+                resourceRegistration.registerMetric(metric, CacheFactoryMetricsHandler.INSTANCE);
+            }
+        }
     }
 }
@@ -498,6 +498,8 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
         StrictMaxPoolResourceDefinition.MAX_POOL_SIZE.marshallAsAttribute(strictMaxPoolModelNode, writer);
         StrictMaxPoolResourceDefinition.INSTANCE_ACQUISITION_TIMEOUT.marshallAsAttribute(strictMaxPoolModelNode, writer);
         StrictMaxPoolResourceDefinition.INSTANCE_ACQUISITION_TIMEOUT_UNIT.marshallAsAttribute(strictMaxPoolModelNode, writer);
+        StrictMaxPoolResourceDefinition.STRIPED.marshallAsAttribute(strictMaxPoolModelNode, writer);
+        StrictMaxPoolResourceDefinition.THREAD_AFFINITY.marshallAsAttribute(strictMaxPoolModelNode, writer);
     }
 
     private void writeCaches(XMLExtendedStreamWriter writer, ModelNode model) throws XMLStreamException {
@@ -548,6 +550,7 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
                 FilePassivationStoreResourceDefinition.GROUPS_PATH.marshallAsAttribute(store, writer);
                 FilePassivationStoreResourceDefinition.SESSIONS_PATH.marshallAsAttribute(store, writer);
                 FilePassivationStoreResourceDefinition.SUBDIRECTORY_COUNT.marshallAsAttribute(store, writer);
+                FilePassivationStoreResourceDefinition.STORE_TYPE.marshallAsAttribute(store, writer);
                 writer.writeEndElement();
             }
         }
@@ -556,14 +559,17 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
     private void writeTimerService(final XMLExtendedStreamWriter writer, final ModelNode timerServiceModel) throws XMLStreamException {
 
         TimerServiceResourceDefinition.THREAD_POOL_NAME.marshallAsAttribute(timerServiceModel, writer);
+        TimerServiceResourceDefinition.SCHEDULER.marshallAsAttribute(timerServiceModel, writer);
 
         // <data-store>
         if (TimerServiceResourceDefinition.PATH.isMarshallable(timerServiceModel)
-                || TimerServiceResourceDefinition.RELATIVE_TO.isMarshallable(timerServiceModel)) {
+                || TimerServiceResourceDefinition.RELATIVE_TO.isMarshallable(timerServiceModel)
+                || TimerServiceResourceDefinition.DATA_STORE_TYPE.isMarshallable(timerServiceModel)) {
 
             writer.writeEmptyElement(EJB3SubsystemXMLElement.DATA_STORE.getLocalName());
             TimerServiceResourceDefinition.PATH.marshallAsAttribute(timerServiceModel, writer);
             TimerServiceResourceDefinition.RELATIVE_TO.marshallAsAttribute(timerServiceModel, writer);
+            TimerServiceResourceDefinition.DATA_STORE_TYPE.marshallAsAttribute(timerServiceModel, writer);
         }
 
     }
@@ -850,6 +856,7 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
         Integer maxPoolSize = null;
         Long timeout = null;
         String unit = null;
+        final ModelNode additionalParams = new ModelNode();
         for (int i = 0; i < count; i++) {
             requireNoNamespaceAttribute(reader, i);
             final String value = reader.getAttributeValue(i);
@@ -869,7 +876,9 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
                     break;
 
                 default:
-                    throw unexpectedAttribute(reader, i);
+                    if (!this.parseStrictMaxPoolAttribute(reader, attribute, value, additionalParams)) {
+                        throw unexpectedAttribute(reader, i);
+                    }
             }
         }
         requireNoContent(reader);
@@ -877,7 +886,58 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
             throw missingRequired(reader, Collections.singleton(EJB3SubsystemXMLAttribute.NAME.getLocalName()));
         }
         // create and add the operation
-        operations.add(this.createAddStrictMaxBeanInstancePoolOperation(poolName, maxPoolSize, timeout, unit));
+        final ModelNode addStrictMaxPoolOperation = this.createAddStrictMaxBeanInstancePoolOperation(poolName, maxPoolSize, timeout, unit);
+        if (additionalParams.isDefined()) {
+            for (Property param : additionalParams.asPropertyList()) {
+                addStrictMaxPoolOperation.get(param.getName()).set(param.getValue());
+            }
+        }
+        operations.add(addStrictMaxPoolOperation);
+    }
+
+    /**
+     * Parses a strict-max-pool attribute which is not known to this version of the schema.
+     *
+     * @param reader    the reader
+     * @param attribute the attribute
+     * @param value     the attribute value
+     * @param operation the node to which the parsed value is added
+     * @return true if the attribute was parsed, false if it is unexpected
+     * @throws XMLStreamException if the value is invalid
+     */
+    protected boolean parseStrictMaxPoolAttribute(final XMLExtendedStreamReader reader, final EJB3SubsystemXMLAttribute attribute,
+                                                  final String value, final ModelNode operation) throws XMLStreamException {
+        return false;
+    }
+
+    /**
+     * Parses a timer-service attribute which is not known to this version of the schema.
+     *
+     * @param reader    the reader
+     * @param attribute the attribute
+     * @param value     the attribute value
+     * @param operation the node to which the parsed value is added
+     * @return true if the attribute was parsed, false if it is unexpected
+     * @throws XMLStreamException if the value is invalid
+     */
+    protected boolean parseTimerServiceAttribute(final XMLExtendedStreamReader reader, final EJB3SubsystemXMLAttribute attribute,
+                                                 final String value, final ModelNode operation) throws XMLStreamException {
+        return false;
+    }
+
+    /**
+     * Parses a timer-service data-store attribute which is not known to this version of the schema.
+     *
+     * @param reader    the reader
+     * @param attribute the attribute
+     * @param value     the attribute value
+     * @param operation the node to which the parsed value is added
+     * @return true if the attribute was parsed, false if it is unexpected
+     * @throws XMLStreamException if the value is invalid
+     */
+    protected boolean parseDataStoreAttribute(final XMLExtendedStreamReader reader, final EJB3SubsystemXMLAttribute attribute,
+                                              final String value, final ModelNode operation) throws XMLStreamException {
+        return false;
     }
 
     private void parseCaches(final XMLExtendedStreamReader reader, List<ModelNode> operations) throws XMLStreamException {
@@ -962,10 +1022,12 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
         String groupsPath = null;
         String sessionsPath = null;
         Integer subdirectoryCount = null;
+        final ModelNode additionalParams = new ModelNode();
         for (int i = 0; i < reader.getAttributeCount(); i++) {
             requireNoNamespaceAttribute(reader, i);
             final String value = reader.getAttributeValue(i);
-            switch (EJB3SubsystemXMLAttribute.forName(reader.getAttributeLocalName(i))) {
+            final EJB3SubsystemXMLAttribute attribute = EJB3SubsystemXMLAttribute.forName(reader.getAttributeLocalName(i));
+            switch (attribute) {
                 case NAME: {
                     name = value;
                     break;
@@ -999,7 +1061,9 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
                     break;
                 }
                 default: {
-                    throw unexpectedAttribute(reader, i);
+                    if (!this.parseFilePassivationStoreAttribute(reader, attribute, value, additionalParams)) {
+                        throw unexpectedAttribute(reader, i);
+                    }
                 }
             }
         }
@@ -1008,7 +1072,28 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
             throw missingRequired(reader, Collections.singleton(EJB3SubsystemXMLAttribute.NAME.getLocalName()));
         }
         // create and add the operation
-        operations.add(this.createAddFilePassivationStoreOperation(name, maxSize, timeout, unit, relativeTo, groupsPath, sessionsPath, subdirectoryCount));
+        final ModelNode addFilePassivationStoreOperation = this.createAddFilePassivationStoreOperation(name, maxSize, timeout, unit, relativeTo, groupsPath, sessionsPath, subdirectoryCount);
+        if (additionalParams.isDefined()) {
+            for (Property param : additionalParams.asPropertyList()) {
+                addFilePassivationStoreOperation.get(param.getName()).set(param.getValue());
+            }
+        }
+        operations.add(addFilePassivationStoreOperation);
+    }
+
+    /**
+     * Parses a file-passivation-store attribute which is not known to this version of the schema.
+     *
+     * @param reader    the reader
+     * @param attribute the attribute
+     * @param value     the attribute value
+     * @param operation the node to which the parsed value is added
+     * @return true if the attribute was parsed, false if it is unexpected
+     * @throws XMLStreamException if the value is invalid
+     */
+    protected boolean parseFilePassivationStoreAttribute(final XMLExtendedStreamReader reader, final EJB3SubsystemXMLAttribute attribute,
+                                                         final String value, final ModelNode operation) throws XMLStreamException {
+        return false;
     }
 
     private void parseClusterPassivationStore(final XMLExtendedStreamReader reader, List<ModelNode> operations) throws XMLStreamException {
@@ -1094,7 +1179,9 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
                     threadPoolName = value;
                     break;
                 default:
-                    throw unexpectedAttribute(reader, i);
+                    if (!this.parseTimerServiceAttribute(reader, attribute, value, timerServiceAdd)) {
+                        throw unexpectedAttribute(reader, i);
+                    }
             }
         }
         if (!required.isEmpty()) {
@@ -1124,7 +1211,9 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
                                 dataStorePathRelativeTo = TimerServiceResourceDefinition.RELATIVE_TO.parse(value, reader).asString();
                                 break;
                             default:
-                                throw unexpectedAttribute(reader, i);
+                                if (!this.parseDataStoreAttribute(reader, attribute, value, timerServiceAdd)) {
+                                    throw unexpectedAttribute(reader, i);
+                                }
                         }
                     }
                     if (dataStorePath == null) {
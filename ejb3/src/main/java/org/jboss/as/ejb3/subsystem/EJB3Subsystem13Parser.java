@@ -103,6 +103,57 @@ public class EJB3Subsystem13Parser extends EJB3Subsystem12Parser {
         }
     }
 
+    @Override
+    protected boolean parseStrictMaxPoolAttribute(final XMLExtendedStreamReader reader, final EJB3SubsystemXMLAttribute attribute,
+                                                  final String value, final ModelNode operation) throws XMLStreamException {
+        switch (attribute) {
+            case STRIPED:
+                StrictMaxPoolResourceDefinition.STRIPED.parseAndSetParameter(value, operation, reader);
+                return true;
+            case THREAD_AFFINITY:
+                StrictMaxPoolResourceDefinition.THREAD_AFFINITY.parseAndSetParameter(value, operation, reader);
+                return true;
+            default:
+                return super.parseStrictMaxPoolAttribute(reader, attribute, value, operation);
+        }
+    }
+
+    @Override
+    protected boolean parseTimerServiceAttribute(final XMLExtendedStreamReader reader, final EJB3SubsystemXMLAttribute attribute,
+                                                 final String value, final ModelNode operation) throws XMLStreamException {
+        switch (attribute) {
+            case SCHEDULER:
+                TimerServiceResourceDefinition.SCHEDULER.parseAndSetParameter(value, operation, reader);
+                return true;
+            default:
+                return super.parseTimerServiceAttribute(reader, attribute, value, operation);
+        }
+    }
+
+    @Override
+    protected boolean parseDataStoreAttribute(final XMLExtendedStreamReader reader, final EJB3SubsystemXMLAttribute attribute,
+                                              final String value, final ModelNode operation) throws XMLStreamException {
+        switch (attribute) {
+            case TYPE:
+                TimerServiceResourceDefinition.DATA_STORE_TYPE.parseAndSetParameter(value, operation, reader);
+                return true;
+            default:
+                return super.parseDataStoreAttribute(reader, attribute, value, operation);
+        }
+    }
+
+    @Override
+    protected boolean parseFilePassivationStoreAttribute(final XMLExtendedStreamReader reader, final EJB3SubsystemXMLAttribute attribute,
+                                                         final String value, final ModelNode operation) throws XMLStreamException {
+        switch (attribute) {
+            case STORE_TYPE:
+                FilePassivationStoreResourceDefinition.STORE_TYPE.parseAndSetParameter(value, operation, reader);
+                return true;
+            default:
+                return super.parseFilePassivationStoreAttribute(reader, attribute, value, operation);
+        }
+    }
+
     @Override
     protected EJB3SubsystemNamespace getExpectedNamespace() {
         return EJB3SubsystemNamespace.EJB3_1_3;
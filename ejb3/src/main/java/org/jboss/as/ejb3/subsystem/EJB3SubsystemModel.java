@@ -55,17 +55,21 @@ public interface EJB3SubsystemModel {
 
     String MAX_POOL_SIZE = "max-pool-size";
     String STRICT_MAX_BEAN_INSTANCE_POOL = "strict-max-bean-instance-pool";
+    String STRIPED = "striped";
+    String THREAD_AFFINITY = "thread-affinity";
 
     String MAX_THREADS = "max-threads";
     String KEEPALIVE_TIME = "keepalive-time";
 
     String RELATIVE_TO = "relative-to";
     String PATH = "path";
+    String DATA_STORE_TYPE = "data-store-type";
 
     String DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT = "default-singleton-bean-access-timeout";
     String DEFAULT_STATEFUL_BEAN_ACCESS_TIMEOUT = "default-stateful-bean-access-timeout";
 
     String REMOTE = "remote";
+    String SCHEDULER = "scheduler";
     String SERVICE = "service";
     String TIMER_SERVICE = "timer-service";
     String THREAD_POOL = "thread-pool";
@@ -77,6 +81,11 @@ public interface EJB3SubsystemModel {
 
     String CACHE = "cache";
     String PASSIVATION_STORE = "passivation-store";
+    String PASSIVATIONS = "passivations";
+    String EXPIRATIONS = "expirations";
+    String PASSIVATION_THROUGHPUT = "passivation-throughput";
+    String PASSIVATION_BACKLOG = "passivation-backlog";
+    String SCHEDULED_EXPIRATIONS = "scheduled-expirations";
 
     String FILE_PASSIVATION_STORE = "file-passivation-store";
     String IDLE_TIMEOUT = "idle-timeout";
@@ -85,6 +94,7 @@ public interface EJB3SubsystemModel {
     String GROUPS_PATH = "groups-path";
     String SESSIONS_PATH = "sessions-path";
     String SUBDIRECTORY_COUNT = "subdirectory-count";
+    String STORE_TYPE = "store-type";
 
     String CLUSTER_PASSIVATION_STORE = "cluster-passivation-store";
     String BEAN_CACHE = "bean-cache";
@@ -70,9 +70,13 @@ public enum EJB3SubsystemXMLAttribute {
     RELATIVE_TO("relative-to"),
     RESOURCE_ADAPTER_NAME("resource-adapter-name"),
 
+    SCHEDULER("scheduler"),
     SESSIONS_PATH("sessions-path"),
+    STORE_TYPE("store-type"),
+    STRIPED("striped"),
     SUBDIRECTORY_COUNT("subdirectory-count"),
 
+    THREAD_AFFINITY("thread-affinity"),
     THREAD_POOL_NAME("thread-pool-name"),
     TYPE("type"),
 
@@ -33,6 +33,7 @@ import org.jboss.as.controller.ServiceVerificationHandler;
 import org.jboss.as.ejb3.cache.Cacheable;
 import org.jboss.as.ejb3.cache.impl.factory.NonClusteredBackingCacheEntryStoreSource;
 import org.jboss.as.ejb3.cache.impl.factory.NonClusteredBackingCacheEntryStoreSourceService;
+import org.jboss.as.ejb3.cache.impl.factory.PersistentObjectStoreType;
 import org.jboss.dmr.ModelNode;
 import org.jboss.msc.service.ServiceController;
 
@@ -62,6 +63,9 @@ public class FilePassivationStoreAdd extends PassivationStoreAdd {
         if (model.hasDefined(EJB3SubsystemModel.SUBDIRECTORY_COUNT)) {
             source.setSubdirectoryCount(model.get(EJB3SubsystemModel.SUBDIRECTORY_COUNT).asInt());
         }
+        if (model.hasDefined(EJB3SubsystemModel.STORE_TYPE)) {
+            source.setStoreType(PersistentObjectStoreType.valueOf(FilePassivationStoreResourceDefinition.STORE_TYPE.resolveModelAttribute(context, model).asString()));
+        }
         return Collections.<ServiceController<?>>singleton(this.installBackingCacheEntryStoreSourceService(service, context, model, verificationHandler));
     }
 }
@@ -25,10 +25,12 @@ package org.jboss.as.ejb3.subsystem;
 import org.jboss.as.controller.AttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.operations.validation.EnumValidator;
 import org.jboss.as.controller.operations.validation.IntRangeValidator;
 import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.as.controller.registry.OperationEntry;
 import org.jboss.as.ejb3.cache.impl.factory.NonClusteredBackingCacheEntryStoreSource;
+import org.jboss.as.ejb3.cache.impl.factory.PersistentObjectStoreType;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
 
@@ -68,7 +70,16 @@ public class FilePassivationStoreResourceDefinition extends PassivationStoreReso
                     .setFlags(AttributeAccess.Flag.RESTART_NONE)
                     .build();
 
-    private static final AttributeDefinition[] ATTRIBUTES = new AttributeDefinition[] { IDLE_TIMEOUT, IDLE_TIMEOUT_UNIT, MAX_SIZE, RELATIVE_TO, GROUPS_PATH, SESSIONS_PATH, SUBDIRECTORY_COUNT };
+    public static final SimpleAttributeDefinition STORE_TYPE =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.STORE_TYPE, ModelType.STRING, true)
+                    .setXmlName(EJB3SubsystemXMLAttribute.STORE_TYPE.getLocalName())
+                    .setDefaultValue(new ModelNode().set(NonClusteredBackingCacheEntryStoreSource.DEFAULT_STORE_TYPE.name()))
+                    .setValidator(new EnumValidator<PersistentObjectStoreType>(PersistentObjectStoreType.class, true, true))
+                    .setAllowExpression(true)
+                    .setFlags(AttributeAccess.Flag.RESTART_NONE)
+                    .build();
+
+    private static final AttributeDefinition[] ATTRIBUTES = new AttributeDefinition[] { IDLE_TIMEOUT, IDLE_TIMEOUT_UNIT, MAX_SIZE, RELATIVE_TO, GROUPS_PATH, SESSIONS_PATH, SUBDIRECTORY_COUNT, STORE_TYPE };
 
     private static final FilePassivationStoreAdd ADD = new FilePassivationStoreAdd(ATTRIBUTES);
     private static final FilePassivationStoreRemove REMOVE = new FilePassivationStoreRemove(ADD);
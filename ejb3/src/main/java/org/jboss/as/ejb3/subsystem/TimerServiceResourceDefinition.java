@@ -32,11 +32,15 @@ import org.jboss.as.controller.ResourceDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.SimpleResourceDefinition;
+import org.jboss.as.controller.operations.validation.EnumValidator;
 import org.jboss.as.controller.operations.validation.ModelTypeValidator;
 import org.jboss.as.controller.operations.validation.StringLengthValidator;
 import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.controller.registry.OperationEntry;
+import org.jboss.as.ejb3.timerservice.persistence.TimerPersistenceType;
+import org.jboss.as.ejb3.timerservice.scheduler.TimerSchedulerType;
+import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
 
 /**
@@ -60,11 +64,26 @@ public class TimerServiceResourceDefinition extends SimpleResourceDefinition {
                     .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
                     .build();
 
+    public static final SimpleAttributeDefinition DATA_STORE_TYPE =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.DATA_STORE_TYPE, ModelType.STRING, true)
+                    .setXmlName(EJB3SubsystemXMLAttribute.TYPE.getLocalName())
+                    .setValidator(new EnumValidator<TimerPersistenceType>(TimerPersistenceType.class, true, false))
+                    .setDefaultValue(new ModelNode().set(TimerPersistenceType.FILE.name()))
+                    .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
+                    .build();
+
     public static final SimpleAttributeDefinition THREAD_POOL_NAME =
             new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.THREAD_POOL_NAME, ModelType.STRING, false)
                     .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
                     .build();
 
+    public static final SimpleAttributeDefinition SCHEDULER =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.SCHEDULER, ModelType.STRING, true)
+                    .setValidator(new EnumValidator<TimerSchedulerType>(TimerSchedulerType.class, true, false))
+                    .setDefaultValue(new ModelNode().set(TimerSchedulerType.TIMER.name()))
+                    .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
+                    .build();
+
 
     public static final Map<String, AttributeDefinition> ATTRIBUTES ;
 
@@ -72,7 +91,9 @@ public class TimerServiceResourceDefinition extends SimpleResourceDefinition {
         Map<String, AttributeDefinition> map = new LinkedHashMap<String, AttributeDefinition>();
         map.put(PATH.getName(), PATH);
         map.put(RELATIVE_TO.getName(), RELATIVE_TO);
+        map.put(DATA_STORE_TYPE.getName(), DATA_STORE_TYPE);
         map.put(THREAD_POOL_NAME.getName(), THREAD_POOL_NAME);
+        map.put(SCHEDULER.getName(), SCHEDULER);
 
         ATTRIBUTES = Collections.unmodifiableMap(map);
     }
@@ -37,7 +37,9 @@ import org.jboss.as.controller.PrimitiveListAttributeDefinition;
 import org.jboss.as.controller.ResourceDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.SimpleOperationDefinitionBuilder;
 import org.jboss.as.controller.SimpleResourceDefinition;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
 import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
 import org.jboss.as.controller.descriptions.ResourceDescriptionResolver;
 import org.jboss.as.controller.operations.validation.StringLengthValidator;
@@ -76,6 +78,10 @@ public abstract class AbstractEJBComponentResourceDefinition extends SimpleResou
             .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
             .build();
 
+    private static final AttributeDefinition EXECUTION_TIME_P50 = latencyPercentile("execution-time-p50");
+    private static final AttributeDefinition EXECUTION_TIME_P99 = latencyPercentile("execution-time-p99");
+    private static final AttributeDefinition EXECUTION_TIME_P999 = latencyPercentile("execution-time-p999");
+
     public static final SimpleAttributeDefinition SECURITY_DOMAIN = new SimpleAttributeDefinitionBuilder("security-domain", ModelType.STRING, true)
             .setValidator(new StringLengthValidator(1, true))
             .build();
@@ -85,6 +91,10 @@ public abstract class AbstractEJBComponentResourceDefinition extends SimpleResou
             .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
             .build();
 
+    private static final AttributeDefinition WAIT_TIME_P50 = latencyPercentile("wait-time-p50");
+    private static final AttributeDefinition WAIT_TIME_P99 = latencyPercentile("wait-time-p99");
+    private static final AttributeDefinition WAIT_TIME_P999 = latencyPercentile("wait-time-p999");
+
     public static final SimpleAttributeDefinition RUN_AS_ROLE = new SimpleAttributeDefinitionBuilder("run-as-role", ModelType.STRING, true)
             .setValidator(new StringLengthValidator(1, true))
             .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
@@ -112,6 +122,8 @@ public abstract class AbstractEJBComponentResourceDefinition extends SimpleResou
     public static final SimpleAttributeDefinition POOL_MAX_SIZE = new SimpleAttributeDefinitionBuilder("pool-max-size", ModelType.INT, false)
             .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME).build();
 
+    private static final String RESET_INVOCATION_METRICS = "reset-invocation-metrics";
+
     private final EJBComponentType componentType;
 
     public AbstractEJBComponentResourceDefinition(final EJBComponentType componentType) {
@@ -120,6 +132,14 @@ public abstract class AbstractEJBComponentResourceDefinition extends SimpleResou
         this.componentType = componentType;
     }
 
+    private static SimpleAttributeDefinition latencyPercentile(final String name) {
+        return new SimpleAttributeDefinitionBuilder(name, ModelType.LONG)
+                .setAllowNull(false)
+                .setMeasurementUnit(MeasurementUnit.MICROSECONDS)
+                .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+                .build();
+    }
+
     @Override
     public void registerAttributes(ManagementResourceRegistration resourceRegistration) {
         final AbstractEJBComponentRuntimeHandler<?> handler = componentType.getRuntimeHandler();
@@ -163,5 +183,49 @@ public abstract class AbstractEJBComponentResourceDefinition extends SimpleResou
                 context.getResult().set(component.getInvocationMetrics().getWaitTime());
             }
         });
+        resourceRegistration.registerMetric(EXECUTION_TIME_P50, new PercentileMetricsHandler(true, 0.5));
+        resourceRegistration.registerMetric(EXECUTION_TIME_P99, new PercentileMetricsHandler(true, 0.99));
+        resourceRegistration.registerMetric(EXECUTION_TIME_P999, new PercentileMetricsHandler(true, 0.999));
+        resourceRegistration.registerMetric(WAIT_TIME_P50, new PercentileMetricsHandler(false, 0.5));
+        resourceRegistration.registerMetric(WAIT_TIME_P99, new PercentileMetricsHandler(false, 0.99));
+        resourceRegistration.registerMetric(WAIT_TIME_P999, new PercentileMetricsHandler(false, 0.999));
+        resourceRegistration.registerMetric(MethodInvocationMetricsAttributeDefinition.INSTANCE, new AbstractRuntimeMetricsHandler() {
+            @Override
+            protected void executeReadMetricStep(final OperationContext context, final ModelNode operation, final EJBComponent component) throws OperationFailedException {
+                MethodInvocationMetricsAttributeDefinition.addMethods(component.getInvocationMetrics(), context.getResult());
+            }
+        });
+    }
+
+    @Override
+    public void registerOperations(ManagementResourceRegistration resourceRegistration) {
+        super.registerOperations(resourceRegistration);
+        resourceRegistration.registerOperationHandler(new SimpleOperationDefinitionBuilder(RESET_INVOCATION_METRICS, getResourceDescriptionResolver())
+                .setRuntimeOnly()
+                .build(), new AbstractRuntimeMetricsHandler() {
+            @Override
+            protected void executeReadMetricStep(final OperationContext context, final ModelNode operation, final EJBComponent component) throws OperationFailedException {
+                component.getInvocationMetrics().reset();
+            }
+        });
+    }
+
+    private static class PercentileMetricsHandler extends AbstractRuntimeMetricsHandler {
+        private final boolean executionTime;
+        private final double percentile;
+
+        PercentileMetricsHandler(final boolean executionTime, final double percentile) {
+            this.executionTime = executionTime;
+            this.percentile = percentile;
+        }
+
+        @Override
+        protected void executeReadMetricStep(final OperationContext context, final ModelNode operation, final EJBComponent component) throws OperationFailedException {
+            if (executionTime) {
+                context.getResult().set(component.getInvocationMetrics().getExecutionTimePercentile(percentile));
+            } else {
+                context.getResult().set(component.getInvocationMetrics().getWaitTimePercentile(percentile));
+            }
+        }
     }
 }
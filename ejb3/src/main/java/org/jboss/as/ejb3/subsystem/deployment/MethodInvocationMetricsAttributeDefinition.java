@@ -0,0 +1,133 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.subsystem.deployment;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.DESCRIPTION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NILLABLE;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.TYPE;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.UNIT;
+import static org.jboss.as.ejb3.EjbMessages.MESSAGES;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.jboss.as.controller.ListAttributeDefinition;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
+import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
+import org.jboss.as.controller.descriptions.ResourceDescriptionResolver;
+import org.jboss.as.controller.operations.validation.ModelTypeValidator;
+import org.jboss.as.controller.registry.AttributeAccess;
+import org.jboss.as.ejb3.component.invocationmetrics.InvocationMetrics;
+import org.jboss.as.ejb3.component.invocationmetrics.MethodInvocationMetrics;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+
+/**
+ * Attribute definition for the list of invocation metrics of the business methods of an EJB.
+ */
+public class MethodInvocationMetricsAttributeDefinition extends ListAttributeDefinition {
+
+    public static final MethodInvocationMetricsAttributeDefinition INSTANCE = new MethodInvocationMetricsAttributeDefinition();
+
+    public static final String METHOD = "method";
+    public static final String INVOCATIONS = "invocations";
+    public static final String EXECUTION_TIME = "execution-time";
+    public static final String WAIT_TIME = "wait-time";
+    public static final String EXECUTION_TIME_P50 = "execution-time-p50";
+    public static final String EXECUTION_TIME_P99 = "execution-time-p99";
+    public static final String EXECUTION_TIME_P999 = "execution-time-p999";
+    public static final String WAIT_TIME_P50 = "wait-time-p50";
+    public static final String WAIT_TIME_P99 = "wait-time-p99";
+    public static final String WAIT_TIME_P999 = "wait-time-p999";
+
+    private MethodInvocationMetricsAttributeDefinition() {
+        super("methods", false, new ModelTypeValidator(ModelType.OBJECT), AttributeAccess.Flag.STORAGE_RUNTIME);
+    }
+
+    @Override
+    protected void addValueTypeDescription(ModelNode node, ResourceBundle bundle) {
+        throw MESSAGES.resourceBundleDescriptionsNotSupported(getName());
+    }
+
+    @Override
+    protected void addAttributeValueTypeDescription(ModelNode node, ResourceDescriptionResolver resolver, Locale locale, ResourceBundle bundle) {
+        addValueTypeDescription(node, resolver, locale, bundle);
+    }
+
+    @Override
+    protected void addOperationParameterValueTypeDescription(ModelNode node, String operationName, ResourceDescriptionResolver resolver, Locale locale, ResourceBundle bundle) {
+        addValueTypeDescription(node, resolver, locale, bundle);
+    }
+
+    @Override
+    public void marshallAsElement(ModelNode resourceModel, final boolean marshalDefault, XMLStreamWriter writer) throws XMLStreamException {
+        throw MESSAGES.runtimeAttributeNotMarshallable(getName());
+    }
+
+    private void addValueTypeDescription(ModelNode node, ResourceDescriptionResolver resolver, Locale locale, ResourceBundle bundle) {
+        final ModelNode valueTypeNode = node.get(ModelDescriptionConstants.VALUE_TYPE);
+        addAttributeDescription(resolver, locale, bundle, valueTypeNode, ModelType.STRING, null, METHOD);
+        addAttributeDescription(resolver, locale, bundle, valueTypeNode, ModelType.LONG, null, INVOCATIONS);
+        addAttributeDescription(resolver, locale, bundle, valueTypeNode, ModelType.LONG, MeasurementUnit.MILLISECONDS, EXECUTION_TIME);
+        addAttributeDescription(resolver, locale, bundle, valueTypeNode, ModelType.LONG, MeasurementUnit.MILLISECONDS, WAIT_TIME);
+        addAttributeDescription(resolver, locale, bundle, valueTypeNode, ModelType.LONG, MeasurementUnit.MICROSECONDS, EXECUTION_TIME_P50);
+        addAttributeDescription(resolver, locale, bundle, valueTypeNode, ModelType.LONG, MeasurementUnit.MICROSECONDS, EXECUTION_TIME_P99);
+        addAttributeDescription(resolver, locale, bundle, valueTypeNode, ModelType.LONG, MeasurementUnit.MICROSECONDS, EXECUTION_TIME_P999);
+        addAttributeDescription(resolver, locale, bundle, valueTypeNode, ModelType.LONG, MeasurementUnit.MICROSECONDS, WAIT_TIME_P50);
+        addAttributeDescription(resolver, locale, bundle, valueTypeNode, ModelType.LONG, MeasurementUnit.MICROSECONDS, WAIT_TIME_P99);
+        addAttributeDescription(resolver, locale, bundle, valueTypeNode, ModelType.LONG, MeasurementUnit.MICROSECONDS, WAIT_TIME_P999);
+    }
+
+    private void addAttributeDescription(final ResourceDescriptionResolver resolver, final Locale locale, final ResourceBundle bundle,
+                                         final ModelNode node, final ModelType type, final MeasurementUnit measurementUnit,
+                                         final String suffix) {
+        final ModelNode valNode = node.get(suffix);
+        valNode.get(DESCRIPTION).set(resolver.getResourceAttributeValueTypeDescription(getName(), locale, bundle, suffix));
+        valNode.get(TYPE).set(type);
+        valNode.get(NILLABLE).set(false);
+        if (measurementUnit != null) {
+            valNode.get(UNIT).set(measurementUnit.getName());
+        }
+    }
+
+    public static void addMethods(final InvocationMetrics invocationMetrics, final ModelNode response) {
+        response.setEmptyList();
+        for (Map.Entry<String, MethodInvocationMetrics> entry : invocationMetrics.getMethods().entrySet()) {
+            final MethodInvocationMetrics metrics = entry.getValue();
+            final ModelNode methodNode = response.add();
+            methodNode.get(METHOD).set(entry.getKey());
+            methodNode.get(INVOCATIONS).set(metrics.getInvocations());
+            methodNode.get(EXECUTION_TIME).set(metrics.getExecutionTime());
+            methodNode.get(WAIT_TIME).set(metrics.getWaitTime());
+            methodNode.get(EXECUTION_TIME_P50).set(metrics.getExecutionTimePercentile(0.5));
+            methodNode.get(EXECUTION_TIME_P99).set(metrics.getExecutionTimePercentile(0.99));
+            methodNode.get(EXECUTION_TIME_P999).set(metrics.getExecutionTimePercentile(0.999));
+            methodNode.get(WAIT_TIME_P50).set(metrics.getWaitTimePercentile(0.5));
+            methodNode.get(WAIT_TIME_P99).set(metrics.getWaitTimePercentile(0.99));
+            methodNode.get(WAIT_TIME_P999).set(metrics.getWaitTimePercentile(0.999));
+        }
+    }
+}
@@ -0,0 +1,441 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.persistence.journal;
+
+import static org.jboss.as.ejb3.EjbLogger.ROOT_LOGGER;
+import static org.jboss.as.ejb3.EjbMessages.MESSAGES;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.SystemException;
+import javax.transaction.TransactionManager;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.jboss.as.controller.services.path.PathManager;
+import org.jboss.as.ejb3.component.stateful.CurrentSynchronizationCallback;
+import org.jboss.as.ejb3.timerservice.TimerState;
+import org.jboss.as.ejb3.timerservice.persistence.TimerEntity;
+import org.jboss.as.ejb3.timerservice.persistence.TimerPersistence;
+import org.jboss.marshalling.InputStreamByteInput;
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.MarshallerFactory;
+import org.jboss.marshalling.MarshallingConfiguration;
+import org.jboss.marshalling.ModularClassResolver;
+import org.jboss.marshalling.OutputStreamByteOutput;
+import org.jboss.marshalling.Unmarshaller;
+import org.jboss.marshalling.river.RiverMarshallerFactory;
+import org.jboss.modules.ModuleLoader;
+import org.jboss.msc.service.Service;
+import org.jboss.msc.service.ServiceName;
+import org.jboss.msc.service.StartContext;
+import org.jboss.msc.service.StartException;
+import org.jboss.msc.service.StopContext;
+import org.jboss.msc.value.InjectedValue;
+
+/**
+ * Persistent timer store that keeps all timers in a single {@link TimerJournal}, rather than one file per timer.
+ * <p/>
+ * All timer changes made in a transaction are written to the journal when it commits, and forced to disk together.
+ */
+public class JournalTimerPersistence implements TimerPersistence, Service<JournalTimerPersistence> {
+
+    public static final ServiceName SERVICE_NAME = ServiceName.JBOSS.append("ejb3", "timerService", "journalTimerPersistence");
+
+    private final boolean createIfNotExists;
+    private MarshallerFactory factory;
+    private MarshallingConfiguration configuration;
+    private final InjectedValue<TransactionManager> transactionManager = new InjectedValue<TransactionManager>();
+    private final InjectedValue<TransactionSynchronizationRegistry> transactionSynchronizationRegistry = new InjectedValue<TransactionSynchronizationRegistry>();
+    private final InjectedValue<ModuleLoader> moduleLoader = new InjectedValue<ModuleLoader>();
+    private final InjectedValue<PathManager> pathManager = new InjectedValue<PathManager>();
+    private final String path;
+    private final String pathRelativeTo;
+    private PathManager.Callback.Handle callbackHandle;
+    private volatile TimerJournal journal;
+
+    /**
+     * map of timed object id : timer id : timer
+     */
+    private final ConcurrentMap<String, Map<String, TimerEntity>> timers = new ConcurrentHashMap<String, Map<String, TimerEntity>>();
+    private final ConcurrentMap<String, Lock> locks = new ConcurrentHashMap<String, Lock>();
+
+    public JournalTimerPersistence(final boolean createIfNotExists, final String path, final String pathRelativeTo) {
+        this.createIfNotExists = createIfNotExists;
+        this.path = path;
+        this.pathRelativeTo = pathRelativeTo;
+    }
+
+    @Override
+    public synchronized void start(final StartContext context) throws StartException {
+
+        final RiverMarshallerFactory factory = new RiverMarshallerFactory();
+        final MarshallingConfiguration configuration = new MarshallingConfiguration();
+        configuration.setClassResolver(ModularClassResolver.getInstance(moduleLoader.getValue()));
+
+        this.configuration = configuration;
+        this.factory = factory;
+        if (pathRelativeTo != null) {
+            callbackHandle = pathManager.getValue().registerCallback(pathRelativeTo, PathManager.ReloadServerCallback.create(), PathManager.Event.UPDATED, PathManager.Event.REMOVED);
+        }
+        final File baseDir = new File(pathManager.getValue().resolveRelativePathEntry(path, pathRelativeTo));
+        if (!baseDir.exists()) {
+            if (createIfNotExists) {
+                if (!baseDir.mkdirs()) {
+                    throw MESSAGES.failToCreateTimerFileStoreDir(baseDir);
+                }
+            } else {
+                throw MESSAGES.timerFileStoreDirNotExist(baseDir);
+            }
+        }
+        if (!baseDir.isDirectory()) {
+            throw MESSAGES.invalidTimerFileStoreDir(baseDir);
+        }
+        final TimerJournal journal = new TimerJournal(baseDir);
+        try {
+            journal.open();
+        } catch (IOException e) {
+            throw new StartException(e);
+        }
+        this.journal = journal;
+    }
+
+    @Override
+    public synchronized void stop(final StopContext context) {
+
+        try {
+            journal.close();
+        } catch (IOException e) {
+            ROOT_LOGGER.failToCloseFile(e);
+        }
+        journal = null;
+        timers.clear();
+        locks.clear();
+        if (callbackHandle != null) {
+            callbackHandle.remove();
+        }
+        factory = null;
+        configuration = null;
+    }
+
+    @Override
+    public JournalTimerPersistence getValue() throws IllegalStateException, IllegalArgumentException {
+        return this;
+    }
+
+    @Override
+    public void addTimer(final TimerEntity timerEntity) {
+        persistTimer(timerEntity, true);
+    }
+
+    @Override
+    public void persistTimer(final TimerEntity timerEntity) {
+        persistTimer(timerEntity, false);
+    }
+
+    private void persistTimer(final TimerEntity timerEntity, boolean newTimer) {
+        final Lock lock = getLock(timerEntity.getTimedObjectId());
+        lock.lock();
+        try {
+            final int status = transactionManager.getValue().getStatus();
+            if (status == Status.STATUS_MARKED_ROLLBACK || status == Status.STATUS_ROLLEDBACK ||
+                    status == Status.STATUS_ROLLING_BACK) {
+                //no need to persist anyway
+                return;
+            }
+
+            if (status == Status.STATUS_NO_TRANSACTION ||
+                    status == Status.STATUS_UNKNOWN || isBeforeCompletion()
+                    || status == Status.STATUS_COMMITTED) {
+                final long sequence = write(timerEntity, newTimer);
+                if (sequence > 0) {
+                    journal.sync(sequence);
+                }
+            } else {
+                final TransactionSynchronizationRegistry registry = transactionSynchronizationRegistry.getValue();
+                final String key = timerTransactionKey(timerEntity);
+                //one synchronization writes all the timers of the transaction
+                PersistTransactionSynchronization synchronization = (PersistTransactionSynchronization) registry.getResource(this);
+                if (synchronization == null) {
+                    synchronization = new PersistTransactionSynchronization();
+                    registry.registerInterposedSynchronization(synchronization);
+                    registry.putResource(this, synchronization);
+                }
+                synchronization.add(key, newTimer);
+                //update the most recent version of the timer to be persisted
+                registry.putResource(key, timerEntity);
+            }
+        } catch (SystemException e) {
+            throw new RuntimeException(e);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Updates the timer map and queues the change in the journal. Must be called under the lock of the timed object.
+     *
+     * @return the sequence number of the journal record, or 0 if nothing had to be written
+     */
+    private long write(final TimerEntity timerEntity, final boolean newTimer) throws IOException {
+        final Map<String, TimerEntity> map = getTimers(timerEntity.getTimedObjectId());
+        if (timerEntity.getTimerState() == TimerState.CANCELED ||
+                timerEntity.getTimerState() == TimerState.EXPIRED) {
+            if (map.remove(timerEntity.getId()) != null) {
+                return journal.remove(timerEntity.getTimedObjectId(), timerEntity.getId());
+            }
+        } else if (newTimer || map.containsKey(timerEntity.getId())) {
+            //if it is not a new timer and is not in the map then it has
+            //been removed by another thread.
+            map.put(timerEntity.getId(), timerEntity);
+            return journal.put(timerEntity.getTimedObjectId(), timerEntity.getId(), marshal(timerEntity));
+        }
+        return 0;
+    }
+
+    private String timerTransactionKey(final TimerEntity timerEntity) {
+        return "org.jboss.as.ejb3.timerTransactionKey." + timerEntity.getId();
+    }
+
+    @Override
+    public void timerUndeployed(final String timedObjectId) {
+        final Lock lock = getLock(timedObjectId);
+        try {
+            lock.lock();
+            locks.remove(timedObjectId);
+            timers.remove(timedObjectId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isBeforeCompletion() {
+        final CurrentSynchronizationCallback.CallbackType type = CurrentSynchronizationCallback.get();
+        if (type != null) {
+            return type == CurrentSynchronizationCallback.CallbackType.BEFORE_COMPLETION;
+        }
+        return false;
+    }
+
+    @Override
+    public TimerEntity loadTimer(final String id, final String timedObjectId) {
+        final Lock lock = getLock(timedObjectId);
+        try {
+            lock.lock();
+            final Map<String, TimerEntity> timers = getTimers(timedObjectId);
+            final TimerEntity timer = timers.get(id);
+            if (timer == null) {
+                return null;
+            }
+            return mostRecentEntityVersion(timer);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<TimerEntity> loadActiveTimers(final String timedObjectId, Object primaryKey) {
+        final Lock lock = getLock(timedObjectId);
+        try {
+            lock.lock();
+            final Map<String, TimerEntity> timers = getTimers(timedObjectId);
+
+            final List<TimerEntity> entities = new ArrayList<TimerEntity>();
+            for (Map.Entry<String, TimerEntity> entry : timers.entrySet()) {
+                if (primaryKey == null || primaryKey.equals(entry.getValue().getPrimaryKey())) {
+                    entities.add(mostRecentEntityVersion(entry.getValue()));
+                }
+            }
+            return entities;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<TimerEntity> loadActiveTimers(final String timedObjectId) {
+        return loadActiveTimers(timedObjectId, null);
+    }
+
+    /**
+     * Returns either the loaded entity or the most recent version of the entity that has
+     * been persisted in this transaction.
+     */
+    private TimerEntity mostRecentEntityVersion(final TimerEntity timerEntity) {
+        try {
+            final int status = transactionManager.getValue().getStatus();
+            if (status == Status.STATUS_UNKNOWN ||
+                    status == Status.STATUS_NO_TRANSACTION) {
+                return timerEntity;
+            }
+            final String key = timerTransactionKey(timerEntity);
+            TimerEntity existing = (TimerEntity) transactionSynchronizationRegistry.getValue().getResource(key);
+            return existing != null ? existing : timerEntity;
+        } catch (SystemException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private Lock getLock(final String timedObjectId) {
+        Lock lock = locks.get(timedObjectId);
+        if (lock == null) {
+            final Lock addedLock = new ReentrantLock();
+            lock = locks.putIfAbsent(timedObjectId, addedLock);
+            if (lock == null) {
+                lock = addedLock;
+            }
+        }
+        return lock;
+    }
+
+    /**
+     * Gets the timer map, loading from the journal if necessary. Should be called under lock
+     *
+     * @param timedObjectId The timed object id
+     * @return The timers for the object
+     */
+    private Map<String, TimerEntity> getTimers(final String timedObjectId) {
+        Map<String, TimerEntity> map = timers.get(timedObjectId);
+        if (map == null) {
+            map = loadTimersFromJournal(timedObjectId);
+            timers.put(timedObjectId, map);
+        }
+        return map;
+    }
+
+    private Map<String, TimerEntity> loadTimersFromJournal(final String timedObjectId) {
+        final Map<String, TimerEntity> timers = new HashMap<String, TimerEntity>();
+        try {
+            final Unmarshaller unmarshaller = factory.createUnmarshaller(configuration);
+            for (Map.Entry<String, byte[]> entry : journal.read(timedObjectId).entrySet()) {
+                try {
+                    unmarshaller.start(new InputStreamByteInput(new ByteArrayInputStream(entry.getValue())));
+                    final TimerEntity entity = unmarshaller.readObject(TimerEntity.class);
+                    timers.put(entity.getId(), entity);
+                    unmarshaller.finish();
+                } catch (Exception e) {
+                    ROOT_LOGGER.failToRestoreTimerFromJournal(entry.getKey(), timedObjectId, e);
+                }
+            }
+        } catch (Exception e) {
+            ROOT_LOGGER.failToRestoreTimersForObjectId(timedObjectId, e);
+        }
+        return timers;
+    }
+
+    private byte[] marshal(final TimerEntity entity) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final Marshaller marshaller = factory.createMarshaller(configuration);
+        marshaller.start(new OutputStreamByteOutput(out));
+        marshaller.writeObject(entity);
+        marshaller.finish();
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes all the timers persisted in a transaction once it commits, with a single sync of the journal.
+     */
+    private final class PersistTransactionSynchronization implements Synchronization {
+
+        /**
+         * transaction key : whether the timer was new when first persisted in the transaction
+         */
+        private final Map<String, Boolean> keys = new LinkedHashMap<String, Boolean>();
+        /**
+         * transaction key : latest version of the timer
+         */
+        private final Map<String, TimerEntity> latest = new LinkedHashMap<String, TimerEntity>();
+
+        synchronized void add(final String transactionKey, final boolean newTimer) {
+            if (!keys.containsKey(transactionKey)) {
+                keys.put(transactionKey, newTimer);
+            }
+        }
+
+        @Override
+        public synchronized void beforeCompletion() {
+            //get the latest version of the entities
+            for (Map.Entry<String, Boolean> key : keys.entrySet()) {
+                final TimerEntity timer = (TimerEntity) transactionSynchronizationRegistry.getValue().getResource(key.getKey());
+                if (timer != null) {
+                    latest.put(key.getKey(), timer);
+                }
+            }
+        }
+
+        @Override
+        public synchronized void afterCompletion(final int status) {
+            if (status != Status.STATUS_COMMITTED || latest.isEmpty()) {
+                return;
+            }
+            long sequence = 0;
+            try {
+                for (Map.Entry<String, TimerEntity> entry : latest.entrySet()) {
+                    final TimerEntity timer = entry.getValue();
+                    final Lock lock = getLock(timer.getTimedObjectId());
+                    lock.lock();
+                    try {
+                        sequence = Math.max(sequence, write(timer, keys.get(entry.getKey())));
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+                if (sequence > 0) {
+                    journal.sync(sequence);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    public InjectedValue<TransactionManager> getTransactionManager() {
+        return transactionManager;
+    }
+
+    public InjectedValue<TransactionSynchronizationRegistry> getTransactionSynchronizationRegistry() {
+        return transactionSynchronizationRegistry;
+    }
+
+    public InjectedValue<ModuleLoader> getModuleLoader() {
+        return moduleLoader;
+    }
+
+    public InjectedValue<PathManager> getPathManager() {
+        return pathManager;
+    }
+}
@@ -0,0 +1,643 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.persistence.journal;
+
+import static org.jboss.as.ejb3.EjbLogger.ROOT_LOGGER;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * A segmented, append-only log of timer records.
+ * <p/>
+ * Every change to a timer is appended to the active segment as a put or remove record, which is keyed by timed object
+ * id and timer id but otherwise opaque. Records are first queued by {@link #put} and {@link #remove}, and written and
+ * forced to disk by {@link #sync}; whoever syncs first writes out everything queued so far, so concurrent
+ * transactions share a single fsync. The active segment is rolled once it reaches the segment size.
+ * <p/>
+ * The journal keeps the location of the latest record of every live timer in memory, so {@link #read} only touches
+ * the records of the timed object asked for. Once most of the journal is superseded records it is compacted: the live
+ * records are copied into fresh segments and the old ones deleted. The locations are then saved to an index file,
+ * together with the position in the journal they are valid for, which is memory mapped on the next start so that
+ * only the records appended after it need to be replayed.
+ */
+public class TimerJournal {
+
+    public static final long DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    private static final int SEGMENT_MAGIC = 0x454a4254;
+    private static final int INDEX_MAGIC = 0x454a4249;
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    /**
+     * length, checksum, type
+     */
+    private static final int RECORD_HEADER = 9;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String INDEX = "journal.idx";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final File directory;
+    private final long segmentSize;
+
+    /**
+     * Guards the queue of records that are not written yet
+     */
+    private final Object queueLock = new Object();
+    private List<Record> queue = new ArrayList<Record>();
+    private long queued;
+    private volatile long synced;
+
+    /**
+     * Guards everything below
+     */
+    private final Lock writeLock = new ReentrantLock();
+    private final TreeMap<Long, Segment> segments = new TreeMap<Long, Segment>();
+    private Segment active;
+    /**
+     * timed object id : timer id : location of the latest put
+     */
+    private final Map<String, Map<String, Location>> locations = new HashMap<String, Map<String, Location>>();
+    private long liveBytes;
+    private long totalBytes;
+
+    public TimerJournal(final File directory) {
+        this(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    public TimerJournal(final File directory, final long segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Opens the journal, restoring the record locations from the index and the segments.
+     */
+    public void open() throws IOException {
+        writeLock.lock();
+        try {
+            final TreeMap<Long, File> files = new TreeMap<Long, File>();
+            final File[] segmentFiles = directory.listFiles(new FileFilter() {
+                @Override
+                public boolean accept(final File file) {
+                    return file.isFile() && file.getName().startsWith(SEGMENT_PREFIX) && file.getName().endsWith(SEGMENT_SUFFIX);
+                }
+            });
+            if (segmentFiles != null) {
+                for (File file : segmentFiles) {
+                    final String name = file.getName();
+                    try {
+                        files.put(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()), 16), file);
+                    } catch (NumberFormatException e) {
+                        // not one of ours
+                    }
+                }
+            }
+            long replayFrom = -1;
+            long replayOffset = 0;
+            final long[] position = readIndex(files);
+            if (position != null) {
+                // segments before the first one of the index are left over from an interrupted compaction
+                for (File leftOver : files.headMap(position[0]).values()) {
+                    leftOver.delete();
+                }
+                files.headMap(position[0]).clear();
+                replayFrom = position[1];
+                replayOffset = position[2];
+            }
+            boolean appendable = false;
+            for (Map.Entry<Long, File> file : files.entrySet()) {
+                final Segment segment = new Segment(file.getKey(), file.getValue());
+                segments.put(segment.id, segment);
+                totalBytes += Math.max(0, segment.size - 4);
+                final boolean last = file.getKey().equals(files.lastKey());
+                if (segment.id >= replayFrom) {
+                    appendable = replay(segment, segment.id == replayFrom ? replayOffset : 4, last);
+                }
+            }
+            if (appendable) {
+                active = segments.lastEntry().getValue();
+            } else {
+                roll();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Closes the journal, saving the record locations so the next {@link #open()} does not need to replay it.
+     */
+    public void close() throws IOException {
+        writeLock.lock();
+        try {
+            flush();
+            writeIndex();
+            for (Segment segment : segments.values()) {
+                segment.close();
+            }
+            segments.clear();
+            locations.clear();
+            active = null;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Queues the latest state of a timer.
+     *
+     * @return the sequence number to {@link #sync} on
+     */
+    public long put(final String timedObjectId, final String timerId, final byte[] data) {
+        return enqueue(new Record(PUT, timedObjectId, timerId, data));
+    }
+
+    /**
+     * Queues the removal of a timer.
+     *
+     * @return the sequence number to {@link #sync} on
+     */
+    public long remove(final String timedObjectId, final String timerId) {
+        return enqueue(new Record(REMOVE, timedObjectId, timerId, (byte[]) null));
+    }
+
+    private long enqueue(final Record record) {
+        synchronized (queueLock) {
+            queue.add(record);
+            return ++queued;
+        }
+    }
+
+    /**
+     * Makes sure that all records up to the given sequence number are on disk.
+     *
+     * @param sequence the sequence number returned when the last record of interest was queued
+     */
+    public void sync(final long sequence) throws IOException {
+        if (synced >= sequence) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            // another thread may have written our records while we were waiting for the lock
+            if (synced < sequence) {
+                flush();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Reads the latest data of all live timers of a timed object.
+     *
+     * @return timer id : data
+     */
+    public Map<String, byte[]> read(final String timedObjectId) throws IOException {
+        writeLock.lock();
+        try {
+            flush();
+            final Map<String, byte[]> result = new HashMap<String, byte[]>();
+            final Map<String, Location> timers = locations.get(timedObjectId);
+            if (timers != null) {
+                for (Map.Entry<String, Location> timer : timers.entrySet()) {
+                    final ByteBuffer record = readRecord(timer.getValue());
+                    record.position(RECORD_HEADER);
+                    readString(record);
+                    readString(record);
+                    final byte[] data = new byte[record.remaining()];
+                    record.get(data);
+                    result.put(timer.getKey(), data);
+                }
+            }
+            return result;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Writes out all queued records and forces them to disk. Must be called with the write lock held.
+     * <p/>
+     * If the records cannot be written or forced they are put back at the head of the queue, so they are written
+     * again by the next flush and no sequence number is reported as synced before its record was forced. Writing a
+     * record twice is harmless, the later copy simply supersedes the earlier one.
+     */
+    private void flush() throws IOException {
+        final List<Record> records;
+        final long last;
+        synchronized (queueLock) {
+            records = queue;
+            last = queued;
+            queue = new ArrayList<Record>();
+        }
+        if (records.isEmpty()) {
+            return;
+        }
+        try {
+            for (Record record : records) {
+                append(record.type, record.timedObjectId, record.timerId, record.bytes);
+            }
+            active.channel.force(false);
+        } catch (IOException e) {
+            synchronized (queueLock) {
+                records.addAll(queue);
+                queue = records;
+            }
+            throw e;
+        }
+        synced = last;
+        if (totalBytes > segmentSize && liveBytes < totalBytes / 2) {
+            try {
+                compact();
+            } catch (IOException e) {
+                // the records are safe, compaction is retried on the next flush
+                ROOT_LOGGER.failedToCompactTimerJournal(directory, e);
+            }
+        }
+    }
+
+    private void append(final byte type, final String timedObjectId, final String timerId, final ByteBuffer bytes) throws IOException {
+        final int length = bytes.remaining();
+        if (active.size > 4 && active.size + length > segmentSize) {
+            roll();
+        }
+        final long offset = active.size;
+        writeFully(active.channel, bytes.duplicate(), offset);
+        active.size += length;
+        totalBytes += length;
+        apply(type, timedObjectId, timerId, new Location(active.id, offset, length));
+    }
+
+    private void apply(final byte type, final String timedObjectId, final String timerId, final Location location) {
+        Map<String, Location> timers = locations.get(timedObjectId);
+        final Location previous;
+        if (type == PUT) {
+            if (timers == null) {
+                timers = new HashMap<String, Location>();
+                locations.put(timedObjectId, timers);
+            }
+            previous = timers.put(timerId, location);
+            liveBytes += location.length;
+        } else {
+            previous = timers == null ? null : timers.remove(timerId);
+            if (timers != null && timers.isEmpty()) {
+                locations.remove(timedObjectId);
+            }
+        }
+        if (previous != null) {
+            liveBytes -= previous.length;
+        }
+    }
+
+    /**
+     * Copies the live records into new segments and deletes the old ones, oldest first.
+     * <p/>
+     * The index is only switched once the old segments are gone. Until then the previous index either still matches
+     * the journal, or no longer does and is ignored; either way replaying the remaining segments, whose records are
+     * superseded by the copies that follow them, restores the same locations.
+     */
+    private void compact() throws IOException {
+        final List<Segment> old = new ArrayList<Segment>(segments.values());
+        roll();
+        final List<Map.Entry<String, Map<String, Location>>> timedObjects = new ArrayList<Map.Entry<String, Map<String, Location>>>(locations.entrySet());
+        // the live records keep their length, so only the total changes
+        totalBytes = 0;
+        for (Map.Entry<String, Map<String, Location>> timedObject : timedObjects) {
+            final List<Map.Entry<String, Location>> timers = new ArrayList<Map.Entry<String, Location>>(timedObject.getValue().entrySet());
+            for (Map.Entry<String, Location> timer : timers) {
+                append(PUT, timedObject.getKey(), timer.getKey(), readRecord(timer.getValue()));
+            }
+        }
+        active.channel.force(false);
+        for (Segment segment : old) {
+            segments.remove(segment.id);
+            segment.close();
+            segment.file.delete();
+        }
+        writeIndex();
+    }
+
+    /**
+     * Starts a new active segment, forcing the previous one.
+     */
+    private void roll() throws IOException {
+        if (active != null) {
+            active.channel.force(false);
+        }
+        final long id = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+        final File file = new File(directory, String.format("%s%016x%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+        final Segment segment = new Segment(id, file);
+        final ByteBuffer magic = ByteBuffer.allocate(4);
+        magic.putInt(SEGMENT_MAGIC).flip();
+        writeFully(segment.channel, magic, 0);
+        segment.channel.truncate(4);
+        segment.size = 4;
+        segments.put(id, segment);
+        active = segment;
+    }
+
+    /**
+     * Restores the locations of the records of a segment, starting at the given offset. A damaged tail of the last
+     * segment, typically a write torn by a crash, is cut off so that appending can resume after the last good record.
+     *
+     * @return false if the segment does not even have a valid header
+     */
+    private boolean replay(final Segment segment, final long from, final boolean last) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate((int) segment.size);
+        readFully(segment.channel, buffer, 0);
+        buffer.flip();
+        if (buffer.remaining() < 4 || buffer.getInt(0) != SEGMENT_MAGIC) {
+            ROOT_LOGGER.corruptTimerJournalSegment(segment.file, 0);
+            return false;
+        }
+        long offset = Math.max(from, 4);
+        while (offset < segment.size) {
+            final Record record = Record.parse(buffer, (int) offset);
+            if (record == null) {
+                ROOT_LOGGER.corruptTimerJournalSegment(segment.file, offset);
+                if (last) {
+                    segment.channel.truncate(offset);
+                    totalBytes -= segment.size - offset;
+                    segment.size = offset;
+                }
+                return true;
+            }
+            final int length = record.bytes.remaining();
+            apply(record.type, record.timedObjectId, record.timerId, new Location(segment.id, offset, length));
+            offset += length;
+        }
+        return true;
+    }
+
+    private ByteBuffer readRecord(final Location location) throws IOException {
+        final ByteBuffer record = ByteBuffer.allocate(location.length);
+        readFully(segments.get(location.segment).channel, record, location.offset);
+        record.flip();
+        return record;
+    }
+
+    /**
+     * Saves the current locations and the journal position they are valid for. The index is written to a temporary
+     * file which then replaces the previous index, so a crash leaves either the old or the new index behind.
+     */
+    private void writeIndex() throws IOException {
+        final File index = new File(directory, INDEX);
+        final File tmp = new File(directory, INDEX + ".tmp");
+        final List<byte[]> entries = new ArrayList<byte[]>();
+        int size = 4 + 8 + 8 + 8 + 4;
+        for (Map.Entry<String, Map<String, Location>> timedObject : locations.entrySet()) {
+            final byte[] timedObjectId = timedObject.getKey().getBytes(UTF_8);
+            for (Map.Entry<String, Location> timer : timedObject.getValue().entrySet()) {
+                final byte[] timerId = timer.getKey().getBytes(UTF_8);
+                final ByteBuffer entry = ByteBuffer.allocate(4 + timedObjectId.length + 4 + timerId.length + 8 + 8 + 4);
+                entry.putInt(timedObjectId.length).put(timedObjectId).putInt(timerId.length).put(timerId);
+                entry.putLong(timer.getValue().segment).putLong(timer.getValue().offset).putInt(timer.getValue().length);
+                entries.add(entry.array());
+                size += entry.capacity();
+            }
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate(size + 8);
+        buffer.putInt(INDEX_MAGIC);
+        buffer.putLong(segments.firstKey()).putLong(active.id).putLong(active.size);
+        buffer.putInt(entries.size());
+        for (byte[] entry : entries) {
+            buffer.put(entry);
+        }
+        final CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, size);
+        buffer.putLong(crc.getValue());
+        buffer.flip();
+
+        final RandomAccessFile file = new RandomAccessFile(tmp, "rw");
+        try {
+            file.setLength(0);
+            writeFully(file.getChannel(), buffer, 0);
+            file.getChannel().force(true);
+        } finally {
+            file.close();
+        }
+        if (!tmp.renameTo(index)) {
+            index.delete();
+            if (!tmp.renameTo(index)) {
+                throw new IOException("Could not rename " + tmp + " to " + index);
+            }
+        }
+    }
+
+    /**
+     * Restores the locations saved by {@link #writeIndex()}.
+     *
+     * @return the first segment of the journal, and the segment and offset the index is valid up to, or null if there
+     *         is no usable index
+     */
+    private long[] readIndex(final TreeMap<Long, File> files) {
+        final File index = new File(directory, INDEX);
+        if (!index.isFile()) {
+            return null;
+        }
+        try {
+            final RandomAccessFile file = new RandomAccessFile(index, "r");
+            final MappedByteBuffer buffer;
+            try {
+                buffer = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+            } finally {
+                file.close();
+            }
+            final int size = buffer.limit() - 8;
+            if (size < 0 || buffer.getInt(0) != INDEX_MAGIC) {
+                throw new IOException("Invalid header");
+            }
+            final byte[] content = new byte[size];
+            buffer.get(content);
+            final CRC32 crc = new CRC32();
+            crc.update(content);
+            if (crc.getValue() != buffer.getLong(size)) {
+                throw new IOException("Checksum mismatch");
+            }
+            final ByteBuffer data = ByteBuffer.wrap(content);
+            data.getInt();
+            final long first = data.getLong();
+            final long segment = data.getLong();
+            final long offset = data.getLong();
+            final File lastSegment = files.get(segment);
+            if (lastSegment == null || lastSegment.length() < offset || !files.containsKey(first)) {
+                throw new IOException("Journal does not match the index");
+            }
+            final int count = data.getInt();
+            for (int i = 0; i < count; i++) {
+                final String timedObjectId = readString(data);
+                final String timerId = readString(data);
+                final Location location = new Location(data.getLong(), data.getLong(), data.getInt());
+                apply(PUT, timedObjectId, timerId, location);
+            }
+            return new long[]{first, segment, offset};
+        } catch (Exception e) {
+            ROOT_LOGGER.ignoringTimerJournalIndex(index, e);
+            locations.clear();
+            liveBytes = 0;
+            return null;
+        }
+    }
+
+    private static String readString(final ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static void writeFully(final FileChannel channel, final ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static void readFully(final FileChannel channel, final ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            final int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of journal segment");
+            }
+            position += read;
+        }
+    }
+
+    private static final class Segment {
+
+        final long id;
+        final File file;
+        final RandomAccessFile raf;
+        final FileChannel channel;
+        long size;
+
+        Segment(final long id, final File file) throws IOException {
+            this.id = id;
+            this.file = file;
+            this.raf = new RandomAccessFile(file, "rw");
+            this.channel = raf.getChannel();
+            this.size = raf.length();
+        }
+
+        void close() throws IOException {
+            raf.close();
+        }
+    }
+
+    private static final class Location {
+
+        final long segment;
+        final long offset;
+        final int length;
+
+        Location(final long segment, final long offset, final int length) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /**
+     * A record, encoded as length, checksum of what follows it, type, timed object id, timer id and data.
+     */
+    private static final class Record {
+
+        final byte type;
+        final String timedObjectId;
+        final String timerId;
+        final ByteBuffer bytes;
+
+        Record(final byte type, final String timedObjectId, final String timerId, final byte[] data) {
+            this.type = type;
+            this.timedObjectId = timedObjectId;
+            this.timerId = timerId;
+            final byte[] timedObject = timedObjectId.getBytes(UTF_8);
+            final byte[] timer = timerId.getBytes(UTF_8);
+            final int length = RECORD_HEADER + 4 + timedObject.length + 4 + timer.length + (data == null ? 0 : data.length);
+            final ByteBuffer buffer = ByteBuffer.allocate(length);
+            buffer.putInt(length).putInt(0).put(type);
+            buffer.putInt(timedObject.length).put(timedObject).putInt(timer.length).put(timer);
+            if (data != null) {
+                buffer.put(data);
+            }
+            final CRC32 crc = new CRC32();
+            crc.update(buffer.array(), 8, length - 8);
+            buffer.putInt(4, (int) crc.getValue());
+            buffer.flip();
+            this.bytes = buffer;
+        }
+
+        private Record(final byte type, final String timedObjectId, final String timerId, final ByteBuffer bytes) {
+            this.type = type;
+            this.timedObjectId = timedObjectId;
+            this.timerId = timerId;
+            this.bytes = bytes;
+        }
+
+        /**
+         * @return the record at the given offset, or null if there is no complete, intact record
+         */
+        static Record parse(final ByteBuffer buffer, final int offset) {
+            if (buffer.limit() - offset < RECORD_HEADER) {
+                return null;
+            }
+            final int length = buffer.getInt(offset);
+            if (length < RECORD_HEADER + 8 || length > buffer.limit() - offset) {
+                return null;
+            }
+            final CRC32 crc = new CRC32();
+            crc.update(buffer.array(), offset + 8, length - 8);
+            if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+                return null;
+            }
+            final byte type = buffer.get(offset + 8);
+            if (type != PUT && type != REMOVE) {
+                return null;
+            }
+            final ByteBuffer record = ByteBuffer.wrap(buffer.array(), offset, length).slice();
+            record.position(RECORD_HEADER);
+            try {
+                final String timedObjectId = readString(record);
+                final String timerId = readString(record);
+                record.position(0);
+                return new Record(type, timedObjectId, timerId, record);
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.scheduler;
+
+import static org.jboss.as.ejb3.EjbMessages.MESSAGES;
+
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * A {@link TimerScheduler} backed by a single {@link Timer}. Every timeout is a task in the timer's queue, so
+ * scheduling and cancelling take logarithmic time, and all timeouts are handed to their executor by one thread.
+ */
+public class JavaUtilTimerScheduler implements TimerScheduler {
+
+    private volatile Timer timer;
+
+    @Override
+    public synchronized void start() {
+        if (timer == null) {
+            timer = new Timer();
+        }
+    }
+
+    @Override
+    public ScheduledTimeout schedule(final Timeout timeout, final long delay) {
+        final Task task = new Task(timeout);
+        timer().schedule(task, delay);
+        return new Scheduled(task);
+    }
+
+    @Override
+    public ScheduledTimeout scheduleAtFixedRate(final Timeout timeout, final long delay, final long period) {
+        final Task task = new Task(timeout);
+        timer().scheduleAtFixedRate(task, delay, period);
+        return new Scheduled(task);
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        if (timer != null) {
+            timer.cancel();
+        }
+    }
+
+    private Timer timer() {
+        final Timer timer = this.timer;
+        if (timer == null) {
+            throw MESSAGES.timerSchedulerNotRunning();
+        }
+        return timer;
+    }
+
+    private static final class Task extends TimerTask {
+
+        private final Timeout timeout;
+
+        Task(final Timeout timeout) {
+            this.timeout = timeout;
+        }
+
+        @Override
+        public void run() {
+            final ExecutorService executor = timeout.getExecutor();
+            if (executor != null) {
+                executor.submit(timeout);
+            }
+        }
+    }
+
+    private static final class Scheduled implements ScheduledTimeout {
+
+        private final TimerTask task;
+
+        Scheduled(final TimerTask task) {
+            this.task = task;
+        }
+
+        @Override
+        public void cancel() {
+            task.cancel();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.scheduler;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Schedules the timeouts of the EJB timer service. A scheduler only keeps track of time, the timeouts themselves are
+ * run by the executor of the timer service they belong to.
+ */
+public interface TimerScheduler {
+
+    /**
+     * A timeout to be run once it is due.
+     */
+    interface Timeout extends Runnable {
+
+        /**
+         * @return the executor that runs this timeout, or {@code null} if the timeout can not be run at the moment
+         */
+        ExecutorService getExecutor();
+    }
+
+    /**
+     * A timeout that has been scheduled.
+     */
+    interface ScheduledTimeout {
+
+        /**
+         * Cancels the timeout. A timeout that has already been handed to its executor still runs.
+         */
+        void cancel();
+    }
+
+    /**
+     * Starts the scheduler. Timeouts can only be scheduled once the scheduler has been started.
+     */
+    void start();
+
+    /**
+     * Schedules a timeout to run once.
+     *
+     * @param timeout the timeout
+     * @param delay   the delay in milliseconds
+     * @return the scheduled timeout
+     */
+    ScheduledTimeout schedule(Timeout timeout, long delay);
+
+    /**
+     * Schedules a timeout to run repeatedly, at a fixed rate.
+     *
+     * @param timeout the timeout
+     * @param delay   the delay of the first run in milliseconds
+     * @param period  the time between two runs in milliseconds
+     * @return the scheduled timeout
+     */
+    ScheduledTimeout scheduleAtFixedRate(Timeout timeout, long delay, long period);
+
+    /**
+     * Stops the scheduler. Scheduled timeouts will not run anymore.
+     */
+    void shutdown();
+}
@@ -0,0 +1,57 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.scheduler;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * The {@link TimerScheduler} implementations that can be configured for the timer service.
+ */
+public enum TimerSchedulerType {
+
+    /**
+     * A single {@link java.util.Timer}
+     */
+    TIMER {
+        @Override
+        public TimerScheduler create(final ThreadFactory threadFactory) {
+            return new JavaUtilTimerScheduler();
+        }
+    },
+    /**
+     * A hierarchical timing wheel, suited for large numbers of timers
+     */
+    TIMING_WHEEL {
+        @Override
+        public TimerScheduler create(final ThreadFactory threadFactory) {
+            return new TimingWheelScheduler(threadFactory);
+        }
+    };
+
+    /**
+     * Creates an unstarted scheduler.
+     *
+     * @param threadFactory the factory of the threads of the scheduler, if it accepts one
+     * @return the scheduler
+     */
+    public abstract TimerScheduler create(ThreadFactory threadFactory);
+}
@@ -0,0 +1,398 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.scheduler;
+
+import static org.jboss.as.ejb3.EjbLogger.ROOT_LOGGER;
+import static org.jboss.as.ejb3.EjbMessages.MESSAGES;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link TimerScheduler} backed by a hierarchical hashed timing wheel.
+ * <p/>
+ * Time is divided into ticks, and every level of the wheel has 256 slots covering 256 times the span of the level
+ * below it. A timeout is kept in the slot of the lowest level that can represent its deadline, and is moved down a
+ * level each time the wheel above turns over, so scheduling, cancelling and expiring a timeout all take constant
+ * time however many timeouts are registered. The slots are only touched by the scheduler thread; callers hand new
+ * and cancelled timeouts over through lock-free queues.
+ * <p/>
+ * The timeouts expiring on a tick are handed to their executor in batches: a single submitted task runs up to
+ * {@code batchSize} timeouts, rather than one task being submitted per timeout. Timeouts are rounded up to the next
+ * tick, so they never fire early but may fire up to one tick late.
+ * <p/>
+ * The wheel is turned by a single thread created through the given {@link ThreadFactory} on {@link #start()}.
+ */
+public class TimingWheelScheduler implements TimerScheduler {
+
+    public static final long DEFAULT_TICK_DURATION = 10;
+    public static final int DEFAULT_BATCH_SIZE = 32;
+
+    private static final int WHEEL_BITS = 8;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+
+    private static final int PENDING = 0;
+    private static final int SCHEDULED = 1;
+    private static final int CANCELLED = 2;
+    private static final int EXPIRED = 3;
+
+    private final ThreadFactory threadFactory;
+    private final long tickDuration;
+    private final int batchSize;
+    private final long startTime = System.nanoTime();
+    /**
+     * The slots of each level, as circular lists headed by a sentinel entry. Only accessed by the worker thread.
+     */
+    private final Entry[][] wheels = new Entry[LEVELS][WHEEL_SIZE];
+    private final Queue<Entry> pendingSchedules = new ConcurrentLinkedQueue<Entry>();
+    private final Queue<Entry> pendingCancels = new ConcurrentLinkedQueue<Entry>();
+    private volatile Thread worker;
+    private volatile boolean shutdown;
+    /**
+     * The last tick processed. Only accessed by the worker thread.
+     */
+    private long tick;
+
+    public TimingWheelScheduler(final ThreadFactory threadFactory) {
+        this(threadFactory, DEFAULT_TICK_DURATION, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param threadFactory the factory of the thread turning the wheel
+     * @param tickDuration  the duration of a tick in milliseconds
+     * @param batchSize     the maximum number of timeouts run by one task submitted to an executor
+     */
+    public TimingWheelScheduler(final ThreadFactory threadFactory, final long tickDuration, final int batchSize) {
+        if (tickDuration <= 0) {
+            throw MESSAGES.timerSchedulerValueNotPositive("tickDuration", tickDuration);
+        }
+        if (batchSize <= 0) {
+            throw MESSAGES.timerSchedulerValueNotPositive("batchSize", batchSize);
+        }
+        this.threadFactory = threadFactory;
+        this.tickDuration = tickDuration;
+        this.batchSize = batchSize;
+        for (Entry[] wheel : wheels) {
+            for (int i = 0; i < WHEEL_SIZE; i++) {
+                wheel[i] = new Entry(null, 0, 0);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (worker == null && !shutdown) {
+            final Thread thread = threadFactory.newThread(new Worker());
+            thread.start();
+            worker = thread;
+        }
+    }
+
+    @Override
+    public ScheduledTimeout schedule(final Timeout timeout, final long delay) {
+        return enqueue(timeout, delay, 0);
+    }
+
+    @Override
+    public ScheduledTimeout scheduleAtFixedRate(final Timeout timeout, final long delay, final long period) {
+        if (period <= 0) {
+            throw MESSAGES.timerSchedulerValueNotPositive("period", period);
+        }
+        return enqueue(timeout, delay, period);
+    }
+
+    private Entry enqueue(final Timeout timeout, final long delay, final long period) {
+        if (delay < 0) {
+            throw MESSAGES.negativeTimeoutDelay(delay);
+        }
+        if (worker == null || shutdown) {
+            throw MESSAGES.timerSchedulerNotRunning();
+        }
+        final Entry entry = new Entry(timeout, add(now(), delay), period);
+        pendingSchedules.add(entry);
+        return entry;
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        shutdown = true;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    /**
+     * @return the milliseconds since this scheduler was created
+     */
+    private long now() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+    }
+
+    private static long add(final long time, final long duration) {
+        return time > Long.MAX_VALUE - duration ? Long.MAX_VALUE : time + duration;
+    }
+
+    private final class Worker implements Runnable {
+
+        @Override
+        public void run() {
+            while (!shutdown) {
+                final long target = now() / tickDuration;
+                while (tick < target && !shutdown) {
+                    advance();
+                }
+                final long sleep = (tick + 1) * tickDuration - now();
+                if (sleep > 0) {
+                    try {
+                        Thread.sleep(sleep);
+                    } catch (InterruptedException e) {
+                        // shutdown is checked by the loop
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves the wheel one tick forward and dispatches the timeouts that expire on the new tick.
+     */
+    private void advance() {
+        final long current = ++tick;
+        // move the timeouts of the upper levels down, highest level first, if their wheel turned over
+        int levels = 0;
+        while (levels < LEVELS - 1 && ((current >>> (WHEEL_BITS * (levels + 1))) << (WHEEL_BITS * (levels + 1))) == current) {
+            levels++;
+        }
+        for (int level = levels; level > 0; level--) {
+            final Entry head = wheels[level][(int) (current >>> (WHEEL_BITS * level)) & WHEEL_MASK];
+            Entry entry = detachAll(head);
+            while (entry != null) {
+                final Entry next = entry.next;
+                entry.next = null;
+                place(entry, current);
+                entry = next;
+            }
+        }
+
+        Entry cancelled;
+        while ((cancelled = pendingCancels.poll()) != null) {
+            unlink(cancelled);
+        }
+        Entry scheduled;
+        while ((scheduled = pendingSchedules.poll()) != null) {
+            if (scheduled.state.compareAndSet(PENDING, SCHEDULED)) {
+                place(scheduled, current);
+            }
+        }
+
+        Map<ExecutorService, List<Entry>> expired = null;
+        List<Entry> rescheduled = null;
+        Entry entry = detachAll(wheels[0][(int) current & WHEEL_MASK]);
+        while (entry != null) {
+            final Entry next = entry.next;
+            entry.next = null;
+            if (entry.state.get() == SCHEDULED) {
+                final ExecutorService executor = entry.timeout.getExecutor();
+                if (executor != null) {
+                    if (expired == null) {
+                        expired = new IdentityHashMap<ExecutorService, List<Entry>>();
+                    }
+                    List<Entry> entries = expired.get(executor);
+                    if (entries == null) {
+                        entries = new ArrayList<Entry>();
+                        expired.put(executor, entries);
+                    }
+                    entries.add(entry);
+                }
+                if (entry.period > 0) {
+                    if (rescheduled == null) {
+                        rescheduled = new ArrayList<Entry>();
+                    }
+                    rescheduled.add(entry);
+                } else if (executor == null) {
+                    entry.state.compareAndSet(SCHEDULED, EXPIRED);
+                }
+            }
+            entry = next;
+        }
+        if (rescheduled != null) {
+            for (Entry periodic : rescheduled) {
+                periodic.deadline = add(periodic.deadline, periodic.period);
+                // a timeout that is behind does not go back into the slot just processed, but fires on the next tick
+                place(periodic, current + 1);
+            }
+        }
+        if (expired != null) {
+            for (Map.Entry<ExecutorService, List<Entry>> batch : expired.entrySet()) {
+                dispatch(batch.getKey(), batch.getValue());
+            }
+        }
+    }
+
+    /**
+     * Links an entry into the slot that expires or cascades first on or after its deadline.
+     *
+     * @param entry    the entry
+     * @param earliest the earliest tick the entry may expire on
+     */
+    private void place(final Entry entry, final long earliest) {
+        // round the deadline up to a whole tick
+        final long deadlineTick = Math.max(entry.deadline / tickDuration + (entry.deadline % tickDuration == 0 ? 0 : 1), earliest);
+        final long delta = deadlineTick - tick;
+        int level = 0;
+        // timeouts beyond the span of the top level are aliased into it, and simply cascade again when they come up
+        while (level < LEVELS - 1 && (delta >>> (WHEEL_BITS * (level + 1))) != 0) {
+            level++;
+        }
+        final Entry head = wheels[level][(int) (deadlineTick >>> (WHEEL_BITS * level)) & WHEEL_MASK];
+        entry.prev = head.prev;
+        entry.next = head;
+        head.prev.next = entry;
+        head.prev = entry;
+    }
+
+    private static void unlink(final Entry entry) {
+        if (entry.next != null) {
+            entry.prev.next = entry.next;
+            entry.next.prev = entry.prev;
+            entry.next = null;
+            entry.prev = null;
+        }
+    }
+
+    /**
+     * Empties a slot.
+     *
+     * @return the first of the entries of the slot, chained through {@link Entry#next} and terminated by null
+     */
+    private static Entry detachAll(final Entry head) {
+        if (head.next == head) {
+            return null;
+        }
+        final Entry first = head.next;
+        head.prev.next = null;
+        head.next = head;
+        head.prev = head;
+        for (Entry entry = first; entry != null; entry = entry.next) {
+            entry.prev = null;
+        }
+        return first;
+    }
+
+    private void dispatch(final ExecutorService executor, final List<Entry> entries) {
+        final Batch batch = new Batch(entries.toArray(new Entry[entries.size()]));
+        final int tasks = (entries.size() + batchSize - 1) / batchSize;
+        try {
+            for (int i = 0; i < tasks; i++) {
+                executor.execute(batch);
+            }
+        } catch (RejectedExecutionException e) {
+            ROOT_LOGGER.failedToDispatchExpiredTimeouts(executor, e);
+        }
+    }
+
+    /**
+     * The timeouts that expired for one executor on one tick. Every task submitted for the batch runs timeouts until
+     * none are left, so a slow timeout does not hold up the others as long as there are idle threads.
+     */
+    private static final class Batch implements Runnable {
+
+        private final Entry[] entries;
+        private final AtomicInteger next = new AtomicInteger();
+
+        Batch(final Entry[] entries) {
+            this.entries = entries;
+        }
+
+        @Override
+        public void run() {
+            int index;
+            while ((index = next.getAndIncrement()) < entries.length) {
+                final Entry entry = entries[index];
+                // a timeout cancelled while waiting for a thread does not run anymore
+                final boolean run = entry.period > 0 ? entry.state.get() == SCHEDULED : entry.state.compareAndSet(SCHEDULED, EXPIRED);
+                if (run) {
+                    try {
+                        entry.timeout.run();
+                    } catch (Throwable t) {
+                        ROOT_LOGGER.expiredTimeoutFailed(entry.timeout, t);
+                    }
+                }
+            }
+        }
+    }
+
+    private final class Entry implements ScheduledTimeout {
+
+        final Timeout timeout;
+        final long period;
+        final AtomicInteger state = new AtomicInteger(PENDING);
+        /**
+         * The deadline in milliseconds since the scheduler was created, advanced by the period on every run.
+         */
+        long deadline;
+        Entry prev;
+        Entry next;
+
+        Entry(final Timeout timeout, final long deadline, final long period) {
+            this.timeout = timeout;
+            this.deadline = deadline;
+            this.period = period;
+            // sentinel entries head the slots, and start as an empty circular list
+            if (timeout == null) {
+                prev = this;
+                next = this;
+            }
+        }
+
+        @Override
+        public void cancel() {
+            for (; ; ) {
+                final int current = state.get();
+                if (current == PENDING) {
+                    // never placed, the worker drops it when it finds the state changed
+                    if (state.compareAndSet(PENDING, CANCELLED)) {
+                        return;
+                    }
+                } else if (current == SCHEDULED) {
+                    if (state.compareAndSet(SCHEDULED, CANCELLED)) {
+                        pendingCancels.add(this);
+                        return;
+                    }
+                } else {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache.spi.impl;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link BucketedExpirationScheduler}
+ */
+public class BucketedExpirationSchedulerTestCase {
+
+    @Test
+    public void testExpire() throws Exception {
+        final BucketedExpirationScheduler scheduler = new BucketedExpirationScheduler(Executors.defaultThreadFactory(), 2, 10, TimeUnit.MILLISECONDS);
+        scheduler.start();
+        try {
+            final int count = BucketedExpirationScheduler.BATCH_SIZE * 3 + 1;
+            final CountDownLatch latch = new CountDownLatch(count);
+            for (int i = 0; i < count; i++) {
+                scheduler.schedule(scheduler.createEntry(new CountDown(latch), i % 2 == 0), 20, TimeUnit.MILLISECONDS);
+            }
+            Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+            Thread.sleep(50);
+            Assert.assertEquals(count / 2 + 1, scheduler.getPassivationCount());
+            Assert.assertEquals(count / 2, scheduler.getExpirationCount());
+            Assert.assertEquals(0, scheduler.getScheduledCount());
+            Assert.assertEquals(0, scheduler.getBacklog());
+        } finally {
+            scheduler.stop();
+        }
+    }
+
+    @Test
+    public void testReschedule() throws Exception {
+        final BucketedExpirationScheduler scheduler = new BucketedExpirationScheduler(Executors.defaultThreadFactory(), 1, 10, TimeUnit.MILLISECONDS);
+        scheduler.start();
+        try {
+            final AtomicInteger runs = new AtomicInteger();
+            final BucketedExpirationScheduler.Entry entry = scheduler.createEntry(new Increment(runs), true);
+            scheduler.schedule(entry, 50, TimeUnit.MILLISECONDS);
+            scheduler.schedule(entry, 10, TimeUnit.SECONDS);
+            Assert.assertEquals(1, scheduler.getScheduledCount());
+            Thread.sleep(200);
+            Assert.assertEquals(0, runs.get());
+
+            scheduler.schedule(entry, 20, TimeUnit.MILLISECONDS);
+            Thread.sleep(200);
+            Assert.assertEquals(1, runs.get());
+            Assert.assertEquals(0, scheduler.getScheduledCount());
+        } finally {
+            scheduler.stop();
+        }
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        final BucketedExpirationScheduler scheduler = new BucketedExpirationScheduler(Executors.defaultThreadFactory(), 1, 10, TimeUnit.MILLISECONDS);
+        scheduler.start();
+        try {
+            final AtomicInteger runs = new AtomicInteger();
+            final BucketedExpirationScheduler.Entry entry = scheduler.createEntry(new Increment(runs), false);
+            scheduler.schedule(entry, 20, TimeUnit.MILLISECONDS);
+            scheduler.cancel(entry);
+            Assert.assertEquals(0, scheduler.getScheduledCount());
+            Thread.sleep(200);
+            Assert.assertEquals(0, runs.get());
+            Assert.assertEquals(0, scheduler.getExpirationCount());
+        } finally {
+            scheduler.stop();
+        }
+    }
+
+    private static class CountDown implements Runnable {
+        private final CountDownLatch latch;
+
+        CountDown(CountDownLatch latch) {
+            this.latch = latch;
+        }
+
+        @Override
+        public void run() {
+            this.latch.countDown();
+        }
+    }
+
+    private static class Increment implements Runnable {
+        private final AtomicInteger counter;
+
+        Increment(AtomicInteger counter) {
+            this.counter = counter;
+        }
+
+        @Override
+        public void run() {
+            this.counter.incrementAndGet();
+        }
+    }
+}
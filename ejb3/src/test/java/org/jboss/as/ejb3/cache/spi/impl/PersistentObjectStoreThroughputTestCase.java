@@ -0,0 +1,163 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache.spi.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import junit.framework.Assert;
+
+import org.jboss.as.ejb3.cache.spi.PersistentObjectStore;
+import org.jboss.as.ejb3.cache.spi.impl.SegmentedPersistentObjectStoreTestCase.Bean;
+import org.jboss.as.ejb3.cache.spi.impl.SegmentedPersistentObjectStoreTestCase.BeanPassivationManager;
+import org.jboss.logging.Logger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Compares the passivation/activation throughput of {@link FilePersistentObjectStore} and
+ * {@link SegmentedPersistentObjectStore} with 1 to 8 threads. Every operation stores a bean and loads it back, the
+ * way a bean is passivated and later activated.
+ */
+public class PersistentObjectStoreThroughputTestCase {
+
+    private static final Logger log = Logger.getLogger(PersistentObjectStoreThroughputTestCase.class);
+
+    private static final int[] THREADS = {1, 2, 4, 8};
+    /**
+     * The number of beans every thread keeps passivated at any time
+     */
+    private static final int BACKLOG = 100;
+    private static final int OPERATIONS = 1000;
+
+    private enum Implementation {
+        FILE {
+            PersistentObjectStore<String, Bean> create(String directory) {
+                return new FilePersistentObjectStore<String, Bean>(new BeanPassivationManager(), directory, 100);
+            }
+        },
+        SEGMENTED {
+            PersistentObjectStore<String, Bean> create(String directory) {
+                return new SegmentedPersistentObjectStore<String, Bean>(new BeanPassivationManager(), directory);
+            }
+        };
+
+        abstract PersistentObjectStore<String, Bean> create(String directory);
+    }
+
+    private File directory;
+
+    @Before
+    public void before() throws IOException {
+        this.directory = File.createTempFile("passivation-throughput", "");
+        this.directory.delete();
+    }
+
+    @After
+    public void after() {
+        delete(this.directory);
+    }
+
+    @Test
+    public void testThroughput() throws Exception {
+        for (int threads : THREADS) {
+            for (Implementation implementation : Implementation.values()) {
+                // warm up
+                run(implementation, threads, OPERATIONS / 10);
+                final long time = run(implementation, threads, OPERATIONS);
+                log.infof("%s store, %d threads: %d ops/s", implementation, threads,
+                        threads * OPERATIONS * 1000000000L / Math.max(1, time));
+            }
+        }
+    }
+
+    /**
+     * Runs the given number of operations on each thread against a new store.
+     *
+     * @return the elapsed time in nanoseconds
+     */
+    private long run(final Implementation implementation, final int threadCount, final int operations) throws Exception {
+        final PersistentObjectStore<String, Bean> store = implementation.create(new File(this.directory, implementation.name()).getPath());
+        store.start();
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            final String prefix = i + "-";
+            threads[i] = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        start.await();
+                        for (int j = 0; j < BACKLOG; j++) {
+                            store.store(new Bean(prefix + j, j));
+                        }
+                        for (int j = 0; j < operations; j++) {
+                            // passivate a new bean and activate the oldest one, so the backlog stays the same
+                            store.store(new Bean(prefix + (j + BACKLOG), j + BACKLOG));
+                            assertLoaded(store, prefix, j);
+                        }
+                        for (int j = operations; j < operations + BACKLOG; j++) {
+                            assertLoaded(store, prefix, j);
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        final long begin = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        final long time = System.nanoTime() - begin;
+        store.stop();
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+        return time;
+    }
+
+    private static void assertLoaded(PersistentObjectStore<String, Bean> store, String prefix, int value) {
+        final String id = prefix + value;
+        final Bean bean = store.load(id);
+        Assert.assertNotNull(id, bean);
+        Assert.assertEquals(id, bean.getId());
+        Assert.assertEquals(value, bean.value);
+        // activation removes the bean
+        Assert.assertNull(id, store.load(id));
+    }
+
+    private static void delete(File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
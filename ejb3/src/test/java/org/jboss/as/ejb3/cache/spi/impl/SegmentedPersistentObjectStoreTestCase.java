@@ -0,0 +1,164 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache.spi.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Executors;
+
+import junit.framework.Assert;
+
+import org.jboss.as.ejb3.cache.Cacheable;
+import org.jboss.as.ejb3.cache.PassivationManager;
+import org.jboss.marshalling.MarshallingConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link SegmentedPersistentObjectStore}
+ */
+public class SegmentedPersistentObjectStoreTestCase {
+
+    private File directory;
+    private SegmentedPersistentObjectStore<String, Bean> store;
+
+    @Before
+    public void before() throws IOException {
+        this.directory = File.createTempFile("segmented-store", "");
+        this.directory.delete();
+        // small segments, so that a few beans fill them
+        this.store = new SegmentedPersistentObjectStore<String, Bean>(new BeanPassivationManager(), this.directory.getPath(), 4096, Executors.defaultThreadFactory());
+        this.store.start();
+    }
+
+    @After
+    public void after() {
+        this.store.stop();
+        this.directory.delete();
+    }
+
+    @Test
+    public void testStoreAndLoad() {
+        this.store.store(new Bean("a", 1));
+        this.store.store(new Bean("b", 2));
+        Assert.assertEquals(2, this.store.size());
+
+        Bean a = this.store.load("a");
+        Assert.assertEquals("a", a.getId());
+        Assert.assertEquals(1, a.value);
+        // loading removes the bean
+        Assert.assertNull(this.store.load("a"));
+        Assert.assertNull(this.store.load("c"));
+        Assert.assertEquals(2, this.store.load("b").value);
+        Assert.assertEquals(0, this.store.size());
+    }
+
+    @Test
+    public void testLatestWins() {
+        for (int i = 0; i < 10; i++) {
+            this.store.store(new Bean("a", i));
+        }
+        Assert.assertEquals(1, this.store.size());
+        Assert.assertEquals(9, this.store.load("a").value);
+    }
+
+    @Test
+    public void testCompaction() throws InterruptedException {
+        final int count = 500;
+        for (int i = 0; i < count; i++) {
+            this.store.store(new Bean(String.valueOf(i), i));
+        }
+        final int segments = this.store.getSegmentCount();
+        Assert.assertTrue(segments > 10);
+        // leave only every tenth bean, so that every full segment becomes sparse
+        for (int i = 0; i < count; i++) {
+            if (i % 10 != 0) {
+                Assert.assertEquals(i, this.store.load(String.valueOf(i)).value);
+            }
+        }
+        for (int i = 0; i < 100 && this.store.getSegmentCount() > segments / 2; i++) {
+            Thread.sleep(50);
+        }
+        Assert.assertTrue(this.store.getSegmentCount() <= segments / 2);
+        // the survivors were copied, not lost
+        Assert.assertEquals(count / 10, this.store.size());
+        for (int i = 0; i < count; i += 10) {
+            Assert.assertEquals(i, this.store.load(String.valueOf(i)).value);
+        }
+    }
+
+    @Test
+    public void testStop() {
+        this.store.store(new Bean("a", 1));
+        this.store.stop();
+        Assert.assertFalse(this.directory.exists() && this.directory.list().length > 0);
+        this.store.start();
+        Assert.assertNull(this.store.load("a"));
+    }
+
+    static class Bean implements Cacheable<String> {
+        private static final long serialVersionUID = 1L;
+
+        private final String id;
+        final int value;
+        // something to fill the segments with
+        final byte[] payload = new byte[200];
+
+        Bean(String id, int value) {
+            this.id = id;
+            this.value = value;
+        }
+
+        @Override
+        public String getId() {
+            return this.id;
+        }
+
+        @Override
+        public boolean isModified() {
+            return true;
+        }
+    }
+
+    static class BeanPassivationManager implements PassivationManager<String, Bean> {
+        private final MarshallingConfiguration configuration = new MarshallingConfiguration();
+
+        @Override
+        public int getCurrentMarshallingVersion() {
+            return 1;
+        }
+
+        @Override
+        public MarshallingConfiguration getMarshallingConfiguration(int version) {
+            return this.configuration;
+        }
+
+        @Override
+        public void postActivate(Bean obj) {
+        }
+
+        @Override
+        public void prePassivate(Bean obj) {
+        }
+    }
+}
@@ -0,0 +1,432 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.component.entity.entitycache;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import junit.framework.Assert;
+import org.jboss.as.ee.component.BasicComponent;
+import org.jboss.as.ejb3.component.entity.EntityBeanComponent;
+import org.jboss.as.ejb3.component.entity.EntityBeanComponentInstance;
+import org.jboss.as.naming.ManagedReference;
+import org.jboss.invocation.Interceptor;
+import org.jboss.logging.Logger;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+/**
+ * Tests {@link StripedReferenceCountingEntityCache}
+ */
+public class StripedReferenceCountingEntityCacheTestCase {
+
+    private static final Logger log = Logger.getLogger(StripedReferenceCountingEntityCacheTestCase.class);
+
+    private TestCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new TestCache(mock(EntityBeanComponent.class), 4);
+    }
+
+    @Test
+    public void testReferenceCounting() {
+        final EntityBeanComponentInstance first = cache.get("a");
+        Assert.assertEquals("a", first.getPrimaryKey());
+        Assert.assertTrue(first == cache.get("a"));
+        Assert.assertEquals(1, cache.created.get());
+
+        cache.release(first, true);
+        Assert.assertEquals(0, cache.released.get());
+        Assert.assertTrue(first == cache.get("a"));
+
+        cache.release(first, true);
+        cache.release(first, true);
+        Assert.assertEquals(1, cache.released.get());
+        Assert.assertNull(first.getPrimaryKey());
+
+        // no longer cached, so the next get associates an instance again
+        final EntityBeanComponentInstance second = cache.get("a");
+        Assert.assertEquals("a", second.getPrimaryKey());
+        Assert.assertEquals(2, cache.created.get());
+        cache.release(second, true);
+    }
+
+    @Test
+    public void testCreate() {
+        final TestInstance instance = cache.newInstance();
+        instance.associate("a");
+        cache.create(instance);
+        Assert.assertTrue(instance == cache.get("a"));
+
+        final TestInstance duplicate = cache.newInstance();
+        duplicate.associate("a");
+        try {
+            cache.create(duplicate);
+            Assert.fail("an instance is already registered for the primary key");
+        } catch (IllegalStateException expected) {
+        }
+
+        cache.release(instance, true);
+        cache.release(instance, true);
+        Assert.assertEquals(1, cache.released.get());
+    }
+
+    @Test
+    public void testReplaceRemovedInstance() {
+        final EntityBeanComponentInstance removed = cache.get("a");
+        removed.setRemoved(true);
+
+        // removed and created again in the same transaction
+        final TestInstance replacement = cache.newInstance();
+        replacement.associate("a");
+        cache.create(replacement);
+        Assert.assertTrue(replacement == cache.get("a"));
+
+        cache.release(replacement, true);
+        Assert.assertTrue(replacement == cache.get("a"));
+    }
+
+    @Test
+    public void testDiscard() {
+        final EntityBeanComponentInstance instance = cache.get("a");
+        cache.discard(instance);
+
+        final EntityBeanComponentInstance other = cache.get("a");
+        Assert.assertTrue(instance != other);
+        cache.release(other, true);
+        Assert.assertEquals(1, cache.released.get());
+    }
+
+    @Test
+    public void testUnknownInstance() {
+        final TestInstance instance = cache.newInstance();
+        instance.associate("a");
+        try {
+            cache.release(instance, true);
+            Assert.fail("the instance was never cached");
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    /**
+     * A key must not be associated again while the instance last released for it is still being passivated.
+     */
+    @Test
+    public void testGetWaitsForPassivation() throws Exception {
+        final EntityBeanComponentInstance instance = cache.get("a");
+        final CountDownLatch passivating = new CountDownLatch(1);
+        cache.passivating = passivating;
+        cache.resume = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<?> release = executor.submit(new Runnable() {
+                public void run() {
+                    cache.release(instance, true);
+                }
+            });
+            Assert.assertTrue(passivating.await(10, TimeUnit.SECONDS));
+
+            final Future<Integer> get = executor.submit(new Callable<Integer>() {
+                public Integer call() {
+                    final EntityBeanComponentInstance other = cache.get("a");
+                    final int released = cache.released.get();
+                    cache.release(other, true);
+                    return released;
+                }
+            });
+            try {
+                get.get(100, TimeUnit.MILLISECONDS);
+                Assert.fail("the instance of the key is still being passivated");
+            } catch (TimeoutException expected) {
+            }
+
+            cache.resume.countDown();
+            release.get(10, TimeUnit.SECONDS);
+            // the passivation was complete when the key was associated again
+            Assert.assertEquals(1, get.get(10, TimeUnit.SECONDS).intValue());
+            Assert.assertEquals(2, cache.created.get());
+            Assert.assertEquals(2, cache.released.get());
+        } finally {
+            cache.resume.countDown();
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Lots of threads referencing and releasing a handful of keys. While a key is referenced all callers must see the
+     * same associated instance, and once every reference has been released every instance must have gone back to the
+     * pool.
+     */
+    @Test
+    public void testConcurrentGetAndRelease() throws Exception {
+        final int threads = 32;
+        final int keys = 8;
+        final int iterations = 20000;
+        final List<String> failures = Collections.synchronizedList(new ArrayList<String>());
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<Void>> results = new ArrayList<Future<Void>>();
+            for (int i = 0; i < threads; i++) {
+                final int seed = i;
+                results.add(executor.submit(new Callable<Void>() {
+                    public Void call() throws Exception {
+                        start.await();
+                        for (int j = 0; j < iterations; j++) {
+                            final Integer key = (seed + j) % keys;
+                            final TestInstance instance = (TestInstance) cache.get(key);
+                            instance.references.incrementAndGet();
+                            if (!key.equals(instance.getPrimaryKey())) {
+                                failures.add("got " + instance.getPrimaryKey() + " for " + key);
+                            }
+                            // hold on to a second key now and then so references overlap
+                            TestInstance nested = null;
+                            if (j % 3 == 0) {
+                                nested = (TestInstance) cache.get((key + 1) % keys);
+                                nested.references.incrementAndGet();
+                            }
+                            if (nested != null) {
+                                nested.references.decrementAndGet();
+                                cache.release(nested, true);
+                            }
+                            instance.references.decrementAndGet();
+                            cache.release(instance, true);
+                        }
+                        return null;
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        failures.addAll(cache.failures);
+        Assert.assertTrue(failures.toString(), failures.isEmpty());
+        Assert.assertEquals(cache.created.get(), cache.released.get());
+        for (int i = 0; i < keys; i++) {
+            // nothing is referenced any more, so every get has to associate a fresh instance
+            final int created = cache.created.get();
+            final EntityBeanComponentInstance instance = cache.get(i);
+            Assert.assertEquals(created + 1, cache.created.get());
+            cache.release(instance, true);
+        }
+    }
+
+    /**
+     * Compares the get/release throughput of {@link ReferenceCountingEntityCache} and this cache with 1 to 64 threads.
+     * Every thread first references all keys, like a long running transaction would, so the measured loop only hits
+     * the cache and never the pool.
+     */
+    @Test
+    public void testGetAndReleaseThroughput() throws Exception {
+        final int keys = 1024;
+        final int operations = 10000;
+        final AtomicInteger created = new AtomicInteger();
+        final EntityBeanComponent component = mock(EntityBeanComponent.class);
+        when(component.acquireUnAssociatedInstance()).thenAnswer(new Answer<EntityBeanComponentInstance>() {
+            public EntityBeanComponentInstance answer(InvocationOnMock invocation) {
+                created.incrementAndGet();
+                return new TestInstance(component);
+            }
+        });
+
+        for (int threads = 1; threads <= 64; threads *= 2) {
+            for (boolean striped : new boolean[] {false, true}) {
+                final String name = striped ? "StripedReferenceCountingEntityCache" : "ReferenceCountingEntityCache";
+                // warm up
+                runGetAndRelease(striped ? new StripedReferenceCountingEntityCache(component) : new ReferenceCountingEntityCache(component), keys, threads, operations / 10);
+                created.set(0);
+                final long time = runGetAndRelease(striped ? new StripedReferenceCountingEntityCache(component) : new ReferenceCountingEntityCache(component), keys, threads, operations);
+                // the pinned instances were the only ones ever associated
+                Assert.assertEquals(name, keys, created.get());
+                log.infof("%s, %d threads: %d get/release pairs/s", name, threads,
+                        (long) threads * operations * 1000000000L / Math.max(1, time));
+            }
+        }
+    }
+
+    /**
+     * Runs the given number of get/release pairs on each thread, after every thread has referenced all keys.
+     *
+     * @return the elapsed time in nanoseconds
+     */
+    private static long runGetAndRelease(final ReadyEntityCache cache, final int keys, final int threads, final int operations) throws Exception {
+        cache.start();
+        final List<String> failures = Collections.synchronizedList(new ArrayList<String>());
+        final List<EntityBeanComponentInstance> released = Collections.synchronizedList(new ArrayList<EntityBeanComponentInstance>());
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final long time;
+        try {
+            final CountDownLatch ready = new CountDownLatch(threads);
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<Void>> results = new ArrayList<Future<Void>>();
+            for (int i = 0; i < threads; i++) {
+                final int seed = i;
+                results.add(executor.submit(new Callable<Void>() {
+                    public Void call() throws Exception {
+                        final EntityBeanComponentInstance[] pinned = new EntityBeanComponentInstance[keys];
+                        for (int k = 0; k < keys; k++) {
+                            pinned[k] = cache.get(k);
+                        }
+                        ready.countDown();
+                        start.await();
+                        final Random random = new Random(seed);
+                        for (int j = 0; j < operations; j++) {
+                            final int key = random.nextInt(keys);
+                            final EntityBeanComponentInstance instance = cache.get(key);
+                            if (instance != pinned[key]) {
+                                failures.add("got " + instance.getPrimaryKey() + " for " + key);
+                            }
+                            cache.release(instance, true);
+                        }
+                        for (EntityBeanComponentInstance instance : pinned) {
+                            cache.release(instance, true);
+                        }
+                        Collections.addAll(released, pinned);
+                        return null;
+                    }
+                }));
+            }
+            ready.await();
+            final long begin = System.nanoTime();
+            start.countDown();
+            for (Future<Void> result : results) {
+                result.get();
+            }
+            time = System.nanoTime() - begin;
+        } finally {
+            executor.shutdown();
+        }
+        cache.stop();
+        Assert.assertTrue(failures.toString(), failures.isEmpty());
+        // the last release of every key passivated its instance
+        for (EntityBeanComponentInstance instance : released) {
+            Assert.assertNull(instance.getPrimaryKey());
+        }
+        return time;
+    }
+
+    /**
+     * Stands in for the component, hands out pooled {@link TestInstance}s and checks that no instance is released
+     * while it is still referenced.
+     */
+    static class TestCache extends StripedReferenceCountingEntityCache {
+        private final EntityBeanComponent component;
+        private final Queue<TestInstance> pool = new ConcurrentLinkedQueue<TestInstance>();
+        final AtomicInteger created = new AtomicInteger();
+        final AtomicInteger released = new AtomicInteger();
+        final List<String> failures = Collections.synchronizedList(new ArrayList<String>());
+        /** When set, passivation signals this latch and waits for {@link #resume} */
+        volatile CountDownLatch passivating;
+        volatile CountDownLatch resume;
+
+        TestCache(final EntityBeanComponent component, final int concurrency) {
+            super(component, concurrency);
+            this.component = component;
+        }
+
+        TestInstance newInstance() {
+            final TestInstance instance = pool.poll();
+            return instance != null ? instance : new TestInstance(component);
+        }
+
+        @Override
+        protected EntityBeanComponentInstance createInstance(final Object pk) {
+            final TestInstance instance = newInstance();
+            instance.associate(pk);
+            created.incrementAndGet();
+            return instance;
+        }
+
+        @Override
+        protected void releaseInstance(final EntityBeanComponentInstance instance) {
+            final TestInstance testInstance = (TestInstance) instance;
+            if (testInstance.references.get() != 0) {
+                failures.add("released " + instance.getPrimaryKey() + " while it was referenced");
+            }
+            final CountDownLatch passivating = this.passivating;
+            if (passivating != null) {
+                this.passivating = null;
+                passivating.countDown();
+                try {
+                    resume.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            instance.passivate();
+            released.incrementAndGet();
+            pool.add(testInstance);
+        }
+    }
+
+    /**
+     * An instance that only keeps track of its primary key, activating and passivating does not call into a bean.
+     */
+    static class TestInstance extends EntityBeanComponentInstance {
+        private volatile Object primaryKey;
+        final AtomicInteger references = new AtomicInteger();
+
+        TestInstance(final BasicComponent component) {
+            super(component, new AtomicReference<ManagedReference>(), null, Collections.<Method, Interceptor>emptyMap());
+        }
+
+        @Override
+        public Object getPrimaryKey() {
+            return primaryKey;
+        }
+
+        @Override
+        public void associate(final Object primaryKey) {
+            this.primaryKey = primaryKey;
+        }
+
+        @Override
+        public void passivate() {
+            primaryKey = null;
+            setRemoved(false);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.component.invocationmetrics;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Assert;
+import org.junit.Test;
+
+/**
+ * Tests {@link InvocationMetrics}
+ */
+public class InvocationMetricsTestCase {
+
+    @Test
+    public void testHistogramBuckets() {
+        for (long value = 0; value < 100000; value++) {
+            final int index = LatencyHistogram.index(value);
+            final long highest = LatencyHistogram.highestEquivalentValue(index);
+            Assert.assertTrue(value + " above bucket " + index, value <= highest);
+            Assert.assertTrue(value + " too far off in bucket " + index, highest - value <= value / 16);
+            if (index > 0) {
+                Assert.assertTrue(value + " below bucket " + index, value > LatencyHistogram.highestEquivalentValue(index - 1));
+            }
+        }
+        Assert.assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.index(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testPercentiles() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        Assert.assertEquals(0, histogram.getPercentile(0.99));
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        Assert.assertEquals(500, histogram.getPercentile(0.5), 500 / 16);
+        Assert.assertEquals(990, histogram.getPercentile(0.99), 990 / 16);
+        Assert.assertEquals(999, histogram.getPercentile(0.999), 999 / 16);
+    }
+
+    @Test
+    public void testPerMethodMetrics() throws Exception {
+        final InvocationMetrics metrics = new InvocationMetrics();
+        final Method toString = Object.class.getMethod("toString");
+        final Method equals = Object.class.getMethod("equals", Object.class);
+        invoke(metrics, toString, 1, 2);
+        invoke(metrics, toString, 1, 4);
+        invoke(metrics, equals, 0, 1000);
+        invoke(metrics, null, 0, 1);
+
+        Assert.assertEquals(4, metrics.getInvocations());
+        Assert.assertEquals(1007, metrics.getExecutionTime());
+        Assert.assertEquals(2, metrics.getWaitTime());
+        Assert.assertEquals(0, metrics.getConcurrent());
+        Assert.assertEquals(1, metrics.getPeakConcurrent());
+
+        final Map<String, MethodInvocationMetrics> methods = metrics.getMethods();
+        Assert.assertEquals(2, methods.size());
+        final MethodInvocationMetrics toStringMetrics = methods.get("toString()");
+        Assert.assertEquals(2, toStringMetrics.getInvocations());
+        Assert.assertEquals(6, toStringMetrics.getExecutionTime());
+        Assert.assertEquals(4000, toStringMetrics.getExecutionTimePercentile(0.99), 4000 / 16);
+        Assert.assertEquals(1000, toStringMetrics.getWaitTimePercentile(0.5), 1000 / 16);
+        final MethodInvocationMetrics equalsMetrics = methods.get("equals(java.lang.Object)");
+        Assert.assertEquals(1, equalsMetrics.getInvocations());
+        Assert.assertEquals(1000000, equalsMetrics.getExecutionTimePercentile(0.5), 1000000 / 16);
+
+        metrics.reset();
+        Assert.assertEquals(0, metrics.getInvocations());
+        Assert.assertEquals(0, metrics.getExecutionTime());
+        Assert.assertEquals(0, metrics.getExecutionTimePercentile(0.5));
+        Assert.assertEquals(0, metrics.getPeakConcurrent());
+    }
+
+    @Test
+    public void testConcurrentInvocations() throws Exception {
+        final InvocationMetrics metrics = new InvocationMetrics();
+        final Method method = Object.class.getMethod("hashCode");
+        final int threads = 8;
+        final int invocations = 10000;
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int j = 0; j < invocations; j++) {
+                            metrics.startInvocation();
+                            metrics.finishInvocation(method, 0, TimeUnit.MICROSECONDS.toNanos(10));
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }.start();
+        }
+        start.countDown();
+        Assert.assertTrue(done.await(30, TimeUnit.SECONDS));
+        Assert.assertEquals(threads * invocations, metrics.getInvocations());
+        Assert.assertEquals(threads * invocations / 100, metrics.getExecutionTime());
+        Assert.assertEquals(10, metrics.getExecutionTimePercentile(0.999));
+        Assert.assertEquals(0, metrics.getConcurrent());
+        Assert.assertTrue(metrics.getPeakConcurrent() >= 1 && metrics.getPeakConcurrent() <= threads);
+    }
+
+    private static void invoke(final InvocationMetrics metrics, final Method method, final long waitMillis, final long executionMillis) {
+        metrics.startInvocation();
+        metrics.finishInvocation(method, TimeUnit.MILLISECONDS.toNanos(waitMillis), TimeUnit.MILLISECONDS.toNanos(executionMillis));
+    }
+}
@@ -0,0 +1,336 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.pool.strictmax;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import junit.framework.TestCase;
+import org.jboss.as.ejb3.EjbMessages;
+import org.jboss.as.ejb3.pool.Pool;
+import org.jboss.as.ejb3.pool.StatelessObjectFactory;
+import org.jboss.as.ejb3.pool.common.MockBean;
+import org.jboss.as.ejb3.pool.common.MockFactory;
+import org.jboss.logging.Logger;
+
+/**
+ * Tests that {@link StripedStrictMaxPool} keeps the strict max and timeout semantics of {@link StrictMaxPool}.
+ */
+public class StripedStrictMaxPoolUnitTestCase extends TestCase {
+    private static final Logger log = Logger.getLogger(StripedStrictMaxPoolUnitTestCase.class);
+    private static final int[] THREADS = {1, 2, 4, 8, 16, 32, 64};
+    private static final int OPERATIONS = 10000;
+
+    AtomicInteger used = new AtomicInteger(0);
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        MockBean.reset();
+        used = new AtomicInteger(0);
+    }
+
+    public void test1() {
+        StatelessObjectFactory<MockBean> factory = new MockFactory();
+        Pool<MockBean> pool = new StripedStrictMaxPool<MockBean>(factory, 10, 1, TimeUnit.SECONDS);
+        pool.start();
+
+        MockBean beans[] = new MockBean[10];
+        for (int i = 0; i < beans.length; i++) {
+            beans[i] = pool.get();
+        }
+
+        for (int i = 0; i < beans.length; i++) {
+            pool.release(beans[i]);
+            beans[i] = null;
+        }
+
+        pool.stop();
+
+        assertEquals(10, MockBean.getPostConstructs());
+        assertEquals(10, MockBean.getPreDestroys());
+    }
+
+    public void testMultiThread() throws Exception {
+        multiThread(false);
+    }
+
+    public void testMultiThreadWithAffinity() throws Exception {
+        multiThread(true);
+    }
+
+    /**
+     * More threads than the pool size.
+     */
+    private void multiThread(boolean threadAffinity) throws Exception {
+        StatelessObjectFactory<MockBean> factory = new MockFactory();
+        final Pool<MockBean> pool = new StripedStrictMaxPool<MockBean>(factory, 10, 60, TimeUnit.SECONDS, threadAffinity, 4);
+        pool.start();
+
+        final CountDownLatch in = new CountDownLatch(1);
+        final CountDownLatch ready = new CountDownLatch(10);
+
+        Callable<Void> task = new Callable<Void>() {
+            public Void call() throws Exception {
+                MockBean bean = pool.get();
+                ready.countDown();
+                in.await();
+                pool.release(bean);
+
+                bean = null;
+
+                used.incrementAndGet();
+
+                return null;
+            }
+        };
+
+        ExecutorService service = Executors.newFixedThreadPool(20);
+        Future<?> results[] = new Future<?>[20];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = service.submit(task);
+        }
+
+        ready.await(120, TimeUnit.SECONDS);
+        in.countDown();
+
+        for (Future<?> result : results) {
+            result.get(5, TimeUnit.SECONDS);
+        }
+
+        service.shutdown();
+
+        pool.stop();
+
+        assertEquals(20, used.intValue());
+        assertEquals(10, MockBean.getPostConstructs());
+        assertEquals(10, MockBean.getPreDestroys());
+    }
+
+    public void testTooMany() {
+        StatelessObjectFactory<MockBean> factory = new MockFactory();
+        Pool<MockBean> pool = new StripedStrictMaxPool<MockBean>(factory, 10, 1, TimeUnit.SECONDS);
+        pool.start();
+
+        MockBean beans[] = new MockBean[10];
+        for (int i = 0; i < beans.length; i++) {
+            beans[i] = pool.get();
+        }
+
+        try {
+            pool.get();
+            fail("should have thrown an exception");
+        } catch (Exception e) {
+            assertEquals(EjbMessages.MESSAGES.failedToAcquirePermit(1, TimeUnit.SECONDS).getMessage(), e.getMessage());
+        }
+
+        for (int i = 0; i < beans.length; i++) {
+            pool.release(beans[i]);
+            beans[i] = null;
+        }
+
+        pool.stop();
+
+        assertEquals(10, MockBean.getPostConstructs());
+        assertEquals(10, MockBean.getPreDestroys());
+    }
+
+    public void testThreadAffinity() {
+        StatelessObjectFactory<MockBean> factory = new MockFactory();
+        Pool<MockBean> pool = new StripedStrictMaxPool<MockBean>(factory, 10, 1, TimeUnit.SECONDS, true);
+        pool.start();
+
+        MockBean first = pool.get();
+        MockBean second = pool.get();
+        pool.release(second);
+        pool.release(first);
+
+        // the instance released last is parked with this thread
+        assertSame(first, pool.get());
+        assertSame(second, pool.get());
+
+        pool.release(first);
+        pool.release(second);
+        pool.stop();
+
+        assertEquals(2, MockBean.getPostConstructs());
+        assertEquals(2, MockBean.getPreDestroys());
+    }
+
+    public void testAffinityInstanceIsStolen() throws Exception {
+        StatelessObjectFactory<MockBean> factory = new MockFactory();
+        final Pool<MockBean> pool = new StripedStrictMaxPool<MockBean>(factory, 1, 1, TimeUnit.SECONDS, true);
+        pool.start();
+
+        final MockBean bean = pool.get();
+        pool.release(bean);
+
+        // another thread must get the instance parked with this thread rather than creating a new one
+        ExecutorService service = Executors.newSingleThreadExecutor();
+        MockBean other = service.submit(new Callable<MockBean>() {
+            public MockBean call() throws Exception {
+                MockBean other = pool.get();
+                pool.release(other);
+                return other;
+            }
+        }).get(5, TimeUnit.SECONDS);
+        service.shutdown();
+
+        assertSame(bean, other);
+        pool.stop();
+
+        assertEquals(1, MockBean.getPostConstructs());
+        assertEquals(1, MockBean.getPreDestroys());
+    }
+
+    public void testAffinityWithShortLivedThreads() throws Exception {
+        StatelessObjectFactory<MockBean> factory = new MockFactory();
+        final Pool<MockBean> pool = new StripedStrictMaxPool<MockBean>(factory, 2, 1, TimeUnit.SECONDS, true);
+        pool.start();
+
+        // every thread parks its instance, takes it back and parks it again before it goes away
+        for (int i = 0; i < 50; i++) {
+            Thread thread = new Thread(new Runnable() {
+                public void run() {
+                    pool.release(pool.get());
+                    pool.release(pool.get());
+                }
+            });
+            thread.start();
+            thread.join(5000);
+            assertFalse(thread.isAlive());
+        }
+
+        // the instances parked with the dead threads are still handed out
+        MockBean first = pool.get();
+        MockBean second = pool.get();
+        assertNotNull(first);
+        assertNotNull(second);
+        pool.release(first);
+        pool.release(second);
+        pool.stop();
+
+        assertTrue(MockBean.getPostConstructs() <= 2);
+        assertEquals(MockBean.getPostConstructs(), MockBean.getPreDestroys());
+    }
+
+    /**
+     * Compares the get/release throughput of {@link StrictMaxPool} and {@link StripedStrictMaxPool}, with and without
+     * thread affinity, with 1 to 64 threads contending for a pool of 20 instances.
+     */
+    public void testThroughput() throws Exception {
+        // warm up
+        for (PoolType type : PoolType.values()) {
+            final Pool<Object> pool = type.create(new CountingFactory(), 20);
+            pool.start();
+            run(pool, 4);
+            pool.stop();
+        }
+
+        for (int threads : THREADS) {
+            for (PoolType type : PoolType.values()) {
+                final CountingFactory factory = new CountingFactory();
+                final Pool<Object> pool = type.create(factory, 20);
+                pool.start();
+                final long nanos = run(pool, threads);
+                pool.stop();
+
+                assertTrue(factory.created.get() <= 20);
+                assertEquals(factory.created.get(), factory.destroyed.get());
+                log.infof("%s with %d threads: %d get/release pairs/s", type, threads,
+                        threads * OPERATIONS * 1000000000L / Math.max(1, nanos));
+            }
+        }
+    }
+
+    private static long run(final Pool<Object> pool, final int threadCount) throws Exception {
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicLong operations = new AtomicLong();
+        final Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            threads[i] = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int j = 0; j < OPERATIONS; j++) {
+                        pool.release(pool.get());
+                    }
+                    operations.addAndGet(OPERATIONS);
+                }
+            });
+            threads[i].start();
+        }
+        final long begin = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join(60000);
+            assertFalse(thread.isAlive());
+        }
+        final long time = System.nanoTime() - begin;
+        assertEquals((long) threadCount * OPERATIONS, operations.get());
+        return time;
+    }
+
+    private static class CountingFactory implements StatelessObjectFactory<Object> {
+        final AtomicInteger created = new AtomicInteger();
+        final AtomicInteger destroyed = new AtomicInteger();
+
+        public Object create() {
+            created.incrementAndGet();
+            return new Object();
+        }
+
+        public void destroy(Object obj) {
+            destroyed.incrementAndGet();
+        }
+    }
+
+    private enum PoolType {
+        STRICT_MAX {
+            Pool<Object> create(StatelessObjectFactory<Object> factory, int maxSize) {
+                return new StrictMaxPool<Object>(factory, maxSize, 1, TimeUnit.MINUTES);
+            }
+        },
+        STRIPED {
+            Pool<Object> create(StatelessObjectFactory<Object> factory, int maxSize) {
+                return new StripedStrictMaxPool<Object>(factory, maxSize, 1, TimeUnit.MINUTES, false);
+            }
+        },
+        STRIPED_THREAD_AFFINITY {
+            Pool<Object> create(StatelessObjectFactory<Object> factory, int maxSize) {
+                return new StripedStrictMaxPool<Object>(factory, maxSize, 1, TimeUnit.MINUTES, true);
+            }
+        };
+
+        abstract Pool<Object> create(StatelessObjectFactory<Object> factory, int maxSize);
+    }
+}
@@ -26,8 +26,11 @@ import org.jboss.as.subsystem.test.AbstractSubsystemTest;
 import org.jboss.as.subsystem.test.AdditionalInitialization;
 import org.jboss.as.subsystem.test.KernelServices;
 import org.jboss.dmr.ModelNode;
+import org.junit.Assert;
 import org.junit.Test;
 
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUBSYSTEM;
+
 /**
  * @author Emanuel Muckenhuber
  */
@@ -62,4 +65,15 @@ public class SubsystemParsingUnitTestCase extends AbstractSubsystemTest {
 
         assertRemoveSubsystemResources(servicesA);
     }
+
+    @Test
+    public void testParseTimerServiceScheduler() throws Exception {
+        String subsystemXml = readResource("subsystem.xml");
+
+        KernelServices services = super.installInController(AdditionalInitialization.MANAGEMENT, subsystemXml);
+        ModelNode timerService = services.readWholeModel().get(SUBSYSTEM, EJB3Extension.SUBSYSTEM_NAME, EJB3SubsystemModel.SERVICE, EJB3SubsystemModel.TIMER_SERVICE);
+        Assert.assertEquals("TIMING_WHEEL", timerService.get(EJB3SubsystemModel.SCHEDULER).asString());
+        Assert.assertEquals("default", timerService.get(EJB3SubsystemModel.THREAD_POOL_NAME).asString());
+        services.shutdown();
+    }
 }
@@ -0,0 +1,187 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timer.persistence;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Map;
+
+import junit.framework.Assert;
+import org.jboss.as.ejb3.timerservice.persistence.journal.TimerJournal;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link TimerJournal}
+ */
+public class TimerJournalTestCase {
+
+    private File directory;
+
+    @Before
+    public void before() throws IOException {
+        directory = File.createTempFile("timer-journal", "");
+        directory.delete();
+        directory.mkdirs();
+    }
+
+    @After
+    public void after() {
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testPutAndRemove() throws IOException {
+        final TimerJournal journal = new TimerJournal(directory);
+        journal.open();
+        journal.put("a", "1", data(1));
+        journal.put("a", "2", data(2));
+        journal.put("b", "1", data(3));
+        journal.put("a", "1", data(4));
+        journal.sync(journal.remove("a", "2"));
+
+        final Map<String, byte[]> a = journal.read("a");
+        Assert.assertEquals(1, a.size());
+        Assert.assertTrue(Arrays.equals(data(4), a.get("1")));
+        Assert.assertTrue(Arrays.equals(data(3), journal.read("b").get("1")));
+        Assert.assertTrue(journal.read("c").isEmpty());
+        journal.close();
+    }
+
+    @Test
+    public void testReopenFromIndex() throws IOException {
+        TimerJournal journal = new TimerJournal(directory);
+        journal.open();
+        journal.put("a", "1", data(1));
+        journal.sync(journal.put("a", "2", data(2)));
+        journal.close();
+
+        journal = new TimerJournal(directory);
+        journal.open();
+        Assert.assertEquals(2, journal.read("a").size());
+        journal.sync(journal.remove("a", "1"));
+        journal.close();
+
+        journal = new TimerJournal(directory);
+        journal.open();
+        final Map<String, byte[]> a = journal.read("a");
+        Assert.assertEquals(1, a.size());
+        Assert.assertTrue(Arrays.equals(data(2), a.get("2")));
+        journal.close();
+    }
+
+    @Test
+    public void testReplayWithoutIndex() throws IOException {
+        TimerJournal journal = new TimerJournal(directory);
+        journal.open();
+        journal.put("a", "1", data(1));
+        journal.put("a", "2", data(2));
+        journal.sync(journal.remove("a", "1"));
+        // no close, as after a crash
+
+        journal = new TimerJournal(directory);
+        journal.open();
+        final Map<String, byte[]> a = journal.read("a");
+        Assert.assertEquals(1, a.size());
+        Assert.assertTrue(Arrays.equals(data(2), a.get("2")));
+        journal.close();
+    }
+
+    @Test
+    public void testTornWriteIsDiscarded() throws IOException {
+        TimerJournal journal = new TimerJournal(directory);
+        journal.open();
+        journal.sync(journal.put("a", "1", data(1)));
+        journal.sync(journal.put("a", "2", data(2)));
+
+        // cut the last record in half
+        final File segment = segments()[0];
+        final RandomAccessFile file = new RandomAccessFile(segment, "rw");
+        try {
+            file.setLength(file.length() - 10);
+        } finally {
+            file.close();
+        }
+
+        journal = new TimerJournal(directory);
+        journal.open();
+        Assert.assertEquals(1, journal.read("a").size());
+        // appending resumes after the last intact record
+        journal.sync(journal.put("a", "3", data(3)));
+        journal.close();
+
+        journal = new TimerJournal(directory);
+        journal.open();
+        final Map<String, byte[]> a = journal.read("a");
+        Assert.assertEquals(2, a.size());
+        Assert.assertTrue(Arrays.equals(data(3), a.get("3")));
+        journal.close();
+    }
+
+    @Test
+    public void testCompaction() throws IOException {
+        TimerJournal journal = new TimerJournal(directory, 4096);
+        journal.open();
+        for (int i = 0; i < 1000; i++) {
+            journal.sync(journal.put("a", Integer.toString(i % 10), data(i)));
+        }
+        // rewriting the same ten timers over and over must not make the journal grow
+        long size = 0;
+        for (File segment : segments()) {
+            size += segment.length();
+        }
+        Assert.assertTrue("Journal has " + size + " bytes", size < 3 * 4096);
+        journal.close();
+
+        journal = new TimerJournal(directory, 4096);
+        journal.open();
+        final Map<String, byte[]> a = journal.read("a");
+        Assert.assertEquals(10, a.size());
+        for (int i = 990; i < 1000; i++) {
+            Assert.assertTrue(Arrays.equals(data(i), a.get(Integer.toString(i % 10))));
+        }
+        journal.close();
+    }
+
+    private File[] segments() {
+        return directory.listFiles(new FileFilter() {
+            @Override
+            public boolean accept(final File file) {
+                return file.getName().endsWith(".log");
+            }
+        });
+    }
+
+    private static byte[] data(final int value) {
+        final byte[] data = new byte[100];
+        Arrays.fill(data, (byte) value);
+        data[0] = (byte) (value >> 8);
+        return data;
+    }
+}
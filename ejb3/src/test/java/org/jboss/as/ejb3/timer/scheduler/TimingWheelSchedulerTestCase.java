@@ -0,0 +1,342 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timer.scheduler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.Assert;
+import org.jboss.as.ejb3.timerservice.scheduler.TimerScheduler;
+import org.jboss.as.ejb3.timerservice.scheduler.TimerSchedulerType;
+import org.jboss.as.ejb3.timerservice.scheduler.TimingWheelScheduler;
+import org.jboss.logging.Logger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link TimingWheelScheduler}
+ */
+public class TimingWheelSchedulerTestCase {
+    private static final Logger log = Logger.getLogger(TimingWheelSchedulerTestCase.class);
+
+    private ExecutorService executor;
+    private TimingWheelScheduler scheduler;
+
+    @Before
+    public void before() {
+        executor = Executors.newFixedThreadPool(4);
+        scheduler = new TimingWheelScheduler(Executors.defaultThreadFactory(), 1, 10);
+        scheduler.start();
+    }
+
+    @After
+    public void after() {
+        scheduler.shutdown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testTimeoutsFireInDeadlineOrder() throws Exception {
+        final List<Integer> fired = Collections.synchronizedList(new ArrayList<Integer>());
+        final CountDownLatch latch = new CountDownLatch(3);
+        final long start = System.nanoTime();
+        scheduler.schedule(new RecordingTimeout(fired, 3, latch), 150);
+        scheduler.schedule(new RecordingTimeout(fired, 1, latch), 30);
+        scheduler.schedule(new RecordingTimeout(fired, 2, latch), 90);
+        Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue("Timeouts fired early", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 150);
+        Assert.assertEquals(3, fired.size());
+        Assert.assertEquals(1, fired.get(0).intValue());
+        Assert.assertEquals(2, fired.get(1).intValue());
+        Assert.assertEquals(3, fired.get(2).intValue());
+    }
+
+    @Test
+    public void testTimeoutsBeyondFirstLevelCascade() throws Exception {
+        // with a 1ms tick the first level of the wheel spans 256ms
+        final List<Integer> fired = Collections.synchronizedList(new ArrayList<Integer>());
+        final CountDownLatch latch = new CountDownLatch(3);
+        final long start = System.nanoTime();
+        scheduler.schedule(new RecordingTimeout(fired, 1, latch), 255);
+        scheduler.schedule(new RecordingTimeout(fired, 2, latch), 400);
+        scheduler.schedule(new RecordingTimeout(fired, 3, latch), 700);
+        Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue("Timeouts fired early", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 700);
+        Assert.assertEquals(1, fired.get(0).intValue());
+        Assert.assertEquals(2, fired.get(1).intValue());
+        Assert.assertEquals(3, fired.get(2).intValue());
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        final AtomicInteger count = new AtomicInteger();
+        // cancelled before the scheduler thread picked it up
+        scheduler.schedule(new CountingTimeout(count), 100).cancel();
+        // cancelled while in the wheel
+        final TimerScheduler.ScheduledTimeout scheduled = scheduler.schedule(new CountingTimeout(count), 100);
+        Thread.sleep(30);
+        scheduled.cancel();
+        final CountDownLatch latch = new CountDownLatch(1);
+        scheduler.schedule(new RecordingTimeout(new ArrayList<Integer>(), 0, latch), 200);
+        Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(0, count.get());
+    }
+
+    @Test
+    public void testFixedRate() throws Exception {
+        final AtomicInteger count = new AtomicInteger();
+        final long start = System.nanoTime();
+        final TimerScheduler.ScheduledTimeout scheduled = scheduler.scheduleAtFixedRate(new CountingTimeout(count), 0, 20);
+        Thread.sleep(210);
+        scheduled.cancel();
+        final long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Thread.sleep(50);
+        final int fired = count.get();
+        Assert.assertTrue("Fired " + fired + " times in " + elapsed + "ms", fired >= 5 && fired <= elapsed / 20 + 2);
+        Thread.sleep(100);
+        Assert.assertTrue(count.get() <= fired + 1);
+    }
+
+    @Test
+    public void testTimeoutWithoutExecutorIsSkipped() throws Exception {
+        final AtomicInteger count = new AtomicInteger();
+        scheduler.schedule(new CountingTimeout(count) {
+            @Override
+            public ExecutorService getExecutor() {
+                return null;
+            }
+        }, 10);
+        final CountDownLatch latch = new CountDownLatch(1);
+        scheduler.schedule(new RecordingTimeout(new ArrayList<Integer>(), 0, latch), 50);
+        Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(0, count.get());
+    }
+
+    @Test
+    public void testExpiredTimeoutsAreHandedOverInBatches() throws Exception {
+        scheduler.shutdown();
+        final AtomicInteger submitted = new AtomicInteger();
+        executor = new ThreadPoolExecutor(4, 4, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>()) {
+            @Override
+            public void execute(final Runnable command) {
+                submitted.incrementAndGet();
+                super.execute(command);
+            }
+        };
+        // a long tick, so that all timeouts fall on the same or the next tick
+        scheduler = new TimingWheelScheduler(Executors.defaultThreadFactory(), 500, 10);
+        scheduler.start();
+        final AtomicInteger count = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(100);
+        for (int i = 0; i < 100; i++) {
+            scheduler.schedule(new CountingTimeout(count) {
+                @Override
+                public void run() {
+                    super.run();
+                    latch.countDown();
+                }
+            }, 100);
+        }
+        Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(100, count.get());
+        Assert.assertTrue("Submitted " + submitted.get() + " tasks", submitted.get() <= 20);
+    }
+
+    @Test
+    public void testScheduleRequiresStart() throws Exception {
+        final TimingWheelScheduler unstarted = new TimingWheelScheduler(Executors.defaultThreadFactory());
+        try {
+            unstarted.schedule(new CountingTimeout(new AtomicInteger()), 10);
+            Assert.fail("Scheduled on a scheduler that was not started");
+        } catch (IllegalStateException expected) {
+        } finally {
+            unstarted.shutdown();
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.schedule(new CountingTimeout(new AtomicInteger()), 10);
+            Assert.fail("Scheduled on a scheduler that was shut down");
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    /**
+     * Compares the {@link TimerSchedulerType}s with a million timers: the time taken by a number of threads to
+     * schedule them, to cancel half of them, and for the rest to expire.
+     */
+    @Test
+    public void testMillionTimers() throws Exception {
+        final int timers = 1000000;
+        final long maxDelay = 2000;
+        final int threads = Runtime.getRuntime().availableProcessors();
+        for (TimerSchedulerType type : TimerSchedulerType.values()) {
+            // warm up
+            runTimers(type, timers / 10, maxDelay / 10, threads);
+            final long[] result = runTimers(type, timers, maxDelay, threads);
+            log.infof("%s with %d timers and %d threads: schedule %d ms, cancel %d ms, expire %d ms after the last deadline",
+                    type, timers, threads, result[0], result[1], result[2]);
+        }
+    }
+
+    /**
+     * @return the milliseconds taken to schedule all timers, to cancel every other timer, and from the deadline of the
+     *         last timer scheduled until all timers ran
+     */
+    private static long[] runTimers(final TimerSchedulerType type, final int timers, final long maxDelay, final int threads) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        final TimerScheduler scheduler = type.create(Executors.defaultThreadFactory());
+        scheduler.start();
+        try {
+            final AtomicInteger count = new AtomicInteger();
+            final CountDownLatch latch = new CountDownLatch(timers - timers / 2);
+            final TimerScheduler.Timeout timeout = new TimerScheduler.Timeout() {
+                @Override
+                public ExecutorService getExecutor() {
+                    return executor;
+                }
+
+                @Override
+                public void run() {
+                    count.incrementAndGet();
+                    latch.countDown();
+                }
+            };
+            final TimerScheduler.ScheduledTimeout[] scheduled = new TimerScheduler.ScheduledTimeout[timers];
+
+            final long start = System.nanoTime();
+            inParallel(threads, timers, new Slice() {
+                public void run(final int from, final int to) {
+                    final Random random = new Random(from);
+                    for (int i = from; i < to; i++) {
+                        scheduled[i] = scheduler.schedule(timeout, maxDelay / 2 + (long) (random.nextDouble() * (maxDelay / 2)));
+                    }
+                }
+            });
+            final long scheduledTime = System.nanoTime();
+            inParallel(threads, timers, new Slice() {
+                public void run(final int from, final int to) {
+                    for (int i = from; i < to; i++) {
+                        if ((i & 1) == 1) {
+                            scheduled[i].cancel();
+                        }
+                    }
+                }
+            });
+            final long cancelledTime = System.nanoTime();
+            Assert.assertTrue(type + " did not run all timers", latch.await(maxDelay + 60000, TimeUnit.MILLISECONDS));
+            final long expiredTime = System.nanoTime();
+            Thread.sleep(100);
+            if (TimeUnit.NANOSECONDS.toMillis(cancelledTime - start) < maxDelay / 2) {
+                // all timers were cancelled before the first deadline, so none of them ran, not even late
+                Assert.assertEquals(timers - timers / 2, count.get());
+            } else {
+                Assert.assertTrue(count.get() <= timers);
+            }
+
+            return new long[]{
+                    TimeUnit.NANOSECONDS.toMillis(scheduledTime - start),
+                    TimeUnit.NANOSECONDS.toMillis(cancelledTime - scheduledTime),
+                    Math.max(0, TimeUnit.NANOSECONDS.toMillis(expiredTime - scheduledTime) - maxDelay)};
+        } finally {
+            scheduler.shutdown();
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    private interface Slice {
+        void run(int from, int to);
+    }
+
+    /**
+     * Splits the range [0, count) into one slice per thread, and waits for all slices to be done.
+     */
+    private static void inParallel(final int threads, final int count, final Slice slice) throws Exception {
+        final Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int from = (int) ((long) count * t / threads);
+            final int to = (int) ((long) count * (t + 1) / threads);
+            workers[t] = new Thread(new Runnable() {
+                public void run() {
+                    slice.run(from, to);
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    private class CountingTimeout implements TimerScheduler.Timeout {
+
+        private final AtomicInteger count;
+
+        CountingTimeout(final AtomicInteger count) {
+            this.count = count;
+        }
+
+        @Override
+        public ExecutorService getExecutor() {
+            return executor;
+        }
+
+        @Override
+        public void run() {
+            count.incrementAndGet();
+        }
+    }
+
+    private class RecordingTimeout implements TimerScheduler.Timeout {
+
+        private final List<Integer> fired;
+        private final int id;
+        private final CountDownLatch latch;
+
+        RecordingTimeout(final List<Integer> fired, final int id, final CountDownLatch latch) {
+            this.fired = fired;
+            this.id = id;
+            this.latch = latch;
+        }
+
+        @Override
+        public ExecutorService getExecutor() {
+            return executor;
+        }
+
+        @Override
+        public void run() {
+            fired.add(id);
+            latch.countDown();
+        }
+    }
+}
@@ -552,4 +552,30 @@ public interface DomainControllerMessages {
     @Message(id = 10877, value = "Failed to load module '%s'.")
     OperationFailedException failedToLoadModule(@Cause ModuleLoadException e,String module);
 
+    /**
+     * A message indicating an invalid rollout plan. The server group, represented by the {@code name} parameter, has an
+     * invalid value and must be greater than 0.
+     *
+     * @param name         the name of the group.
+     * @param propertyName the name of the property.
+     * @param value        the invalid value.
+     *
+     * @return the message.
+     */
+    @Message(id = 10878, value = "Invalid rollout plan. Server group %s has a %s value of %s; must be greater than 0.")
+    String invalidRolloutPlanNotPositive(String name, String propertyName, int value);
+
+    /**
+     * A message indicating an invalid rollout plan. The server group, represented by the {@code name} parameter, sets
+     * both rolling to servers and a maximum number of concurrent servers.
+     *
+     * @param name                  the name of the group.
+     * @param rollingPropertyName   the name of the rolling property.
+     * @param maxConcurrentPropertyName the name of the maximum concurrent servers property.
+     *
+     * @return the message.
+     */
+    @Message(id = 10879, value = "Invalid rollout plan. Server group %s sets both %s=true and %s; only one of them can be used.")
+    String invalidRolloutPlanRollingAndMaxConcurrent(String name, String rollingPropertyName, String maxConcurrentPropertyName);
+
 }
@@ -0,0 +1,140 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.domain.controller;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.HOST;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Set;
+import java.util.UUID;
+
+import org.jboss.as.controller.PathAddress;
+
+/**
+ * A bounded log of the domain resources touched by the operations committed on the master domain controller.
+ * <p/>
+ * Every commit changing the domain wide part of the model (anything but a {@code host=*} resource) increments the
+ * domain model version. A slave host controller reconnecting with the version it applied last can then be sent only
+ * the subtrees which changed since, instead of the complete domain model. Once more than {@code capacity} versions
+ * have been recorded the oldest ones are dropped, and a slave which is further behind needs a full transfer again.
+ * <p/>
+ * The log only lives as long as the domain controller, its {@link #getId() id} identifies the sequence of versions.
+ *
+ * @see org.jboss.as.domain.controller.operations.ReadMasterDomainModelHandler
+ */
+public final class DomainModelChangeLog {
+
+    private final String id = UUID.randomUUID().toString();
+    private final int capacity;
+    /** The changed addresses of the last versions, the last entry being the current version */
+    private final LinkedList<Set<PathAddress>> changes = new LinkedList<Set<PathAddress>>();
+    private long version;
+
+    public DomainModelChangeLog(final int capacity) {
+        this.capacity = Math.max(0, capacity);
+    }
+
+    /**
+     * Gets the id of this log. Versions from a log with another id, e.g. from before a restart of the domain
+     * controller, cannot be compared to the versions of this log.
+     *
+     * @return the id
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Gets the current version of the domain model.
+     *
+     * @return the version, {@code 0} before the first change is recorded
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * Records a committed change to the model. Host resources are ignored, and a change which only touched host
+     * resources does not create a new version.
+     *
+     * @param affectedAddresses the addresses of the resources the operation touched
+     */
+    public synchronized void record(final Collection<PathAddress> affectedAddresses) {
+        final Set<PathAddress> domainAddresses = new HashSet<PathAddress>();
+        for (final PathAddress address : affectedAddresses) {
+            if (address.size() == 0 || !HOST.equals(address.getElement(0).getKey())) {
+                domainAddresses.add(address);
+            }
+        }
+        if (domainAddresses.isEmpty()) {
+            return;
+        }
+        version++;
+        if (capacity > 0) {
+            changes.addLast(domainAddresses);
+            if (changes.size() > capacity) {
+                changes.removeFirst();
+            }
+        }
+    }
+
+    /**
+     * Gets the resources which changed after the given version. An address is only included if none of its parents is,
+     * as a slave needs to replace the whole subtree below a changed resource anyway.
+     *
+     * @param since the version last applied by the slave
+     * @return the changed addresses, or {@code null} if the log no longer covers that version or the root resource changed,
+     *         in which case the complete model needs to be transferred
+     */
+    public synchronized Set<PathAddress> getChangesSince(final long since) {
+        if (since > version || since < version - changes.size()) {
+            return null;
+        }
+        final Set<PathAddress> changed = new HashSet<PathAddress>();
+        final Iterator<Set<PathAddress>> iterator = changes.descendingIterator();
+        for (long current = version; current > since; current--) {
+            changed.addAll(iterator.next());
+        }
+        if (changed.contains(PathAddress.EMPTY_ADDRESS)) {
+            return null;
+        }
+        final Set<PathAddress> result = new HashSet<PathAddress>();
+        for (final PathAddress address : changed) {
+            if (!hasChangedParent(address, changed)) {
+                result.add(address);
+            }
+        }
+        return result;
+    }
+
+    private static boolean hasChangedParent(final PathAddress address, final Set<PathAddress> changed) {
+        for (int i = 1; i < address.size(); i++) {
+            if (changed.contains(address.subAddress(0, i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -37,6 +37,7 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.MAN
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.MANAGEMENT_MICRO_VERSION;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.MANAGEMENT_MINOR_VERSION;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.MANAGEMENT_SUBSYSTEM_ENDPOINT;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.MAX_CONCURRENT_SERVERS;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.MAX_FAILED_SERVERS;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.MAX_FAILURE_PERCENTAGE;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
@@ -67,6 +68,7 @@ import java.util.Set;
 import org.jboss.as.controller.OperationFailedException;
 import org.jboss.as.controller.PathElement;
 import org.jboss.as.controller.ReadResourceNameOperationStepHandler;
+import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.descriptions.common.CommonProviders;
 import org.jboss.as.controller.extension.ExtensionRegistry;
 import org.jboss.as.controller.extension.ExtensionResourceDefinition;
@@ -113,6 +115,7 @@ import org.jboss.as.domain.controller.operations.ProfileAddHandler;
 import org.jboss.as.domain.controller.operations.ProfileDescribeHandler;
 import org.jboss.as.domain.controller.operations.ProfileRemoveHandler;
 import org.jboss.as.domain.controller.operations.ResolveExpressionOnDomainHandler;
+import org.jboss.as.domain.controller.operations.RolloutWaveMetricsHandler;
 import org.jboss.as.domain.controller.operations.ServerGroupAddHandler;
 import org.jboss.as.domain.controller.operations.ServerGroupProfileWriteAttributeHandler;
 import org.jboss.as.domain.controller.operations.ServerGroupRemoveHandler;
@@ -149,6 +152,7 @@ import org.jboss.as.server.services.net.RemoteDestinationOutboundSocketBindingRe
 import org.jboss.as.version.Version;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
+import org.jboss.dmr.Property;
 
 
 /**
@@ -247,6 +251,9 @@ public class DomainModelUtil {
         root.registerReadOnlyAttribute(ServerDescriptionConstants.LAUNCH_TYPE, new LaunchTypeHandler(ServerEnvironment.LaunchType.DOMAIN), Storage.RUNTIME);
         root.registerReadOnlyAttribute(LOCAL_HOST_NAME, new LocalHostNameOperationHandler(hostControllerInfo), Storage.RUNTIME);
         root.registerReadWriteAttribute(DomainAttributes.NAME, null, new WriteAttributeHandlers.StringLengthValidatingHandler(1, true, true));
+        for (SimpleAttributeDefinition metric : RolloutWaveMetricsHandler.METRICS) {
+            root.registerMetric(metric, RolloutWaveMetricsHandler.INSTANCE);
+        }
 
         root.registerOperationHandler(ValidateAddressOperationHandler.OPERATION_NAME, ValidateAddressOperationHandler.INSTANCE,
                 ValidateAddressOperationHandler.INSTANCE, false, EnumSet.of(OperationEntry.Flag.READ_ONLY));
@@ -415,11 +422,11 @@ public class DomainModelUtil {
                 if(groupKeys.size() != 1) {
                     throw new OperationFailedException(MESSAGES.serverGroupExpectsSingleChild(plan.toString()));
                 }
-                validateInSeriesServerGroup(serverGroup.asProperty().getValue());
+                validateInSeriesServerGroup(serverGroup.asProperty());
             } else if(group.hasDefined(CONCURRENT_GROUPS)) {
                 final ModelNode concurrent = group.get(CONCURRENT_GROUPS);
                 for(ModelNode child: concurrent.asList()) {
-                    validateInSeriesServerGroup(child.asProperty().getValue());
+                    validateInSeriesServerGroup(child.asProperty());
                 }
             } else {
                 throw new OperationFailedException(MESSAGES.unexpectedInSeriesGroup(plan.toString()));
@@ -427,9 +434,10 @@ public class DomainModelUtil {
         }
     }
 
-    private static final List<String> ALLOWED_SERVER_GROUP_CHILDREN = Arrays.asList(ROLLING_TO_SERVERS, MAX_FAILURE_PERCENTAGE, MAX_FAILED_SERVERS);
+    private static final List<String> ALLOWED_SERVER_GROUP_CHILDREN = Arrays.asList(ROLLING_TO_SERVERS, MAX_CONCURRENT_SERVERS, MAX_FAILURE_PERCENTAGE, MAX_FAILED_SERVERS);
 
-    private static void validateInSeriesServerGroup(ModelNode serverGroup) throws OperationFailedException {
+    private static void validateInSeriesServerGroup(Property group) throws OperationFailedException {
+        final ModelNode serverGroup = group.getValue();
         if(serverGroup.isDefined()) {
             try {
                 final Set<String> specKeys = serverGroup.keys();
@@ -438,6 +446,22 @@ public class DomainModelUtil {
                 }
             } catch(IllegalArgumentException e) {// ignore?
             }
+            validateRollingToServers(group.getName(), serverGroup);
+        }
+    }
+
+    /**
+     * Rejects a server group plan that sets both {@code rolling-to-servers=true} and {@code max-concurrent-servers},
+     * as rolling to servers is the same as updating a single server at a time.
+     *
+     * @param name the name of the server group
+     * @param serverGroup the plan of the server group
+     * @throws OperationFailedException if both are set
+     */
+    public static void validateRollingToServers(String name, ModelNode serverGroup) throws OperationFailedException {
+        if (serverGroup.hasDefined(MAX_CONCURRENT_SERVERS) && serverGroup.hasDefined(ROLLING_TO_SERVERS)
+                && serverGroup.get(ROLLING_TO_SERVERS).asBoolean()) {
+            throw new OperationFailedException(MESSAGES.invalidRolloutPlanRollingAndMaxConcurrent(name, ROLLING_TO_SERVERS, MAX_CONCURRENT_SERVERS));
         }
     }
 }
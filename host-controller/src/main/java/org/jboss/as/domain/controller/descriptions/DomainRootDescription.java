@@ -23,10 +23,12 @@
 import java.util.Locale;
 import java.util.ResourceBundle;
 
+import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.descriptions.ResourceDescriptionResolver;
 import org.jboss.as.controller.descriptions.StandardResourceDescriptionResolver;
 import org.jboss.as.controller.descriptions.common.CommonDescriptions;
 import org.jboss.as.domain.controller.operations.DomainServerLifecycleHandlers;
+import org.jboss.as.domain.controller.operations.RolloutWaveMetricsHandler;
 import org.jboss.as.server.deployment.DeploymentRemoveHandler;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
@@ -151,6 +153,10 @@ public class DomainRootDescription {
         root.get(ATTRIBUTES, LOCAL_HOST_NAME, REQUIRED).set(true);
         root.get(ATTRIBUTES, LOCAL_HOST_NAME, NILLABLE).set(false);
 
+        for (SimpleAttributeDefinition metric : RolloutWaveMetricsHandler.METRICS) {
+            metric.addResourceAttributeDescription(root, resolver, locale, bundle);
+        }
+
         root.get(OPERATIONS).setEmptyObject();
 
         root.get(CHILDREN, EXTENSION, DESCRIPTION).set(bundle.getString("domain.extension"));
@@ -113,7 +113,15 @@ public class ApplyRemoteMasterDomainModelHandler implements OperationStepHandler
         final Set<byte[]> requiredContent = new HashSet<byte[]>();
 
         final Resource rootResource = context.readResourceForUpdate(PathAddress.EMPTY_ADDRESS);
-        clearDomain(rootResource);
+        // If the master only sent the subtrees which changed since our last update just replace those
+        final boolean incremental = operation.hasDefined(ReadMasterDomainModelHandler.DOMAIN_MODEL_CHANGES);
+        if (incremental) {
+            for (final ModelNode change : operation.get(ReadMasterDomainModelHandler.DOMAIN_MODEL_CHANGES).asList()) {
+                removeResource(PathAddress.pathAddress(change), rootResource);
+            }
+        } else {
+            clearDomain(rootResource);
+        }
 
         for (final ModelNode resourceDescription : domainModel.asList()) {
 
@@ -169,6 +177,16 @@ public class ApplyRemoteMasterDomainModelHandler implements OperationStepHandler
             Set<byte[]> hashes = deploymentHashes.remove(id);
             if (hashes != null) {
                 requiredContent.addAll(hashes);
+            } else if (incremental) {
+                // The deployment itself did not change, so it was not sent
+                final Resource deployment = rootResource.getChild(PathElement.pathElement(DEPLOYMENT, id));
+                if (deployment != null && deployment.getModel().hasDefined(CONTENT)) {
+                    for (ModelNode contentItem : deployment.getModel().get(CONTENT).asList()) {
+                        if (contentItem.hasDefined(HASH)) {
+                            requiredContent.add(contentItem.get(HASH).asBytes());
+                        }
+                    }
+                }
             }
         }
         for (byte[] hash : requiredContent) {
@@ -351,6 +369,22 @@ public class ApplyRemoteMasterDomainModelHandler implements OperationStepHandler
         }
     }
 
+    private void removeResource(final PathAddress resourceAddress, final Resource rootResource) {
+        if (resourceAddress.size() == 0 || ignoredResourceRegistry.isResourceExcluded(resourceAddress)
+                || resourceAddress.getElement(0).getKey().equals(EXTENSION)) {
+            // Extensions are handled in ApplyExtensionsHandler
+            return;
+        }
+        Resource parent = rootResource;
+        for (final PathElement element : resourceAddress.subAddress(0, resourceAddress.size() - 1)) {
+            parent = parent.getChild(element);
+            if (parent == null) {
+                return;
+            }
+        }
+        parent.removeChild(resourceAddress.getLastElement());
+    }
+
     private Resource getResource(PathAddress resourceAddress, Resource rootResource, OperationContext context) {
         if(resourceAddress.size() == 0) {
             return rootResource;
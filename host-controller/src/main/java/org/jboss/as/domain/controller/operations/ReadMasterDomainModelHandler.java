@@ -22,23 +22,32 @@
 
 package org.jboss.as.domain.controller.operations;
 
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.DOMAIN_MODEL;
+
 import org.jboss.as.controller.OperationContext;
 import org.jboss.as.controller.OperationFailedException;
 import org.jboss.as.controller.OperationStepHandler;
 import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
 import org.jboss.as.controller.descriptions.DescriptionProvider;
 import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
 import org.jboss.as.controller.registry.Resource;
 import org.jboss.as.controller.transform.Transformers;
+import org.jboss.as.domain.controller.DomainModelChangeLog;
 import org.jboss.dmr.ModelNode;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 
 /**
  * Step handler responsible for collecting a complete description of the domain model,
  * which is going to be sent back to a remote host-controller.
+ * <p/>
+ * If the host-controller provides the {@link #DOMAIN_MODEL_VERSION version} of the domain model it applied last, the
+ * result also contains the current version, and only describes the resources which changed since that version as long
+ * as the {@link DomainModelChangeLog change log} still covers it.
  *
  * @author John Bailey
  */
@@ -46,9 +55,25 @@ public class ReadMasterDomainModelHandler implements OperationStepHandler, Descr
 
     public static final String OPERATION_NAME = "read-master-domain-model";
 
+    /** The id of the change log the version belongs to */
+    public static final String DOMAIN_MODEL_LOG = "domain-model-log";
+    /** The version of the domain model, {@code -1} if the host-controller does not have one yet */
+    public static final String DOMAIN_MODEL_VERSION = "domain-model-version";
+    /** The addresses of the changed subtrees, only present if the result is not the complete domain model */
+    public static final String DOMAIN_MODEL_CHANGES = "domain-model-changes";
+
     private final Transformers transformers;
+    private final DomainModelChangeLog changeLog;
+    private final ModelNode hostInfo;
+
     public ReadMasterDomainModelHandler(final Transformers transformers) {
+        this(transformers, null, null);
+    }
+
+    public ReadMasterDomainModelHandler(final Transformers transformers, final DomainModelChangeLog changeLog, final ModelNode hostInfo) {
         this.transformers = transformers;
+        this.changeLog = changeLog;
+        this.hostInfo = hostInfo;
     }
 
     private Resource transformResource(final OperationContext context, Resource root) throws OperationFailedException {
@@ -61,13 +86,59 @@ public class ReadMasterDomainModelHandler implements OperationStepHandler, Descr
         // Transform the model
         final Resource untransformedRoot = context.readResource(PathAddress.EMPTY_ADDRESS,true);
         final Resource root = transformResource(context, untransformedRoot);
-        // Get the list of all resources registered in this model
-        context.getResult().set(describeAsNodeList(root));
+        if (changeLog == null || hostInfo == null || !hostInfo.has(DOMAIN_MODEL_VERSION)) {
+            // Get the list of all resources registered in this model
+            context.getResult().set(describeAsNodeList(root));
+        } else {
+            // The version cannot change while we hold the lock
+            final ModelNode result = context.getResult();
+            result.get(DOMAIN_MODEL_LOG).set(changeLog.getId());
+            result.get(DOMAIN_MODEL_VERSION).set(changeLog.getVersion());
+            final Set<PathAddress> changes = getChanges();
+            if (changes == null) {
+                result.get(DOMAIN_MODEL).set(describeAsNodeList(root));
+            } else {
+                result.get(DOMAIN_MODEL_CHANGES).setEmptyList();
+                final List<ModelNode> list = new ArrayList<ModelNode>();
+                for (final PathAddress address : changes) {
+                    result.get(DOMAIN_MODEL_CHANGES).add(address.toModelNode());
+                    final Resource resource = navigate(root, address);
+                    if (resource != null) {
+                        describe(address, resource, list);
+                    }
+                }
+                result.get(DOMAIN_MODEL).set(list);
+            }
+        }
         // The HC registration process will hijack the operationPrepared call and push
         // the model to a registering host-controller
         context.completeStep();
     }
 
+    /**
+     * Get the resources which changed since the version the host-controller applied last.
+     *
+     * @return the changed addresses, {@code null} if the complete model needs to be sent
+     */
+    private Set<PathAddress> getChanges() {
+        if (!hostInfo.hasDefined(DOMAIN_MODEL_LOG) || !changeLog.getId().equals(hostInfo.get(DOMAIN_MODEL_LOG).asString())) {
+            return null;
+        }
+        final long version = hostInfo.hasDefined(DOMAIN_MODEL_VERSION) ? hostInfo.get(DOMAIN_MODEL_VERSION).asLong() : -1;
+        return version < 0 ? null : changeLog.getChangesSince(version);
+    }
+
+    private static Resource navigate(final Resource root, final PathAddress address) {
+        Resource resource = root;
+        for (final PathElement element : address) {
+            resource = resource.getChild(element);
+            if (resource == null) {
+                return null;
+            }
+        }
+        return resource;
+    }
+
     /**
      * Describe the model as a list of resources with their address and model, which
      * the HC can directly apply to create the model. Although the format might appear
@@ -0,0 +1,88 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.domain.controller.operations;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
+
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.OperationStepHandler;
+import org.jboss.as.controller.SimpleAttributeDefinition;
+import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
+import org.jboss.as.domain.controller.plan.RolloutWaveStatistics;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+
+/**
+ * Reads the {@link RolloutWaveStatistics} collected while rolling out operations to the servers of the domain.
+ */
+public class RolloutWaveMetricsHandler implements OperationStepHandler {
+
+    public static final RolloutWaveMetricsHandler INSTANCE = new RolloutWaveMetricsHandler();
+
+    public static final SimpleAttributeDefinition ROLLOUT_WAVE_COUNT =
+            new SimpleAttributeDefinitionBuilder("rollout-wave-count", ModelType.LONG, true)
+                    .setStorageRuntime()
+                    .build();
+    public static final SimpleAttributeDefinition ROLLOUT_WAVE_SERVER_COUNT =
+            new SimpleAttributeDefinitionBuilder("rollout-wave-server-count", ModelType.LONG, true)
+                    .setStorageRuntime()
+                    .build();
+    public static final SimpleAttributeDefinition ROLLOUT_WAVE_TOTAL_TIME =
+            new SimpleAttributeDefinitionBuilder("rollout-wave-total-time", ModelType.LONG, true)
+                    .setMeasurementUnit(MeasurementUnit.MILLISECONDS)
+                    .setStorageRuntime()
+                    .build();
+    public static final SimpleAttributeDefinition ROLLOUT_WAVE_MAX_TIME =
+            new SimpleAttributeDefinitionBuilder("rollout-wave-max-time", ModelType.LONG, true)
+                    .setMeasurementUnit(MeasurementUnit.MILLISECONDS)
+                    .setStorageRuntime()
+                    .build();
+
+    public static final SimpleAttributeDefinition[] METRICS = {
+            ROLLOUT_WAVE_COUNT,
+            ROLLOUT_WAVE_SERVER_COUNT,
+            ROLLOUT_WAVE_TOTAL_TIME,
+            ROLLOUT_WAVE_MAX_TIME
+    };
+
+    private RolloutWaveMetricsHandler() {
+    }
+
+    @Override
+    public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
+        final String attributeName = operation.require(NAME).asString();
+        final RolloutWaveStatistics statistics = RolloutWaveStatistics.INSTANCE;
+        final ModelNode result = context.getResult();
+        if (ROLLOUT_WAVE_COUNT.getName().equals(attributeName)) {
+            result.set(statistics.getWaveCount());
+        } else if (ROLLOUT_WAVE_SERVER_COUNT.getName().equals(attributeName)) {
+            result.set(statistics.getServerCount());
+        } else if (ROLLOUT_WAVE_TOTAL_TIME.getName().equals(attributeName)) {
+            result.set(statistics.getTotalTime());
+        } else if (ROLLOUT_WAVE_MAX_TIME.getName().equals(attributeName)) {
+            result.set(statistics.getMaxTime());
+        }
+        context.completeStep();
+    }
+}
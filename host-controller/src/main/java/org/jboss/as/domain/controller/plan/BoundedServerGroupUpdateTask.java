@@ -0,0 +1,96 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.domain.controller.plan;
+
+import org.jboss.as.controller.remote.TransactionalProtocolClient;
+import org.jboss.as.domain.controller.DomainControllerLogger;
+import org.jboss.as.domain.controller.ServerIdentity;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Updates the servers of a server-group in waves of at most {@code maxConcurrentServers} servers. All servers of a
+ * wave are updated concurrently, and the next wave is only started once the prepared results of the previous wave are
+ * in. The {@link ServerUpdatePolicy} is consulted before each server, so once the allowed number of failures is
+ * exceeded the servers of the following waves are cancelled.
+ * <p/>
+ * {@link RollingServerGroupUpdateTask} and {@link ConcurrentServerGroupUpdateTask} are the special cases of a single
+ * server per wave and of a single wave.
+ */
+class BoundedServerGroupUpdateTask extends AbstractServerGroupRolloutTask implements Runnable {
+
+    private final int maxConcurrentServers;
+
+    public BoundedServerGroupUpdateTask(List<ServerUpdateTask> tasks, ServerUpdatePolicy updatePolicy, int maxConcurrentServers,
+                                        ServerTaskExecutor executor, ServerUpdateTask.ServerUpdateResultHandler resultHandler) {
+        super(tasks, updatePolicy, executor, resultHandler);
+        assert maxConcurrentServers > 0 : "maxConcurrentServers must be positive";
+        this.maxConcurrentServers = maxConcurrentServers;
+    }
+
+    @Override
+    public void execute() {
+        boolean interrupted = false;
+        final ServerTaskExecutor.ServerOperationListener listener = new ServerTaskExecutor.ServerOperationListener();
+        final Set<ServerIdentity> outstanding = new HashSet<ServerIdentity>();
+        int wave = 0;
+        for (int start = 0; start < tasks.size(); start += maxConcurrentServers) {
+            final long begin = System.nanoTime();
+            final List<ServerUpdateTask> waveTasks = tasks.subList(start, Math.min(start + maxConcurrentServers, tasks.size()));
+            for (final ServerUpdateTask task : waveTasks) {
+                final ServerIdentity identity = task.getServerIdentity();
+                if (interrupted || !updatePolicy.canUpdateServer(identity)) {
+                    sendCancelledResponse(identity);
+                    continue;
+                }
+                // Execute the task
+                if (executor.executeTask(listener, task)) {
+                    outstanding.add(identity);
+                }
+            }
+            if (outstanding.isEmpty()) {
+                continue;
+            }
+            final int servers = outstanding.size();
+            while (!outstanding.isEmpty()) {
+                try {
+                    // Wait for all prepared results of this wave
+                    final TransactionalProtocolClient.PreparedOperation<ServerTaskExecutor.ServerOperation> prepared = listener.retrievePreparedOperation();
+                    final ServerIdentity identity = prepared.getOperation().getIdentity();
+                    recordPreparedOperation(identity, prepared);
+                    outstanding.remove(identity);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            final long elapsed = System.nanoTime() - begin;
+            RolloutWaveStatistics.INSTANCE.recordWave(servers, elapsed);
+            DomainControllerLogger.ROOT_LOGGER.debugf("Wave %d of server group %s prepared %d servers in %d ms",
+                    ++wave, updatePolicy.getServerGroupName(), servers, elapsed / 1000000);
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
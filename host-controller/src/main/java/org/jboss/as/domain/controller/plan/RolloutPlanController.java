@@ -6,6 +6,7 @@ package org.jboss.as.domain.controller.plan;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.CONCURRENT_GROUPS;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.GRACEFUL_SHUTDOWN_TIMEOUT;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.IN_SERIES;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.MAX_CONCURRENT_SERVERS;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.MAX_FAILED_SERVERS;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.MAX_FAILURE_PERCENTAGE;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ROLLBACK_ACROSS_GROUPS;
@@ -112,8 +113,13 @@ public class RolloutPlanController implements ServerUpdateResultHandler {
                     }
                     ServerUpdatePolicy policy = new ServerUpdatePolicy(parent, serverGroupName, servers, maxFailures);
 
-                    seriesTasks.add(rollingGroup ? new RollingServerGroupUpdateTask(groupTasks, policy, taskExecutor, this)
-                        : new ConcurrentServerGroupUpdateTask(groupTasks, policy, taskExecutor, this));
+                    if (policyNode.hasDefined(MAX_CONCURRENT_SERVERS)) {
+                        final int maxConcurrent = policyNode.get(MAX_CONCURRENT_SERVERS).asInt();
+                        seriesTasks.add(new BoundedServerGroupUpdateTask(groupTasks, policy, maxConcurrent, taskExecutor, this));
+                    } else {
+                        seriesTasks.add(rollingGroup ? new RollingServerGroupUpdateTask(groupTasks, policy, taskExecutor, this)
+                            : new ConcurrentServerGroupUpdateTask(groupTasks, policy, taskExecutor, this));
+                    }
 
                     updatePolicies.put(serverGroupName, policy);
 
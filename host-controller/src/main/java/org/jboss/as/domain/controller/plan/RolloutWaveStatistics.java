@@ -0,0 +1,89 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.domain.controller.plan;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Aggregate timings of the waves executed by {@link BoundedServerGroupUpdateTask}s. A wave is a set of servers that
+ * is updated concurrently; its latency is the time until the last prepared result of the wave arrived.
+ */
+public final class RolloutWaveStatistics {
+
+    public static final RolloutWaveStatistics INSTANCE = new RolloutWaveStatistics();
+
+    private final AtomicLong waveCount = new AtomicLong();
+    private final AtomicLong serverCount = new AtomicLong();
+    private final AtomicLong totalTime = new AtomicLong();
+    private final AtomicLong maxTime = new AtomicLong();
+
+    private RolloutWaveStatistics() {
+    }
+
+    void recordWave(final int servers, final long nanos) {
+        final long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        waveCount.incrementAndGet();
+        serverCount.addAndGet(servers);
+        totalTime.addAndGet(millis);
+        long max = maxTime.get();
+        while (millis > max && !maxTime.compareAndSet(max, millis)) {
+            max = maxTime.get();
+        }
+    }
+
+    /**
+     * Gets the number of waves executed so far.
+     *
+     * @return the wave count
+     */
+    public long getWaveCount() {
+        return waveCount.get();
+    }
+
+    /**
+     * Gets the number of servers updated in all waves executed so far.
+     *
+     * @return the server count
+     */
+    public long getServerCount() {
+        return serverCount.get();
+    }
+
+    /**
+     * Gets the accumulated latency of all waves, in milliseconds.
+     *
+     * @return the total wave time
+     */
+    public long getTotalTime() {
+        return totalTime.get();
+    }
+
+    /**
+     * Gets the latency of the slowest wave, in milliseconds.
+     *
+     * @return the maximum wave time
+     */
+    public long getMaxTime() {
+        return maxTime.get();
+    }
+}
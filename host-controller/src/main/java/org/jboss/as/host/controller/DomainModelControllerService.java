@@ -454,7 +454,7 @@ public class DomainModelControllerService extends AbstractControllerService impl
                                         return internalExecute(operation, handler, control, attachments, step);
                                     }
 
-                                }),
+                                }, hostControllerConfigurationPersister.getDomainModelChangeLog()),
                                 DomainModelControllerService.SERVICE_NAME, ManagementRemotingServices.DOMAIN_CHANNEL, null, null);
                         serverInventory = getFuture(inventoryFuture);
                     }
@@ -573,7 +573,7 @@ public class DomainModelControllerService extends AbstractControllerService impl
     public void registerHostModel(String hostName, ManagementResourceRegistration root) {
         HostModelUtil.createHostRegistry(hostName, root, hostControllerConfigurationPersister, environment, runningModeControl,
                 localFileRepository, hostControllerInfo, new DelegatingServerInventory(), remoteFileRepository, contentRepository,
-                this, extensionRegistry,vaultReader, ignoredRegistry, processState, pathManager);
+                this, extensionRegistry,vaultReader, ignoredRegistry, processState, pathManager, getOperationMetrics());
     }
 
     private static class HostRegistration {
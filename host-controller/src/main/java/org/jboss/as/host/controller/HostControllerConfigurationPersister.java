@@ -37,6 +37,7 @@ import org.jboss.as.controller.persistence.ConfigurationFile;
 import org.jboss.as.controller.persistence.ConfigurationPersistenceException;
 import org.jboss.as.controller.persistence.ExtensibleConfigurationPersister;
 import org.jboss.as.controller.persistence.SubsystemMarshallingContext;
+import org.jboss.as.domain.controller.DomainModelChangeLog;
 import org.jboss.as.domain.controller.LocalHostControllerInfo;
 import org.jboss.dmr.ModelNode;
 import org.jboss.staxmapper.XMLElementWriter;
@@ -48,6 +49,10 @@ import org.jboss.staxmapper.XMLElementWriter;
  */
 public class HostControllerConfigurationPersister implements ExtensibleConfigurationPersister {
 
+    /** The number of domain model versions the master keeps for incremental slave resynchronization */
+    public static final String CHANGE_LOG_SIZE_PROPERTY = "jboss.domain.model.change-log.size";
+    private static final int CHANGE_LOG_SIZE_DEFAULT = 1000;
+
     private final HostControllerEnvironment environment;
     private ExtensibleConfigurationPersister domainPersister;
     private final ExtensibleConfigurationPersister hostPersister;
@@ -55,6 +60,7 @@ public class HostControllerConfigurationPersister implements ExtensibleConfigura
     private final ExecutorService executorService;
     private final ExtensionRegistry extensionRegistry;
     private Boolean slave;
+    private volatile DomainModelChangeLog changeLog;
 
     public HostControllerConfigurationPersister(final HostControllerEnvironment environment, final LocalHostControllerInfo localHostControllerInfo,
                                                 final ExecutorService executorService, final ExtensionRegistry extensionRegistry) {
@@ -91,6 +97,7 @@ public class HostControllerConfigurationPersister implements ExtensibleConfigura
                 configurationFile.resetBootFile(environment.getRunningModeControl().isUseCurrentDomainConfig());
             }
             domainPersister = ConfigurationPersisterFactory.createDomainXmlConfigurationPersister(configurationFile, executorService, extensionRegistry);
+            changeLog = new DomainModelChangeLog(getChangeLogSize());
         }
         this.slave = Boolean.valueOf(slave);
     }
@@ -109,12 +116,21 @@ public class HostControllerConfigurationPersister implements ExtensibleConfigura
         return domainPersister;
     }
 
+    /**
+     * Gets the log of the changes committed to the domain model.
+     *
+     * @return the change log, or {@code null} if this host controller is a slave
+     */
+    public DomainModelChangeLog getDomainModelChangeLog() {
+        return changeLog;
+    }
+
     public ExtensibleConfigurationPersister getHostPersister() {
         return hostPersister;
     }
 
     @Override
-    public PersistenceResource store(ModelNode model, Set<PathAddress> affectedAddresses) throws ConfigurationPersistenceException {
+    public PersistenceResource store(final ModelNode model, final Set<PathAddress> affectedAddresses) throws ConfigurationPersistenceException {
         final PersistenceResource[] delegates = new PersistenceResource[2];
         for (PathAddress addr : affectedAddresses) {
             if (delegates[0] == null && addr.size() > 0 && HOST.equals(addr.getElement(0).getKey()) && addr.getElement(0).getValue().equals(hostControllerInfo.getLocalHostName())) {
@@ -138,6 +154,10 @@ public class HostControllerConfigurationPersister implements ExtensibleConfigura
                 }
                 if (delegates[1] != null) {
                     delegates[1].commit();
+                    final DomainModelChangeLog log = changeLog;
+                    if (log != null) {
+                        log.record(affectedAddresses);
+                    }
                 }
             }
 
@@ -153,6 +173,14 @@ public class HostControllerConfigurationPersister implements ExtensibleConfigura
         };
     }
 
+    private static int getChangeLogSize() {
+        try {
+            return Integer.parseInt(SecurityActions.getSystemProperty(CHANGE_LOG_SIZE_PROPERTY, String.valueOf(CHANGE_LOG_SIZE_DEFAULT)));
+        } catch (NumberFormatException e) {
+            return CHANGE_LOG_SIZE_DEFAULT;
+        }
+    }
+
     @Override
     public void marshallAsXml(ModelNode model, OutputStream output) throws ConfigurationPersistenceException {
         throw new UnsupportedOperationException();
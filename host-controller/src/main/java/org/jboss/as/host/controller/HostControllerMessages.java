@@ -641,4 +641,14 @@ public interface HostControllerMessages {
 
     @Message(id = 16513, value="Failed to add extensions used by the domain. Failure description: %s")
     IllegalStateException failedToAddExtensions(ModelNode failureDescription);
+
+    /**
+     * Creates an exception indicating the content received from the master does not match its hash.
+     *
+     * @param hash the expected hash.
+     *
+     * @return an {@link IOException} for the error.
+     */
+    @Message(id = 16514, value = "Content received for %s does not match its hash")
+    IOException contentHashMismatch(String hash);
 }
@@ -24,6 +24,7 @@ package org.jboss.as.host.controller;
 
 import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
 import org.jboss.as.domain.controller.SlaveRegistrationException;
+import org.jboss.as.domain.controller.operations.ReadMasterDomainModelHandler;
 import org.jboss.as.domain.management.CallbackHandlerFactory;
 import org.jboss.as.domain.management.SecurityRealm;
 import org.jboss.as.host.controller.mgmt.DomainControllerProtocol;
@@ -42,6 +43,7 @@ import org.jboss.as.protocol.mgmt.ManagementPongRequestHandler;
 import org.jboss.as.protocol.mgmt.ManagementRequestContext;
 import org.jboss.as.remoting.management.ManagementRemotingServices;
 import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
 import org.jboss.remoting3.Channel;
 import org.jboss.remoting3.CloseHandler;
 import org.jboss.remoting3.Connection;
@@ -102,6 +104,9 @@ class RemoteDomainConnection extends FutureManagementChannel {
     private final ExecutorService executorService;
     private final ScheduledExecutorService scheduledExecutorService;
     private final ManagementPongRequestHandler pongHandler = new ManagementPongRequestHandler();
+    // the master's change log and the version of the domain model applied last, so a reconnect only needs the changes
+    private volatile String domainModelLog;
+    private volatile long domainModelVersion = -1;
 
     RemoteDomainConnection(final String localHostName, final ModelNode localHostInfo,
                            final ProtocolChannelClient.Configuration configuration, final SecurityRealm realm,
@@ -259,8 +264,23 @@ class RemoteDomainConnection extends FutureManagementChannel {
         if(! result.hasDefined(ModelDescriptionConstants.RESULT)) {
             return false;
         }
-        final List<ModelNode> bootOperations= result.get(ModelDescriptionConstants.RESULT).asList();
-        return callback.applyDomainModel(bootOperations);
+        final ModelNode domainModel = result.get(ModelDescriptionConstants.RESULT);
+        if (domainModel.getType() == ModelType.LIST) {
+            // The master does not keep track of versions, this is always the complete model
+            domainModelLog = null;
+            return callback.applyDomainModel(domainModel.asList(), null);
+        }
+        final List<ModelNode> changes = domainModel.hasDefined(ReadMasterDomainModelHandler.DOMAIN_MODEL_CHANGES)
+                ? domainModel.get(ReadMasterDomainModelHandler.DOMAIN_MODEL_CHANGES).asList() : null;
+        final List<ModelNode> bootOperations = domainModel.get(ModelDescriptionConstants.DOMAIN_MODEL).asList();
+        if (callback.applyDomainModel(bootOperations, changes)) {
+            domainModelVersion = domainModel.get(ReadMasterDomainModelHandler.DOMAIN_MODEL_VERSION).asLong();
+            domainModelLog = domainModel.get(ReadMasterDomainModelHandler.DOMAIN_MODEL_LOG).asString();
+            return true;
+        }
+        // Don't trust our version anymore, ask for the complete model next time
+        domainModelLog = null;
+        return false;
     }
 
     void registered() {
@@ -286,9 +306,11 @@ class RemoteDomainConnection extends FutureManagementChannel {
          * Apply the remote domain model.
          *
          * @param result the read-domain-model operation result
+         * @param changes the addresses of the changed subtrees if the result only describes those, {@code null} if
+         *                the result is the complete domain model
          * @return {@code true} if the model was applied successfully, {@code false} otherwise
          */
-        boolean applyDomainModel(List<ModelNode> result);
+        boolean applyDomainModel(List<ModelNode> result, List<ModelNode> changes);
 
         /**
          * Event that the registration was completed.
@@ -315,6 +337,13 @@ class RemoteDomainConnection extends FutureManagementChannel {
              output.writeUTF(localHostName);
              ModelNode hostInfo = localHostInfo.clone();
              hostInfo.get(RemoteDomainConnectionService.DOMAIN_CONNECTION_ID).set(pongHandler.getConnectionId());
+             final String log = domainModelLog;
+             if (log != null) {
+                 hostInfo.get(ReadMasterDomainModelHandler.DOMAIN_MODEL_LOG).set(log);
+                 hostInfo.get(ReadMasterDomainModelHandler.DOMAIN_MODEL_VERSION).set(domainModelVersion);
+             } else {
+                 hostInfo.get(ReadMasterDomainModelHandler.DOMAIN_MODEL_VERSION).set(-1L);
+             }
              hostInfo.writeExternal(output);
          }
 
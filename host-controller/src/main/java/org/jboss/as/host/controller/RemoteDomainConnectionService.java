@@ -71,12 +71,15 @@ import org.jboss.as.controller.remote.TransactionalProtocolOperationHandler;
 import org.jboss.as.domain.controller.LocalHostControllerInfo;
 import org.jboss.as.domain.controller.SlaveRegistrationException;
 import org.jboss.as.domain.controller.operations.ApplyRemoteMasterDomainModelHandler;
+import org.jboss.as.domain.controller.operations.ReadMasterDomainModelHandler;
 import org.jboss.as.domain.management.SecurityRealm;
 import org.jboss.as.domain.management.security.SecurityRealmService;
+import org.jboss.as.host.controller.mgmt.DomainChunkedRemoteFileRequestAndHandler;
 import org.jboss.as.host.controller.mgmt.DomainControllerProtocol;
 import org.jboss.as.host.controller.mgmt.DomainRemoteFileRequestAndHandler;
 import org.jboss.as.network.NetworkUtils;
 import org.jboss.as.protocol.ProtocolChannelClient;
+import org.jboss.as.protocol.ProtocolMessages;
 import org.jboss.as.protocol.StreamUtils;
 import org.jboss.as.protocol.mgmt.AbstractManagementRequest;
 import org.jboss.as.protocol.mgmt.ActiveOperation;
@@ -84,6 +87,7 @@ import org.jboss.as.protocol.mgmt.FlushableDataOutput;
 import org.jboss.as.protocol.mgmt.ManagementChannelHandler;
 import org.jboss.as.protocol.mgmt.ManagementRequestContext;
 import org.jboss.as.remoting.management.ManagementRemotingServices;
+import org.jboss.as.repository.ChunkedRemoteFileRequestAndHandler.ContentHashMismatchException;
 import org.jboss.as.repository.HostFileRepository;
 import org.jboss.as.repository.RemoteFileRequestAndHandler.CannotCreateLocalDirectoryException;
 import org.jboss.as.repository.RemoteFileRequestAndHandler.DidNotReadEntireFileException;
@@ -120,7 +124,13 @@ public class RemoteDomainConnectionService implements MasterDomainControllerClie
     private static final int CONNECTION_TIMEOUT_DEFAULT = 30000;
     private static final String CONNECTION_TIMEOUT_PROPERTY = "jboss.host.domain.connection.timeout";
     private static final int CONNECTION_TIMEOUT = getSystemProperty(CONNECTION_TIMEOUT_PROPERTY, CONNECTION_TIMEOUT_DEFAULT);
+    private static final String CHUNK_SIZE_PROPERTY = "jboss.host.domain.content.chunk.size";
+    private static final int CHUNK_SIZE = getSystemProperty(CHUNK_SIZE_PROPERTY, DomainChunkedRemoteFileRequestAndHandler.DEFAULT_CHUNK_SIZE);
 
+    /**
+     * The message id of the error the master responds with to a request type it has no handler for
+     */
+    private static final String UNKNOWN_REQUEST_ERROR = getMessageId(ProtocolMessages.MESSAGES.noSuchResponseHandler("").getMessage());
     private static final ModelNode APPLY_EXTENSIONS = new ModelNode();
     private static final ModelNode APPLY_DOMAIN_MODEL = new ModelNode();
     static {
@@ -146,6 +156,9 @@ public class RemoteDomainConnectionService implements MasterDomainControllerClie
     private volatile ModelControllerClient masterProxy;
 
     private final FutureClient futureClient = new FutureClient();
+    private final DomainChunkedRemoteFileRequestAndHandler chunkedFileSupport = new DomainChunkedRemoteFileRequestAndHandler(null, CHUNK_SIZE);
+    /** Cleared once the master turns out not to understand chunked content requests */
+    private volatile boolean chunkedTransferSupported = true;
     private final InjectedValue<Endpoint> endpointInjector = new InjectedValue<Endpoint>();
     private final InjectedValue<SecurityRealm> securityRealmInjector = new InjectedValue<SecurityRealm>();
 
@@ -305,9 +318,9 @@ public class RemoteDomainConnectionService implements MasterDomainControllerClie
                 }
 
                         @Override
-                public boolean applyDomainModel(final List<ModelNode> bootOperations) {
+                public boolean applyDomainModel(final List<ModelNode> bootOperations, final List<ModelNode> changes) {
                     // Apply the model..
-                    return applyRemoteDomainModel(bootOperations);
+                    return applyRemoteDomainModel(bootOperations, changes);
                 }
 
                 @Override
@@ -359,12 +372,15 @@ public class RemoteDomainConnectionService implements MasterDomainControllerClie
      * @param bootOperations the result of the remote read-domain-model op
      * @return {@code true} if the model was applied successfully, {@code false} otherwise
      */
-    private boolean applyRemoteDomainModel(final List<ModelNode> bootOperations) {
+    private boolean applyRemoteDomainModel(final List<ModelNode> bootOperations, final List<ModelNode> changes) {
         final ModelNode result;
         try {
             // Create the apply-domain-model operation
             final ModelNode operation = APPLY_DOMAIN_MODEL.clone();
             operation.get(DOMAIN_MODEL).set(bootOperations);
+            if (changes != null) {
+                operation.get(ReadMasterDomainModelHandler.DOMAIN_MODEL_CHANGES).set(changes);
+            }
             // Execute the operation
             result = controller.execute(operation, OperationMessageHandler.logging, ModelController.OperationTransactionControl.COMMIT, OperationAttachments.EMPTY);
         } catch (Exception e) {
@@ -458,6 +474,39 @@ public class RemoteDomainConnectionService implements MasterDomainControllerClie
         }
     }
 
+    private class GetFileChunksRequest extends AbstractManagementRequest<File, Void> {
+        private final String hash;
+        private final File localPath;
+
+        private GetFileChunksRequest(final String hash, final File localPath) {
+            this.hash = hash;
+            this.localPath = localPath;
+        }
+
+        @Override
+        public byte getOperationType() {
+            return DomainControllerProtocol.GET_FILE_CHUNKS_REQUEST;
+        }
+
+        @Override
+        protected void sendRequest(ActiveOperation.ResultHandler<File> resultHandler, ManagementRequestContext<Void> context, FlushableDataOutput output) throws IOException {
+            output.write(DomainControllerProtocol.PARAM_HOST_ID);
+            output.writeUTF(localHostInfo.getLocalHostName());
+            chunkedFileSupport.sendRequest(output, DomainControllerProtocol.PARAM_ROOT_ID_DEPLOYMENT, hash, localPath);
+        }
+
+        @Override
+        public void handleRequest(DataInput input, ActiveOperation.ResultHandler<File> resultHandler, ManagementRequestContext<Void> context) throws IOException {
+            try {
+                chunkedFileSupport.handleResponse(input, localPath, HashUtil.hexStringToByteArray(hash), ROOT_LOGGER, resultHandler, context);
+            } catch (CannotCreateLocalDirectoryException e) {
+                throw MESSAGES.cannotCreateLocalDirectory(e.getDir());
+            } catch (ContentHashMismatchException e) {
+                throw MESSAGES.contentHashMismatch(e.getHash());
+            }
+        }
+    }
+
     static class RemoteFileRepository implements HostFileRepository {
         private final HostFileRepository localFileRepository;
         private volatile RemoteFileRepositoryExecutor remoteFileRepositoryExecutor;
@@ -513,6 +562,22 @@ public class RemoteDomainConnectionService implements MasterDomainControllerClie
     private final RemoteFileRepositoryExecutor remoteFileRepositoryExecutor = new RemoteFileRepositoryExecutor() {
         public File getFile(final String relativePath, final byte repoId, HostFileRepository localFileRepository) {
             if(connection.isConnected()) {
+                if (repoId == DomainControllerProtocol.PARAM_ROOT_ID_DEPLOYMENT && chunkedTransferSupported) {
+                    // Deployment content never changes, so an interrupted transfer can be resumed
+                    final File localPath = localFileRepository.getDeploymentRoot(HashUtil.hexStringToByteArray(relativePath));
+                    try {
+                        return handler.executeRequest(new GetFileChunksRequest(relativePath, localPath), null).getResult().get();
+                    } catch (Exception e) {
+                        if (isUnknownRequest(e)) {
+                            // An older master, don't bother it with chunked requests again
+                            chunkedTransferSupported = false;
+                            ROOT_LOGGER.debugf(e, "Master does not support chunked transfer, requesting the complete content of %s", relativePath);
+                        } else {
+                            // A transient failure, the next transfer can still resume from what we received so far
+                            ROOT_LOGGER.debugf(e, "Chunked transfer of %s failed, requesting the complete content", relativePath);
+                        }
+                    }
+                }
                 try {
                     return handler.executeRequest(new GetFileRequest(repoId, relativePath, localFileRepository), null).getResult().get();
                 } catch (Exception e) {
@@ -524,6 +589,19 @@ public class RemoteDomainConnectionService implements MasterDomainControllerClie
         }
     };
 
+    /**
+     * Whether the request failed because the master does not know its operation type.
+     */
+    static boolean isUnknownRequest(Throwable t) {
+        for (; t != null; t = t.getCause()) {
+            final String message = t.getMessage();
+            if (t instanceof IOException && message != null && message.startsWith(UNKNOWN_REQUEST_ERROR)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private class FutureClient extends AsyncFutureTask<MasterDomainControllerClient>{
 
         protected FutureClient() {
@@ -585,4 +663,9 @@ public class RemoteDomainConnectionService implements MasterDomainControllerClie
         }
     }
 
+    private static String getMessageId(final String message) {
+        final int end = message.indexOf(':');
+        return end < 0 ? message : message.substring(0, end + 1);
+    }
+
 }
@@ -36,6 +36,7 @@ public interface DomainControllerProtocol extends ModelControllerProtocol {
     byte IS_ACTIVE_REQUEST = 0x57;
     byte COMPLETE_HOST_CONTROLLER_REGISTRATION = 0x58;
     byte REQUEST_SUBSYSTEM_VERSIONS = 0x59;
+    byte GET_FILE_CHUNKS_REQUEST = 0x5A;
 
     byte PARAM_HOST_ID = 0x20;
     byte PARAM_OK = 0x21;
@@ -49,4 +50,8 @@ public interface DomainControllerProtocol extends ModelControllerProtocol {
     byte FILE_START = 0x30;
     byte PARAM_FILE_SIZE = 0x31;
     byte FILE_END = 0x32;
+    byte PARAM_CHUNK_SIZE = 0x33;
+    byte PARAM_NUM_CHUNKS = 0x34;
+    byte CHUNK_PRESENT = 0x35;
+    byte CHUNK_DATA = 0x36;
 }
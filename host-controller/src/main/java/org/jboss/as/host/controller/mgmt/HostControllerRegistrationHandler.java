@@ -59,6 +59,7 @@ import org.jboss.as.controller.transform.TransformerRegistry;
 import org.jboss.as.controller.transform.Transformers;
 import org.jboss.as.domain.controller.DomainController;
 import org.jboss.as.domain.controller.DomainControllerMessages;
+import org.jboss.as.domain.controller.DomainModelChangeLog;
 import org.jboss.as.domain.controller.SlaveRegistrationException;
 import org.jboss.as.domain.controller.operations.ReadMasterDomainModelHandler;
 import org.jboss.as.host.controller.HostControllerMessages;
@@ -100,12 +101,19 @@ public class HostControllerRegistrationHandler implements ManagementRequestHandl
     private final OperationExecutor operationExecutor;
     private final DomainController domainController;
     private final Executor registrations;
+    private final DomainModelChangeLog changeLog;
 
     public HostControllerRegistrationHandler(ManagementChannelHandler handler, DomainController domainController, OperationExecutor operationExecutor, Executor registrations) {
+        this(handler, domainController, operationExecutor, registrations, null);
+    }
+
+    public HostControllerRegistrationHandler(ManagementChannelHandler handler, DomainController domainController, OperationExecutor operationExecutor, Executor registrations,
+                                             DomainModelChangeLog changeLog) {
         this.handler = handler;
         this.operationExecutor = operationExecutor;
         this.domainController = domainController;
         this.registrations = registrations;
+        this.changeLog = changeLog;
     }
 
     @Override
@@ -313,7 +321,7 @@ public class HostControllerRegistrationHandler implements ManagementRequestHandl
             // Remotely resolve the subsystem versions and create the transformation
             registrationContext.processSubsystems(transformers, extensions);
             // Now run the read-domain model operation
-            final ReadMasterDomainModelHandler handler = new ReadMasterDomainModelHandler(transformers);
+            final ReadMasterDomainModelHandler handler = new ReadMasterDomainModelHandler(transformers, changeLog, hostInfo);
             context.addStep(READ_DOMAIN_MODEL, handler, OperationContext.Stage.MODEL);
             // Complete
             context.completeStep(OperationContext.RollbackHandler.NOOP_ROLLBACK_HANDLER);
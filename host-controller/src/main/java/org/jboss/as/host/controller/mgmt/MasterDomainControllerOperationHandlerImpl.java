@@ -67,6 +67,9 @@ class MasterDomainControllerOperationHandlerImpl implements ManagementRequestHan
             } case DomainControllerProtocol.GET_FILE_REQUEST: {
                 handlers.registerActiveOperation(header.getBatchId(), null);
                 return new GetFileOperation();
+            } case DomainControllerProtocol.GET_FILE_CHUNKS_REQUEST: {
+                handlers.registerActiveOperation(header.getBatchId(), null);
+                return new GetFileChunksOperation();
             }
         }
         return handlers.resolveNext();
@@ -94,32 +97,42 @@ class MasterDomainControllerOperationHandlerImpl implements ManagementRequestHan
 
         @Override
         void handleRequest(String hostId, DataInput input, ManagementRequestContext<Void> context) throws IOException {
-            final RootFileReader reader = new RootFileReader() {
-                public File readRootFile(byte rootId, String filePath) throws RequestProcessingException {
-                    final HostFileRepository localFileRepository = domainController.getLocalFileRepository();
-
-                    switch (rootId) {
-                        case DomainControllerProtocol.PARAM_ROOT_ID_FILE: {
-                            return localFileRepository.getFile(filePath);
-                        }
-                        case DomainControllerProtocol.PARAM_ROOT_ID_CONFIGURATION: {
-                            return localFileRepository.getConfigurationFile(filePath);
-                        }
-                        case DomainControllerProtocol.PARAM_ROOT_ID_DEPLOYMENT: {
-                            byte[] hash = HashUtil.hexStringToByteArray(filePath);
-                            return localFileRepository.getDeploymentRoot(hash);
-                        }
-                        default: {
-                            throw MESSAGES.invalidRootId(rootId);
-                        }
-                    }
-                }
-            };
+            remoteSupport.handleRequest(input, rootFileReader, context);
+        }
+    }
 
-            remoteSupport.handleRequest(input, reader, context);
+    private class GetFileChunksOperation extends AbstractHostRequestHandler {
+
+        private final DomainChunkedRemoteFileRequestAndHandler remoteSupport = new DomainChunkedRemoteFileRequestAndHandler(asyncExecutor);
+
+        @Override
+        void handleRequest(String hostId, DataInput input, ManagementRequestContext<Void> context) throws IOException {
+            remoteSupport.handleRequest(input, rootFileReader, context);
         }
     }
 
+    private final RootFileReader rootFileReader = new RootFileReader() {
+        public File readRootFile(byte rootId, String filePath) throws RequestProcessingException {
+            final HostFileRepository localFileRepository = domainController.getLocalFileRepository();
+
+            switch (rootId) {
+                case DomainControllerProtocol.PARAM_ROOT_ID_FILE: {
+                    return localFileRepository.getFile(filePath);
+                }
+                case DomainControllerProtocol.PARAM_ROOT_ID_CONFIGURATION: {
+                    return localFileRepository.getConfigurationFile(filePath);
+                }
+                case DomainControllerProtocol.PARAM_ROOT_ID_DEPLOYMENT: {
+                    byte[] hash = HashUtil.hexStringToByteArray(filePath);
+                    return localFileRepository.getDeploymentRoot(hash);
+                }
+                default: {
+                    throw MESSAGES.invalidRootId(rootId);
+                }
+            }
+        }
+    };
+
     abstract static class AbstractHostRequestHandler implements ManagementRequestHandler<ModelNode, Void> {
 
         abstract void handleRequest(final String hostId, DataInput input, ManagementRequestContext<Void> context) throws IOException;
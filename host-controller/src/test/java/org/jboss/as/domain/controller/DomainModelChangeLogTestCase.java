@@ -0,0 +1,97 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.domain.controller;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.HOST;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.PROFILE;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SERVER_GROUP;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUBSYSTEM;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.junit.Test;
+
+public class DomainModelChangeLogTestCase {
+
+    private static final PathAddress PROFILE_ADDRESS = PathAddress.pathAddress(PathElement.pathElement(PROFILE, "default"));
+    private static final PathAddress SUBSYSTEM_ADDRESS = PROFILE_ADDRESS.append(PathElement.pathElement(SUBSYSTEM, "web"));
+    private static final PathAddress GROUP_ADDRESS = PathAddress.pathAddress(PathElement.pathElement(SERVER_GROUP, "main-server-group"));
+    private static final PathAddress HOST_ADDRESS = PathAddress.pathAddress(PathElement.pathElement(HOST, "slave"));
+
+    @Test
+    public void testChangesSince() {
+        final DomainModelChangeLog log = new DomainModelChangeLog(10);
+        log.record(Collections.singleton(SUBSYSTEM_ADDRESS));
+        log.record(Collections.singleton(GROUP_ADDRESS));
+        assertEquals(2, log.getVersion());
+
+        assertEquals(Collections.singleton(GROUP_ADDRESS), log.getChangesSince(1));
+        assertTrue(log.getChangesSince(2).isEmpty());
+
+        final Set<PathAddress> changes = log.getChangesSince(0);
+        assertEquals(2, changes.size());
+        assertTrue(changes.contains(SUBSYSTEM_ADDRESS));
+        assertTrue(changes.contains(GROUP_ADDRESS));
+    }
+
+    @Test
+    public void testNestedChanges() {
+        final DomainModelChangeLog log = new DomainModelChangeLog(10);
+        log.record(Collections.singleton(SUBSYSTEM_ADDRESS));
+        log.record(Collections.singleton(PROFILE_ADDRESS));
+        // the whole profile subtree is sent anyway
+        assertEquals(Collections.singleton(PROFILE_ADDRESS), log.getChangesSince(0));
+    }
+
+    @Test
+    public void testHostChangesIgnored() {
+        final DomainModelChangeLog log = new DomainModelChangeLog(10);
+        log.record(Collections.singleton(HOST_ADDRESS));
+        assertEquals(0, log.getVersion());
+        log.record(Arrays.asList(HOST_ADDRESS, GROUP_ADDRESS));
+        assertEquals(1, log.getVersion());
+        assertEquals(Collections.singleton(GROUP_ADDRESS), log.getChangesSince(0));
+    }
+
+    @Test
+    public void testFullTransferRequired() {
+        final DomainModelChangeLog log = new DomainModelChangeLog(2);
+        log.record(Collections.singleton(GROUP_ADDRESS));
+        log.record(Collections.singleton(GROUP_ADDRESS));
+        log.record(Collections.singleton(SUBSYSTEM_ADDRESS));
+        // the first version was dropped
+        assertNull(log.getChangesSince(0));
+        assertEquals(2, log.getChangesSince(1).size());
+        // a version this log never had
+        assertNull(log.getChangesSince(4));
+
+        log.record(Collections.singleton(PathAddress.EMPTY_ADDRESS));
+        assertNull(log.getChangesSince(3));
+    }
+}
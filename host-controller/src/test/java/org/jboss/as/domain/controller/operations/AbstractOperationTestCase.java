@@ -404,6 +404,11 @@ public abstract class AbstractOperationTestCase {
             return resource;
         }
 
+        @Override
+        public Resource readResourceView(PathAddress relativeAddress) {
+            return readResource(relativeAddress);
+        }
+
         public Resource readResourceForUpdate(PathAddress address) {
             return readResource(address);
         }
@@ -22,6 +22,8 @@
 
 package org.jboss.as.domain.controller.operations;
 
+import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertNull;
 import static junit.framework.Assert.assertTrue;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.DOMAIN_MODEL;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.EXTENSION;
@@ -149,6 +151,23 @@ public class ApplyRemoteMasterDomainModelHandlerTestCase extends AbstractOperati
         operationContext.verify();
     }
 
+    @Test
+    public void testIncrementalPathRemove() throws Exception {
+        final ModelNode operation = new ModelNode();
+        operation.get(DOMAIN_MODEL).setEmptyList();
+        operation.get(ReadMasterDomainModelHandler.DOMAIN_MODEL_CHANGES).add(PathAddress.pathAddress(PathElement.pathElement(PATH, "some-path")).toModelNode());
+        final MockOperationContext operationContext = getOperationContext();
+        operationContext.root.registerChild(PathElement.pathElement(PATH, "some-path"), Resource.Factory.create());
+        operationContext.root.registerChild(PathElement.pathElement(SYSTEM_PROPERTY, "some-property"), Resource.Factory.create());
+        operationContext.expectStep(PathAddress.pathAddress(PathElement.pathElement(HOST, "localhost"), PathElement.pathElement(SERVER, "server-one")));
+        operationContext.expectStep(PathAddress.pathAddress(PathElement.pathElement(HOST, "localhost"), PathElement.pathElement(SERVER, "server-three")));
+        handler.execute(operationContext, operation);
+        operationContext.verify();
+        assertNull(operationContext.root.getChild(PathElement.pathElement(PATH, "some-path")));
+        // Resources which did not change are left alone
+        assertNotNull(operationContext.root.getChild(PathElement.pathElement(SYSTEM_PROPERTY, "some-property")));
+    }
+
     @Test
     public void testSystemPropertyAdd() throws Exception {
         final ModelNode operation = new ModelNode();
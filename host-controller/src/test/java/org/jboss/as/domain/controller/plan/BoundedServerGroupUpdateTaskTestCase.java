@@ -0,0 +1,197 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.domain.controller.plan;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.CANCELLED;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.FAILED;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.FAILURE_DESCRIPTION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OUTCOME;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUCCESS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.remote.BlockingQueueOperationListener;
+import org.jboss.as.controller.remote.TransactionalProtocolClient;
+import org.jboss.as.controller.transform.OperationResultTransformer;
+import org.jboss.as.domain.controller.ServerIdentity;
+import org.jboss.dmr.ModelNode;
+import org.junit.Test;
+
+/**
+ * Tests of {@link BoundedServerGroupUpdateTask}.
+ */
+public class BoundedServerGroupUpdateTaskTestCase {
+
+    private static final String GROUP = "main-server-group";
+
+    @Test
+    public void testWavesAreBounded() throws Exception {
+        final Set<ServerIdentity> servers = createServers(5);
+        final WaveExecutor executor = new WaveExecutor(2, servers.size(), null);
+        final Map<ServerIdentity, ModelNode> results = execute(servers, 0, 2, executor);
+
+        assertEquals(5, executor.executed);
+        // each wave runs at most two servers at once, and all of them run concurrently
+        assertEquals(2, executor.maxInFlight);
+        assertEquals(3, executor.waves);
+        assertEquals(5, results.size());
+        for (ModelNode result : results.values()) {
+            assertEquals(SUCCESS, result.get(OUTCOME).asString());
+        }
+    }
+
+    @Test
+    public void testSingleServerWaves() throws Exception {
+        final Set<ServerIdentity> servers = createServers(3);
+        final WaveExecutor executor = new WaveExecutor(1, servers.size(), null);
+        execute(servers, 0, 1, executor);
+
+        assertEquals(3, executor.executed);
+        assertEquals(1, executor.maxInFlight);
+        assertEquals(3, executor.waves);
+    }
+
+    @Test
+    public void testFailureCancelsFollowingWaves() throws Exception {
+        final Set<ServerIdentity> servers = createServers(5);
+        final ServerIdentity failing = servers.iterator().next();
+        final WaveExecutor executor = new WaveExecutor(2, servers.size(), failing);
+        final Map<ServerIdentity, ModelNode> results = execute(servers, 0, 2, executor);
+
+        // the first wave was already running when the failure came in; the other waves are cancelled
+        assertEquals(2, executor.executed);
+        assertEquals(5, results.size());
+        assertEquals(FAILED, results.get(failing).get(OUTCOME).asString());
+        int cancelled = 0;
+        for (ModelNode result : results.values()) {
+            if (CANCELLED.equals(result.get(OUTCOME).asString())) {
+                cancelled++;
+            }
+        }
+        assertEquals(3, cancelled);
+    }
+
+    @Test
+    public void testWavesAreRecorded() throws Exception {
+        final long waves = RolloutWaveStatistics.INSTANCE.getWaveCount();
+        final long servers = RolloutWaveStatistics.INSTANCE.getServerCount();
+
+        final Set<ServerIdentity> identities = createServers(4);
+        execute(identities, 0, 3, new WaveExecutor(3, identities.size(), null));
+
+        assertEquals(waves + 2, RolloutWaveStatistics.INSTANCE.getWaveCount());
+        assertEquals(servers + 4, RolloutWaveStatistics.INSTANCE.getServerCount());
+    }
+
+    private static Set<ServerIdentity> createServers(final int count) {
+        final Set<ServerIdentity> servers = new LinkedHashSet<ServerIdentity>();
+        for (int i = 0; i < count; i++) {
+            servers.add(new ServerIdentity("host", GROUP, "server-" + i));
+        }
+        return servers;
+    }
+
+    private static Map<ServerIdentity, ModelNode> execute(final Set<ServerIdentity> servers, final int maxFailures,
+                                                          final int maxConcurrentServers, final ServerTaskExecutor executor) throws InterruptedException {
+        final Map<ServerIdentity, ModelNode> results = Collections.synchronizedMap(new HashMap<ServerIdentity, ModelNode>());
+        final ServerUpdateTask.ServerUpdateResultHandler resultHandler = new ServerUpdateTask.ServerUpdateResultHandler() {
+            @Override
+            public void handleServerUpdateResult(ServerIdentity serverId, ModelNode response) {
+                results.put(serverId, response);
+            }
+        };
+        final ConcurrentGroupServerUpdatePolicy parent = new ConcurrentGroupServerUpdatePolicy(null, Collections.singleton(GROUP));
+        final ServerUpdatePolicy policy = new ServerUpdatePolicy(parent, GROUP, servers, maxFailures);
+        final ModelNode operation = new ModelNode();
+        operation.get(OP).set("test");
+        final List<ServerUpdateTask> tasks = new ArrayList<ServerUpdateTask>();
+        for (ServerIdentity server : servers) {
+            tasks.add(new RunningServerUpdateTask(server, operation, policy, resultHandler));
+        }
+
+        // a task exceeding the bound would wait for prepared results that never come
+        final Thread thread = new Thread(new BoundedServerGroupUpdateTask(tasks, policy, maxConcurrentServers, executor, resultHandler));
+        thread.start();
+        thread.join(10000);
+        assertFalse("rollout did not complete", thread.isAlive());
+        return results;
+    }
+
+    /**
+     * Holds back the prepared results until a full wave of servers was executed, so a task only completes if it runs
+     * the servers of a wave concurrently and does not start more servers than allowed.
+     */
+    private static class WaveExecutor extends ServerTaskExecutor {
+
+        private final int waveSize;
+        private final int servers;
+        private final ServerIdentity failing;
+        private final List<ServerOperation> inFlight = new ArrayList<ServerOperation>();
+        private int executed;
+        private int maxInFlight;
+        private int waves;
+
+        WaveExecutor(final int waveSize, final int servers, final ServerIdentity failing) {
+            super(null, new HashMap<ServerIdentity, ExecutedServerRequest>(), new ArrayList<ServerPreparedResponse>());
+            this.waveSize = waveSize;
+            this.servers = servers;
+            this.failing = failing;
+        }
+
+        @Override
+        protected synchronized boolean execute(final TransactionalProtocolClient.TransactionalOperationListener<ServerOperation> listener,
+                                               final ServerIdentity identity, final ModelNode operation) throws OperationFailedException {
+            inFlight.add(new ServerOperation(identity, operation, null, null, OperationResultTransformer.ORIGINAL_RESULT));
+            executed++;
+            maxInFlight = Math.max(maxInFlight, inFlight.size());
+            if (inFlight.size() == waveSize || executed == servers) {
+                waves++;
+                for (ServerOperation prepared : inFlight) {
+                    listener.operationPrepared(new BlockingQueueOperationListener.FailedOperation<ServerOperation>(prepared, createResult(prepared.getIdentity())));
+                }
+                inFlight.clear();
+            }
+            return true;
+        }
+
+        private ModelNode createResult(final ServerIdentity identity) {
+            final ModelNode result = new ModelNode();
+            if (identity.equals(failing)) {
+                result.get(OUTCOME).set(FAILED);
+                result.get(FAILURE_DESCRIPTION).set("failed");
+            } else {
+                result.get(OUTCOME).set(SUCCESS);
+            }
+            return result;
+        }
+    }
+}
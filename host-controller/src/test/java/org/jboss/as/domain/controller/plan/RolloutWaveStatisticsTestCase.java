@@ -0,0 +1,65 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.domain.controller.plan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests of {@link RolloutWaveStatistics}. The statistics are shared by the whole domain controller, so the tests only
+ * check the changes caused by the waves they record.
+ */
+public class RolloutWaveStatisticsTestCase {
+
+    private final RolloutWaveStatistics statistics = RolloutWaveStatistics.INSTANCE;
+
+    @Test
+    public void testRecordWave() {
+        final long waves = statistics.getWaveCount();
+        final long servers = statistics.getServerCount();
+        final long total = statistics.getTotalTime();
+
+        statistics.recordWave(3, TimeUnit.MILLISECONDS.toNanos(20));
+        statistics.recordWave(2, TimeUnit.MILLISECONDS.toNanos(30));
+
+        assertEquals(waves + 2, statistics.getWaveCount());
+        assertEquals(servers + 5, statistics.getServerCount());
+        assertEquals(total + 50, statistics.getTotalTime());
+        assertTrue(statistics.getMaxTime() >= 30);
+    }
+
+    @Test
+    public void testMaxTime() {
+        final long max = statistics.getMaxTime() + 1000;
+
+        statistics.recordWave(1, TimeUnit.MILLISECONDS.toNanos(max));
+        assertEquals(max, statistics.getMaxTime());
+
+        // a faster wave leaves the maximum alone
+        statistics.recordWave(1, TimeUnit.MILLISECONDS.toNanos(1));
+        assertEquals(max, statistics.getMaxTime());
+    }
+}
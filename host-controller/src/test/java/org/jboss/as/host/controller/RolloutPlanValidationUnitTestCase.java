@@ -27,6 +27,7 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.IN_
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ROLLBACK_ACROSS_GROUPS;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ROLLING_TO_SERVERS;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ROLLOUT_PLAN;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.MAX_CONCURRENT_SERVERS;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.MAX_FAILED_SERVERS;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.MAX_FAILURE_PERCENTAGE;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SERVER_GROUP;
@@ -170,6 +171,46 @@ public class RolloutPlanValidationUnitTestCase {
         DomainModelUtil.validateRolloutPlanStructure(rolloutPlan);
     }
 
+    @Test
+    public void testServerGroupWithMaxConcurrentServers() throws Exception {
+        final ModelNode rolloutPlan = new ModelNode();
+        final ModelNode inSeries = rolloutPlan.get(ROLLOUT_PLAN, IN_SERIES);
+        final ModelNode group = inSeries.add().get(SERVER_GROUP).get("group1");
+        group.get(ROLLING_TO_SERVERS).set(false);
+        group.get(MAX_CONCURRENT_SERVERS).set(2);
+        DomainModelUtil.validateRolloutPlanStructure(rolloutPlan);
+    }
+
+    @Test
+    public void testServerGroupWithRollingToServersAndMaxConcurrentServers() throws Exception {
+        final ModelNode rolloutPlan = new ModelNode();
+        final ModelNode inSeries = rolloutPlan.get(ROLLOUT_PLAN, IN_SERIES);
+        final ModelNode group = inSeries.add().get(SERVER_GROUP).get("group1");
+        group.get(ROLLING_TO_SERVERS).set(true);
+        group.get(MAX_CONCURRENT_SERVERS).set(2);
+        try {
+            DomainModelUtil.validateRolloutPlanStructure(rolloutPlan);
+            Assert.fail("rolling-to-servers and max-concurrent-servers");
+        } catch(OperationFailedException expected) {
+        }
+    }
+
+    @Test
+    public void testConcurrentGroupsWithRollingToServersAndMaxConcurrentServers() throws Exception {
+        final ModelNode rolloutPlan = new ModelNode();
+        final ModelNode inSeries = rolloutPlan.get(ROLLOUT_PLAN, IN_SERIES);
+        final ModelNode concurrent = inSeries.add().get(CONCURRENT_GROUPS);
+        concurrent.get("group1");
+        final ModelNode group = concurrent.get("group2");
+        group.get(ROLLING_TO_SERVERS).set(true);
+        group.get(MAX_CONCURRENT_SERVERS).set(2);
+        try {
+            DomainModelUtil.validateRolloutPlanStructure(rolloutPlan);
+            Assert.fail("rolling-to-servers and max-concurrent-servers");
+        } catch(OperationFailedException expected) {
+        }
+    }
+
     @Test
     public void testServerGroupWithUnrecognizedProp() throws Exception {
         final ModelNode rolloutPlan = new ModelNode();
@@ -24,7 +24,12 @@ package org.jboss.as.jmx;
 import java.io.ObjectInputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
 
@@ -36,6 +41,7 @@ import javax.management.InstanceNotFoundException;
 import javax.management.IntrospectionException;
 import javax.management.InvalidAttributeValueException;
 import javax.management.ListenerNotFoundException;
+import javax.management.MalformedObjectNameException;
 import javax.management.MBeanException;
 import javax.management.MBeanInfo;
 import javax.management.MBeanRegistrationException;
@@ -65,32 +71,151 @@ class PluggableMBeanServerImpl implements PluggableMBeanServer {
 
     private final Set<MBeanServerPlugin> delegates = new CopyOnWriteArraySet<MBeanServerPlugin>();
 
+    /**
+     * The plugins declaring each domain, in the order they were added. Rebuilt whenever a plugin is added or removed,
+     * so that a name is routed with a single lookup rather than by asking every plugin.
+     */
+    private volatile Map<String, MBeanServerPlugin[]> delegatesByDomain = Collections.emptyMap();
+
     PluggableMBeanServerImpl(MBeanServer rootMBeanServer) {
         this.rootMBeanServer = new TcclMBeanServer(rootMBeanServer);
     }
 
-    public void addPlugin(MBeanServerPlugin delegate) {
+    public synchronized void addPlugin(MBeanServerPlugin delegate) {
         delegates.add(delegate);
+        updateDelegatesByDomain();
     }
 
-    public void removePlugin(MBeanServerPlugin delegate) {
+    public synchronized void removePlugin(MBeanServerPlugin delegate) {
         delegates.remove(delegate);
+        updateDelegatesByDomain();
+    }
+
+    private void updateDelegatesByDomain() {
+        final Map<String, List<MBeanServerPlugin>> lists = new HashMap<String, List<MBeanServerPlugin>>();
+        for (MBeanServerPlugin delegate : delegates) {
+            for (String domain : delegate.getDomains()) {
+                List<MBeanServerPlugin> list = lists.get(domain);
+                if (list == null) {
+                    list = new ArrayList<MBeanServerPlugin>(1);
+                    lists.put(domain, list);
+                }
+                if (!list.contains(delegate)) {
+                    list.add(delegate);
+                }
+            }
+        }
+        final Map<String, MBeanServerPlugin[]> map = new HashMap<String, MBeanServerPlugin[]>();
+        for (Map.Entry<String, List<MBeanServerPlugin>> entry : lists.entrySet()) {
+            map.put(entry.getKey(), entry.getValue().toArray(new MBeanServerPlugin[entry.getValue().size()]));
+        }
+        delegatesByDomain = map;
     }
 
     private MBeanServer findDelegate(ObjectName name) {
         if (name == null) {
             throw new IllegalArgumentException("Object name can't be null");
         }
-        if (delegates.size() > 0) {
+        if (name.isDomainPattern()) {
+            // not a valid name for most operations, let whoever accepts it report that
             for (MBeanServerPlugin delegate : delegates) {
                 if (delegate.accepts(name)) {
                     return delegate;
                 }
             }
+            return rootMBeanServer;
+        }
+        final MBeanServerPlugin[] candidates = delegatesByDomain.get(name.getDomain());
+        if (candidates != null) {
+            for (MBeanServerPlugin delegate : candidates) {
+                if (delegate.accepts(name)) {
+                    return delegate;
+                }
+            }
         }
         return rootMBeanServer;
     }
 
+    /**
+     * Works out which plugins to query for a name, and with which name to query each of them.
+     *
+     * @param name the name or pattern to query, may be {@code null}
+     * @return the name to query each plugin with, in the order the plugins were added
+     */
+    private Map<MBeanServerPlugin, ObjectName> findQueryDelegates(ObjectName name) {
+        if (delegates.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        final Map<MBeanServerPlugin, ObjectName> result = new LinkedHashMap<MBeanServerPlugin, ObjectName>();
+        if (name == null) {
+            for (MBeanServerPlugin delegate : delegates) {
+                result.put(delegate, null);
+            }
+        } else if (!name.isDomainPattern()) {
+            final MBeanServerPlugin[] candidates = delegatesByDomain.get(name.getDomain());
+            if (candidates != null) {
+                for (MBeanServerPlugin delegate : candidates) {
+                    if (delegate.accepts(name)) {
+                        result.put(delegate, name);
+                    }
+                }
+            }
+        } else {
+            // plugins only deal with their own domains, so hand each one the pattern narrowed down to a matching domain
+            for (Map.Entry<String, MBeanServerPlugin[]> entry : delegatesByDomain.entrySet()) {
+                if (!matchesDomain(name.getDomain(), entry.getKey())) {
+                    continue;
+                }
+                final ObjectName domainName = replaceDomain(name, entry.getKey());
+                for (MBeanServerPlugin delegate : entry.getValue()) {
+                    if (!result.containsKey(delegate) && delegate.accepts(domainName)) {
+                        result.put(delegate, domainName);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Matches a domain against a domain pattern, where {@code *} matches any sequence of characters and {@code ?} any
+     * single character.
+     */
+    static boolean matchesDomain(String pattern, String domain) {
+        int p = 0;
+        int d = 0;
+        int star = -1;
+        int starMatch = 0;
+        while (d < domain.length()) {
+            if (p < pattern.length() && (pattern.charAt(p) == '?' || pattern.charAt(p) == domain.charAt(d))) {
+                p++;
+                d++;
+            } else if (p < pattern.length() && pattern.charAt(p) == '*') {
+                star = p++;
+                starMatch = d;
+            } else if (star >= 0) {
+                p = star + 1;
+                d = ++starMatch;
+            } else {
+                return false;
+            }
+        }
+        while (p < pattern.length() && pattern.charAt(p) == '*') {
+            p++;
+        }
+        return p == pattern.length();
+    }
+
+    private static ObjectName replaceDomain(ObjectName name, String domain) {
+        final String canonicalName = name.getCanonicalName();
+        try {
+            return ObjectName.getInstance(domain + canonicalName.substring(canonicalName.indexOf(':')));
+        } catch (MalformedObjectNameException e) {
+            // the original name was valid, and so is the domain
+            throw new IllegalStateException(e);
+        }
+    }
+
     @Override
     public void addNotificationListener(ObjectName name, NotificationListener listener, NotificationFilter filter, Object handback)
             throws InstanceNotFoundException {
@@ -263,12 +388,8 @@ class PluggableMBeanServerImpl implements PluggableMBeanServer {
     @Override
     public Set<ObjectInstance> queryMBeans(ObjectName name, QueryExp query) {
         Set<ObjectInstance> result = new HashSet<ObjectInstance>();
-        if (delegates.size() > 0) {
-            for (MBeanServerPlugin delegate : delegates) {
-                if (name == null || (name.getDomain() != null && delegate.accepts(name))) {
-                    result.addAll(delegate.queryMBeans(name, query));
-                }
-            }
+        for (Map.Entry<MBeanServerPlugin, ObjectName> entry : findQueryDelegates(name).entrySet()) {
+            result.addAll(entry.getKey().queryMBeans(entry.getValue(), query));
         }
         result.addAll(rootMBeanServer.queryMBeans(name, query));
         return result;
@@ -277,12 +398,8 @@ class PluggableMBeanServerImpl implements PluggableMBeanServer {
     @Override
     public Set<ObjectName> queryNames(ObjectName name, QueryExp query) {
         Set<ObjectName> result = new HashSet<ObjectName>();
-        if (delegates.size() > 0) {
-            for (MBeanServerPlugin delegate : delegates) {
-                if (name == null || (name.getDomain() != null && delegate.accepts(name))) {
-                    result.addAll(delegate.queryNames(name, query));
-                }
-            }
+        for (Map.Entry<MBeanServerPlugin, ObjectName> entry : findQueryDelegates(name).entrySet()) {
+            result.addAll(entry.getKey().queryNames(entry.getValue(), query));
         }
         result.addAll(rootMBeanServer.queryNames(name, query));
         return result;
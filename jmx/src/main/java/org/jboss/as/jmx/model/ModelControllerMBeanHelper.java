@@ -23,6 +23,7 @@ package org.jboss.as.jmx.model;
 
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ADD;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ATTRIBUTES;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.COMPOSITE;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.FAILURE_DESCRIPTION;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP;
@@ -31,6 +32,7 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.REA
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.REPLY_PROPERTIES;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.REQUEST_PROPERTIES;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RESULT;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.STEPS;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.VALUE;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.WRITE_ATTRIBUTE_OPERATION;
 import static org.jboss.as.jmx.JmxMessages.MESSAGES;
@@ -39,6 +41,8 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.management.Attribute;
 import javax.management.AttributeList;
@@ -62,6 +66,7 @@ import org.jboss.as.controller.registry.ImmutableManagementResourceRegistration;
 import org.jboss.as.controller.registry.OperationEntry;
 import org.jboss.as.jmx.model.ChildAddOperationFinder.ChildAddOperationEntry;
 import org.jboss.as.jmx.model.RootResourceIterator.ResourceAction;
+import org.jboss.as.jmx.model.TypeConverters.TypeConverter;
 import org.jboss.as.server.operations.RootResourceHack;
 import org.jboss.as.server.operations.RootResourceHack.ResourceAndRegistration;
 import org.jboss.dmr.ModelNode;
@@ -77,10 +82,26 @@ public class ModelControllerMBeanHelper {
     private final ModelController controller;
     private final PathAddress CORE_SERVICE_PLATFORM_MBEAN = PathAddress.pathAddress(PathElement.pathElement("core-service", "platform-mbean"));
 
+    /** The maximum number of object names for which the resolved address and MBeanInfo are cached */
+    private static final int MAX_CACHED_NAMES = 1024;
+
     private final TypeConverters converters;
     private final ConfiguredDomains configuredDomains;
     private final String domain;
 
+    /**
+     * The addresses of recently used object names. There is no notification when the model changes, so an entry is
+     * only trusted until an operation against its address fails, at which point the name is resolved again.
+     */
+    private final ConcurrentMap<ObjectName, PathAddress> addresses = new ConcurrentHashMap<ObjectName, PathAddress>();
+    /**
+     * The attribute descriptions and converters of each resource registration. Attributes can be registered and
+     * unregistered at runtime, so an entry is only used while its registration still has the same attributes.
+     */
+    private final ConcurrentMap<ImmutableManagementResourceRegistration, ResourceAttributes> resourceAttributes = new ConcurrentHashMap<ImmutableManagementResourceRegistration, ResourceAttributes>();
+    private final ConcurrentMap<ObjectName, CachedMBeanInfo> mbeanInfos = new ConcurrentHashMap<ObjectName, CachedMBeanInfo>();
+    private volatile ImmutableManagementResourceRegistration rootRegistration;
+
     ModelControllerMBeanHelper(TypeConverters converters, ConfiguredDomains configuredDomains, String domain, ModelController controller) {
         this.converters = converters;
         this.configuredDomains = configuredDomains;
@@ -171,49 +192,77 @@ public class ModelControllerMBeanHelper {
 
 
     MBeanInfo getMBeanInfo(final ObjectName name) throws InstanceNotFoundException {
-        ResourceAndRegistration reg = getRootResourceAndRegistration();
-        PathAddress address = ObjectNameAddressUtil.resolvePathAddress(domain, reg.getResource(), name);
-        if (address == null) {
-            throw createInstanceNotFoundException(name);
-        }
-
-        return MBeanInfoFactory.createMBeanInfo(name, converters, configuredDomains, standalone, address, getMBeanRegistration(address, reg));
+        final ResourceAndRegistration reg = getRootResourceAndRegistration();
+        final PathAddress address = resolvePathAddress(reg, name);
+        final ImmutableManagementResourceRegistration registration = getMBeanRegistration(address, reg);
+        // the info only depends on the registration, whose attributes, operations and child types may change at
+        // runtime
+        final RegistrationContents contents = new RegistrationContents(registration);
+        final CachedMBeanInfo cached = mbeanInfos.get(name);
+        if (cached != null && cached.registration == registration && cached.contents.equals(contents)) {
+            return cached.info;
+        }
+        final MBeanInfo info = MBeanInfoFactory.createMBeanInfo(name, converters, configuredDomains, standalone, address, registration);
+        if (mbeanInfos.size() >= MAX_CACHED_NAMES) {
+            mbeanInfos.clear();
+        }
+        mbeanInfos.put(name, new CachedMBeanInfo(registration, contents, info));
+        return info;
     }
 
     Object getAttribute(final ObjectName name, final String attribute)  throws AttributeNotFoundException, InstanceNotFoundException, ReflectionException {
-        final ResourceAndRegistration reg = getRootResourceAndRegistration();
-        final PathAddress address = ObjectNameAddressUtil.resolvePathAddress(domain, reg.getResource(), name);
-        if (address == null) {
-            throw createInstanceNotFoundException(name);
+        final PathAddress cachedAddress = addresses.get(name);
+        if (cachedAddress != null) {
+            try {
+                return getAttribute(getMBeanRegistration(cachedAddress, rootRegistration), cachedAddress, attribute);
+            } catch (InstanceNotFoundException e) {
+                // the registration has gone away, resolve the name again to report the right error
+            } catch (AttributeNotFoundException e) {
+                // the resource may have gone away, resolve the name again to report the right error
+            }
+            addresses.remove(name, cachedAddress);
         }
-        return getAttribute(reg, address, name, attribute);
+
+        final ResourceAndRegistration reg = getRootResourceAndRegistration();
+        final PathAddress address = resolvePathAddress(reg, name);
+        return getAttribute(getMBeanRegistration(address, reg), address, attribute);
     }
 
     AttributeList getAttributes(ObjectName name, String[] attributes) throws InstanceNotFoundException, ReflectionException {
-        final ResourceAndRegistration reg = getRootResourceAndRegistration();
-        final PathAddress address = ObjectNameAddressUtil.resolvePathAddress(domain, reg.getResource(), name);
-        if (address == null) {
-            throw createInstanceNotFoundException(name);
-        }
-        AttributeList list = new AttributeList();
-        for (String attribute : attributes) {
+        final PathAddress cachedAddress = addresses.get(name);
+        if (cachedAddress != null) {
             try {
-                list.add(new Attribute(attribute, getAttribute(reg, address, name, attribute)));
-            } catch (AttributeNotFoundException e) {
-                throw new ReflectionException(e);
+                final AttributeList list = readAttributes(getMBeanRegistration(cachedAddress, rootRegistration), cachedAddress, attributes);
+                if (list != null) {
+                    return list;
+                }
+            } catch (InstanceNotFoundException e) {
+                // the registration has gone away, resolve the name again to report the right error
             }
+            addresses.remove(name, cachedAddress);
         }
-        return list;
-    }
 
-    private Object getAttribute(final ResourceAndRegistration reg, final PathAddress address, final ObjectName name, final String attribute)  throws ReflectionException, AttributeNotFoundException, InstanceNotFoundException {
+        final ResourceAndRegistration reg = getRootResourceAndRegistration();
+        final PathAddress address = resolvePathAddress(reg, name);
         final ImmutableManagementResourceRegistration registration = getMBeanRegistration(address, reg);
-        final DescriptionProvider provider = registration.getModelDescription(PathAddress.EMPTY_ADDRESS);
-        if (provider == null) {
-            throw MESSAGES.descriptionProviderNotFound(address);
+        AttributeList list = readAttributes(registration, address, attributes);
+        if (list == null) {
+            // read them one at a time to find the one that failed
+            list = new AttributeList();
+            for (String attribute : attributes) {
+                try {
+                    list.add(new Attribute(attribute, getAttribute(registration, address, attribute)));
+                } catch (AttributeNotFoundException e) {
+                    throw new ReflectionException(e);
+                }
+            }
         }
-        final ModelNode description = provider.getModelDescription(null);
-        final String attributeName = findAttributeName(description.get(ATTRIBUTES), attribute);
+        return list;
+    }
+
+    private Object getAttribute(final ImmutableManagementResourceRegistration registration, final PathAddress address, final String attribute)  throws ReflectionException, AttributeNotFoundException, InstanceNotFoundException {
+        final ResourceAttributes attributes = getResourceAttributes(registration, address);
+        final String attributeName = attributes.findAttributeName(attribute);
 
         ModelNode op = new ModelNode();
         op.get(OP).set(READ_ATTRIBUTE_OPERATION);
@@ -225,26 +274,61 @@ public class ModelControllerMBeanHelper {
             throw new AttributeNotFoundException(error);
         }
 
-        return converters.fromModelNode(description.require(ATTRIBUTES).require(attributeName), result.get(RESULT));
+        return attributes.fromModelNode(attributeName, result.get(RESULT));
+    }
+
+    /**
+     * Reads all the attributes with a single composite operation.
+     *
+     * @return the attributes, or {@code null} if any of them could not be read
+     */
+    private AttributeList readAttributes(final ImmutableManagementResourceRegistration registration, final PathAddress address, final String[] attributes) {
+        final AttributeList list = new AttributeList();
+        if (attributes.length == 0) {
+            return list;
+        }
+        final ResourceAttributes resourceAttributes = getResourceAttributes(registration, address);
+        final String[] attributeNames = new String[attributes.length];
+        final ModelNode composite = new ModelNode();
+        composite.get(OP).set(COMPOSITE);
+        composite.get(OP_ADDR).setEmptyList();
+        final ModelNode steps = composite.get(STEPS).setEmptyList();
+        final ModelNode addressNode = address.toModelNode();
+        for (int i = 0; i < attributes.length; i++) {
+            try {
+                attributeNames[i] = resourceAttributes.findAttributeName(attributes[i]);
+            } catch (AttributeNotFoundException e) {
+                return null;
+            }
+            final ModelNode op = steps.add();
+            op.get(OP).set(READ_ATTRIBUTE_OPERATION);
+            op.get(OP_ADDR).set(addressNode);
+            op.get(NAME).set(attributeNames[i]);
+        }
+
+        final ModelNode result = execute(composite);
+        if (getFailureDescription(result) != null) {
+            return null;
+        }
+        final ModelNode stepResults = result.get(RESULT);
+        for (int i = 0; i < attributes.length; i++) {
+            final ModelNode value = stepResults.get("step-" + (i + 1), RESULT);
+            list.add(new Attribute(attributes[i], resourceAttributes.fromModelNode(attributeNames[i], value)));
+        }
+        return list;
     }
 
 
     void setAttribute(ObjectName name, Attribute attribute) throws InstanceNotFoundException, AttributeNotFoundException, InvalidAttributeValueException {
         final ResourceAndRegistration reg = getRootResourceAndRegistration();
-        final PathAddress address = ObjectNameAddressUtil.resolvePathAddress(domain, reg.getResource(), name);
-        if (address == null) {
-            throw createInstanceNotFoundException(name);
-        }
+        final PathAddress address = resolvePathAddress(reg, name);
         setAttribute(reg, address, name, attribute);
 
     }
 
     AttributeList setAttributes(ObjectName name, AttributeList attributes) throws InstanceNotFoundException, ReflectionException {
         final ResourceAndRegistration reg = getRootResourceAndRegistration();
-        final PathAddress address = ObjectNameAddressUtil.resolvePathAddress(domain, reg.getResource(), name);
-        if (address == null) {
-            throw createInstanceNotFoundException(name);
-        }
+        final PathAddress address = resolvePathAddress(reg, name);
 
         for (Attribute attribute : attributes.asList()) {
             try {
@@ -258,13 +342,8 @@ public class ModelControllerMBeanHelper {
     }
 
     private void setAttribute(final ResourceAndRegistration reg, final PathAddress address, final ObjectName name, final Attribute attribute)  throws InvalidAttributeValueException, AttributeNotFoundException, InstanceNotFoundException {
-        final ImmutableManagementResourceRegistration registration = getMBeanRegistration(address, reg);
-        final DescriptionProvider provider = registration.getModelDescription(PathAddress.EMPTY_ADDRESS);
-        if (provider == null) {
-            throw MESSAGES.descriptionProviderNotFound(address);
-        }
-        final ModelNode description = provider.getModelDescription(null);
-        final String attributeName = findAttributeName(description.get(ATTRIBUTES), attribute.getName());
+        final ResourceAttributes attributes = getResourceAttributes(getMBeanRegistration(address, reg), address);
+        final String attributeName = attributes.findAttributeName(attribute.getName());
 
         if (!standalone) {
             throw MESSAGES.attributeNotWritable(attribute);
@@ -275,7 +354,7 @@ public class ModelControllerMBeanHelper {
         op.get(OP_ADDR).set(address.toModelNode());
         op.get(NAME).set(attributeName);
         try {
-            op.get(VALUE).set(converters.toModelNode(description.require(ATTRIBUTES).require(attributeName), attribute.getValue()));
+            op.get(VALUE).set(attributes.toModelNode(attributeName, attribute.getValue()));
         } catch (ClassCastException e) {
             throw MESSAGES.invalidAttributeType(e, attribute.getName());
         }
@@ -308,10 +387,7 @@ public class ModelControllerMBeanHelper {
         }
 
         final ResourceAndRegistration reg = getRootResourceAndRegistration();
-        PathAddress address = ObjectNameAddressUtil.resolvePathAddress(domain, reg.getResource(), name);
-        if (address == null) {
-            throw createInstanceNotFoundException(name);
-        }
+        final PathAddress address = resolvePathAddress(reg, name);
         final ImmutableManagementResourceRegistration registration = getMBeanRegistration(address, reg);
 
         String realOperationName = null;
@@ -399,7 +475,42 @@ public class ModelControllerMBeanHelper {
     }
 
     private ResourceAndRegistration getRootResourceAndRegistration() {
-        return RootResourceHack.INSTANCE.getRootResource(controller);
+        final ResourceAndRegistration reg = RootResourceHack.INSTANCE.getRootResource(controller);
+        rootRegistration = reg.getRegistration();
+        return reg;
+    }
+
+    /**
+     * Resolves the address of an object name against the model, and remembers it for the following calls.
+     */
+    private PathAddress resolvePathAddress(final ResourceAndRegistration reg, final ObjectName name) throws InstanceNotFoundException {
+        final PathAddress address = ObjectNameAddressUtil.resolvePathAddress(domain, reg.getResource(), name);
+        if (address == null) {
+            addresses.remove(name);
+            throw createInstanceNotFoundException(name);
+        }
+        if (addresses.size() >= MAX_CACHED_NAMES) {
+            addresses.clear();
+        }
+        addresses.put(name, address);
+        return address;
+    }
+
+    private ResourceAttributes getResourceAttributes(final ImmutableManagementResourceRegistration registration, final PathAddress address) {
+        final Set<String> attributeNames = registration.getAttributeNames(PathAddress.EMPTY_ADDRESS);
+        ResourceAttributes attributes = resourceAttributes.get(registration);
+        if (attributes == null || !attributes.registeredNames.equals(attributeNames)) {
+            final DescriptionProvider provider = registration.getModelDescription(PathAddress.EMPTY_ADDRESS);
+            if (provider == null) {
+                throw MESSAGES.descriptionProviderNotFound(address);
+            }
+            attributes = new ResourceAttributes(converters, attributeNames, provider.getModelDescription(null).get(ATTRIBUTES));
+            if (resourceAttributes.size() >= MAX_CACHED_NAMES) {
+                resourceAttributes.clear();
+            }
+            resourceAttributes.put(registration, attributes);
+        }
+        return attributes;
     }
 
     private ModelNode execute(ModelNode op) {
@@ -407,8 +518,12 @@ public class ModelControllerMBeanHelper {
     }
 
     private ImmutableManagementResourceRegistration getMBeanRegistration(PathAddress address, ResourceAndRegistration reg) throws InstanceNotFoundException {
+        return getMBeanRegistration(address, reg.getRegistration());
+    }
+
+    private ImmutableManagementResourceRegistration getMBeanRegistration(PathAddress address, ImmutableManagementResourceRegistration root) throws InstanceNotFoundException {
         //TODO Populate MBeanInfo
-        ImmutableManagementResourceRegistration resourceRegistration = reg.getRegistration().getSubModel(address);
+        ImmutableManagementResourceRegistration resourceRegistration = root.getSubModel(address);
         if (resourceRegistration == null) {
             throw MESSAGES.registrationNotFound(address);
         }
@@ -422,18 +537,6 @@ public class ModelControllerMBeanHelper {
         return null;
     }
 
-    private String findAttributeName(ModelNode attributes, String attributeName) throws AttributeNotFoundException{
-        if (attributes.hasDefined(attributeName)) {
-            return attributeName;
-        }
-        for (String key : attributes.keys()) {
-            if (NameConverter.convertToCamelCase(key).equals(attributeName)) {
-                return key;
-            }
-        }
-        throw MESSAGES.attributeNotFound(attributeName);
-    }
-
     private boolean isExcludeAddress(PathAddress pathAddress) {
         return pathAddress.equals(CORE_SERVICE_PLATFORM_MBEAN);
     }
@@ -445,4 +548,114 @@ public class ModelControllerMBeanHelper {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * The attribute descriptions of a resource registration, along with the lookups and converters derived from them.
+     */
+    private static final class ResourceAttributes {
+        private final TypeConverters converters;
+        /** The names of the attributes of the registration when the descriptions were read */
+        private final Set<String> registeredNames;
+        private final ModelNode attributes;
+        private final ConcurrentMap<String, String> attributeNames = new ConcurrentHashMap<String, String>();
+        private final ConcurrentMap<String, TypeConverter> typeConverters = new ConcurrentHashMap<String, TypeConverter>();
+
+        private ResourceAttributes(final TypeConverters converters, final Set<String> registeredNames, final ModelNode attributes) {
+            this.converters = converters;
+            this.registeredNames = registeredNames;
+            this.attributes = attributes;
+        }
+
+        /**
+         * Gets the model name of an attribute, which may be given either as is or in camel case.
+         */
+        String findAttributeName(final String attributeName) throws AttributeNotFoundException {
+            String name = attributeNames.get(attributeName);
+            if (name != null) {
+                return name;
+            }
+            if (attributes.hasDefined(attributeName)) {
+                name = attributeName;
+            } else {
+                for (String key : attributes.keys()) {
+                    if (NameConverter.convertToCamelCase(key).equals(attributeName)) {
+                        name = key;
+                        break;
+                    }
+                }
+            }
+            if (name == null) {
+                throw MESSAGES.attributeNotFound(attributeName);
+            }
+            attributeNames.put(attributeName, name);
+            return name;
+        }
+
+        Object fromModelNode(final String attributeName, final ModelNode value) {
+            if (value == null || !value.isDefined()) {
+                return null;
+            }
+            return getConverter(attributeName).fromModelNode(value);
+        }
+
+        ModelNode toModelNode(final String attributeName, final Object value) {
+            if (value == null) {
+                return new ModelNode();
+            }
+            return getConverter(attributeName).toModelNode(value);
+        }
+
+        private TypeConverter getConverter(final String attributeName) {
+            TypeConverter converter = typeConverters.get(attributeName);
+            if (converter == null) {
+                // converters are stateless, so losing a race just creates one more
+                converter = converters.getConverter(attributes.require(attributeName));
+                typeConverters.put(attributeName, converter);
+            }
+            return converter;
+        }
+    }
+
+    private static final class CachedMBeanInfo {
+        private final ImmutableManagementResourceRegistration registration;
+        private final RegistrationContents contents;
+        private final MBeanInfo info;
+
+        private CachedMBeanInfo(final ImmutableManagementResourceRegistration registration, final RegistrationContents contents, final MBeanInfo info) {
+            this.registration = registration;
+            this.contents = contents;
+            this.info = info;
+        }
+    }
+
+    /**
+     * The names of the attributes, operations and child types of a resource registration at a given time. Whatever is
+     * derived from the registration is only valid while these are unchanged.
+     */
+    private static final class RegistrationContents {
+        private final Set<String> attributeNames;
+        private final Set<String> operationNames;
+        private final Set<PathElement> childAddresses;
+
+        private RegistrationContents(final ImmutableManagementResourceRegistration registration) {
+            this.attributeNames = registration.getAttributeNames(PathAddress.EMPTY_ADDRESS);
+            this.operationNames = registration.getOperationDescriptions(PathAddress.EMPTY_ADDRESS, false).keySet();
+            this.childAddresses = registration.getChildAddresses(PathAddress.EMPTY_ADDRESS);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof RegistrationContents)) {
+                return false;
+            }
+            final RegistrationContents other = (RegistrationContents) obj;
+            return attributeNames.equals(other.attributeNames) && operationNames.equals(other.operationNames)
+                    && childAddresses.equals(other.childAddresses);
+        }
+
+        @Override
+        public int hashCode() {
+            return attributeNames.hashCode() * 31 + childAddresses.hashCode();
+        }
+    }
 }
@@ -48,6 +48,7 @@ import java.util.Set;
 
 import javax.management.Attribute;
 import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
 import javax.management.InstanceNotFoundException;
 import javax.management.MBeanAttributeInfo;
 import javax.management.MBeanInfo;
@@ -1008,6 +1009,89 @@ public class ModelControllerMBeanTestCase extends AbstractSubsystemTest {
         Assert.assertTrue(names.contains(testObjectName));
     }
 
+    @Test
+    public void testCachedAttributeReads() throws Exception {
+        MBeanServerConnection connection = setupAndGetConnection(new MBeanInfoAdditionalInitialization(TYPE_STANDALONE, new TestExtension()));
+        ObjectName name = createObjectName(LEGACY_DOMAIN + ":subsystem=test");
+
+        // the following reads use the cached address and attribute descriptions
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(Integer.valueOf(1), connection.getAttribute(name, "roInt"));
+            Assert.assertEquals(Integer.valueOf(1), connection.getAttribute(name, "ro-int"));
+            Assert.assertEquals(Integer.valueOf(2), connection.getAttribute(name, "int"));
+            AttributeList list = connection.getAttributes(name, new String[] {"roInt", "int", "long"});
+            Assert.assertEquals(3, list.size());
+            Assert.assertEquals(Integer.valueOf(1), assertGetFromList(Integer.class, list, "roInt"));
+            Assert.assertEquals(Integer.valueOf(2), assertGetFromList(Integer.class, list, "int"));
+            Assert.assertEquals(Long.valueOf(10), assertGetFromList(Long.class, list, "long"));
+            Assert.assertEquals(14, connection.getMBeanInfo(name).getAttributes().length);
+        }
+
+        // the values themselves are never cached
+        connection.setAttribute(name, new Attribute("int", 102));
+        Assert.assertEquals(Integer.valueOf(102), connection.getAttribute(name, "int"));
+        Assert.assertEquals(Integer.valueOf(102), assertGetFromList(Integer.class, connection.getAttributes(name, new String[] {"int"}), "int"));
+
+        try {
+            connection.getAttribute(name, "unknown");
+            Assert.fail("unknown is not an attribute");
+        } catch (AttributeNotFoundException expected) {
+        }
+        Assert.assertEquals(Integer.valueOf(102), connection.getAttribute(name, "int"));
+    }
+
+    @Test
+    public void testCachedAddressOfRemovedResource() throws Exception {
+        final ObjectName testObjectName = createObjectName(LEGACY_DOMAIN + ":subsystem=test");
+        final ObjectName childObjectName = createObjectName(LEGACY_DOMAIN + ":subsystem=test,single=only");
+        MBeanServerConnection connection = setupAndGetConnection(new MBeanInfoAdditionalInitialization(TYPE_STANDALONE, new SubystemWithSingleFixedChildExtension()));
+
+        connection.invoke(testObjectName, "addSingleOnly", new Object[] {Integer.valueOf(123)}, new String[] {String.class.getName()});
+        Assert.assertEquals(Integer.valueOf(123), connection.getAttribute(childObjectName, "attr"));
+        Assert.assertEquals(Integer.valueOf(123), connection.getAttribute(childObjectName, "attr"));
+
+        connection.invoke(childObjectName, REMOVE, new Object[] {}, new String[] {});
+        try {
+            connection.getAttribute(childObjectName, "attr");
+            Assert.fail("The child was removed");
+        } catch (InstanceNotFoundException expected) {
+        }
+        try {
+            connection.getAttributes(childObjectName, new String[] {"attr"});
+            Assert.fail("The child was removed");
+        } catch (InstanceNotFoundException expected) {
+        }
+
+        connection.invoke(testObjectName, "addSingleOnly", new Object[] {Integer.valueOf(456)}, new String[] {String.class.getName()});
+        Assert.assertEquals(Integer.valueOf(456), connection.getAttribute(childObjectName, "attr"));
+    }
+
+    @Test
+    public void testRuntimeRegisteredAttribute() throws Exception {
+        MBeanServerConnection connection = setupAndGetConnection(new MBeanInfoAdditionalInitialization(TYPE_STANDALONE, new RuntimeAttributeExtension()));
+        ObjectName name = createObjectName(LEGACY_DOMAIN + ":subsystem=test");
+
+        // populate the caches before the attribute is registered
+        Assert.assertEquals(Integer.valueOf(2), connection.getAttribute(name, "int"));
+        MBeanInfo info = connection.getMBeanInfo(name);
+        Assert.assertEquals(1, info.getAttributes().length);
+        try {
+            connection.getAttribute(name, "runtimeInt");
+            Assert.fail("runtimeInt is not registered yet");
+        } catch (AttributeNotFoundException expected) {
+        }
+
+        connection.invoke(name, RuntimeAttributeExtension.RegisterAttributeHandler.OPERATION_JMX_NAME, new Object[0], new String[0]);
+
+        Assert.assertEquals(Integer.valueOf(42), connection.getAttribute(name, "runtimeInt"));
+        AttributeList list = connection.getAttributes(name, new String[] {"int", "runtimeInt"});
+        Assert.assertEquals(Integer.valueOf(2), assertGetFromList(Integer.class, list, "int"));
+        Assert.assertEquals(Integer.valueOf(42), assertGetFromList(Integer.class, list, "runtimeInt"));
+        info = connection.getMBeanInfo(name);
+        Assert.assertEquals(2, info.getAttributes().length);
+        Assert.assertNotNull(findAttribute(info.getAttributes(), "runtimeInt"));
+    }
+
     @Test
     public void testResolveExpressions() throws Exception {
         MBeanServerConnection connection = setupAndGetConnection(new BaseAdditionalInitialization(TYPE_STANDALONE));
@@ -1640,4 +1724,85 @@ public class ModelControllerMBeanTestCase extends AbstractSubsystemTest {
         }
     }
 
+    /**
+     * A subsystem whose description lists the attributes currently registered, and with an operation registering an
+     * attribute at runtime.
+     */
+    static class RuntimeAttributeExtension implements Extension {
+
+        @Override
+        public void initialize(ExtensionContext context) {
+            final SubsystemRegistration subsystem = context.registerSubsystem("test", 1, 0, 0);
+            final RegisteredAttributesDescription description = new RegisteredAttributesDescription();
+            final ManagementResourceRegistration registration = subsystem.registerSubsystemModel(description);
+            description.registration = registration;
+            registration.registerOperationHandler(ADD, TestSubystemAdd.INSTANCE, TestSubystemAdd.INSTANCE, false);
+            registration.registerOperationHandler(RegisterAttributeHandler.OPERATION_NAME, RegisterAttributeHandler.INSTANCE, RegisterAttributeHandler.INSTANCE);
+            registration.registerReadWriteAttribute("int", null, new WriteAttributeHandlers.ModelTypeValidatingHandler(ModelType.INT), Storage.CONFIGURATION);
+        }
+
+        @Override
+        public void initializeParsers(ExtensionParsingContext context) {
+            context.setSubsystemXmlMapping("test", TestExtension.NAMESPACE, new TestExtension.TestExtensionParser());
+        }
+
+        static class RegisteredAttributesDescription implements DescriptionProvider {
+            volatile ManagementResourceRegistration registration;
+
+            @Override
+            public ModelNode getModelDescription(Locale locale) {
+                ModelNode node = new ModelNode();
+                node.get(DESCRIPTION).set("A test subsystem");
+                for (String attribute : registration.getAttributeNames(PathAddress.EMPTY_ADDRESS)) {
+                    node.get(ATTRIBUTES, attribute, TYPE).set(ModelType.INT);
+                    node.get(ATTRIBUTES, attribute, DESCRIPTION).set("An int");
+                }
+                return node;
+            }
+        }
+
+        static class TestSubystemAdd extends AbstractAddStepHandler implements DescriptionProvider {
+            static final TestSubystemAdd INSTANCE = new TestSubystemAdd();
+
+            @Override
+            protected void populateModel(ModelNode operation, ModelNode model) throws OperationFailedException {
+                model.get("int").set(2);
+            }
+
+            @Override
+            public ModelNode getModelDescription(Locale locale) {
+                ModelNode node = new ModelNode();
+                node.get(NAME).set(ADD);
+                node.get(DESCRIPTION).set("Add the test subsystem");
+                return node;
+            }
+        }
+
+        static class RegisterAttributeHandler implements OperationStepHandler, DescriptionProvider {
+            static final RegisterAttributeHandler INSTANCE = new RegisterAttributeHandler();
+            static final String OPERATION_NAME = "register-attribute";
+            static final String OPERATION_JMX_NAME = "registerAttribute";
+
+            @Override
+            public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
+                context.getResourceRegistrationForUpdate().registerReadOnlyAttribute("runtime-int", new OperationStepHandler() {
+                    @Override
+                    public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
+                        context.getResult().set(42);
+                        context.completeStep();
+                    }
+                }, Storage.RUNTIME);
+                context.completeStep();
+            }
+
+            @Override
+            public ModelNode getModelDescription(Locale locale) {
+                ModelNode node = new ModelNode();
+                node.get(NAME).set(OPERATION_NAME);
+                node.get(DESCRIPTION).set("Registers the runtime-int attribute");
+                return node;
+            }
+        }
+    }
+
 }
@@ -0,0 +1,189 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.jmx;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Set;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import junit.framework.Assert;
+
+import org.jboss.as.server.jmx.MBeanServerPlugin;
+import org.jboss.logging.Logger;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests routing of names and queries in {@link PluggableMBeanServerImpl}.
+ */
+public class PluggableMBeanServerTestCase {
+
+    private static final Logger log = Logger.getLogger(PluggableMBeanServerTestCase.class);
+
+    private static final String PLATFORM_DOMAIN = "test.platform";
+    private static final String MODEL_DOMAIN = "test.model";
+    private static final String OTHER_DOMAIN = "test.other";
+    private static final int COUNT = 10000;
+
+    private PluggableMBeanServerImpl server;
+
+    @Before
+    public void setup() throws Exception {
+        final MBeanServer root = MBeanServerFactory.newMBeanServer();
+        final MBeanServer model = MBeanServerFactory.newMBeanServer();
+        final MBeanServer other = MBeanServerFactory.newMBeanServer();
+        for (int i = 0; i < COUNT; i++) {
+            root.registerMBean(new Counter(i), createName(PLATFORM_DOMAIN, i));
+            model.registerMBean(new Counter(-i), createName(MODEL_DOMAIN, i));
+        }
+        other.registerMBean(new Counter(1), createName(OTHER_DOMAIN, 0));
+
+        server = new PluggableMBeanServerImpl(root);
+        server.addPlugin(createPlugin(model, MODEL_DOMAIN));
+        server.addPlugin(createPlugin(other, OTHER_DOMAIN));
+    }
+
+    @Test
+    public void testRouting() throws Exception {
+        Assert.assertEquals(7, server.getAttribute(createName(PLATFORM_DOMAIN, 7), "Value"));
+        Assert.assertEquals(-7, server.getAttribute(createName(MODEL_DOMAIN, 7), "Value"));
+        Assert.assertEquals(1, server.getAttribute(createName(OTHER_DOMAIN, 0), "Value"));
+        Assert.assertTrue(server.isRegistered(createName(MODEL_DOMAIN, COUNT - 1)));
+        Assert.assertFalse(server.isRegistered(createName(OTHER_DOMAIN, 1)));
+        Assert.assertFalse(server.isRegistered(createName("test.unknown", 0)));
+    }
+
+    @Test
+    public void testRemovePlugin() throws Exception {
+        final MBeanServer replacement = MBeanServerFactory.newMBeanServer();
+        replacement.registerMBean(new Counter(2), createName(OTHER_DOMAIN, 0));
+        final MBeanServerPlugin plugin = createPlugin(replacement, OTHER_DOMAIN);
+        server.addPlugin(plugin);
+        Assert.assertEquals(1, server.getAttribute(createName(OTHER_DOMAIN, 0), "Value"));
+        server.removePlugin(plugin);
+        Assert.assertEquals(1, server.getAttribute(createName(OTHER_DOMAIN, 0), "Value"));
+    }
+
+    @Test
+    public void testQueryNames() throws Exception {
+        Assert.assertEquals(COUNT, server.queryNames(new ObjectName(MODEL_DOMAIN + ":*"), null).size());
+        Assert.assertEquals(1, server.queryNames(new ObjectName(MODEL_DOMAIN + ":type=Counter,name=7"), null).size());
+        Assert.assertEquals(2 * COUNT + 1, server.queryNames(new ObjectName("test.*:type=Counter,*"), null).size());
+        Assert.assertEquals(COUNT + 1, server.queryNames(new ObjectName("test.?????:*"), null).size());
+
+        final Set<ObjectName> names = server.queryNames(new ObjectName("*:name=3,*"), null);
+        Assert.assertTrue(names.contains(createName(PLATFORM_DOMAIN, 3)));
+        Assert.assertTrue(names.contains(createName(MODEL_DOMAIN, 3)));
+        Assert.assertEquals(names.size(), server.queryMBeans(new ObjectName("*:name=3,*"), null).size());
+    }
+
+    @Test
+    public void testMatchesDomain() {
+        Assert.assertTrue(PluggableMBeanServerImpl.matchesDomain("*", "jboss.as"));
+        Assert.assertTrue(PluggableMBeanServerImpl.matchesDomain("jboss.*", "jboss.as"));
+        Assert.assertTrue(PluggableMBeanServerImpl.matchesDomain("j*s.a?", "jboss.as"));
+        Assert.assertTrue(PluggableMBeanServerImpl.matchesDomain("*.as*", "jboss.as.expr"));
+        Assert.assertFalse(PluggableMBeanServerImpl.matchesDomain("jboss.as", "jboss.as.expr"));
+        Assert.assertFalse(PluggableMBeanServerImpl.matchesDomain("jboss.a?", "jboss.a"));
+        Assert.assertFalse(PluggableMBeanServerImpl.matchesDomain("*.jmx", "jboss.as"));
+    }
+
+    @Test
+    public void testGetAttributeThroughput() throws Exception {
+        final ObjectName[] names = new ObjectName[2 * COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            names[2 * i] = createName(PLATFORM_DOMAIN, i);
+            names[2 * i + 1] = createName(MODEL_DOMAIN, i);
+        }
+        // warm up
+        readAll(names);
+
+        final int rounds = 10;
+        final long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            readAll(names);
+        }
+        final long time = System.nanoTime() - start;
+        log.infof("%d getAttribute calls over %d mbeans: %d calls/s", rounds * names.length, names.length,
+                rounds * names.length * 1000000000L / Math.max(1, time));
+    }
+
+    private void readAll(ObjectName[] names) throws Exception {
+        for (ObjectName name : names) {
+            Assert.assertNotNull(server.getAttribute(name, "Value"));
+        }
+    }
+
+    private static ObjectName createName(String domain, int i) throws Exception {
+        return new ObjectName(domain + ":type=Counter,name=" + i);
+    }
+
+    private static MBeanServerPlugin createPlugin(final MBeanServer delegate, final String domain) {
+        return (MBeanServerPlugin) Proxy.newProxyInstance(PluggableMBeanServerTestCase.class.getClassLoader(),
+                new Class<?>[] {MBeanServerPlugin.class}, new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        if (method.getName().equals("accepts")) {
+                            return domain.equals(((ObjectName) args[0]).getDomain());
+                        }
+                        if (method.getName().equals("getDomains")) {
+                            return new String[] {domain};
+                        }
+                        if (method.getName().equals("equals")) {
+                            return proxy == args[0];
+                        }
+                        if (method.getName().equals("hashCode")) {
+                            return System.identityHashCode(proxy);
+                        }
+                        if (method.getName().equals("toString")) {
+                            return domain;
+                        }
+                        try {
+                            return method.invoke(delegate, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }
+                });
+    }
+
+    public interface CounterMBean {
+        int getValue();
+    }
+
+    public static class Counter implements CounterMBean {
+        private final int value;
+
+        public Counter(int value) {
+            this.value = value;
+        }
+
+        public int getValue() {
+            return value;
+        }
+    }
+}
@@ -244,6 +244,7 @@ public enum Element {
    MAX_RETRIES(JMSBridgeDefinition.MAX_RETRIES),
    MAX_BATCH_SIZE(JMSBridgeDefinition.MAX_BATCH_SIZE),
    MAX_BATCH_TIME(JMSBridgeDefinition.MAX_BATCH_TIME),
+   MAX_BATCHES_IN_FLIGHT(JMSBridgeDefinition.MAX_BATCHES_IN_FLIGHT),
    SUBSCRIPTION_NAME(JMSBridgeDefinition.SUBSCRIPTION_NAME),
    ADD_MESSAGE_ID_IN_HEADER(JMSBridgeDefinition.ADD_MESSAGE_ID_IN_HEADER),
    MODULE(JMSBridgeDefinition.MODULE),
@@ -292,6 +292,7 @@ public class Messaging13SubsystemParser extends Messaging12SubsystemParser {
                 case MAX_RETRIES:
                 case MAX_BATCH_SIZE:
                 case MAX_BATCH_TIME:
+                case MAX_BATCHES_IN_FLIGHT:
                 case SUBSCRIPTION_NAME:
                 case CLIENT_ID:
                 case ADD_MESSAGE_ID_IN_HEADER:
@@ -189,4 +189,37 @@ public interface MessagingLogger extends BasicLogger {
     @Message(id = 11612, value = "Attribute %s of the resource at %s is deprecated and setting its value will not be taken into account")
     void deprecatedAttribute(String name, PathAddress address);
 
+    /**
+     * Logs a warning message indicating that the JMS bridge with the given {@code name} can only keep a single batch
+     * in flight because its source destination is not a queue.
+     *
+     * @param name        the name of the JMS bridge
+     * @param destination the source destination
+     */
+    @LogMessage(level = WARN)
+    @Message(id = 11613, value = "JMS bridge %s transfers a single batch at a time: its source destination %s is not a queue")
+    void singleBatchInFlight(String name, Object destination);
+
+    /**
+     * Logs a warning message indicating that the JMS bridge with the given {@code name} can only keep a single batch
+     * in flight because its source destination could not be looked up.
+     *
+     * @param cause the cause of the error
+     * @param name  the name of the JMS bridge
+     */
+    @LogMessage(level = WARN)
+    @Message(id = 11614, value = "JMS bridge %s transfers a single batch at a time: its source destination could not be looked up")
+    void singleBatchInFlight(@Cause Throwable cause, String name);
+
+    /**
+     * Logs a warning message indicating that a worker of the JMS bridge with the given {@code name} could not be
+     * stopped after another worker failed to start.
+     *
+     * @param cause the cause of the error
+     * @param name  the name of the JMS bridge
+     */
+    @LogMessage(level = WARN)
+    @Message(id = 11615, value = "Failed to stop a worker of JMS bridge %s after another worker failed to start")
+    void failedToStopBridgeWorker(@Cause Throwable cause, String name);
+
 }
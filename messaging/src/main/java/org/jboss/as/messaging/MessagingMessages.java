@@ -500,4 +500,15 @@ public interface MessagingMessages {
     @Message(id = 11672, value = "Attribute(s) %s are not supported by messaging management model %s")
     String unsupportedAttributeInVersion(String attributes, ModelVersion version);
 
+    /**
+     * Create an exception indicating that a JMS bridge can not keep several batches in flight with a given attribute.
+     *
+     * @param name      the name of the attribute setting the number of batches in flight
+     * @param attribute the name of the attribute that is defined
+     *
+     * @return an {@link OperationFailedException} for the error.
+     */
+    @Message(id = 11673, value = "%s must be 1 when %s is defined")
+    OperationFailedException singleBatchInFlightRequired(String name, String attribute);
+
 }
@@ -0,0 +1,199 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.messaging.jms.bridge;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import javax.jms.Connection;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+import javax.transaction.xa.XAResource;
+
+import org.hornetq.jms.bridge.ConnectionFactoryFactory;
+
+/**
+ * Wraps the target {@link ConnectionFactoryFactory} of a JMS bridge to record the messages it forwards in
+ * {@link JMSBridgeStatistics}.
+ * <p/>
+ * The bridge only relies on the standard JMS interfaces, so the connection factory, connections, sessions, producers
+ * and XA resources it obtains from the target are replaced by dynamic proxies implementing the same interfaces as the
+ * objects they wrap. Every session tracks its own batch: the messages sent by its producers are accounted for when the
+ * session or its XA resource commits, and dropped when it rolls back.
+ */
+final class InstrumentedConnectionFactoryFactory implements ConnectionFactoryFactory {
+
+    private final ConnectionFactoryFactory delegate;
+    private final JMSBridgeStatistics statistics;
+
+    InstrumentedConnectionFactoryFactory(final ConnectionFactoryFactory delegate, final JMSBridgeStatistics statistics) {
+        this.delegate = delegate;
+        this.statistics = statistics;
+    }
+
+    @Override
+    public Object createConnectionFactory() throws Exception {
+        return wrap(delegate.createConnectionFactory(), null);
+    }
+
+    private Object wrap(final Object target, final Batch batch) {
+        final Set<Class<?>> interfaces = new LinkedHashSet<Class<?>>();
+        for (Class<?> type = target.getClass(); type != null; type = type.getSuperclass()) {
+            collectInterfaces(type, interfaces);
+        }
+        return Proxy.newProxyInstance(target.getClass().getClassLoader(), interfaces.toArray(new Class<?>[interfaces.size()]),
+                new Instrumented(target, batch));
+    }
+
+    private static void collectInterfaces(final Class<?> type, final Set<Class<?>> interfaces) {
+        for (Class<?> iface : type.getInterfaces()) {
+            if (Modifier.isPublic(iface.getModifiers()) && interfaces.add(iface)) {
+                collectInterfaces(iface, interfaces);
+            }
+        }
+    }
+
+    /**
+     * The messages sent by the producers of a session since its last commit or rollback.
+     */
+    private final class Batch {
+        private final boolean transacted;
+        private int messages;
+        private long lag = -1;
+        private long start;
+
+        private Batch(final boolean transacted) {
+            this.transacted = transacted;
+        }
+
+        synchronized void sending(final Message message) throws JMSException {
+            if (messages == 0) {
+                start = System.nanoTime();
+            }
+            final long timestamp = message.getJMSTimestamp();
+            lag = timestamp > 0 ? Math.max(0, System.currentTimeMillis() - timestamp) : -1;
+        }
+
+        synchronized void sent() {
+            messages++;
+            if (!transacted) {
+                committed();
+            }
+        }
+
+        synchronized void committed() {
+            statistics.batchCompleted(messages, lag, System.nanoTime() - start);
+            rolledBack();
+        }
+
+        synchronized void rolledBack() {
+            messages = 0;
+            lag = -1;
+        }
+    }
+
+    private final class Instrumented implements InvocationHandler {
+        private final Object target;
+        /**
+         * The batch of the session this object belongs to, null for connection factories and connections
+         */
+        private final Batch batch;
+
+        private Instrumented(final Object target, final Batch batch) {
+            this.target = target;
+            this.batch = batch;
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            if (args != null) {
+                for (int i = 0; i < args.length; i++) {
+                    args[i] = unwrap(args[i]);
+                }
+            }
+            final String name = method.getName();
+            final Message message = batch != null && target instanceof MessageProducer && ("send".equals(name) || "publish".equals(name)) ? findMessage(args) : null;
+            if (message != null) {
+                batch.sending(message);
+            }
+            final Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                if (batch != null && "rollback".equals(name)) {
+                    batch.rolledBack();
+                }
+                throw e.getCause();
+            }
+            if (message != null) {
+                batch.sent();
+            } else if (batch != null && (target instanceof Session || target instanceof XAResource)) {
+                if ("commit".equals(name)) {
+                    batch.committed();
+                } else if ("rollback".equals(name)) {
+                    batch.rolledBack();
+                }
+            }
+            return wrapResult(result);
+        }
+
+        private Object wrapResult(final Object result) throws JMSException {
+            if (result instanceof Session) {
+                // the session of a XA session shares its batch
+                return wrap(result, batch != null ? batch : new Batch(((Session) result).getTransacted()));
+            } else if (batch != null && (result instanceof MessageProducer || result instanceof XAResource)) {
+                return wrap(result, batch);
+            } else if (result instanceof Connection) {
+                return wrap(result, null);
+            }
+            return result;
+        }
+    }
+
+    private static Object unwrap(final Object value) {
+        if (value != null && Proxy.isProxyClass(value.getClass())) {
+            final InvocationHandler handler = Proxy.getInvocationHandler(value);
+            if (handler instanceof Instrumented) {
+                return ((Instrumented) handler).target;
+            }
+        }
+        return value;
+    }
+
+    private static Message findMessage(final Object[] args) {
+        if (args != null) {
+            for (Object arg : args) {
+                if (arg instanceof Message) {
+                    return (Message) arg;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -23,8 +23,10 @@
 package org.jboss.as.messaging.jms.bridge;
 
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
+import static org.jboss.as.messaging.MessagingMessages.MESSAGES;
 import static org.jboss.as.server.Services.addServerExecutorDependency;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 
@@ -89,10 +91,11 @@ public class JMSBridgeAdd extends AbstractAddStepHandler {
                 final PathAddress address = PathAddress.pathAddress(operation.get(OP_ADDR));
 
                 String moduleName = resolveAttribute(JMSBridgeDefinition.MODULE, context, model);
-                final JMSBridge bridge = createJMSBridge(context, model);
-
                 final String bridgeName = address.getLastElement().getValue();
-                final JMSBridgeService bridgeService = new JMSBridgeService(moduleName, bridgeName, bridge);
+                final JMSBridgeStatistics statistics = new JMSBridgeStatistics();
+                final JMSBridge bridge = createJMSBridge(context, model, bridgeName, statistics);
+
+                final JMSBridgeService bridgeService = new JMSBridgeService(moduleName, bridgeName, bridge, statistics);
                 final ServiceName bridgeServiceName = MessagingServices.getJMSBridgeServiceName(bridgeName);
 
                 final ServiceBuilder<JMSBridge> jmsBridgeServiceBuilder = context.getServiceTarget().addService(bridgeServiceName, bridgeService)
@@ -129,7 +132,7 @@ public class JMSBridgeAdd extends AbstractAddStepHandler {
         builder.addDependency(ContextNames.bindInfoFor(jndiName).getBinderServiceName());
     }
 
-    private JMSBridge createJMSBridge(OperationContext context, ModelNode model) throws OperationFailedException {
+    private JMSBridge createJMSBridge(OperationContext context, ModelNode model, String bridgeName, JMSBridgeStatistics statistics) throws OperationFailedException {
         final Properties sourceContextProperties = resolveContextProperties(JMSBridgeDefinition.SOURCE_CONTEXT, context, model);
         final String sourceConnectionFactoryName = JMSBridgeDefinition.SOURCE_CONNECTION_FACTORY.resolveModelAttribute(context, model).asString();
         final ConnectionFactoryFactory sourceCff = new JNDIConnectionFactoryFactory(sourceContextProperties , sourceConnectionFactoryName);
@@ -138,7 +141,7 @@ public class JMSBridgeAdd extends AbstractAddStepHandler {
 
         final Properties targetContextProperties = resolveContextProperties(JMSBridgeDefinition.TARGET_CONTEXT, context, model);
         final String targetConnectionFactoryName = JMSBridgeDefinition.TARGET_CONNECTION_FACTORY.resolveModelAttribute(context, model).asString();
-        final ConnectionFactoryFactory targetCff = new JNDIConnectionFactoryFactory(targetContextProperties, targetConnectionFactoryName);
+        final ConnectionFactoryFactory targetCff = new InstrumentedConnectionFactoryFactory(new JNDIConnectionFactoryFactory(targetContextProperties, targetConnectionFactoryName), statistics);
         final String targetDestinationName = JMSBridgeDefinition.TARGET_DESTINATION.resolveModelAttribute(context, model).asString();
         final DestinationFactory targetDestinationFactory = new JNDIDestinationFactory(targetContextProperties, targetDestinationName);
 
@@ -156,24 +159,39 @@ public class JMSBridgeAdd extends AbstractAddStepHandler {
         final String subName =  resolveAttribute(JMSBridgeDefinition.SUBSCRIPTION_NAME, context, model);
         final String clientID = resolveAttribute(JMSBridgeDefinition.CLIENT_ID, context, model);
         final boolean addMessageIDInHeader = JMSBridgeDefinition.ADD_MESSAGE_ID_IN_HEADER.resolveModelAttribute(context, model).asBoolean();
+        final int maxBatchesInFlight = JMSBridgeDefinition.MAX_BATCHES_IN_FLIGHT.resolveModelAttribute(context, model).asInt();
 
-        return new JMSBridgeImpl(sourceCff,
-                targetCff,
-                sourceDestinationFactory,
-                targetDestinationFactory,
-                sourceUsername,
-                sourcePassword,
-                targetUsername,
-                targetPassword,
-                selector,
-                failureRetryInterval,
-                maxRetries,
-                qosMode,
-                maxBatchSize,
-                maxBatchTime,
-                subName,
-                clientID,
-                addMessageIDInHeader);
+        if (maxBatchesInFlight > 1) {
+            // each worker has its own connections: a durable subscription and a client ID can not be shared
+            if (subName != null) {
+                throw MESSAGES.singleBatchInFlightRequired(JMSBridgeDefinition.MAX_BATCHES_IN_FLIGHT.getName(), JMSBridgeDefinition.SUBSCRIPTION_NAME.getName());
+            }
+            if (clientID != null) {
+                throw MESSAGES.singleBatchInFlightRequired(JMSBridgeDefinition.MAX_BATCHES_IN_FLIGHT.getName(), JMSBridgeDefinition.CLIENT_ID.getName());
+            }
+        }
+
+        final List<JMSBridge> workers = new ArrayList<JMSBridge>(maxBatchesInFlight);
+        for (int i = 0; i < maxBatchesInFlight; i++) {
+            workers.add(new JMSBridgeImpl(sourceCff,
+                    targetCff,
+                    sourceDestinationFactory,
+                    targetDestinationFactory,
+                    sourceUsername,
+                    sourcePassword,
+                    targetUsername,
+                    targetPassword,
+                    selector,
+                    failureRetryInterval,
+                    maxRetries,
+                    qosMode,
+                    maxBatchSize,
+                    maxBatchTime,
+                    subName,
+                    clientID,
+                    addMessageIDInHeader));
+        }
+        return maxBatchesInFlight == 1 ? workers.get(0) : PipelinedJMSBridge.create(bridgeName, workers, sourceDestinationFactory);
     }
 
     private Properties resolveContextProperties(AttributeDefinition attribute, OperationContext context, ModelNode model) throws OperationFailedException {
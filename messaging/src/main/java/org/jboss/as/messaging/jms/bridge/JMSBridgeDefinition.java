@@ -24,7 +24,9 @@ package org.jboss.as.messaging.jms.bridge;
 
 import static org.jboss.as.controller.SimpleAttributeDefinitionBuilder.create;
 import static org.jboss.as.controller.client.helpers.MeasurementUnit.MILLISECONDS;
+import static org.jboss.as.controller.client.helpers.MeasurementUnit.PER_SECOND;
 import static org.jboss.dmr.ModelType.BOOLEAN;
+import static org.jboss.dmr.ModelType.DOUBLE;
 import static org.jboss.dmr.ModelType.INT;
 import static org.jboss.dmr.ModelType.LONG;
 import static org.jboss.dmr.ModelType.STRING;
@@ -143,16 +145,33 @@ public class JMSBridgeDefinition extends SimpleResourceDefinition {
             .setAllowNull(true)
             .setDefaultValue(new ModelNode().set(false))
             .build();
+    public static final SimpleAttributeDefinition MAX_BATCHES_IN_FLIGHT = create("max-batches-in-flight", INT)
+            .setAllowNull(true)
+            .setDefaultValue(new ModelNode().set(1))
+            .setValidator(new IntRangeValidator(1, Integer.MAX_VALUE, true, false))
+            .build();
     public static final SimpleAttributeDefinition STARTED = create(CommonAttributes.STARTED, BOOLEAN)
             .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
             .build();
+    public static final SimpleAttributeDefinition THROUGHPUT = create("throughput", DOUBLE)
+            .setMeasurementUnit(PER_SECOND)
+            .setStorageRuntime()
+            .build();
+    public static final SimpleAttributeDefinition LAG = create("lag", LONG)
+            .setMeasurementUnit(MILLISECONDS)
+            .setStorageRuntime()
+            .build();
+    public static final SimpleAttributeDefinition BATCH_LATENCY = create("batch-latency", LONG)
+            .setMeasurementUnit(MILLISECONDS)
+            .setStorageRuntime()
+            .build();
 
     public static final AttributeDefinition[] JMS_BRIDGE_ATTRIBUTES = {
             MODULE,
             CommonAttributes.SELECTOR,
             QUALITY_OF_SERVICE,
             FAILURE_RETRY_INTERVAL, MAX_RETRIES,
-            MAX_BATCH_SIZE, MAX_BATCH_TIME,
+            MAX_BATCH_SIZE, MAX_BATCH_TIME, MAX_BATCHES_IN_FLIGHT,
             SUBSCRIPTION_NAME, CommonAttributes.CLIENT_ID,
             ADD_MESSAGE_ID_IN_HEADER
     };
@@ -173,6 +192,10 @@ public class JMSBridgeDefinition extends SimpleResourceDefinition {
             STARTED, CommonAttributes.PAUSED
     };
 
+    public static final AttributeDefinition[] METRICS = {
+            CommonAttributes.MESSAGE_COUNT, THROUGHPUT, LAG, BATCH_LATENCY
+    };
+
     public static final String[] OPERATIONS = {
             ModelDescriptionConstants.START, ModelDescriptionConstants.STOP,
             PAUSE, RESUME
@@ -200,6 +223,9 @@ public class JMSBridgeDefinition extends SimpleResourceDefinition {
         for (AttributeDefinition attr : READONLY_ATTRIBUTES) {
             registry.registerReadOnlyAttribute(attr, JMSBridgeHandler.INSTANCE);
         }
+        for (AttributeDefinition metric : METRICS) {
+            registry.registerMetric(metric, JMSBridgeHandler.INSTANCE);
+        }
     }
 
     @Override
@@ -28,12 +28,16 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.REA
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.START;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.STOP;
 import static org.jboss.as.messaging.CommonAttributes.NAME;
+import static org.jboss.as.messaging.CommonAttributes.MESSAGE_COUNT;
 import static org.jboss.as.messaging.CommonAttributes.PAUSED;
 import static org.jboss.as.messaging.CommonAttributes.STARTED;
 import static org.jboss.as.messaging.MessagingLogger.ROOT_LOGGER;
 import static org.jboss.as.messaging.MessagingMessages.MESSAGES;
+import static org.jboss.as.messaging.jms.bridge.JMSBridgeDefinition.BATCH_LATENCY;
+import static org.jboss.as.messaging.jms.bridge.JMSBridgeDefinition.LAG;
 import static org.jboss.as.messaging.jms.bridge.JMSBridgeDefinition.PAUSE;
 import static org.jboss.as.messaging.jms.bridge.JMSBridgeDefinition.RESUME;
+import static org.jboss.as.messaging.jms.bridge.JMSBridgeDefinition.THROUGHPUT;
 
 import org.hornetq.jms.bridge.JMSBridge;
 import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
@@ -89,6 +93,14 @@ public class JMSBridgeHandler extends AbstractRuntimeOnlyHandler {
                 context.getResult().set(bridge.isStarted());
             } else if (PAUSED.equals(name)) {
                 context.getResult().set(bridge.isPaused());
+            } else if (MESSAGE_COUNT.getName().equals(name)) {
+                context.getResult().set(getStatistics(bridgeService).getMessageCount());
+            } else if (THROUGHPUT.getName().equals(name)) {
+                context.getResult().set(getStatistics(bridgeService).getThroughput());
+            } else if (LAG.getName().equals(name)) {
+                context.getResult().set(getStatistics(bridgeService).getLag());
+            } else if (BATCH_LATENCY.getName().equals(name)) {
+                context.getResult().set(getStatistics(bridgeService).getBatchLatency());
             } else {
                 throw MESSAGES.unsupportedAttribute(name);
             }
@@ -143,4 +155,8 @@ public class JMSBridgeHandler extends AbstractRuntimeOnlyHandler {
             }
         }
     }
+
+    private static JMSBridgeStatistics getStatistics(ServiceController<?> bridgeService) {
+        return ((JMSBridgeService) bridgeService.getService()).getStatistics();
+    }
 }
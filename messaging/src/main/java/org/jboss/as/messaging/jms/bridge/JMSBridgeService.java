@@ -51,15 +51,17 @@ class JMSBridgeService implements Service<JMSBridge> {
     private final JMSBridge bridge;
     private final String bridgeName;
     private final String moduleName;
+    private final JMSBridgeStatistics statistics;
     private final InjectedValue<ExecutorService> executorInjector = new InjectedValue<ExecutorService>();
 
-    public JMSBridgeService(final String moduleName, final String bridgeName, final JMSBridge bridge) {
+    public JMSBridgeService(final String moduleName, final String bridgeName, final JMSBridge bridge, final JMSBridgeStatistics statistics) {
         if(bridge == null) {
             throw MESSAGES.nullVar("bridge");
         }
         this.moduleName = moduleName;
         this.bridgeName = bridgeName;
         this.bridge = bridge;
+        this.statistics = statistics;
     }
 
     public static TransactionManager getTransactionManager(StartContext context) {
@@ -88,6 +90,7 @@ class JMSBridgeService implements Service<JMSBridge> {
     }
 
     public void startBridge() throws Exception {
+        statistics.reset();
         if (moduleName == null) {
             bridge.start();
         } else {
@@ -128,6 +131,10 @@ class JMSBridgeService implements Service<JMSBridge> {
         return bridge;
     }
 
+    JMSBridgeStatistics getStatistics() {
+        return statistics;
+    }
+
     public InjectedValue<ExecutorService> getExecutorInjector() {
         return executorInjector;
     }
@@ -0,0 +1,102 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.messaging.jms.bridge;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runtime statistics of a JMS bridge, collected from the messages its workers forward to the target destination.
+ * <p/>
+ * A batch is complete when its messages are committed on the target, or as soon as a message is sent if the target
+ * session is not transacted. Only completed batches are accounted for.
+ */
+final class JMSBridgeStatistics {
+
+    private final AtomicLong messageCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    /**
+     * The accumulated latency of the completed batches, in nanoseconds
+     */
+    private final AtomicLong batchTime = new AtomicLong();
+    /**
+     * The lag of the last forwarded message, in milliseconds
+     */
+    private volatile long lag;
+    private volatile long startTime = System.nanoTime();
+
+    /**
+     * Clears the statistics when the bridge is (re)started.
+     */
+    void reset() {
+        messageCount.set(0);
+        batchCount.set(0);
+        batchTime.set(0);
+        lag = 0;
+        startTime = System.nanoTime();
+    }
+
+    /**
+     * Records a completed batch.
+     *
+     * @param messages the number of messages in the batch
+     * @param lag      the time in milliseconds between the production of the last message of the batch and its
+     *                 forwarding to the target, or -1 if the message has no timestamp
+     * @param latency  the time in nanoseconds between the first message of the batch being sent to the target and the
+     *                 completion of the batch
+     */
+    void batchCompleted(final int messages, final long lag, final long latency) {
+        if (messages == 0) {
+            return;
+        }
+        messageCount.addAndGet(messages);
+        batchCount.incrementAndGet();
+        batchTime.addAndGet(latency);
+        if (lag >= 0) {
+            this.lag = lag;
+        }
+    }
+
+    long getMessageCount() {
+        return messageCount.get();
+    }
+
+    /**
+     * @return the number of messages forwarded per second since the bridge was started
+     */
+    double getThroughput() {
+        final long elapsed = System.nanoTime() - startTime;
+        return elapsed <= 0 ? 0 : messageCount.get() * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+    }
+
+    long getLag() {
+        return lag;
+    }
+
+    /**
+     * @return the average latency of the completed batches, in milliseconds
+     */
+    long getBatchLatency() {
+        final long batches = batchCount.get();
+        return batches == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(batchTime.get() / batches);
+    }
+}
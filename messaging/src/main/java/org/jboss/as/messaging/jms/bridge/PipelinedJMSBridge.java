@@ -0,0 +1,144 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.messaging.jms.bridge;
+
+import static org.jboss.as.messaging.MessagingLogger.MESSAGING_LOGGER;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.List;
+
+import javax.jms.Queue;
+
+import org.hornetq.jms.bridge.DestinationFactory;
+import org.hornetq.jms.bridge.JMSBridge;
+
+/**
+ * A {@link JMSBridge} keeping several batches in flight by running a number of bridges, its workers, that consume
+ * from the same source destination and forward to the same target destination.
+ * <p/>
+ * Each worker has its own connections and transfers its own batch, so the acknowledgement of a batch on the source
+ * and its commit on the target overlap with the transfer of the batches of the other workers, whatever the quality
+ * of service. Messages are not forwarded in the order they were produced.
+ * <p/>
+ * Only a queue can be consumed by competing consumers: each subscriber of a topic receives every message. If the
+ * source destination is not a queue, only the first worker is started.
+ * <p/>
+ * Setters are applied to all the workers, other methods to the started ones (or all of them if the bridge was never
+ * started). The bridge is started only if all its workers start. Boolean states are those of the first worker,
+ * except {@code isFailed()} which is true if any of them failed.
+ */
+final class PipelinedJMSBridge implements InvocationHandler {
+
+    private final String bridgeName;
+    private final List<JMSBridge> workers;
+    private final DestinationFactory sourceDestinationFactory;
+    private volatile List<JMSBridge> started;
+
+    private PipelinedJMSBridge(final String bridgeName, final List<JMSBridge> workers, final DestinationFactory sourceDestinationFactory) {
+        this.bridgeName = bridgeName;
+        this.workers = workers;
+        this.sourceDestinationFactory = sourceDestinationFactory;
+        this.started = workers;
+    }
+
+    static JMSBridge create(final String bridgeName, final List<JMSBridge> workers, final DestinationFactory sourceDestinationFactory) {
+        return (JMSBridge) Proxy.newProxyInstance(JMSBridge.class.getClassLoader(), new Class<?>[] { JMSBridge.class },
+                new PipelinedJMSBridge(bridgeName, workers, sourceDestinationFactory));
+    }
+
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        final String name = method.getName();
+        if (method.getDeclaringClass() == Object.class) {
+            if ("equals".equals(name)) {
+                return proxy == args[0];
+            } else if ("hashCode".equals(name)) {
+                return System.identityHashCode(proxy);
+            }
+            return "JMSBridge[" + bridgeName + "]";
+        }
+        if ("start".equals(name)) {
+            start();
+            return null;
+        }
+        final List<JMSBridge> targets;
+        if (name.startsWith("set")) {
+            targets = workers;
+        } else {
+            targets = started;
+        }
+        final boolean any = "isFailed".equals(name);
+        Object result = null;
+        for (int i = 0; i < targets.size(); i++) {
+            final Object value;
+            try {
+                value = method.invoke(targets.get(i), args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (i == 0 || (any && Boolean.TRUE.equals(value))) {
+                result = value;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Starts the workers. If one of them fails to start, the workers already started are stopped so that the bridge
+     * is either fully started or not at all, and the started workers are only published once they all started.
+     */
+    private void start() throws Exception {
+        final List<JMSBridge> targets = isSourceQueue() ? workers : Collections.singletonList(workers.get(0));
+        for (int i = 0; i < targets.size(); i++) {
+            try {
+                targets.get(i).start();
+            } catch (Exception e) {
+                for (int j = i - 1; j >= 0; j--) {
+                    try {
+                        targets.get(j).stop();
+                    } catch (Exception ignored) {
+                        MESSAGING_LOGGER.failedToStopBridgeWorker(ignored, bridgeName);
+                    }
+                }
+                throw e;
+            }
+        }
+        started = targets;
+    }
+
+    private boolean isSourceQueue() {
+        try {
+            final Object destination = sourceDestinationFactory.createDestination();
+            if (destination instanceof Queue) {
+                return true;
+            }
+            MESSAGING_LOGGER.singleBatchInFlight(bridgeName, destination);
+        } catch (Exception e) {
+            MESSAGING_LOGGER.singleBatchInFlight(e, bridgeName);
+        }
+        return false;
+    }
+}
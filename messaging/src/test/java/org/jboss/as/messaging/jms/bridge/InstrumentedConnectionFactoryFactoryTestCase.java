@@ -0,0 +1,206 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.messaging.jms.bridge;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.Message;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+import javax.jms.XAConnection;
+import javax.jms.XAConnectionFactory;
+import javax.jms.XASession;
+import javax.transaction.xa.XAResource;
+
+import org.hornetq.jms.bridge.ConnectionFactoryFactory;
+import org.junit.Test;
+
+/**
+ * Tests of the batch accounting of {@link InstrumentedConnectionFactoryFactory}.
+ */
+public class InstrumentedConnectionFactoryFactoryTestCase {
+
+    private final JMSBridgeStatistics statistics = new JMSBridgeStatistics();
+    /**
+     * The messages received by the target producers
+     */
+    private final List<Message> sent = new ArrayList<Message>();
+
+    @Test
+    public void testTransactedBatchIsAccountedOnCommit() throws Exception {
+        final Session session = connectionFactory().createConnection().createSession(true, Session.SESSION_TRANSACTED);
+        final MessageProducer producer = session.createProducer(null);
+
+        producer.send(message(0));
+        producer.send(message(0));
+        assertEquals(0, statistics.getMessageCount());
+        session.commit();
+        assertEquals(2, statistics.getMessageCount());
+        // the target receives the messages themselves
+        assertEquals(2, sent.size());
+
+        producer.send(message(0));
+        session.rollback();
+        session.commit();
+        assertEquals(2, statistics.getMessageCount());
+    }
+
+    @Test
+    public void testNonTransactedMessagesAreAccountedWhenSent() throws Exception {
+        final Session session = connectionFactory().createConnection().createSession(false, Session.AUTO_ACKNOWLEDGE);
+        final MessageProducer producer = session.createProducer(null);
+
+        producer.send(message(0));
+        assertEquals(1, statistics.getMessageCount());
+        producer.send(message(0));
+        assertEquals(2, statistics.getMessageCount());
+    }
+
+    @Test
+    public void testSessionsHaveTheirOwnBatch() throws Exception {
+        final Connection connection = connectionFactory().createConnection();
+        final Session first = connection.createSession(true, Session.SESSION_TRANSACTED);
+        final Session second = connection.createSession(true, Session.SESSION_TRANSACTED);
+
+        first.createProducer(null).send(message(0));
+        second.createProducer(null).send(message(0));
+        second.createProducer(null).send(message(0));
+        first.commit();
+        assertEquals(1, statistics.getMessageCount());
+        second.rollback();
+        first.commit();
+        assertEquals(1, statistics.getMessageCount());
+    }
+
+    @Test
+    public void testXABatchIsAccountedOnResourceCommit() throws Exception {
+        final XASession xaSession = ((XAConnectionFactory) connectionFactory()).createXAConnection().createXASession();
+        final MessageProducer producer = xaSession.getSession().createProducer(null);
+        final XAResource resource = xaSession.getXAResource();
+
+        producer.send(message(0));
+        producer.send(message(0));
+        assertEquals(0, statistics.getMessageCount());
+        resource.commit(null, true);
+        assertEquals(2, statistics.getMessageCount());
+
+        producer.send(message(0));
+        resource.rollback(null);
+        resource.commit(null, true);
+        assertEquals(2, statistics.getMessageCount());
+    }
+
+    @Test
+    public void testLagOfTheLastMessage() throws Exception {
+        final Session session = connectionFactory().createConnection().createSession(true, Session.SESSION_TRANSACTED);
+        final MessageProducer producer = session.createProducer(null);
+
+        producer.send(message(System.currentTimeMillis() - 60000));
+        producer.send(message(0));
+        session.commit();
+        // the last message has no timestamp
+        assertEquals(0, statistics.getLag());
+
+        producer.send(message(0));
+        producer.send(message(System.currentTimeMillis() - 60000));
+        session.commit();
+        assertTrue(statistics.getLag() >= 60000);
+    }
+
+    @Test
+    public void testProxiesAreUnwrapped() throws Exception {
+        final Session session = connectionFactory().createConnection().createSession(true, Session.SESSION_TRANSACTED);
+        final Message message = message(0);
+        session.createProducer(null).send(message);
+        assertSame(message, sent.get(0));
+    }
+
+    private ConnectionFactory connectionFactory() throws Exception {
+        final ConnectionFactoryFactory delegate = new ConnectionFactoryFactory() {
+            @Override
+            public Object createConnectionFactory() {
+                return fake(new Class<?>[] { ConnectionFactory.class, XAConnectionFactory.class }, false);
+            }
+        };
+        return (ConnectionFactory) new InstrumentedConnectionFactoryFactory(delegate, statistics).createConnectionFactory();
+    }
+
+    private static Message message(final long timestamp) {
+        return (Message) Proxy.newProxyInstance(Message.class.getClassLoader(), new Class<?>[] { Message.class },
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                        return "getJMSTimestamp".equals(method.getName()) ? timestamp : null;
+                    }
+                });
+    }
+
+    /**
+     * Creates a JMS object whose factory methods return other fake JMS objects.
+     */
+    private Object fake(final Class<?>[] interfaces, final boolean transacted) {
+        return Proxy.newProxyInstance(getClass().getClassLoader(), interfaces, new InvocationHandler() {
+            @Override
+            public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                final String name = method.getName();
+                if ("equals".equals(name)) {
+                    return proxy == args[0];
+                } else if ("hashCode".equals(name)) {
+                    return System.identityHashCode(proxy);
+                } else if ("createConnection".equals(name)) {
+                    return fake(new Class<?>[] { Connection.class }, false);
+                } else if ("createXAConnection".equals(name)) {
+                    return fake(new Class<?>[] { XAConnection.class }, true);
+                } else if ("createSession".equals(name)) {
+                    return fake(new Class<?>[] { Session.class }, (Boolean) args[0]);
+                } else if ("createXASession".equals(name)) {
+                    return fake(new Class<?>[] { XASession.class }, true);
+                } else if ("getSession".equals(name)) {
+                    return fake(new Class<?>[] { Session.class }, true);
+                } else if ("getXAResource".equals(name)) {
+                    return fake(new Class<?>[] { XAResource.class }, true);
+                } else if ("createProducer".equals(name)) {
+                    return fake(new Class<?>[] { MessageProducer.class }, transacted);
+                } else if ("getTransacted".equals(name)) {
+                    return transacted;
+                } else if ("send".equals(name)) {
+                    sent.add((Message) args[0]);
+                } else if (method.getReturnType() == boolean.class) {
+                    return false;
+                } else if (method.getReturnType() == int.class) {
+                    return 0;
+                }
+                return null;
+            }
+        });
+    }
+}
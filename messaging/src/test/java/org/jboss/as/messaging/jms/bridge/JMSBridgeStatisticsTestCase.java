@@ -0,0 +1,87 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.messaging.jms.bridge;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests of {@link JMSBridgeStatistics}.
+ */
+public class JMSBridgeStatisticsTestCase {
+
+    private final JMSBridgeStatistics statistics = new JMSBridgeStatistics();
+
+    @Test
+    public void testInitialValues() {
+        assertEquals(0, statistics.getMessageCount());
+        assertEquals(0, statistics.getLag());
+        assertEquals(0, statistics.getBatchLatency());
+        assertEquals(0.0, statistics.getThroughput(), 0.0);
+    }
+
+    @Test
+    public void testBatchCompleted() {
+        statistics.batchCompleted(10, 5, TimeUnit.MILLISECONDS.toNanos(20));
+        statistics.batchCompleted(4, 7, TimeUnit.MILLISECONDS.toNanos(40));
+
+        assertEquals(14, statistics.getMessageCount());
+        assertEquals(7, statistics.getLag());
+        // the average over the batches, not the messages
+        assertEquals(30, statistics.getBatchLatency());
+        assertTrue(statistics.getThroughput() > 0);
+    }
+
+    @Test
+    public void testEmptyBatchIsIgnored() {
+        statistics.batchCompleted(2, 5, TimeUnit.MILLISECONDS.toNanos(10));
+        statistics.batchCompleted(0, 8, TimeUnit.MILLISECONDS.toNanos(1000));
+
+        assertEquals(2, statistics.getMessageCount());
+        assertEquals(5, statistics.getLag());
+        assertEquals(10, statistics.getBatchLatency());
+    }
+
+    @Test
+    public void testUnknownLagKeepsTheLastOne() {
+        statistics.batchCompleted(1, 5, 0);
+        statistics.batchCompleted(1, -1, 0);
+
+        assertEquals(2, statistics.getMessageCount());
+        assertEquals(5, statistics.getLag());
+    }
+
+    @Test
+    public void testReset() {
+        statistics.batchCompleted(3, 5, TimeUnit.MILLISECONDS.toNanos(10));
+        statistics.reset();
+
+        assertEquals(0, statistics.getMessageCount());
+        assertEquals(0, statistics.getLag());
+        assertEquals(0, statistics.getBatchLatency());
+        assertEquals(0.0, statistics.getThroughput(), 0.0);
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.messaging.jms.bridge;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.jms.Destination;
+import javax.jms.Queue;
+import javax.jms.Topic;
+
+import org.hornetq.jms.bridge.DestinationFactory;
+import org.hornetq.jms.bridge.JMSBridge;
+import org.junit.Test;
+
+/**
+ * Tests of the start, stop and delegation logic of {@link PipelinedJMSBridge}.
+ */
+public class PipelinedJMSBridgeTestCase {
+
+    private final List<String> calls = new ArrayList<String>();
+
+    @Test
+    public void testStartAndStopAllWorkersOfAQueue() throws Exception {
+        final Worker[] workers = workers(3);
+        final JMSBridge bridge = create(Queue.class, workers);
+
+        bridge.start();
+        assertEquals(Arrays.asList("0.start", "1.start", "2.start"), calls);
+        assertTrue(bridge.isStarted());
+
+        calls.clear();
+        bridge.stop();
+        assertEquals(Arrays.asList("0.stop", "1.stop", "2.stop"), calls);
+        assertFalse(bridge.isStarted());
+    }
+
+    @Test
+    public void testStartSingleWorkerOfATopic() throws Exception {
+        final Worker[] workers = workers(3);
+        final JMSBridge bridge = create(Topic.class, workers);
+
+        bridge.start();
+        bridge.pause();
+        bridge.stop();
+        assertEquals(Arrays.asList("0.start", "0.pause", "0.stop"), calls);
+    }
+
+    @Test
+    public void testFailedStartStopsStartedWorkers() throws Exception {
+        final Worker[] workers = workers(3);
+        final Exception failure = new Exception("worker 1 cannot start");
+        workers[1].failure = failure;
+        final JMSBridge bridge = create(Queue.class, workers);
+
+        try {
+            bridge.start();
+            fail("the bridge must not start");
+        } catch (Exception e) {
+            assertSame(failure, e);
+        }
+        // worker 2 is never started, worker 0 is stopped again
+        assertEquals(Arrays.asList("0.start", "1.start", "0.stop"), calls);
+        assertFalse(workers[0].started);
+        assertFalse(workers[2].started);
+        assertFalse(bridge.isStarted());
+
+        // a later start goes through all the workers again
+        workers[1].failure = null;
+        calls.clear();
+        bridge.start();
+        assertEquals(Arrays.asList("0.start", "1.start", "2.start"), calls);
+    }
+
+    @Test
+    public void testSettersApplyToAllWorkers() throws Exception {
+        final Worker[] workers = workers(2);
+        final JMSBridge bridge = create(Topic.class, workers);
+        bridge.start();
+
+        calls.clear();
+        bridge.setMaxBatchSize(10);
+        assertEquals(Arrays.asList("0.setMaxBatchSize", "1.setMaxBatchSize"), calls);
+    }
+
+    @Test
+    public void testFailedIfAnyWorkerFailed() throws Exception {
+        final Worker[] workers = workers(3);
+        final JMSBridge bridge = create(Queue.class, workers);
+        bridge.start();
+        assertFalse(bridge.isFailed());
+
+        workers[2].failed = true;
+        assertTrue(bridge.isFailed());
+    }
+
+    private Worker[] workers(final int count) {
+        final Worker[] workers = new Worker[count];
+        for (int i = 0; i < count; i++) {
+            workers[i] = new Worker(i);
+        }
+        return workers;
+    }
+
+    private JMSBridge create(final Class<? extends Destination> sourceType, final Worker... workers) {
+        final List<JMSBridge> bridges = new ArrayList<JMSBridge>();
+        for (Worker worker : workers) {
+            bridges.add((JMSBridge) Proxy.newProxyInstance(JMSBridge.class.getClassLoader(), new Class<?>[] { JMSBridge.class }, worker));
+        }
+        final Destination source = (Destination) Proxy.newProxyInstance(sourceType.getClassLoader(), new Class<?>[] { sourceType },
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                        return null;
+                    }
+                });
+        return PipelinedJMSBridge.create("bridge", bridges, new DestinationFactory() {
+            @Override
+            public Destination createDestination() {
+                return source;
+            }
+        });
+    }
+
+    /**
+     * A bridge recording the calls made to it.
+     */
+    private final class Worker implements InvocationHandler {
+        private final int index;
+        private boolean started;
+        private boolean failed;
+        private Exception failure;
+
+        private Worker(final int index) {
+            this.index = index;
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            final String name = method.getName();
+            if (name.startsWith("set") || "start".equals(name) || "stop".equals(name) || "pause".equals(name) || "resume".equals(name)) {
+                calls.add(index + "." + name);
+            }
+            if ("start".equals(name)) {
+                if (failure != null) {
+                    throw failure;
+                }
+                started = true;
+            } else if ("stop".equals(name)) {
+                started = false;
+            } else if ("isStarted".equals(name)) {
+                return started;
+            } else if ("isFailed".equals(name)) {
+                return failed;
+            } else if (method.getReturnType() == boolean.class) {
+                return false;
+            }
+            return null;
+        }
+    }
+}
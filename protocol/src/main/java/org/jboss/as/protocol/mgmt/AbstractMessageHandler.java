@@ -197,7 +197,7 @@ public abstract class AbstractMessageHandler extends ActiveOperationSupport impl
                 @Override
                 public FlushableDataOutput writeMessage(final ManagementProtocolHeader header) throws IOException {
                     final MessageOutputStream os = channel.writeMessage();
-                    return writeHeader(header, os);
+                    return writeBufferedHeader(header, os);
                 }
             });
 
@@ -326,7 +326,7 @@ public abstract class AbstractMessageHandler extends ActiveOperationSupport impl
                 @Override
                 public FlushableDataOutput writeMessage(final ManagementProtocolHeader header) throws IOException {
                     final MessageOutputStream os = channel.writeMessage();
-                    return writeHeader(header, os);
+                    return writeBufferedHeader(header, os);
                 }
 
             });
@@ -451,6 +451,20 @@ public abstract class AbstractMessageHandler extends ActiveOperationSupport impl
         return output;
     }
 
+    /**
+     * Write the management protocol header to a buffered output, which batches the writes of the whole message.
+     * The message must only be written through the returned output.
+     *
+     * @param header the mgmt protocol header
+     * @param os the output stream
+     * @throws IOException
+     */
+    protected static FlushableDataOutput writeBufferedHeader(final ManagementProtocolHeader header, final OutputStream os) throws IOException {
+        final FlushableDataOutput output = FlushableDataOutputImpl.createBuffered(os);
+        header.write(output);
+        return output;
+    }
+
     /**
      * Get a fallback handler.
      *
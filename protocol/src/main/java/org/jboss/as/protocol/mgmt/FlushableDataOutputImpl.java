@@ -19,6 +19,7 @@
 package org.jboss.as.protocol.mgmt;
 
 import java.io.Closeable;
+import java.io.BufferedOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
@@ -29,6 +30,8 @@ import java.io.OutputStream;
  */
 class FlushableDataOutputImpl implements FlushableDataOutput, Closeable {
 
+    private static final int BUFFER_SIZE = 8192;
+
     private final DataOutputStream delegate;
 
     public FlushableDataOutputImpl(DataOutputStream delegate) {
@@ -39,6 +42,19 @@ class FlushableDataOutputImpl implements FlushableDataOutput, Closeable {
         return new FlushableDataOutputImpl(new DataOutputStream(output));
     }
 
+    /**
+     * Create a data output which collects the many small writes of a message (header fields, a marshalled
+     * {@code ModelNode}...) before handing them to the underlying stream, so that a typical management message
+     * reaches the channel in a single write. The caller must only write through the returned output, and has to
+     * {@link #flush()} or {@link #close()} it for the data to be sent.
+     *
+     * @param output the underlying stream
+     * @return the buffered data output
+     */
+    static FlushableDataOutput createBuffered(OutputStream output) {
+        return new FlushableDataOutputImpl(new DataOutputStream(new BufferedOutputStream(output, BUFFER_SIZE)));
+    }
+
     @Override
     public void write(int b) throws IOException {
         delegate.write(b);
@@ -37,6 +37,11 @@ public enum Attribute {
     AUDIT_MANAGER_CLASS_NAME("audit-manager-class-name"),
     AUTHENTICATION_MANAGER_CLASS_NAME("authentication-manager-class-name"),
     AUTHORIZATION_MANAGER_CLASS_NAME("authorization-manager-class-name"),
+    CACHE_CONCURRENCY_LEVEL("cache-concurrency-level"),
+    CACHE_EVICTION_POLICY("cache-eviction-policy"),
+    CACHE_LIFESPAN("cache-lifespan"),
+    CACHE_MAX_ENTRIES("cache-max-entries"),
+    CACHE_MAX_IDLE("cache-max-idle"),
     CACHE_TYPE("cache-type"),
     CIPHER_SUITES("cipher-suites"),
     CLIENT_ALIAS("client-alias"),
@@ -43,6 +43,14 @@ public interface Constants {
     String AUTHENTICATION_MANAGER_CLASS_NAME = "authentication-manager-class-name";
     String AUTHORIZATION = "authorization";
     String AUTHORIZATION_MANAGER_CLASS_NAME = "authorization-manager-class-name";
+    String CACHE_CONCURRENCY_LEVEL = "cache-concurrency-level";
+    String CACHE_EVICTION_POLICY = "cache-eviction-policy";
+    String CACHE_EVICTIONS = "cache-evictions";
+    String CACHE_HITS = "cache-hits";
+    String CACHE_LIFESPAN = "cache-lifespan";
+    String CACHE_MAX_ENTRIES = "cache-max-entries";
+    String CACHE_MAX_IDLE = "cache-max-idle";
+    String CACHE_MISSES = "cache-misses";
     String CACHE_TYPE = "cache-type";
     String CIPHER_SUITES = "cipher-suites";
     String CLASSIC = "classic";
@@ -75,6 +75,7 @@ import javax.security.auth.login.Configuration;
 import javax.transaction.TransactionManager;
 
 import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.util.concurrent.BoundedConcurrentHashMap.Eviction;
 import org.jboss.as.clustering.infinispan.subsystem.EmbeddedCacheManagerService;
 import org.jboss.as.controller.AbstractAddStepHandler;
 import org.jboss.as.controller.OperationContext;
@@ -82,8 +83,10 @@ import org.jboss.as.controller.OperationFailedException;
 import org.jboss.as.controller.OperationStepHandler;
 import org.jboss.as.controller.PathAddress;
 import org.jboss.as.controller.ServiceVerificationHandler;
+import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.operations.common.Util;
 import org.jboss.as.controller.registry.Resource;
+import org.jboss.as.security.plugins.DefaultAuthenticationCacheFactory;
 import org.jboss.as.security.plugins.SecurityDomainContext;
 import org.jboss.as.security.service.JaasConfigurationService;
 import org.jboss.as.security.service.SecurityDomainService;
@@ -146,6 +149,9 @@ class SecurityDomainAdd extends AbstractAddStepHandler {
 
     protected void populateModel(ModelNode operation, ModelNode model) throws OperationFailedException {
         SecurityDomainResourceDefinition.CACHE_TYPE.validateAndSet(operation, model);
+        for (SimpleAttributeDefinition attribute : SecurityDomainResourceDefinition.CACHE_ATTRIBUTES) {
+            attribute.validateAndSet(operation, model);
+        }
     }
 
     protected void performRuntime(OperationContext context, ModelNode operation, final ModelNode model, final ServiceVerificationHandler verificationHandler, final List<ServiceController<?>> newControllers) {
@@ -171,9 +177,10 @@ class SecurityDomainAdd extends AbstractAddStepHandler {
         final ApplicationPolicy applicationPolicy = createApplicationPolicy(context, securityDomain, model);
         final JSSESecurityDomain jsseSecurityDomain = createJSSESecurityDomain(context, securityDomain, model);
         final String cacheType = getAuthenticationCacheType(model);
+        final DefaultAuthenticationCacheFactory cacheFactory = createAuthenticationCacheFactory(context, model);
 
         final SecurityDomainService securityDomainService = new SecurityDomainService(securityDomain,
-                applicationPolicy, jsseSecurityDomain, cacheType);
+                applicationPolicy, jsseSecurityDomain, cacheType, cacheFactory);
         final ServiceTarget target = context.getServiceTarget();
         // some login modules may require the TransactionManager
         final Injector<TransactionManager> transactionManagerInjector = new Injector<TransactionManager>() {
@@ -662,6 +669,16 @@ class SecurityDomainAdd extends AbstractAddStepHandler {
         }
     }
 
+    private static DefaultAuthenticationCacheFactory createAuthenticationCacheFactory(OperationContext context, ModelNode node)
+            throws OperationFailedException {
+        final int maxEntries = SecurityDomainResourceDefinition.CACHE_MAX_ENTRIES.resolveModelAttribute(context, node).asInt();
+        final int concurrencyLevel = SecurityDomainResourceDefinition.CACHE_CONCURRENCY_LEVEL.resolveModelAttribute(context, node).asInt();
+        final Eviction eviction = Eviction.valueOf(SecurityDomainResourceDefinition.CACHE_EVICTION_POLICY.resolveModelAttribute(context, node).asString());
+        final long lifespan = SecurityDomainResourceDefinition.CACHE_LIFESPAN.resolveModelAttribute(context, node).asLong();
+        final long maxIdle = SecurityDomainResourceDefinition.CACHE_MAX_IDLE.resolveModelAttribute(context, node).asLong();
+        return new DefaultAuthenticationCacheFactory(maxEntries, concurrencyLevel, eviction, lifespan, maxIdle);
+    }
+
     static String getAuthenticationCacheType(ModelNode node) {
         String type = null;
         if (node.hasDefined(CACHE_TYPE)) {
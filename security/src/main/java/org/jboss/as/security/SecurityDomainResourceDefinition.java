@@ -21,13 +21,17 @@
  */
 package org.jboss.as.security;
 
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
 
 import java.security.Principal;
 import java.util.EnumSet;
+import java.util.Map;
 import java.util.Set;
 
+import org.infinispan.util.concurrent.BoundedConcurrentHashMap.Eviction;
 import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
+import org.jboss.as.controller.AttributeDefinition;
 import org.jboss.as.controller.OperationContext;
 import org.jboss.as.controller.OperationFailedException;
 import org.jboss.as.controller.PathAddress;
@@ -35,9 +39,15 @@ import org.jboss.as.controller.PathElement;
 import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.SimpleResourceDefinition;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
 import org.jboss.as.controller.operations.common.Util;
+import org.jboss.as.controller.operations.validation.EnumValidator;
+import org.jboss.as.controller.operations.validation.IntRangeValidator;
+import org.jboss.as.controller.operations.validation.LongRangeValidator;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.controller.registry.OperationEntry.Flag;
+import org.jboss.as.security.plugins.DefaultAuthenticationCache;
+import org.jboss.as.security.plugins.DefaultAuthenticationCacheFactory;
 import org.jboss.as.security.plugins.SecurityDomainContext;
 import org.jboss.as.security.service.SecurityDomainService;
 import org.jboss.dmr.ModelNode;
@@ -55,6 +65,57 @@ public class SecurityDomainResourceDefinition extends SimpleResourceDefinition {
     public static final SimpleAttributeDefinition CACHE_TYPE =
             new SimpleAttributeDefinitionBuilder(Constants.CACHE_TYPE, ModelType.STRING, true).build();
 
+    public static final SimpleAttributeDefinition CACHE_MAX_ENTRIES =
+            new SimpleAttributeDefinitionBuilder(Constants.CACHE_MAX_ENTRIES, ModelType.INT, true)
+                    .setDefaultValue(new ModelNode(DefaultAuthenticationCacheFactory.DEFAULT_MAX_ENTRIES))
+                    .setValidator(new IntRangeValidator(1, true))
+                    .build();
+
+    public static final SimpleAttributeDefinition CACHE_CONCURRENCY_LEVEL =
+            new SimpleAttributeDefinitionBuilder(Constants.CACHE_CONCURRENCY_LEVEL, ModelType.INT, true)
+                    .setDefaultValue(new ModelNode(DefaultAuthenticationCacheFactory.DEFAULT_CONCURRENCY_LEVEL))
+                    .setValidator(new IntRangeValidator(1, true))
+                    .build();
+
+    public static final SimpleAttributeDefinition CACHE_EVICTION_POLICY =
+            new SimpleAttributeDefinitionBuilder(Constants.CACHE_EVICTION_POLICY, ModelType.STRING, true)
+                    .setDefaultValue(new ModelNode(DefaultAuthenticationCacheFactory.DEFAULT_EVICTION.name()))
+                    .setValidator(new EnumValidator<Eviction>(Eviction.class, true, false, Eviction.LRU, Eviction.LIRS))
+                    .build();
+
+    public static final SimpleAttributeDefinition CACHE_LIFESPAN =
+            new SimpleAttributeDefinitionBuilder(Constants.CACHE_LIFESPAN, ModelType.LONG, true)
+                    .setDefaultValue(new ModelNode(0L))
+                    .setValidator(new LongRangeValidator(0, true))
+                    .setMeasurementUnit(MeasurementUnit.MILLISECONDS)
+                    .build();
+
+    public static final SimpleAttributeDefinition CACHE_MAX_IDLE =
+            new SimpleAttributeDefinitionBuilder(Constants.CACHE_MAX_IDLE, ModelType.LONG, true)
+                    .setDefaultValue(new ModelNode(0L))
+                    .setValidator(new LongRangeValidator(0, true))
+                    .setMeasurementUnit(MeasurementUnit.MILLISECONDS)
+                    .build();
+
+    /** The settings of the {@code default} authentication cache */
+    public static final SimpleAttributeDefinition[] CACHE_ATTRIBUTES = {
+            CACHE_MAX_ENTRIES, CACHE_CONCURRENCY_LEVEL, CACHE_EVICTION_POLICY, CACHE_LIFESPAN, CACHE_MAX_IDLE };
+
+    public static final SimpleAttributeDefinition CACHE_HITS =
+            new SimpleAttributeDefinitionBuilder(Constants.CACHE_HITS, ModelType.LONG, true)
+                    .setStorageRuntime()
+                    .build();
+
+    public static final SimpleAttributeDefinition CACHE_MISSES =
+            new SimpleAttributeDefinitionBuilder(Constants.CACHE_MISSES, ModelType.LONG, true)
+                    .setStorageRuntime()
+                    .build();
+
+    public static final SimpleAttributeDefinition CACHE_EVICTIONS =
+            new SimpleAttributeDefinitionBuilder(Constants.CACHE_EVICTIONS, ModelType.LONG, true)
+                    .setStorageRuntime()
+                    .build();
+
     private final boolean registerRuntimeOnly;
 
     SecurityDomainResourceDefinition(boolean registerRuntimeOnly) {
@@ -65,6 +126,14 @@ public class SecurityDomainResourceDefinition extends SimpleResourceDefinition {
 
     public void registerAttributes(final ManagementResourceRegistration resourceRegistration) {
         resourceRegistration.registerReadWriteAttribute(CACHE_TYPE, null, new SecurityDomainReloadWriteHandler(CACHE_TYPE));
+        for (SimpleAttributeDefinition attribute : CACHE_ATTRIBUTES) {
+            resourceRegistration.registerReadWriteAttribute(attribute, null, new SecurityDomainReloadWriteHandler(attribute));
+        }
+        if (registerRuntimeOnly) {
+            for (AttributeDefinition metric : new AttributeDefinition[] { CACHE_HITS, CACHE_MISSES, CACHE_EVICTIONS }) {
+                resourceRegistration.registerMetric(metric, CacheMetricsHandler.INSTANCE);
+            }
+        }
     }
 
     @Override
@@ -124,6 +193,42 @@ public class SecurityDomainResourceDefinition extends SimpleResourceDefinition {
         }
     }
 
+    /**
+     * Reads the statistics of the {@code default} authentication cache, which are all 0 for other cache types.
+     */
+    static final class CacheMetricsHandler extends AbstractRuntimeOnlyHandler {
+        static final CacheMetricsHandler INSTANCE = new CacheMetricsHandler();
+
+        @Override
+        protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
+            final PathAddress address = PathAddress.pathAddress(operation.require(OP_ADDR));
+            final String securityDomain = address.getLastElement().getValue();
+            final String metric = operation.require(NAME).asString();
+
+            DefaultAuthenticationCache cache = null;
+            final ServiceController<?> controller = context.getServiceRegistry(false).getService(
+                    SecurityDomainService.SERVICE_NAME.append(securityDomain));
+            if (controller != null && controller.getState() == ServiceController.State.UP) {
+                final Map<?, ?> authenticationCache = ((SecurityDomainContext) controller.getValue()).getAuthenticationCache();
+                if (authenticationCache instanceof DefaultAuthenticationCache) {
+                    cache = (DefaultAuthenticationCache) authenticationCache;
+                }
+            }
+
+            final ModelNode result = context.getResult();
+            if (cache == null) {
+                result.set(0L);
+            } else if (Constants.CACHE_HITS.equals(metric)) {
+                result.set(cache.getHitCount());
+            } else if (Constants.CACHE_MISSES.equals(metric)) {
+                result.set(cache.getMissCount());
+            } else if (Constants.CACHE_EVICTIONS.equals(metric)) {
+                result.set(cache.getEvictionCount());
+            }
+            context.completeStep();
+        }
+    }
+
     static final class FlushOperation extends AbstractRuntimeOnlyHandler {
         static final FlushOperation INSTANCE = new FlushOperation();
 
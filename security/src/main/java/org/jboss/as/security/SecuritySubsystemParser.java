@@ -43,6 +43,7 @@ import java.util.Set;
 import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
 
+import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.parsing.ParseUtils;
 import org.jboss.as.controller.persistence.SubsystemMarshallingContext;
 import org.jboss.dmr.ModelNode;
@@ -164,6 +165,9 @@ public class SecuritySubsystemParser implements XMLStreamConstants, XMLElementRe
                 writer.writeAttribute(Attribute.NAME.getLocalName(), policy.getName());
                 ModelNode policyDetails = policy.getValue();
                 SecurityDomainResourceDefinition.CACHE_TYPE.marshallAsAttribute(policyDetails, writer);
+                for (SimpleAttributeDefinition attribute : SecurityDomainResourceDefinition.CACHE_ATTRIBUTES) {
+                    attribute.marshallAsAttribute(policyDetails, writer);
+                }
                 writeSecurityDomainContent(writer, policyDetails);
                 writer.writeEndElement();
             }
@@ -193,6 +197,9 @@ public class SecuritySubsystemParser implements XMLStreamConstants, XMLElementRe
         Set<String> keys = policyDetails.keys();
         keys.remove(NAME);
         keys.remove(CACHE_TYPE);
+        for (SimpleAttributeDefinition attribute : SecurityDomainResourceDefinition.CACHE_ATTRIBUTES) {
+            keys.remove(attribute.getName());
+        }
 
         for (String key : keys) {
             Element element = Element.forName(key);
@@ -413,6 +420,26 @@ public class SecuritySubsystemParser implements XMLStreamConstants, XMLElementRe
                     SecurityDomainResourceDefinition.CACHE_TYPE.parseAndSetParameter(value, op, reader);
                     break;
                 }
+                case CACHE_MAX_ENTRIES: {
+                    SecurityDomainResourceDefinition.CACHE_MAX_ENTRIES.parseAndSetParameter(value, op, reader);
+                    break;
+                }
+                case CACHE_CONCURRENCY_LEVEL: {
+                    SecurityDomainResourceDefinition.CACHE_CONCURRENCY_LEVEL.parseAndSetParameter(value, op, reader);
+                    break;
+                }
+                case CACHE_EVICTION_POLICY: {
+                    SecurityDomainResourceDefinition.CACHE_EVICTION_POLICY.parseAndSetParameter(value, op, reader);
+                    break;
+                }
+                case CACHE_LIFESPAN: {
+                    SecurityDomainResourceDefinition.CACHE_LIFESPAN.parseAndSetParameter(value, op, reader);
+                    break;
+                }
+                case CACHE_MAX_IDLE: {
+                    SecurityDomainResourceDefinition.CACHE_MAX_IDLE.parseAndSetParameter(value, op, reader);
+                    break;
+                }
                 default:
                     throw unexpectedAttribute(reader, i);
             }
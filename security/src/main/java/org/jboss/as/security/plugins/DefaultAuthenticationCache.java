@@ -0,0 +1,217 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.security.plugins;
+
+import java.security.Principal;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.infinispan.util.concurrent.BoundedConcurrentHashMap;
+import org.jboss.security.authentication.JBossCachedAuthenticationManager.DomainInfo;
+
+/**
+ * The authentication cache used by security domains with the {@code default} cache type.
+ * <p/>
+ * The number of entries is bounded by the eviction policy. On top of that an entry can be given a lifespan and a
+ * maximum idle time, after which a lookup treats it as missing and logs it out. Lookups and evictions are counted,
+ * so that they can be exposed as metrics of the security domain.
+ */
+public class DefaultAuthenticationCache extends BoundedConcurrentHashMap<Principal, DomainInfo> {
+
+    private static final long serialVersionUID = -4302357212434537425L;
+
+    private final long lifespan;
+    private final long maxIdle;
+    /**
+     * When each entry was cached and last used, null unless entries expire
+     */
+    private final ConcurrentMap<Object, Timestamps> timestamps;
+    private final EvictionCounter evictions;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Creates a new cache.
+     *
+     * @param capacity the maximum number of entries
+     * @param concurrencyLevel the estimated number of concurrently updating threads
+     * @param eviction the eviction policy used once the capacity is reached
+     * @param lifespan the time in milliseconds after which an entry expires, or 0 if it never does
+     * @param maxIdle the time in milliseconds after which an unused entry expires, or 0 if it never does
+     */
+    public DefaultAuthenticationCache(int capacity, int concurrencyLevel, Eviction eviction, long lifespan, long maxIdle) {
+        this(capacity, concurrencyLevel, eviction, lifespan, maxIdle,
+                lifespan > 0 || maxIdle > 0 ? new ConcurrentHashMap<Object, Timestamps>(capacity) : null);
+    }
+
+    private DefaultAuthenticationCache(int capacity, int concurrencyLevel, Eviction eviction, long lifespan, long maxIdle,
+            ConcurrentMap<Object, Timestamps> timestamps) {
+        this(capacity, concurrencyLevel, eviction, lifespan, maxIdle, timestamps, new EvictionCounter(timestamps));
+    }
+
+    private DefaultAuthenticationCache(int capacity, int concurrencyLevel, Eviction eviction, long lifespan, long maxIdle,
+            ConcurrentMap<Object, Timestamps> timestamps, EvictionCounter evictions) {
+        super(capacity, concurrencyLevel, eviction, evictions);
+        this.lifespan = lifespan;
+        this.maxIdle = maxIdle;
+        this.timestamps = timestamps;
+        this.evictions = evictions;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public DomainInfo get(Object key) {
+        final DomainInfo domainInfo = super.get(key);
+        if (domainInfo == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (timestamps != null && isExpired(key)) {
+            if (super.remove(key, domainInfo)) {
+                timestamps.remove(key);
+                evictions.evictions.incrementAndGet();
+                domainInfo.logout();
+            }
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return domainInfo;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public DomainInfo put(Principal key, DomainInfo value) {
+        if (timestamps != null) {
+            timestamps.put(key, new Timestamps());
+        }
+        return super.put(key, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public DomainInfo putIfAbsent(Principal key, DomainInfo value) {
+        final DomainInfo existing = super.putIfAbsent(key, value);
+        if (existing == null && timestamps != null) {
+            timestamps.put(key, new Timestamps());
+        }
+        return existing;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public DomainInfo remove(Object key) {
+        DomainInfo removed = super.remove(key);
+        if (removed != null) {
+            if (timestamps != null) {
+                timestamps.remove(key);
+            }
+            removed.logout();
+        }
+        return removed;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void clear() {
+        Collection<DomainInfo> values = values();
+        for (DomainInfo domainInfo : values) {
+            domainInfo.logout();
+        }
+        super.clear();
+        if (timestamps != null) {
+            timestamps.clear();
+        }
+    }
+
+    /**
+     * Gets the number of lookups that found a valid entry.
+     *
+     * @return the number of hits
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of lookups that found no entry, or an expired one.
+     *
+     * @return the number of misses
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Gets the number of entries removed because the cache was full, or because they expired.
+     *
+     * @return the number of evictions
+     */
+    public long getEvictionCount() {
+        return evictions.evictions.get();
+    }
+
+    private boolean isExpired(Object key) {
+        final Timestamps times = timestamps.get(key);
+        if (times == null) {
+            return false;
+        }
+        final long now = System.currentTimeMillis();
+        if ((lifespan > 0 && now - times.created > lifespan) || (maxIdle > 0 && now - times.lastUsed > maxIdle)) {
+            return true;
+        }
+        times.lastUsed = now;
+        return false;
+    }
+
+    private static final class Timestamps {
+        private final long created = System.currentTimeMillis();
+        private volatile long lastUsed = created;
+    }
+
+    /**
+     * Logs out evicted entries, and keeps count of them.
+     */
+    private static final class EvictionCounter extends AuthenticationCacheEvictionListener {
+        private final ConcurrentMap<Object, Timestamps> timestamps;
+        private final AtomicLong evictions = new AtomicLong();
+
+        private EvictionCounter(ConcurrentMap<Object, Timestamps> timestamps) {
+            this.timestamps = timestamps;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void onEntryEviction(Map<Principal, DomainInfo> evicted) {
+            super.onEntryEviction(evicted);
+            evictions.addAndGet(evicted.size());
+            if (timestamps != null) {
+                for (Principal principal : evicted.keySet()) {
+                    timestamps.remove(principal);
+                }
+            }
+        }
+    }
+}
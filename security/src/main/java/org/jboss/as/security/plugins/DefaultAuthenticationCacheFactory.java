@@ -23,12 +23,9 @@
 package org.jboss.as.security.plugins;
 
 import java.security.Principal;
-import java.util.Collection;
 import java.util.concurrent.ConcurrentMap;
 
-import org.infinispan.util.concurrent.BoundedConcurrentHashMap;
 import org.infinispan.util.concurrent.BoundedConcurrentHashMap.Eviction;
-import org.jboss.security.authentication.JBossCachedAuthenticationManager;
 import org.jboss.security.authentication.JBossCachedAuthenticationManager.DomainInfo;
 
 /**
@@ -38,38 +35,44 @@ import org.jboss.security.authentication.JBossCachedAuthenticationManager.Domain
  */
 public class DefaultAuthenticationCacheFactory {
 
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+    public static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+    public static final Eviction DEFAULT_EVICTION = Eviction.LIRS;
+
+    private final int maxEntries;
+    private final int concurrencyLevel;
+    private final Eviction eviction;
+    private final long lifespan;
+    private final long maxIdle;
+
+    public DefaultAuthenticationCacheFactory() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_CONCURRENCY_LEVEL, DEFAULT_EVICTION, 0, 0);
+    }
+
+    /**
+     * Creates a factory for caches with the given settings.
+     *
+     * @param maxEntries the maximum number of cached principals
+     * @param concurrencyLevel the estimated number of threads updating the cache at the same time
+     * @param eviction the eviction policy used once the cache is full
+     * @param lifespan the time in milliseconds after which a cached principal expires, or 0 if it never does
+     * @param maxIdle the time in milliseconds after which an unused cached principal expires, or 0 if it never does
+     */
+    public DefaultAuthenticationCacheFactory(int maxEntries, int concurrencyLevel, Eviction eviction, long lifespan, long maxIdle) {
+        this.maxEntries = maxEntries;
+        this.concurrencyLevel = concurrencyLevel;
+        this.eviction = eviction;
+        this.lifespan = lifespan;
+        this.maxIdle = maxIdle;
+    }
+
     /**
      * Returns a default cache implementation
      *
      * @return cache implementation
      */
     public ConcurrentMap<Principal, DomainInfo> getCache() {
-        ConcurrentMap<Principal, DomainInfo> map = new BoundedConcurrentHashMap<Principal, JBossCachedAuthenticationManager.DomainInfo>(
-                1000, 16, Eviction.LIRS, new AuthenticationCacheEvictionListener()) {
-
-            private static final long serialVersionUID = 1459490003748298538L;
-
-            /** {@inheritDoc} */
-            @Override
-            public DomainInfo remove(Object key) {
-                DomainInfo removed = super.remove(key);
-                if (removed != null) {
-                    removed.logout();
-                }
-                return removed;
-            }
-
-            /** {@inheritDoc} */
-            @Override
-            public void clear() {
-                Collection<DomainInfo> values = values();
-                for (DomainInfo domainInfo : values) {
-                    domainInfo.logout();
-                }
-                super.clear();
-            }
-        };
-        return map;
+        return new DefaultAuthenticationCache(maxEntries, concurrencyLevel, eviction, lifespan, maxIdle);
     }
 
 }
@@ -22,6 +22,8 @@
 
 package org.jboss.as.security.plugins;
 
+import java.util.Map;
+
 import javax.naming.NamingException;
 import javax.security.auth.Subject;
 import javax.security.jacc.PolicyContext;
@@ -59,6 +61,7 @@ public class SecurityDomainContext {
     MappingManager mappingMgr;
     IdentityTrustManager identityTrustMgr;
     JSSESecurityDomain jsseSecurityDomain;
+    Map<?, ?> authenticationCache;
 
     private static final String SUBJECT_CONTEXT_KEY = "javax.security.auth.Subject.container";
 
@@ -147,4 +150,17 @@ public class SecurityDomainContext {
     public void setJSSE(JSSESecurityDomain jsseSecurityDomain) {
         this.jsseSecurityDomain = jsseSecurityDomain;
     }
+
+    /**
+     * Gets the cache used by the authentication manager.
+     *
+     * @return the cache, or {@code null} if authentication is not cached
+     */
+    public Map<?, ?> getAuthenticationCache() {
+        return authenticationCache;
+    }
+
+    public void setAuthenticationCache(Map<?, ?> authenticationCache) {
+        this.authenticationCache = authenticationCache;
+    }
 }
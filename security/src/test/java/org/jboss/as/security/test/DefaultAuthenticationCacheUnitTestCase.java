@@ -0,0 +1,146 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.security.test;
+
+import java.security.Principal;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.infinispan.util.concurrent.BoundedConcurrentHashMap.Eviction;
+import org.jboss.as.security.plugins.DefaultAuthenticationCache;
+import org.jboss.security.SimplePrincipal;
+import org.jboss.security.authentication.JBossCachedAuthenticationManager.DomainInfo;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests expiry, eviction and the metrics of {@link DefaultAuthenticationCache}.
+ */
+public class DefaultAuthenticationCacheUnitTestCase {
+
+    private final AtomicInteger logouts = new AtomicInteger();
+
+    @Test
+    public void testHitsAndMisses() {
+        DefaultAuthenticationCache cache = new DefaultAuthenticationCache(10, 1, Eviction.LRU, 0, 0);
+        Principal principal = new SimplePrincipal("user");
+
+        Assert.assertNull(cache.get(principal));
+        Assert.assertEquals(0, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+
+        DomainInfo info = domainInfo();
+        cache.put(principal, info);
+        Assert.assertSame(info, cache.get(principal));
+        Assert.assertSame(info, cache.get(principal));
+        Assert.assertNull(cache.get(new SimplePrincipal("other")));
+        Assert.assertEquals(2, cache.getHitCount());
+        Assert.assertEquals(2, cache.getMissCount());
+        Assert.assertEquals(0, cache.getEvictionCount());
+        Assert.assertEquals(0, logouts.get());
+    }
+
+    @Test
+    public void testLifespan() throws Exception {
+        DefaultAuthenticationCache cache = new DefaultAuthenticationCache(10, 1, Eviction.LRU, 100, 0);
+        Principal principal = new SimplePrincipal("user");
+        cache.put(principal, domainInfo());
+        Assert.assertNotNull(cache.get(principal));
+
+        Thread.sleep(200);
+        Assert.assertNull(cache.get(principal));
+        Assert.assertFalse(cache.containsKey(principal));
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+        Assert.assertEquals(1, cache.getEvictionCount());
+        Assert.assertEquals(1, logouts.get());
+
+        // cached again, the lifespan starts over
+        cache.put(principal, domainInfo());
+        Assert.assertNotNull(cache.get(principal));
+    }
+
+    @Test
+    public void testMaxIdle() throws Exception {
+        DefaultAuthenticationCache cache = new DefaultAuthenticationCache(10, 1, Eviction.LRU, 0, 500);
+        Principal principal = new SimplePrincipal("user");
+        cache.put(principal, domainInfo());
+
+        // every use keeps the entry alive for longer than its max idle time in total
+        for (int i = 0; i < 6; i++) {
+            Thread.sleep(100);
+            Assert.assertNotNull(cache.get(principal));
+        }
+        Assert.assertEquals(0, cache.getEvictionCount());
+
+        Thread.sleep(1000);
+        Assert.assertNull(cache.get(principal));
+        Assert.assertEquals(6, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+        Assert.assertEquals(1, cache.getEvictionCount());
+        Assert.assertEquals(1, logouts.get());
+    }
+
+    @Test
+    public void testEvictionAtMaxEntries() {
+        final int entries = 100;
+        DefaultAuthenticationCache cache = new DefaultAuthenticationCache(10, 1, Eviction.LRU, 60000, 0);
+        for (int i = 0; i < entries; i++) {
+            cache.put(new SimplePrincipal("user" + i), domainInfo());
+        }
+
+        Assert.assertTrue("size " + cache.size(), cache.size() < entries);
+        // every entry that is not cached any more was evicted, and logged out
+        Assert.assertEquals(entries - cache.size(), cache.getEvictionCount());
+        Assert.assertEquals(entries - cache.size(), logouts.get());
+        // the most recently cached one is still there
+        Assert.assertNotNull(cache.get(new SimplePrincipal("user" + (entries - 1))));
+        Assert.assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void testRemoveAndClearLogOut() {
+        DefaultAuthenticationCache cache = new DefaultAuthenticationCache(10, 1, Eviction.LRU, 60000, 0);
+        Principal first = new SimplePrincipal("first");
+        cache.put(first, domainInfo());
+        cache.put(new SimplePrincipal("second"), domainInfo());
+
+        Assert.assertNotNull(cache.remove(first));
+        Assert.assertEquals(1, logouts.get());
+        cache.clear();
+        Assert.assertEquals(2, logouts.get());
+        Assert.assertEquals(0, cache.size());
+        // removing entries is not an eviction
+        Assert.assertEquals(0, cache.getEvictionCount());
+    }
+
+    private DomainInfo domainInfo() {
+        return new DomainInfo() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public void logout() {
+                logouts.incrementAndGet();
+            }
+        };
+    }
+}
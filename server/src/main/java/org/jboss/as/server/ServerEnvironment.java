@@ -223,6 +223,24 @@ public class ServerEnvironment extends ProcessEnvironment implements Serializabl
      */
     public static final String BOOTSTRAP_MAX_THREADS = "org.jboss.server.bootstrap.maxThreads";
 
+    /**
+     * Constant that holds the name of the system property for specifying the maximum size, in megabytes, of the
+     * persistent annotation index cache. A value of 0 disables the cache.
+     */
+    public static final String ANNOTATION_INDEX_CACHE_MAX_SIZE = "org.jboss.server.deployment.annotationIndexCache.maxSize";
+
+    /**
+     * Constant that holds the name of the system property for specifying the number of days an unused entry is kept
+     * in the persistent annotation index cache.
+     */
+    public static final String ANNOTATION_INDEX_CACHE_MAX_AGE = "org.jboss.server.deployment.annotationIndexCache.maxAge";
+
+    /**
+     * Constant that holds the name of the system property for specifying the max threads used to build the annotation
+     * index of a deployment. A value of 1 indexes the resource roots of a deployment one after another.
+     */
+    public static final String ANNOTATION_INDEX_MAX_THREADS = "org.jboss.server.deployment.annotationIndex.maxThreads";
+
     /**
      * The default system property used to store bind address information from the command-line (-b).
      */
@@ -931,6 +949,56 @@ public class ServerEnvironment extends ProcessEnvironment implements Serializabl
         return defaultThreads;
     }
 
+    /**
+     * Determine the maximum size in bytes of the persistent annotation index cache. This reads the
+     * {@link #ANNOTATION_INDEX_CACHE_MAX_SIZE} system property and if not set, defaults to 256 megabytes.
+     * @return the maximum size of the annotation index cache, or 0 if the cache is disabled.
+     */
+    public static long getAnnotationIndexCacheMaxSize() {
+        return getNonNegativeLong(ANNOTATION_INDEX_CACHE_MAX_SIZE, 256) * 1024 * 1024;
+    }
+
+    /**
+     * Determine how long in milliseconds an unused entry is kept in the persistent annotation index cache. This reads
+     * the {@link #ANNOTATION_INDEX_CACHE_MAX_AGE} system property and if not set, defaults to 30 days.
+     * @return the maximum age of an annotation index cache entry.
+     */
+    public static long getAnnotationIndexCacheMaxAge() {
+        return getNonNegativeLong(ANNOTATION_INDEX_CACHE_MAX_AGE, 30) * 24 * 60 * 60 * 1000;
+    }
+
+    /**
+     * Determine the number of threads to use to build the annotation index of a deployment. This reads the
+     * {@link #ANNOTATION_INDEX_MAX_THREADS} system property and if not set, defaults to the number of cpus.
+     * @see Runtime#availableProcessors()
+     * @return the maximum number of threads indexing the resource roots of a deployment.
+     */
+    public static int getAnnotationIndexMaxThreads() {
+        int defaultThreads = Runtime.getRuntime().availableProcessors();
+        String maxThreads = SecurityActions.getSystemProperty(ANNOTATION_INDEX_MAX_THREADS);
+        if (maxThreads != null && maxThreads.length() > 0) {
+            try {
+                int max = Integer.decode(maxThreads);
+                defaultThreads = Math.max(max, 1);
+            } catch(NumberFormatException ex) {
+                ServerLogger.ROOT_LOGGER.failedToParseCommandLineInteger(ANNOTATION_INDEX_MAX_THREADS, maxThreads);
+            }
+        }
+        return defaultThreads;
+    }
+
+    private static long getNonNegativeLong(final String propertyName, final long defaultValue) {
+        String value = SecurityActions.getSystemProperty(propertyName);
+        if (value != null && value.length() > 0) {
+            try {
+                return Math.max(Long.decode(value), 0);
+            } catch(NumberFormatException ex) {
+                ServerLogger.ROOT_LOGGER.failedToParseCommandLineInteger(propertyName, value);
+            }
+        }
+        return defaultValue;
+    }
+
     @Override
     protected String getProcessName() {
         return serverName;
@@ -41,8 +41,10 @@ import org.jboss.as.controller.persistence.ConfigurationFile;
 import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.server.controller.descriptions.ServerDescriptions;
+import org.jboss.as.server.deployment.annotation.AnnotationIndexCache;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
+import org.jboss.msc.service.ServiceController;
 
 /**
  * A resource description that describes the server environment.
@@ -77,6 +79,11 @@ public class ServerEnvironmentResourceDescription extends SimpleResourceDefiniti
             DEPLOY_DIR, EXT_DIRS, HOME_DIR, HOST_NAME, INITIAL_RUNNING_MODE, LAUNCH_TYPE, LOG_DIR, MODULES_DIR, NODE_NAME,
             QUALIFIED_HOST_NAME, SERVER_NAME, TEMP_DIR};
 
+    public static final AttributeDefinition ANNOTATION_INDEX_CACHE_HITS = SimpleAttributeDefinitionBuilder.create("annotation-index-cache-hits", ModelType.LONG).setFlags(AttributeAccess.Flag.STORAGE_RUNTIME).build();
+    public static final AttributeDefinition ANNOTATION_INDEX_CACHE_MISSES = SimpleAttributeDefinitionBuilder.create("annotation-index-cache-misses", ModelType.LONG).setFlags(AttributeAccess.Flag.STORAGE_RUNTIME).build();
+
+    public static final AttributeDefinition[] ANNOTATION_INDEX_CACHE_METRICS = {ANNOTATION_INDEX_CACHE_HITS, ANNOTATION_INDEX_CACHE_MISSES};
+
     private final ServerEnvironmentReadHandler osh;
 
     /**
@@ -105,6 +112,9 @@ public class ServerEnvironmentResourceDescription extends SimpleResourceDefiniti
         for (AttributeDefinition attribute : SERVER_ENV_ATTRIBUTES) {
             resourceRegistration.registerReadOnlyAttribute(attribute, osh);
         }
+        for (AttributeDefinition metric : ANNOTATION_INDEX_CACHE_METRICS) {
+            resourceRegistration.registerMetric(metric, AnnotationIndexCacheMetricsHandler.INSTANCE);
+        }
     }
 
 
@@ -210,4 +220,34 @@ public class ServerEnvironmentResourceDescription extends SimpleResourceDefiniti
             return name.equals(attribute.getName());
         }
     }
+
+    /**
+     * Reads the hit and miss counts of the {@link AnnotationIndexCache}. Both are 0 if the cache is disabled.
+     */
+    private static class AnnotationIndexCacheMetricsHandler implements OperationStepHandler {
+        static final AnnotationIndexCacheMetricsHandler INSTANCE = new AnnotationIndexCacheMetricsHandler();
+
+        @Override
+        public void execute(final OperationContext context, final ModelNode operation) throws OperationFailedException {
+            final String name = operation.require(NAME).asString();
+            context.addStep(new OperationStepHandler() {
+                @Override
+                public void execute(final OperationContext context, final ModelNode operation) throws OperationFailedException {
+                    final ServiceController<?> controller = context.getServiceRegistry(false).getService(AnnotationIndexCache.SERVICE_NAME);
+                    long value = 0;
+                    if (controller != null && controller.getState() == ServiceController.State.UP) {
+                        final AnnotationIndexCache cache = (AnnotationIndexCache) controller.getValue();
+                        if (name.equals(ANNOTATION_INDEX_CACHE_HITS.getName())) {
+                            value = cache.getHitCount();
+                        } else if (name.equals(ANNOTATION_INDEX_CACHE_MISSES.getName())) {
+                            value = cache.getMissCount();
+                        }
+                    }
+                    context.getResult().set(value);
+                    context.completeStep();
+                }
+            }, OperationContext.Stage.RUNTIME);
+            context.completeStep();
+        }
+    }
 }
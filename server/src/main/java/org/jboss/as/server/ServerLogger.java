@@ -398,6 +398,14 @@ public interface ServerLogger extends BasicLogger {
     void reportAdminOnlyMissingDeploymentOverlayContent(String contentHash, String deploymentName, String contentName);
 
 
+    @LogMessage(level = WARN)
+    @Message(id = 15970, value = "Could not read cached annotation index %s, the resource root will be indexed again")
+    void cannotReadCachedAnnotationIndex(String index, @Cause Throwable cause);
+
+    @LogMessage(level = WARN)
+    @Message(id = 15971, value = "Could not store annotation index in cache %s")
+    void cannotStoreCachedAnnotationIndex(String index, @Cause Throwable cause);
+
     // NOTE
 
 }
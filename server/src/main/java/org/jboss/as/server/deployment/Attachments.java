@@ -26,6 +26,7 @@ import java.util.Set;
 import java.util.jar.Manifest;
 
 import org.jboss.as.controller.ServiceVerificationHandler;
+import org.jboss.as.server.deployment.annotation.AnnotationIndexCache;
 import org.jboss.as.server.deployment.annotation.AnnotationIndexProcessor;
 import org.jboss.as.server.deployment.annotation.CompositeIndex;
 import org.jboss.as.server.deployment.module.AdditionalModuleSpecification;
@@ -88,9 +89,10 @@ public final class Attachments {
     public static final AttachmentKey<VirtualFile> DEPLOYMENT_CONTENTS = AttachmentKey.create(VirtualFile.class);
 
     /**
-     * The deployment hash
+     * The deployment hash, as computed by the content repository. Only attached to managed deployments whose content
+     * is not overridden by a deployment overlay.
      */
-    //public static final AttachmentKey<byte[]> DEPLOYMENT_HASH = AttachmentKey.create(byte[].class);
+    public static final AttachmentKey<byte[]> DEPLOYMENT_HASH = AttachmentKey.create(byte[].class);
 
     /**
      * The special status listener attachment.
@@ -155,6 +157,11 @@ public final class Attachments {
      */
     public static final AttachmentKey<DeploymentMountProvider> SERVER_DEPLOYMENT_REPOSITORY = AttachmentKey.create(DeploymentMountProvider.class);
 
+    /**
+     * The persistent annotation index cache, if it is enabled
+     */
+    public static final AttachmentKey<AnnotationIndexCache> ANNOTATION_INDEX_CACHE = AttachmentKey.create(AnnotationIndexCache.class);
+
     /**
      * An annotation index for a (@link ResourceRoot). This is attached to the {@link ResourceRoot}s of the deployment that contain
      * the annotations
@@ -44,6 +44,8 @@ public class ContentOverrideDeploymentUnitProcessor implements DeploymentUnitPro
                     try {
                         Closeable handle = VFS.mountReal(override.getContentHash().getPhysicalFile(), deploymentRoot.getRoot().getChild(override.getPath()));
                         deploymentUnit.addToAttachmentList(MOUNTED_FILES, handle);
+                        // the content no longer matches the hash in the content repository
+                        deploymentUnit.removeAttachment(Attachments.DEPLOYMENT_HASH);
                     } catch (IOException e) {
                         throw ServerMessages.MESSAGES.deploymentOverlayFailed(e, deploymentOverlay.getName(), override.getPath());
                     }
@@ -42,8 +42,10 @@ import org.jboss.as.controller.registry.ImmutableManagementResourceRegistration;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.controller.registry.Resource;
 import org.jboss.as.server.ServerLogger;
+import org.jboss.as.server.deployment.annotation.AnnotationIndexCache;
 import org.jboss.dmr.ModelNode;
 import org.jboss.msc.service.AbstractServiceListener;
+import org.jboss.msc.service.ServiceBuilder.DependencyType;
 import org.jboss.msc.service.ServiceController;
 import org.jboss.msc.service.ServiceListener;
 import org.jboss.msc.service.ServiceName;
@@ -156,10 +158,11 @@ public class DeploymentHandlerUtil {
         }
         controllers.add(contentService);
 
-        final RootDeploymentUnitService service = new RootDeploymentUnitService(deploymentUnitName, managementName, null, registration, mutableRegistration, deploymentResource, verificationHandler, vaultReader);
+        final RootDeploymentUnitService service = new RootDeploymentUnitService(deploymentUnitName, managementName, contents[0].hash, null, registration, mutableRegistration, deploymentResource, verificationHandler, vaultReader);
         final ServiceController<DeploymentUnit> deploymentUnitController = serviceTarget.addService(deploymentUnitServiceName, service)
                 .addDependency(Services.JBOSS_DEPLOYMENT_CHAINS, DeployerChains.class, service.getDeployerChainsInjector())
                 .addDependency(DeploymentMountProvider.SERVICE_NAME, DeploymentMountProvider.class, service.getServerDeploymentRepositoryInjector())
+                .addDependency(DependencyType.OPTIONAL, AnnotationIndexCache.SERVICE_NAME, AnnotationIndexCache.class, service.getAnnotationIndexCacheInjector())
                 .addDependency(contentsServiceName, VirtualFile.class, service.contentsInjector)
                 .addListener(ServiceListener.Inheritance.ALL, verificationHandler)
                 .setInitialMode(ServiceController.Mode.ACTIVE)
@@ -0,0 +1,260 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.annotation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jboss.as.server.ServerLogger;
+import org.jboss.as.server.ServerMessages;
+import org.jboss.as.server.Services;
+import org.jboss.jandex.Index;
+import org.jboss.jandex.IndexReader;
+import org.jboss.jandex.IndexWriter;
+import org.jboss.msc.service.Service;
+import org.jboss.msc.service.ServiceController;
+import org.jboss.msc.service.ServiceName;
+import org.jboss.msc.service.ServiceTarget;
+import org.jboss.msc.service.StartContext;
+import org.jboss.msc.service.StartException;
+import org.jboss.msc.service.StopContext;
+import org.jboss.vfs.VFSUtils;
+
+/**
+ * Service that keeps the jandex indexes of deployment resource roots on disk, so that a restart or a redeploy of
+ * unchanged content can read the stored index instead of scanning every class again.
+ * <p/>
+ * Entries are keyed by a hash of the content they were built from, so an entry never has to be invalidated, only
+ * evicted. The modification time of an entry file is used as its last access time: entries that have not been used
+ * for longer than the maximum age are removed on start, and once the cache grows beyond its maximum size the least
+ * recently used entries are removed until it is back to three quarters of that size.
+ */
+public class AnnotationIndexCache implements Service<AnnotationIndexCache> {
+
+    public static final ServiceName SERVICE_NAME = Services.JBOSS_AS.append("annotation-index-cache");
+
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final File cacheDir;
+    private final long maxSize;
+    private final long maxAge;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    /**
+     * The size of all entries, recalculated on every eviction run
+     */
+    private final AtomicLong size = new AtomicLong();
+
+    public AnnotationIndexCache(final File cacheDir, final long maxSize, final long maxAge) {
+        this.cacheDir = cacheDir;
+        this.maxSize = maxSize;
+        this.maxAge = maxAge;
+    }
+
+    @Override
+    public void start(final StartContext context) throws StartException {
+        if (!cacheDir.isDirectory() && !cacheDir.mkdirs()) {
+            throw new StartException(ServerMessages.MESSAGES.cannotCreateLocalDirectory(cacheDir));
+        }
+        evict();
+    }
+
+    @Override
+    public void stop(final StopContext context) {
+    }
+
+    @Override
+    public AnnotationIndexCache getValue() throws IllegalStateException, IllegalArgumentException {
+        return this;
+    }
+
+    /**
+     * Reads the index stored under the given key.
+     *
+     * @param key the content hash the index was stored under
+     * @return the index, or {@code null} if there is no usable entry for the key
+     */
+    public Index get(final String key) {
+        final File file = new File(cacheDir, key + INDEX_SUFFIX);
+        InputStream in = null;
+        try {
+            in = new BufferedInputStream(new FileInputStream(file));
+            final Index index = new IndexReader(in).read();
+            file.setLastModified(System.currentTimeMillis());
+            hits.incrementAndGet();
+            return index;
+        } catch (FileNotFoundException e) {
+            misses.incrementAndGet();
+            return null;
+        } catch (Exception e) {
+            ServerLogger.DEPLOYMENT_LOGGER.cannotReadCachedAnnotationIndex(file.getAbsolutePath(), e);
+            // close before deleting, an open file cannot be deleted on every platform
+            VFSUtils.safeClose(in);
+            in = null;
+            file.delete();
+            misses.incrementAndGet();
+            return null;
+        } finally {
+            VFSUtils.safeClose(in);
+        }
+    }
+
+    /**
+     * Stores an index under the given key, replacing any existing entry.
+     *
+     * @param key the content hash the index was built from
+     * @param index the index
+     */
+    public void put(final String key, final Index index) {
+        final File file = new File(cacheDir, key + INDEX_SUFFIX);
+        File temp = null;
+        OutputStream out = null;
+        try {
+            // write to a temporary file first, so a concurrent reader or a crash never sees a partial entry
+            temp = File.createTempFile("index", TEMP_SUFFIX, cacheDir);
+            out = new BufferedOutputStream(new FileOutputStream(temp));
+            new IndexWriter(out).write(index);
+            out.close();
+            out = null;
+            if (!temp.renameTo(file)) {
+                file.delete();
+                if (!temp.renameTo(file)) {
+                    throw new IOException(temp.getAbsolutePath());
+                }
+            }
+            temp = null;
+        } catch (IOException e) {
+            ServerLogger.DEPLOYMENT_LOGGER.cannotStoreCachedAnnotationIndex(file.getAbsolutePath(), e);
+            return;
+        } finally {
+            VFSUtils.safeClose(out);
+            if (temp != null) {
+                temp.delete();
+            }
+        }
+        if (size.addAndGet(file.length()) > maxSize) {
+            evict();
+        }
+    }
+
+    /**
+     * @return the number of lookups that were answered from the cache
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return the number of lookups that found no usable entry
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * @return the size in bytes of all entries, as of the last eviction run or store
+     */
+    public long getSize() {
+        return size.get();
+    }
+
+    synchronized void evict() {
+        final File[] files = cacheDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        final List<Entry> entries = new ArrayList<Entry>(files.length);
+        long total = 0;
+        for (File file : files) {
+            final String name = file.getName();
+            final long lastModified = file.lastModified();
+            if (name.endsWith(TEMP_SUFFIX)) {
+                // left over from a crash, or still being written by another thread
+                if (now - lastModified > 60 * 60 * 1000) {
+                    file.delete();
+                }
+            } else if (name.endsWith(INDEX_SUFFIX)) {
+                if (now - lastModified > maxAge) {
+                    file.delete();
+                } else {
+                    final Entry entry = new Entry(file, lastModified, file.length());
+                    entries.add(entry);
+                    total += entry.length;
+                }
+            }
+        }
+        if (total > maxSize) {
+            Collections.sort(entries, LEAST_RECENTLY_USED_FIRST);
+            final long target = maxSize - maxSize / 4;
+            for (Entry entry : entries) {
+                if (total <= target) {
+                    break;
+                }
+                if (entry.file.delete()) {
+                    total -= entry.length;
+                }
+            }
+        }
+        size.set(total);
+    }
+
+    public static void addService(final ServiceTarget serviceTarget, final File dataDir, final long maxSize, final long maxAge) {
+        final AnnotationIndexCache service = new AnnotationIndexCache(new File(dataDir, "annotation-index"), maxSize, maxAge);
+        serviceTarget.addService(SERVICE_NAME, service)
+                .setInitialMode(ServiceController.Mode.ACTIVE)
+                .install();
+    }
+
+    private static final Comparator<Entry> LEAST_RECENTLY_USED_FIRST = new Comparator<Entry>() {
+        @Override
+        public int compare(final Entry o1, final Entry o2) {
+            return o1.lastModified < o2.lastModified ? -1 : (o1.lastModified == o2.lastModified ? 0 : 1);
+        }
+    };
+
+    private static final class Entry {
+        private final File file;
+        private final long lastModified;
+        private final long length;
+
+        Entry(final File file, final long lastModified, final long length) {
+            this.file = file;
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+    }
+}
@@ -22,6 +22,9 @@
 
 package org.jboss.as.server.deployment.annotation;
 
+import java.util.List;
+import java.util.concurrent.Executor;
+
 import org.jboss.as.server.deployment.DeploymentPhaseContext;
 import org.jboss.as.server.deployment.DeploymentUnit;
 import org.jboss.as.server.deployment.DeploymentUnitProcessingException;
@@ -37,6 +40,29 @@ import org.jboss.as.server.deployment.module.ResourceRoot;
  */
 public class AnnotationIndexProcessor implements DeploymentUnitProcessor {
 
+    private final int parallelism;
+    private final Executor executor;
+
+    /**
+     * Creates a processor that indexes the resource roots of a deployment one after another.
+     */
+    public AnnotationIndexProcessor() {
+        this(1, null);
+    }
+
+    /**
+     * Creates a processor that indexes up to {@code parallelism} resource roots of a deployment at the same time,
+     * using threads of the given executor besides the deployment thread. The executor is not owned by the processor;
+     * it is expected to be the server's managed executor.
+     *
+     * @param parallelism the maximum number of threads indexing a deployment, including the deployment thread
+     * @param executor the executor providing the additional threads, or {@code null} to index one root after another
+     */
+    public AnnotationIndexProcessor(final int parallelism, final Executor executor) {
+        this.parallelism = parallelism;
+        this.executor = parallelism > 1 ? executor : null;
+    }
+
     /**
      * Process this deployment for annotations.  This will use an annotation indexer to create an index of all annotations
      * found in this deployment and attach it to the deployment unit context.
@@ -47,8 +73,13 @@ public class AnnotationIndexProcessor implements DeploymentUnitProcessor {
      */
     public void deploy(DeploymentPhaseContext phaseContext) throws DeploymentUnitProcessingException {
         final DeploymentUnit deploymentUnit = phaseContext.getDeploymentUnit();
-        for (ResourceRoot resourceRoot : DeploymentUtils.allResourceRoots(deploymentUnit)) {
-            ResourceRootIndexer.indexResourceRoot(resourceRoot);
+        final List<ResourceRoot> resourceRoots = DeploymentUtils.allResourceRoots(deploymentUnit);
+        if (executor != null) {
+            ResourceRootIndexer.indexResourceRoots(resourceRoots, deploymentUnit, executor, parallelism);
+        } else {
+            for (ResourceRoot resourceRoot : resourceRoots) {
+                ResourceRootIndexer.indexResourceRoot(resourceRoot, deploymentUnit);
+            }
         }
     }
 
@@ -1,16 +1,36 @@
 package org.jboss.as.server.deployment.annotation;
 
 import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
+import org.jboss.as.repository.HashUtil;
 import org.jboss.as.server.ServerLogger;
 import org.jboss.as.server.ServerMessages;
 import org.jboss.as.server.deployment.Attachments;
+import org.jboss.as.server.deployment.DeploymentUnit;
 import org.jboss.as.server.deployment.DeploymentUnitProcessingException;
+import org.jboss.as.server.deployment.DeploymentUtils;
 import org.jboss.as.server.deployment.module.ResourceRoot;
 import org.jboss.as.server.moduleservice.ModuleIndexBuilder;
+import org.jboss.jandex.AnnotationInstance;
+import org.jboss.jandex.ClassInfo;
+import org.jboss.jandex.DotName;
 import org.jboss.jandex.Index;
 import org.jboss.jandex.IndexReader;
 import org.jboss.jandex.Indexer;
@@ -25,12 +45,69 @@ import org.jboss.vfs.util.SuffixMatchFilter;
  */
 public class ResourceRootIndexer {
 
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * The number of classes above which a resource root is split into batches that are indexed in parallel
+     */
+    private static final int BATCH_SIZE = 1000;
+
     /**
      * Creates and attaches the annotation index to a resource root, if it has not already been attached
      */
     public static void indexResourceRoot(final ResourceRoot resourceRoot) throws DeploymentUnitProcessingException {
+        indexResourceRoot(resourceRoot, null);
+    }
+
+    /**
+     * Creates and attaches the annotation index to a resource root, if it has not already been attached.
+     * <p/>
+     * If the deployment has an {@link AnnotationIndexCache} the index of a resource root that has been indexed before
+     * is read from the cache instead. Resource roots of managed deployments are looked up by the deployment hash and
+     * their path within the deployment, all others by the names, sizes and modification times of their class files.
+     *
+     * @param resourceRoot the resource root to index
+     * @param deploymentUnit the deployment unit the resource root belongs to, or {@code null} to bypass the cache
+     */
+    public static void indexResourceRoot(final ResourceRoot resourceRoot, final DeploymentUnit deploymentUnit) throws DeploymentUnitProcessingException {
+        final PendingIndex pendingIndex = prepare(resourceRoot, deploymentUnit);
+        if (pendingIndex != null) {
+            try {
+                pendingIndex.complete(pendingIndex.index(pendingIndex.classFiles));
+            } catch (Throwable t) {
+                throw ServerMessages.MESSAGES.deploymentIndexingFailed(t);
+            }
+        }
+    }
+
+    /**
+     * Creates and attaches the annotation indexes of a number of resource roots, indexing up to {@code parallelism}
+     * resource roots at the same time. Resource roots with many classes are additionally split into batches of
+     * classes that are indexed in parallel and merged afterwards.
+     * <p/>
+     * The calling thread takes part in the indexing, and returns once all resource roots are indexed.
+     *
+     * @param resourceRoots the resource roots to index
+     * @param deploymentUnit the deployment unit the resource roots belong to, or {@code null} to bypass the cache
+     * @param executor the executor that runs the additional indexing threads
+     * @param parallelism the maximum number of threads, including the calling one, indexing at the same time
+     */
+    public static void indexResourceRoots(final List<ResourceRoot> resourceRoots, final DeploymentUnit deploymentUnit, final Executor executor, final int parallelism) throws DeploymentUnitProcessingException {
+        indexResourceRoots(resourceRoots, deploymentUnit, executor, parallelism, BATCH_SIZE);
+    }
+
+    static void indexResourceRoots(final List<ResourceRoot> resourceRoots, final DeploymentUnit deploymentUnit, final Executor executor, final int parallelism, final int batchSize) throws DeploymentUnitProcessingException {
+        new ParallelIndexing(deploymentUnit, executor, parallelism, batchSize).run(resourceRoots);
+    }
+
+    /**
+     * Looks for an existing index of a resource root, and lists the classes to index if there is none.
+     *
+     * @return the classes still to index, or {@code null} if the index has been attached already
+     */
+    private static PendingIndex prepare(final ResourceRoot resourceRoot, final DeploymentUnit deploymentUnit) throws DeploymentUnitProcessingException {
         if (resourceRoot.getAttachment(Attachments.ANNOTATION_INDEX) != null) {
-            return;
+            return null;
         }
 
         VirtualFile indexFile = resourceRoot.getRoot().getChild(ModuleIndexBuilder.INDEX_LOCATION);
@@ -39,7 +116,7 @@ public class ResourceRootIndexer {
                 IndexReader reader = new IndexReader(indexFile.openStream());
                 resourceRoot.putAttachment(Attachments.ANNOTATION_INDEX, reader.read());
                 ServerLogger.DEPLOYMENT_LOGGER.tracef("Found and read index at: %s", indexFile);
-                return;
+                return null;
             } catch (Exception e) {
                 ServerLogger.DEPLOYMENT_LOGGER.cannotLoadAnnotationIndex(indexFile.getPathName());
             }
@@ -48,7 +125,7 @@ public class ResourceRootIndexer {
         // if this flag is present and set to false then do not index the resource
         Boolean shouldIndexResource = resourceRoot.getAttachment(Attachments.INDEX_RESOURCE_ROOT);
         if (shouldIndexResource != null && !shouldIndexResource) {
-            return;
+            return null;
         }
 
         final List<String> indexIgnorePathList = resourceRoot.getAttachment(Attachments.INDEX_IGNORE_PATHS);
@@ -60,7 +137,7 @@ public class ResourceRootIndexer {
         }
 
         final VirtualFile virtualFile = resourceRoot.getRoot();
-        final Indexer indexer = new Indexer();
+        final AnnotationIndexCache cache = deploymentUnit == null ? null : DeploymentUtils.getTopDeploymentUnit(deploymentUnit).getAttachment(Attachments.ANNOTATION_INDEX_CACHE);
         try {
             final VisitorAttributes visitorAttributes = new VisitorAttributes();
             visitorAttributes.setLeavesOnly(true);
@@ -70,8 +147,152 @@ public class ResourceRootIndexer {
                 }
             });
 
-            final List<VirtualFile> classChildren = virtualFile.getChildren(new SuffixMatchFilter(".class", visitorAttributes));
-            for (VirtualFile classFile : classChildren) {
+            List<VirtualFile> classChildren = null;
+            String cacheKey = null;
+            if (cache != null) {
+                cacheKey = contentKey(deploymentUnit, virtualFile, indexIgnorePaths);
+                if (cacheKey == null) {
+                    classChildren = virtualFile.getChildren(new SuffixMatchFilter(".class", visitorAttributes));
+                    cacheKey = fingerprintKey(virtualFile, classChildren, indexIgnorePaths);
+                }
+                final Index cachedIndex = cache.get(cacheKey);
+                if (cachedIndex != null) {
+                    resourceRoot.putAttachment(Attachments.ANNOTATION_INDEX, cachedIndex);
+                    ServerLogger.DEPLOYMENT_LOGGER.tracef("Read cached index for archive %s", virtualFile);
+                    return null;
+                }
+            }
+
+            if (classChildren == null) {
+                classChildren = virtualFile.getChildren(new SuffixMatchFilter(".class", visitorAttributes));
+            }
+            return new PendingIndex(resourceRoot, classChildren, cacheKey == null ? null : cache, cacheKey);
+        } catch (Throwable t) {
+            throw ServerMessages.MESSAGES.deploymentIndexingFailed(t);
+        }
+    }
+
+    /**
+     * Merges the indexes of disjoint sets of classes into a single index, as if all classes had been indexed together.
+     */
+    static Index merge(final Index... indexes) {
+        final Map<DotName, List<AnnotationInstance>> annotations = new HashMap<DotName, List<AnnotationInstance>>();
+        final Map<DotName, List<ClassInfo>> subclasses = new HashMap<DotName, List<ClassInfo>>();
+        final Map<DotName, List<ClassInfo>> implementors = new HashMap<DotName, List<ClassInfo>>();
+        final Map<DotName, ClassInfo> classes = new HashMap<DotName, ClassInfo>();
+        for (Index index : indexes) {
+            for (ClassInfo classInfo : index.getKnownClasses()) {
+                classes.put(classInfo.name(), classInfo);
+                for (Map.Entry<DotName, List<AnnotationInstance>> entry : classInfo.annotations().entrySet()) {
+                    List<AnnotationInstance> instances = annotations.get(entry.getKey());
+                    if (instances == null) {
+                        instances = new ArrayList<AnnotationInstance>();
+                        annotations.put(entry.getKey(), instances);
+                    }
+                    instances.addAll(entry.getValue());
+                }
+                if (classInfo.superName() != null) {
+                    add(subclasses, classInfo.superName(), classInfo);
+                }
+                for (DotName interfaceName : classInfo.interfaces()) {
+                    add(implementors, interfaceName, classInfo);
+                }
+            }
+        }
+        return Index.create(annotations, subclasses, implementors, classes);
+    }
+
+    private static void add(final Map<DotName, List<ClassInfo>> map, final DotName name, final ClassInfo classInfo) {
+        List<ClassInfo> list = map.get(name);
+        if (list == null) {
+            list = new ArrayList<ClassInfo>();
+            map.put(name, list);
+        }
+        list.add(classInfo);
+    }
+
+    /**
+     * Builds a cache key from the content repository hash of the deployment and the path of the resource root in it.
+     *
+     * @return the key, or {@code null} if the deployment is not managed or the resource root is not part of it
+     */
+    private static String contentKey(final DeploymentUnit deploymentUnit, final VirtualFile root, final Set<String> indexIgnorePaths) throws NoSuchAlgorithmException {
+        final DeploymentUnit topLevel = DeploymentUtils.getTopDeploymentUnit(deploymentUnit);
+        final byte[] deploymentHash = topLevel.getAttachment(Attachments.DEPLOYMENT_HASH);
+        final ResourceRoot deploymentRoot = topLevel.getAttachment(Attachments.DEPLOYMENT_ROOT);
+        if (deploymentHash == null || deploymentRoot == null) {
+            return null;
+        }
+        final String path;
+        if (root.equals(deploymentRoot.getRoot())) {
+            path = "";
+        } else {
+            try {
+                path = root.getPathNameRelativeTo(deploymentRoot.getRoot());
+            } catch (IllegalArgumentException e) {
+                // e.g. a Class-Path entry pointing outside of the deployment
+                return null;
+            }
+        }
+        final MessageDigest digest = MessageDigest.getInstance("SHA-1");
+        digest.update(deploymentHash);
+        update(digest, path);
+        update(digest, indexIgnorePaths);
+        return HashUtil.bytesToHexString(digest.digest());
+    }
+
+    /**
+     * Builds a cache key from the names, sizes and modification times of the class files in a resource root.
+     */
+    private static String fingerprintKey(final VirtualFile root, final List<VirtualFile> classFiles, final Set<String> indexIgnorePaths) throws NoSuchAlgorithmException {
+        final List<String> entries = new ArrayList<String>(classFiles.size());
+        for (VirtualFile classFile : classFiles) {
+            entries.add(classFile.getPathNameRelativeTo(root) + ':' + classFile.getSize() + ':' + classFile.getLastModified());
+        }
+        // the order in which children are listed is not guaranteed
+        Collections.sort(entries);
+        final MessageDigest digest = MessageDigest.getInstance("SHA-1");
+        update(digest, root.getPathName());
+        for (String entry : entries) {
+            update(digest, entry);
+        }
+        update(digest, indexIgnorePaths);
+        return HashUtil.bytesToHexString(digest.digest());
+    }
+
+    private static void update(final MessageDigest digest, final String value) {
+        digest.update(value.getBytes(UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static void update(final MessageDigest digest, final Set<String> indexIgnorePaths) {
+        if (indexIgnorePaths != null) {
+            for (String path : new TreeSet<String>(indexIgnorePaths)) {
+                update(digest, path);
+            }
+        }
+    }
+
+    /**
+     * The classes of a resource root that still have to be indexed
+     */
+    private static final class PendingIndex {
+        private final ResourceRoot resourceRoot;
+        private final List<VirtualFile> classFiles;
+        private final AnnotationIndexCache cache;
+        private final String cacheKey;
+
+        PendingIndex(final ResourceRoot resourceRoot, final List<VirtualFile> classFiles, final AnnotationIndexCache cache, final String cacheKey) {
+            this.resourceRoot = resourceRoot;
+            this.classFiles = classFiles;
+            this.cache = cache;
+            this.cacheKey = cacheKey;
+        }
+
+        Index index(final List<VirtualFile> classFiles) {
+            final VirtualFile virtualFile = resourceRoot.getRoot();
+            final Indexer indexer = new Indexer();
+            for (VirtualFile classFile : classFiles) {
                 InputStream inputStream = null;
                 try {
                     inputStream = classFile.openStream();
@@ -82,11 +303,150 @@ public class ResourceRootIndexer {
                     VFSUtils.safeClose(inputStream);
                 }
             }
-            final Index index = indexer.complete();
+            return indexer.complete();
+        }
+
+        void complete(final Index index) {
             resourceRoot.putAttachment(Attachments.ANNOTATION_INDEX, index);
-            ServerLogger.DEPLOYMENT_LOGGER.tracef("Generated index for archive %s", virtualFile);
-        } catch (Throwable t) {
-            throw ServerMessages.MESSAGES.deploymentIndexingFailed(t);
+            ServerLogger.DEPLOYMENT_LOGGER.tracef("Generated index for archive %s", resourceRoot.getRoot());
+            if (cache != null) {
+                cache.put(cacheKey, index);
+            }
+        }
+    }
+
+    /**
+     * Indexes a number of resource roots with a bounded number of threads. All work, whole resource roots as well as
+     * batches of classes, goes through a single queue that the calling thread and up to {@code parallelism - 1}
+     * threads of the executor take tasks from.
+     */
+    private static final class ParallelIndexing implements Runnable {
+        private static final Runnable WAKE_UP = new Runnable() {
+            public void run() {
+            }
+        };
+
+        private final DeploymentUnit deploymentUnit;
+        private final Executor executor;
+        private final int parallelism;
+        private final int batchSize;
+        private final BlockingQueue<Runnable> tasks = new LinkedBlockingQueue<Runnable>();
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicInteger helpers = new AtomicInteger();
+        private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+        ParallelIndexing(final DeploymentUnit deploymentUnit, final Executor executor, final int parallelism, final int batchSize) {
+            this.deploymentUnit = deploymentUnit;
+            this.executor = executor;
+            this.parallelism = parallelism;
+            this.batchSize = batchSize;
+        }
+
+        void run(final List<ResourceRoot> resourceRoots) throws DeploymentUnitProcessingException {
+            for (final ResourceRoot resourceRoot : resourceRoots) {
+                submit(new Runnable() {
+                    public void run() {
+                        indexResourceRoot(resourceRoot);
+                    }
+                });
+            }
+            startHelpers();
+            try {
+                while (outstanding.get() > 0) {
+                    tasks.take().run();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw ServerMessages.MESSAGES.deploymentIndexingFailed(e);
+            }
+            final Throwable t = failure.get();
+            if (t instanceof DeploymentUnitProcessingException) {
+                throw (DeploymentUnitProcessingException) t;
+            } else if (t != null) {
+                throw ServerMessages.MESSAGES.deploymentIndexingFailed(t);
+            }
+        }
+
+        /**
+         * Runs tasks in an executor thread until the queue is empty.
+         */
+        public void run() {
+            try {
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    task.run();
+                }
+            } finally {
+                helpers.decrementAndGet();
+            }
+        }
+
+        private void indexResourceRoot(final ResourceRoot resourceRoot) {
+            final PendingIndex pendingIndex;
+            try {
+                pendingIndex = prepare(resourceRoot, deploymentUnit);
+            } catch (DeploymentUnitProcessingException e) {
+                failure.compareAndSet(null, e);
+                return;
+            }
+            if (pendingIndex == null) {
+                return;
+            }
+            final List<VirtualFile> classFiles = pendingIndex.classFiles;
+            if (classFiles.size() <= batchSize) {
+                pendingIndex.complete(pendingIndex.index(classFiles));
+                return;
+            }
+            final int batchCount = (classFiles.size() + batchSize - 1) / batchSize;
+            final Index[] batchIndexes = new Index[batchCount];
+            final AtomicInteger remaining = new AtomicInteger(batchCount);
+            for (int i = 0; i < batchCount; i++) {
+                final int batch = i;
+                final List<VirtualFile> batchFiles = classFiles.subList(batch * batchSize, Math.min(classFiles.size(), (batch + 1) * batchSize));
+                submit(new Runnable() {
+                    public void run() {
+                        batchIndexes[batch] = pendingIndex.index(batchFiles);
+                        // the last batch to finish merges all of them
+                        if (remaining.decrementAndGet() == 0) {
+                            pendingIndex.complete(merge(batchIndexes));
+                        }
+                    }
+                });
+            }
+            startHelpers();
+        }
+
+        private void submit(final Runnable task) {
+            outstanding.incrementAndGet();
+            tasks.add(new Runnable() {
+                public void run() {
+                    try {
+                        task.run();
+                    } catch (Throwable t) {
+                        failure.compareAndSet(null, t);
+                    } finally {
+                        if (outstanding.decrementAndGet() == 0) {
+                            // the calling thread may be waiting for a task that will never come
+                            tasks.add(WAKE_UP);
+                        }
+                    }
+                }
+            });
+        }
+
+        private void startHelpers() {
+            int running;
+            while ((running = helpers.get()) < parallelism - 1 && !tasks.isEmpty()) {
+                if (helpers.compareAndSet(running, running + 1)) {
+                    try {
+                        executor.execute(this);
+                    } catch (RejectedExecutionException e) {
+                        // the calling thread does the work on its own
+                        helpers.decrementAndGet();
+                        return;
+                    }
+                }
+            }
         }
     }
 }
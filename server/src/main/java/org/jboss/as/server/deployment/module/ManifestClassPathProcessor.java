@@ -263,7 +263,7 @@ public final class ManifestClassPathProcessor implements DeploymentUnitProcessor
             final ResourceRoot resourceRoot = new ResourceRoot(file, mountHandle);
             deploymentUnit.addToAttachmentList(Attachments.RESOURCE_ROOTS, resourceRoot);
             ModuleRootMarker.mark(resourceRoot);
-            ResourceRootIndexer.indexResourceRoot(resourceRoot);
+            ResourceRootIndexer.indexResourceRoot(resourceRoot, deploymentUnit);
             return resourceRoot;
         } catch (IOException e) {
             throw new RuntimeException(e);
@@ -30,5 +30,13 @@ import javax.management.ObjectName;
  * @author <a href="kabir.khan@jboss.com">Kabir Khan</a>
  */
 public interface MBeanServerPlugin extends MBeanServer {
+
+    /**
+     * Gets whether this plugin handles the given name. The {@link PluggableMBeanServer} only routes names whose domain
+     * is one of this plugin's {@link #getDomains() domains} to it.
+     *
+     * @param objectName the name
+     * @return {@code true} if the plugin handles the name
+     */
     boolean accepts(ObjectName objectName);
 }
\ No newline at end of file
@@ -30,6 +30,8 @@ import org.jboss.as.controller.ModelController.OperationTransactionControl;
 import org.jboss.as.controller.OperationContext;
 import org.jboss.as.controller.OperationFailedException;
 import org.jboss.as.controller.OperationStepHandler;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
 import org.jboss.as.controller.descriptions.DescriptionProvider;
 import org.jboss.as.controller.registry.ImmutableManagementResourceRegistration;
 import org.jboss.as.controller.registry.Resource;
@@ -37,7 +39,8 @@ import org.jboss.as.server.ServerMessages;
 import org.jboss.dmr.ModelNode;
 
 /**
- * Ugly hack to be able to get the root resurce and registration.
+ * Ugly hack to be able to get the root resurce and registration. The resource only has the structure of the model:
+ * its child resources, without their models.
  *
  * @author <a href="kabir.khan@jboss.com">Kabir Khan</a>
  */
@@ -68,10 +71,29 @@ public class RootResourceHack implements OperationStepHandler, DescriptionProvid
         if (threadResource == null || threadResource != ResourceAndRegistration.NULL) {
             throw ServerMessages.MESSAGES.internalUseOnly();
         }
-        resource.set(new ResourceAndRegistration(context.getRootResource(), context.getResourceRegistration()));
+        // The view is only valid until this step completes. Callers only navigate the resource tree, so copy its
+        // structure rather than cloning every model in it.
+        resource.set(new ResourceAndRegistration(copyStructure(context.readResourceView(PathAddress.EMPTY_ADDRESS), false), context.getResourceRegistration()));
         context.completeStep();
     }
 
+    private static Resource copyStructure(final Resource resource, final boolean copied) {
+        final Resource copy = Resource.Factory.create();
+        for (String childType : resource.getChildTypes()) {
+            for (String childName : resource.getChildrenNames(childType)) {
+                final PathElement element = PathElement.pathElement(childType, childName);
+                final Resource child = resource.getChild(element);
+                // deployment processors change the resources below a deployment in place, so walk a copy of those
+                if (!copied && Resource.Tools.isModifiedInPlace(element)) {
+                    copy.registerChild(element, copyStructure(Resource.Tools.snapshot(child), true));
+                } else {
+                    copy.registerChild(element, copyStructure(child, copied));
+                }
+            }
+        }
+        return copy;
+    }
+
     public ResourceAndRegistration getRootResource(ModelController controller) {
         resource.set(ResourceAndRegistration.NULL);
         ResourceAndRegistration reg = null;
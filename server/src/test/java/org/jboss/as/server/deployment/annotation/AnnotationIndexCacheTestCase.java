@@ -0,0 +1,148 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.annotation;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.Index;
+import org.jboss.jandex.Indexer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the persistent {@link AnnotationIndexCache}.
+ */
+public class AnnotationIndexCacheTestCase {
+
+    private static final long DAY = 24 * 60 * 60 * 1000;
+
+    private File cacheDir;
+
+    @Before
+    public void createCacheDir() throws Exception {
+        cacheDir = File.createTempFile("annotation-index", "");
+        Assert.assertTrue(cacheDir.delete());
+        Assert.assertTrue(cacheDir.mkdirs());
+    }
+
+    @After
+    public void deleteCacheDir() {
+        final File[] files = cacheDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        cacheDir.delete();
+    }
+
+    @Test
+    public void testStoreAndRead() throws Exception {
+        final AnnotationIndexCache cache = new AnnotationIndexCache(cacheDir, Long.MAX_VALUE, DAY);
+        Assert.assertNull(cache.get("a"));
+        cache.put("a", index(AnnotationIndexCacheTestCase.class));
+
+        final Index index = cache.get("a");
+        Assert.assertNotNull(index);
+        Assert.assertNotNull(index.getClassByName(DotName.createSimple(AnnotationIndexCacheTestCase.class.getName())));
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+
+        // a new instance, as after a restart, sees the same entry
+        final AnnotationIndexCache restarted = new AnnotationIndexCache(cacheDir, Long.MAX_VALUE, DAY);
+        restarted.evict();
+        Assert.assertNotNull(restarted.get("a"));
+        Assert.assertEquals(cache.getSize(), restarted.getSize());
+    }
+
+    @Test
+    public void testCorruptEntryIsDiscarded() throws Exception {
+        final AnnotationIndexCache cache = new AnnotationIndexCache(cacheDir, Long.MAX_VALUE, DAY);
+        final File entry = new File(cacheDir, "a.idx");
+        final FileOutputStream out = new FileOutputStream(entry);
+        try {
+            out.write(new byte[] {1, 2, 3});
+        } finally {
+            out.close();
+        }
+        Assert.assertNull(cache.get("a"));
+        Assert.assertFalse(entry.exists());
+        Assert.assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testEvictionByAge() throws Exception {
+        final AnnotationIndexCache cache = new AnnotationIndexCache(cacheDir, Long.MAX_VALUE, DAY);
+        cache.put("old", index(AnnotationIndexCacheTestCase.class));
+        cache.put("new", index(AnnotationIndexCacheTestCase.class));
+        Assert.assertTrue(new File(cacheDir, "old.idx").setLastModified(System.currentTimeMillis() - 2 * DAY));
+
+        cache.evict();
+        Assert.assertNull(cache.get("old"));
+        Assert.assertNotNull(cache.get("new"));
+    }
+
+    @Test
+    public void testEvictionBySize() throws Exception {
+        final Index index = index(AnnotationIndexCacheTestCase.class);
+        final AnnotationIndexCache sizing = new AnnotationIndexCache(cacheDir, Long.MAX_VALUE, DAY);
+        sizing.put("sizing", index);
+        final long entrySize = sizing.getSize();
+        Assert.assertTrue(new File(cacheDir, "sizing.idx").delete());
+
+        // room for four entries, evicting down to three
+        final AnnotationIndexCache cache = new AnnotationIndexCache(cacheDir, 4 * entrySize, DAY);
+        final long now = System.currentTimeMillis();
+        for (int i = 0; i < 4; ++i) {
+            cache.put("entry" + i, index);
+            Assert.assertTrue(new File(cacheDir, "entry" + i + ".idx").setLastModified(now - (10 - i) * 1000));
+        }
+        // a hit makes the oldest entry the most recently used one
+        Assert.assertNotNull(cache.get("entry0"));
+        cache.put("entry4", index);
+
+        Assert.assertTrue(cache.getSize() <= 3 * entrySize);
+        Assert.assertNotNull(cache.get("entry0"));
+        Assert.assertNull(cache.get("entry1"));
+        Assert.assertNull(cache.get("entry2"));
+        Assert.assertNotNull(cache.get("entry4"));
+    }
+
+    private static Index index(final Class<?>... classes) throws Exception {
+        final Indexer indexer = new Indexer();
+        for (Class<?> clazz : classes) {
+            final InputStream in = clazz.getResourceAsStream(clazz.getSimpleName() + ".class");
+            try {
+                indexer.index(in);
+            } finally {
+                in.close();
+            }
+        }
+        return indexer.complete();
+    }
+}
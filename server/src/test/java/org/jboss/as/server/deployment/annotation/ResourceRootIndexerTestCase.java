@@ -0,0 +1,112 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.annotation;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.jboss.as.server.deployment.Attachments;
+import org.jboss.as.server.deployment.module.ResourceRoot;
+import org.jboss.jandex.ClassInfo;
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.Index;
+import org.jboss.vfs.VFS;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests that indexing resource roots in parallel, and in batches, yields the same indexes as indexing them serially.
+ */
+public class ResourceRootIndexerTestCase {
+
+    @Test
+    public void testParallelIndexMatchesSerialIndex() throws Exception {
+        final File classes = new File(ResourceRootIndexerTestCase.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        final ResourceRoot serial = new ResourceRoot(VFS.getChild(classes.toURI()), null);
+        ResourceRootIndexer.indexResourceRoot(serial);
+
+        final List<ResourceRoot> roots = new ArrayList<ResourceRoot>();
+        for (int i = 0; i < 4; i++) {
+            roots.add(new ResourceRoot(VFS.getChild(classes.toURI()), null));
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            // a batch size of 2 splits every root into several batches
+            ResourceRootIndexer.indexResourceRoots(roots, null, executor, 4, 2);
+        } finally {
+            executor.shutdown();
+        }
+
+        final Index expected = serial.getAttachment(Attachments.ANNOTATION_INDEX);
+        for (ResourceRoot root : roots) {
+            assertSameIndex(expected, root.getAttachment(Attachments.ANNOTATION_INDEX));
+        }
+    }
+
+    private static void assertSameIndex(final Index expected, final Index actual) {
+        Assert.assertNotNull(actual);
+        Assert.assertEquals(names(expected.getKnownClasses()), names(actual.getKnownClasses()));
+        for (ClassInfo classInfo : expected.getKnownClasses()) {
+            for (DotName annotation : classInfo.annotations().keySet()) {
+                Assert.assertEquals(expected.getAnnotations(annotation).size(), actual.getAnnotations(annotation).size());
+            }
+            Assert.assertEquals(names(expected.getKnownDirectSubclasses(classInfo.name())), names(actual.getKnownDirectSubclasses(classInfo.name())));
+            Assert.assertEquals(names(expected.getKnownDirectImplementors(classInfo.name())), names(actual.getKnownDirectImplementors(classInfo.name())));
+            if (classInfo.superName() != null) {
+                Assert.assertEquals(names(expected.getKnownDirectSubclasses(classInfo.superName())), names(actual.getKnownDirectSubclasses(classInfo.superName())));
+            }
+            for (DotName interfaceName : classInfo.interfaces()) {
+                Assert.assertEquals(names(expected.getKnownDirectImplementors(interfaceName)), names(actual.getKnownDirectImplementors(interfaceName)));
+            }
+        }
+    }
+
+    private static Set<DotName> names(final Iterable<ClassInfo> classes) {
+        final Set<DotName> names = new HashSet<DotName>();
+        for (ClassInfo classInfo : classes) {
+            names.add(classInfo.name());
+        }
+        return names;
+    }
+
+    @Deprecated
+    static class Annotated implements Runnable {
+        @Deprecated
+        public void run() {
+        }
+    }
+
+    static class AnnotatedSubclass extends Annotated implements Comparable<AnnotatedSubclass> {
+        @Deprecated
+        int value;
+
+        public int compareTo(final AnnotatedSubclass o) {
+            return value - o.value;
+        }
+    }
+}
@@ -334,6 +334,11 @@ public abstract class ClusteredSession<O extends OutgoingDistributableSessionDat
     /** Coordinate updates from the cluster */
     private transient Lock ownershipLock = new ReentrantLock();
 
+    /** Names of the attributes modified since the last successful replication */
+    private transient Set<String> modifiedAttributeNames = new HashSet<String>();
+    /** Names of the attributes removed since the last successful replication */
+    private transient Set<String> removedAttributeNames = new HashSet<String>();
+
     // ------------------------------------------------------------ Constructors
 
     /**
@@ -668,6 +673,7 @@ public abstract class ClusteredSession<O extends OutgoingDistributableSessionDat
         outdatedTime = 0;
         sessionAttributesDirty = false;
         sessionMetadataDirty = false;
+        clearAttributeChanges();
         realId = null;
         version.set(0);
         hasActivationListener = null;
@@ -1042,8 +1048,10 @@ public abstract class ClusteredSession<O extends OutgoingDistributableSessionDat
 
     /**
      * Increment our version and propagate ourself to the distributed cache.
+     *
+     * @return the number of session attribute bytes replicated, or -1 if unknown
      */
-    public synchronized void processSessionReplication() {
+    public synchronized long processSessionReplication() {
         // Replicate the session.
         if (log.isTraceEnabled()) {
             log.tracef("processSessionReplication(): session is dirty. Will increment version from: %s and replicate.", getVersion());
@@ -1051,9 +1059,10 @@ public abstract class ClusteredSession<O extends OutgoingDistributableSessionDat
         version.incrementAndGet();
 
         O outgoingData = getOutgoingSessionData();
-        distributedCacheManager.storeSessionData(outgoingData);
+        long bytes = distributedCacheManager.storeSessionData(outgoingData);
 
         sessionAttributesDirty = false;
+        clearAttributeChanges();
         sessionMetadataDirty = false;
 
         lastReplicated = System.currentTimeMillis();
@@ -1062,6 +1071,7 @@ public abstract class ClusteredSession<O extends OutgoingDistributableSessionDat
         if (this.fullReplicationWindow > 0 && System.currentTimeMillis() > this.fullReplicationWindow) {
             this.fullReplicationWindow = -1;
         }
+        return bytes;
     }
 
     /**
@@ -1468,6 +1478,7 @@ public abstract class ClusteredSession<O extends OutgoingDistributableSessionDat
         // still makes us dirty (ensures timely replication w/o using ACCESS)
         if (isGetDirty(result)) {
             sessionAttributesDirty();
+            attributeModified(name);
         }
 
         return result;
@@ -1616,6 +1627,45 @@ public abstract class ClusteredSession<O extends OutgoingDistributableSessionDat
         return sessionAttributesDirty || isFullReplicationNeeded();
     }
 
+    /**
+     * Records that the named attribute was set, or read in a way that makes it dirty, since the last replication.
+     */
+    protected final synchronized void attributeModified(String name) {
+        removedAttributeNames.remove(name);
+        modifiedAttributeNames.add(name);
+    }
+
+    /**
+     * Records that the named attribute was removed since the last replication.
+     */
+    protected final synchronized void attributeRemoved(String name) {
+        modifiedAttributeNames.remove(name);
+        removedAttributeNames.add(name);
+    }
+
+    /**
+     * Gets the names of the attributes modified since the last successful replication, excluding those never replicated.
+     */
+    protected final synchronized Set<String> getModifiedAttributeNames() {
+        Set<String> names = new HashSet<String>(modifiedAttributeNames);
+        names.removeAll(replicationExcludes);
+        return names;
+    }
+
+    /**
+     * Gets the names of the attributes removed since the last successful replication, excluding those never replicated.
+     */
+    protected final synchronized Set<String> getRemovedAttributeNames() {
+        Set<String> names = new HashSet<String>(removedAttributeNames);
+        names.removeAll(replicationExcludes);
+        return names;
+    }
+
+    private synchronized void clearAttributeChanges() {
+        modifiedAttributeNames.clear();
+        removedAttributeNames.clear();
+    }
+
     protected boolean isFullReplicationNeeded() {
         if (fullReplicationRequired) {
             return true;
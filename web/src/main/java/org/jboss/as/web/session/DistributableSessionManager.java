@@ -88,7 +88,7 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
 
     private final DistributedCacheManager<O> distributedCacheManager;
 
-    private SnapshotManager snapshotManager;
+    private volatile SnapshotManager snapshotManager;
 
     private final ReplicationConfig replicationConfig;
     private final ClassResolver resolver;
@@ -854,10 +854,10 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
 
                     // Do the actual replication
                     begin = System.currentTimeMillis();
-                    processSessionRepl(session);
+                    long bytes = processSessionRepl(session);
                     elapsed = System.currentTimeMillis() - begin;
                     stored = true;
-                    stats.updateReplicationStats(realId, elapsed);
+                    stats.updateReplicationStats(realId, elapsed, bytes);
                 } else {
                     log.tracef("Session %s did not require replication.", session.getIdInternal());
                 }
@@ -952,6 +952,45 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
         return (interval != null) ? interval.intValue() : -1;
     }
 
+    @Override
+    public void resetStats() {
+        super.resetStats();
+        SnapshotManager snapshotManager = this.snapshotManager;
+        if (snapshotManager != null) {
+            snapshotManager.resetStatistics();
+        }
+    }
+
+    @Override
+    public int getSnapshotQueueDepth() {
+        SnapshotManager snapshotManager = this.snapshotManager;
+        return (snapshotManager != null) ? snapshotManager.getQueueDepth() : 0;
+    }
+
+    @Override
+    public long getSnapshotFlushCount() {
+        SnapshotManager snapshotManager = this.snapshotManager;
+        return (snapshotManager != null) ? snapshotManager.getFlushCount() : 0;
+    }
+
+    @Override
+    public long getSnapshotFlushedSessionCount() {
+        SnapshotManager snapshotManager = this.snapshotManager;
+        return (snapshotManager != null) ? snapshotManager.getFlushedSessionCount() : 0;
+    }
+
+    @Override
+    public long getAverageSnapshotFlushLatency() {
+        SnapshotManager snapshotManager = this.snapshotManager;
+        return (snapshotManager != null) ? snapshotManager.getAverageFlushLatency() : 0;
+    }
+
+    @Override
+    public long getMaxSnapshotFlushLatency() {
+        SnapshotManager snapshotManager = this.snapshotManager;
+        return (snapshotManager != null) ? snapshotManager.getMaxFlushLatency() : 0;
+    }
+
     @Override
     public void setMaxUnreplicatedInterval(int maxUnreplicatedInterval) {
         this.maxUnreplicatedInterval = maxUnreplicatedInterval;
@@ -1481,8 +1520,9 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
      * Places the current session contents in the distributed cache and replicates them to the cluster
      *
      * @param session the session. Cannot be <code>null</code>.
+     * @return the number of session attribute bytes replicated, or -1 if unknown
      */
-    private void processSessionRepl(ClusteredSession<O> session) {
+    private long processSessionRepl(ClusteredSession<O> session) {
         boolean endBatch = false;
         BatchingManager batchingManager = this.distributedCacheManager.getBatchingManager();
         try {
@@ -1494,7 +1534,7 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
                 endBatch = true;
             }
 
-            session.processSessionReplication();
+            return session.processSessionReplication();
         } catch (Exception ex) {
             log.debug("processSessionRepl(): failed with exception", ex);
 
@@ -1510,6 +1550,7 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
                 log.error(MESSAGES.exceptionRollingBackTransaction(), exception);
                 throw exception;
             }
+            return -1;
         } finally {
             if (endBatch) {
                 batchingManager.endBatch();
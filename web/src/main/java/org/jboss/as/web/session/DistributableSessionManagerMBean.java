@@ -100,6 +100,31 @@ public interface DistributableSessionManagerMBean extends SessionManagerMBean {
      */
     int getSnapshotInterval();
 
+    /**
+     * Gets the number of modified sessions waiting to be replicated if "interval" mode is used.
+     */
+    int getSnapshotQueueDepth();
+
+    /**
+     * Gets the number of times queued sessions were replicated if "interval" mode is used.
+     */
+    long getSnapshotFlushCount();
+
+    /**
+     * Gets the number of queued sessions replicated if "interval" mode is used.
+     */
+    long getSnapshotFlushedSessionCount();
+
+    /**
+     * Gets the average number of milliseconds taken to replicate queued sessions if "interval" mode is used.
+     */
+    long getAverageSnapshotFlushLatency();
+
+    /**
+     * Gets the maximum number of milliseconds taken to replicate queued sessions if "interval" mode is used.
+     */
+    long getMaxSnapshotFlushLatency();
+
     /**
      * Get the maximum interval between requests, in seconds, after which a request will trigger replication of the session's
      * metadata regardless of whether the request has otherwise made the session dirty. Such replication ensures that other
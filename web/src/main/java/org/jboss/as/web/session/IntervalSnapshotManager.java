@@ -23,56 +23,88 @@ package org.jboss.as.web.session;
 
 import static org.jboss.as.web.WebMessages.MESSAGES;
 
-import java.util.HashSet;
-import java.util.LinkedHashSet;
+import java.util.Collections;
+import java.util.Queue;
 import java.util.Set;
-
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.catalina.Container;
+import org.apache.catalina.Loader;
 import org.jboss.as.clustering.web.OutgoingDistributableSessionData;
 import org.jboss.logging.Logger;
 
 /**
  * A snapshot manager that collects all modified sessions over a given period of time and distributes them en bloc.
+ * <p/>
+ * Modified sessions are collected in a lock-free queue and replicated by the server-wide {@link SnapshotScheduler},
+ * rather than by a thread per web application.
  *
  * @author Thomas Peuss <jboss@peuss.de>
  * @author Brian Stansberry
  * @version $Revision: 89149 $
  */
-public class IntervalSnapshotManager extends SnapshotManager implements Runnable {
+public class IntervalSnapshotManager extends SnapshotManager {
     static Logger log = Logger.getLogger(IntervalSnapshotManager.class);
 
     // the interval in ms
     private int interval = 1000;
 
-    // the modified sessions
-    private Set<ClusteredSession<? extends OutgoingDistributableSessionData>> sessions = new LinkedHashSet<ClusteredSession<? extends OutgoingDistributableSessionData>>();
+    private final SnapshotScheduler scheduler;
+
+    // the modified sessions, in modification order
+    private final Queue<ClusteredSession<? extends OutgoingDistributableSessionData>> queue = new ConcurrentLinkedQueue<ClusteredSession<? extends OutgoingDistributableSessionData>>();
+    // the modified sessions, so that a session is queued only once
+    private final Set<ClusteredSession<? extends OutgoingDistributableSessionData>> queued = Collections.newSetFromMap(new ConcurrentHashMap<ClusteredSession<? extends OutgoingDistributableSessionData>, Boolean>());
+    private final AtomicInteger queueDepth = new AtomicInteger();
 
-    // the distribute thread
-    private Thread thread = null;
+    // held while flushing, so that stop() waits for a flush in progress
+    private final Lock flushLock = new ReentrantLock();
+    private volatile long lastFlushTime = System.currentTimeMillis();
+    // a flush stopped after a full batch, with more sessions left to replicate
+    private volatile boolean backlog = false;
 
     // Is session processing allowed?
-    private boolean processingAllowed = false;
+    private volatile boolean processingAllowed = false;
 
-    // has the thread finished?
-    private boolean threadDone = false;
+    private volatile ClassLoader classLoader;
+
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong flushedSessionCount = new AtomicLong();
+    private final AtomicLong totalFlushLatency = new AtomicLong();
+    private final AtomicLong maxFlushLatency = new AtomicLong();
 
     public IntervalSnapshotManager(SessionManager manager, String path) {
-        super(manager, path);
+        this(manager, path, 1000);
     }
 
     public IntervalSnapshotManager(SessionManager manager, String path, int interval) {
+        this(manager, path, interval, SnapshotScheduler.getInstance());
+    }
+
+    public IntervalSnapshotManager(SessionManager manager, String path, int interval, SnapshotScheduler scheduler) {
         super(manager, path);
         this.interval = interval;
+        this.scheduler = scheduler;
     }
 
     /**
-     * Store the modified session in a hashmap for the distributor thread
+     * Queue the modified session for the snapshot scheduler
      */
     @Override
     public void snapshot(ClusteredSession<? extends OutgoingDistributableSessionData> session) {
         try {
-            // Don't hold a ref to the session for a long time
-            synchronized (sessions) {
-                sessions.add(session);
+            if (queued.add(session)) {
+                queue.offer(session);
+                int depth = queueDepth.incrementAndGet();
+                // The scheduler does not wait for an idle snapshot manager, so tell it when there is something to flush
+                if ((depth == 1) || (depth >= scheduler.getBatchSize())) {
+                    scheduler.wakeup();
+                }
             }
         } catch (Exception e) {
             log.error(MESSAGES.failedQueueingSessionReplication(session), e);
@@ -80,26 +112,74 @@ public class IntervalSnapshotManager extends SnapshotManager implements Runnable
     }
 
     /**
-     * Distribute all modified sessions
+     * Indicates whether the queued sessions should be distributed now
      */
-    protected void processSessions() {
-        Set<ClusteredSession<? extends OutgoingDistributableSessionData>> toProcess = null;
-        synchronized (sessions) {
-            toProcess = new HashSet<ClusteredSession<? extends OutgoingDistributableSessionData>>(sessions);
-            sessions.clear();
-        }
+    boolean isFlushDue(long now) {
+        return processingAllowed && queueDepth.get() > 0 && (backlog || now >= getNextFlushTime() || queueDepth.get() >= scheduler.getBatchSize());
+    }
 
-        SessionManager mgr = getManager();
-        for (ClusteredSession<? extends OutgoingDistributableSessionData> session : toProcess) {
-            // Confirm we haven't been stopped
-            if (!processingAllowed)
-                break;
+    /**
+     * Indicates whether there are queued sessions to distribute
+     */
+    boolean isFlushPending() {
+        return processingAllowed && queueDepth.get() > 0;
+    }
+
+    /**
+     * Returns the time at which the queued sessions are next due for distribution
+     */
+    long getNextFlushTime() {
+        return backlog ? lastFlushTime : lastFlushTime + interval;
+    }
 
+    /**
+     * Distribute at most the given number of modified sessions
+     */
+    void flush(int batchSize) {
+        if (!flushLock.tryLock()) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            lastFlushTime = start;
+            backlog = false;
+
+            SessionManager mgr = getManager();
+            Thread thread = Thread.currentThread();
+            ClassLoader previousLoader = thread.getContextClassLoader();
+            thread.setContextClassLoader(classLoader);
+            int count = 0;
             try {
-                mgr.storeSession(session);
-            } catch (Exception e) {
-                getLog().error(MESSAGES.failedToStoreSession(session.getRealId()), e);
+                ClusteredSession<? extends OutgoingDistributableSessionData> session = null;
+                // Confirm we haven't been stopped
+                while (processingAllowed && count < batchSize && (session = queue.poll()) != null) {
+                    queueDepth.decrementAndGet();
+                    // the session may be queued again as soon as we start replicating it
+                    queued.remove(session);
+                    count += 1;
+                    try {
+                        mgr.storeSession(session);
+                    } catch (Exception e) {
+                        getLog().error(MESSAGES.failedToStoreSession(session.getRealId()), e);
+                    }
+                }
+            } finally {
+                thread.setContextClassLoader(previousLoader);
+            }
+            backlog = (count == batchSize) && !queue.isEmpty();
+
+            if (count > 0) {
+                long latency = System.currentTimeMillis() - start;
+                flushCount.incrementAndGet();
+                flushedSessionCount.addAndGet(count);
+                totalFlushLatency.addAndGet(latency);
+                long max = maxFlushLatency.get();
+                while (latency > max && !maxFlushLatency.compareAndSet(max, latency)) {
+                    max = maxFlushLatency.get();
+                }
             }
+        } finally {
+            flushLock.unlock();
         }
     }
 
@@ -108,8 +188,12 @@ public class IntervalSnapshotManager extends SnapshotManager implements Runnable
      */
     @Override
     public void start() {
+        Container container = getManager().getContainer();
+        Loader loader = (container != null) ? container.getLoader() : null;
+        classLoader = (loader != null) ? loader.getClassLoader() : null;
+        lastFlushTime = System.currentTimeMillis();
         processingAllowed = true;
-        startThread();
+        scheduler.register(this);
     }
 
     /**
@@ -118,72 +202,50 @@ public class IntervalSnapshotManager extends SnapshotManager implements Runnable
     @Override
     public void stop() {
         processingAllowed = false;
-        stopThread();
-        synchronized (sessions) {
-            sessions.clear();
+        scheduler.unregister(this);
+        // Wait for any flush in progress
+        flushLock.lock();
+        try {
+            queue.clear();
+            queued.clear();
+            queueDepth.set(0);
+            backlog = false;
+        } finally {
+            flushLock.unlock();
         }
     }
 
-    /**
-     * Start the distributor thread
-     */
-    protected void startThread() {
-        if (thread != null) {
-            return;
-        }
+    @Override
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
 
-        thread = new Thread(this, "ClusteredSessionDistributor[" + getContextPath() + "]");
-        thread.setDaemon(true);
-        thread.setContextClassLoader(getManager().getContainer().getLoader().getClassLoader());
-        threadDone = false;
-        thread.start();
+    @Override
+    public long getFlushCount() {
+        return flushCount.get();
     }
 
-    /**
-     * Stop the distributor thread
-     */
-    protected void stopThread() {
-        boolean intr = false;
-        try {
-            if (thread == null) {
-                return;
-            }
-            threadDone = true;
-            thread.interrupt();
-            try {
-                thread.join();
-            } catch (InterruptedException e) {
-                intr = true;
-            }
-            thread = null;
-        } finally {
-            if (intr)
-                Thread.currentThread().interrupt();
-        }
+    @Override
+    public long getFlushedSessionCount() {
+        return flushedSessionCount.get();
     }
 
-    /**
-     * Thread-loop
-     */
     @Override
-    public void run() {
-        boolean intr = false;
-        try {
-            while (!threadDone) {
-                try {
-                    Thread.sleep(interval);
-                    processSessions();
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    if (!threadDone)
-                        getLog().error(MESSAGES.exceptionProcessingSessions(), ie);
-                } catch (Exception e) {
-                    getLog().error(MESSAGES.exceptionProcessingSessions(), e);
-                }
-            }
-        } finally {
-            if (intr)
-                Thread.currentThread().interrupt();
-        }
+    public long getAverageFlushLatency() {
+        long count = flushCount.get();
+        return (count > 0) ? totalFlushLatency.get() / count : 0;
+    }
+
+    @Override
+    public long getMaxFlushLatency() {
+        return maxFlushLatency.get();
+    }
+
+    @Override
+    public void resetStatistics() {
+        flushCount.set(0);
+        flushedSessionCount.set(0);
+        totalFlushLatency.set(0);
+        maxFlushLatency.set(0);
     }
 }
@@ -48,6 +48,9 @@ public class ReplicationStatistics implements Serializable {
         public long minReplicationTime = Long.MAX_VALUE;
         public long maxReplicationTime;
         public long totalReplicationlTime;
+        public long minReplicatedBytes = Long.MAX_VALUE;
+        public long maxReplicatedBytes;
+        public long totalReplicatedBytes;
 
         public long loadCount;
         public long minLoadTime = Long.MAX_VALUE;
@@ -62,6 +65,9 @@ public class ReplicationStatistics implements Serializable {
             minReplicationTime = Long.MAX_VALUE;
             maxReplicationTime = 0;
             totalReplicationlTime = 0;
+            minReplicatedBytes = Long.MAX_VALUE;
+            maxReplicatedBytes = 0;
+            totalReplicatedBytes = 0;
             loadCount = 0;
             minLoadTime = Long.MAX_VALUE;
             maxLoadTime = 0;
@@ -99,6 +105,25 @@ public class ReplicationStatistics implements Serializable {
             stat.maxReplicationTime = elapsed;
     }
 
+    /**
+     * Update the TimeStatistic for the given ctx, including the number of session attribute bytes replicated.
+     *
+     * @param ctx the method to update the statistics for.
+     * @param elapsed the elapsed time in milliseconds for the invocation.
+     * @param bytes the number of session attribute bytes replicated, or a negative value if unknown.
+     */
+    public void updateReplicationStats(String ctx, long elapsed, long bytes) {
+        this.updateReplicationStats(ctx, elapsed);
+        if (bytes >= 0) {
+            TimeStatistic stat = getTimeStatistic(ctx);
+            stat.totalReplicatedBytes += bytes;
+            if (stat.minReplicatedBytes > bytes)
+                stat.minReplicatedBytes = bytes;
+            if (stat.maxReplicatedBytes < bytes)
+                stat.maxReplicatedBytes = bytes;
+        }
+    }
+
     public void updateLoadStats(String ctx, long elapsed) {
         TimeStatistic stat = getTimeStatistic(ctx);
         stat.loadCount++;
@@ -157,6 +182,12 @@ public class ReplicationStatistics implements Serializable {
                 tmp.append(stat.maxReplicationTime);
                 tmp.append(", totalReplicationlTime=");
                 tmp.append(stat.totalReplicationlTime);
+                tmp.append(", minReplicatedBytes=");
+                tmp.append(stat.minReplicatedBytes);
+                tmp.append(", maxReplicatedBytes=");
+                tmp.append(stat.maxReplicatedBytes);
+                tmp.append(", totalReplicatedBytes=");
+                tmp.append(stat.totalReplicatedBytes);
                 tmp.append(", loadCount=");
                 tmp.append(stat.loadCount);
                 tmp.append(", minLoadTime=");
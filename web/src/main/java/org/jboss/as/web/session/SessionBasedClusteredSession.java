@@ -23,6 +23,7 @@ package org.jboss.as.web.session;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 import org.jboss.as.clustering.web.DistributableSessionMetadata;
 import org.jboss.as.clustering.web.OutgoingSessionGranularitySessionData;
@@ -31,6 +32,10 @@ import org.jboss.as.clustering.web.OutgoingSessionGranularitySessionData;
  * Implementation of a ClusteredSession where the replication granularity level is session based; that is, we replicate the
  * entire attribute map whenever a request makes any attribute dirty.
  * <p/>
+ * If the {@value #DELTA_REPLICATION_INTERVAL_PROPERTY} system property is set to a positive number, only the attributes
+ * made dirty by a request are replicated instead, and the entire attribute map is replicated again after that many
+ * consecutive delta replications, or whenever a full replication is otherwise required.
+ * <p/>
  * Note that the isolation level of the cache dictates the concurrency behavior.
  * </p>
  *
@@ -47,6 +52,12 @@ class SessionBasedClusteredSession extends ClusteredSession<OutgoingSessionGranu
      */
     protected static final String info = "SessionBasedClusteredSession/1.0";
 
+    static final String DELTA_REPLICATION_INTERVAL_PROPERTY = "jboss.web.clustered.session.delta.replication.interval";
+    private static final int DELTA_REPLICATION_INTERVAL = Integer.getInteger(DELTA_REPLICATION_INTERVAL_PROPERTY, 0).intValue();
+
+    // Number of delta replications since the entire attribute map was last replicated
+    private transient int deltaReplications;
+
     // ----------------------------------------------------------- Constructors
 
     public SessionBasedClusteredSession(ClusteredSessionManager<OutgoingSessionGranularitySessionData> manager) {
@@ -60,25 +71,53 @@ class SessionBasedClusteredSession extends ClusteredSession<OutgoingSessionGranu
         return (info);
     }
 
+    /**
+     * Override the superclass to additionally reset this class' fields.
+     */
+    @Override
+    public void recycle() {
+        super.recycle();
+
+        deltaReplications = 0;
+    }
+
     @Override
     protected OutgoingSessionGranularitySessionData getOutgoingSessionData() {
-        Map<String, Object> attrs = isSessionAttributeMapDirty() ? getSessionAttributeMap() : null;
+        Map<String, Object> attrs = null;
+        Map<String, Object> modAttrs = null;
+        Set<String> removeAttrs = null;
+        if (isSessionAttributeMapDirty()) {
+            if (DELTA_REPLICATION_INTERVAL > 0 && deltaReplications < DELTA_REPLICATION_INTERVAL && !isFullReplicationNeeded()) {
+                modAttrs = getModifiedAttributeMap();
+                removeAttrs = getRemovedAttributeNames();
+                if (removeAttrs.isEmpty()) {
+                    removeAttrs = null;
+                }
+                deltaReplications += 1;
+            } else {
+                attrs = getSessionAttributeMap();
+                deltaReplications = 0;
+            }
+        }
         DistributableSessionMetadata metadata = isSessionMetadataDirty() ? getSessionMetadata() : null;
-        Long timestamp = attrs != null || metadata != null || getMustReplicateTimestamp() ? Long.valueOf(getSessionTimestamp())
-                : null;
-        return new OutgoingData(getRealId(), getVersion(), timestamp, metadata, attrs);
+        Long timestamp = attrs != null || modAttrs != null || removeAttrs != null || metadata != null
+                || getMustReplicateTimestamp() ? Long.valueOf(getSessionTimestamp()) : null;
+        return new OutgoingData(getRealId(), getVersion(), timestamp, metadata, attrs, modAttrs, removeAttrs);
     }
 
     @Override
     protected Object removeAttributeInternal(String name, boolean localCall, boolean localOnly) {
-        if (localCall)
+        if (localCall) {
             sessionAttributesDirty();
+            attributeRemoved(name);
+        }
         return getAttributesInternal().remove(name);
     }
 
     @Override
     protected Object setAttributeInternal(String name, Object value) {
         sessionAttributesDirty();
+        attributeModified(name);
         return getAttributesInternal().put(name, value);
     }
 
@@ -90,21 +129,48 @@ class SessionBasedClusteredSession extends ClusteredSession<OutgoingSessionGranu
         return attrs;
     }
 
+    private Map<String, Object> getModifiedAttributeMap() {
+        Map<String, Object> attrs = getAttributesInternal();
+        Map<String, Object> modAttrs = new HashMap<String, Object>();
+        for (String name : getModifiedAttributeNames()) {
+            Object value = attrs.get(name);
+            // A dirty read of an attribute that does not exist
+            if (value != null) {
+                modAttrs.put(name, value);
+            }
+        }
+        return modAttrs.isEmpty() ? null : modAttrs;
+    }
+
     // ----------------------------------------------------------------- Classes
 
     private static class OutgoingData extends OutgoingDistributableSessionDataImpl implements
             OutgoingSessionGranularitySessionData {
         private final Map<String, Object> attributes;
+        private final Map<String, Object> modifiedAttributes;
+        private final Set<String> removedAttributes;
 
         public OutgoingData(String realId, int version, Long timestamp, DistributableSessionMetadata metadata,
-                Map<String, Object> attributes) {
+                Map<String, Object> attributes, Map<String, Object> modifiedAttributes, Set<String> removedAttributes) {
             super(realId, version, timestamp, metadata);
             this.attributes = attributes;
+            this.modifiedAttributes = modifiedAttributes;
+            this.removedAttributes = removedAttributes;
         }
 
         @Override
         public Map<String, Object> getSessionAttributes() {
             return attributes;
         }
+
+        @Override
+        public Map<String, Object> getModifiedSessionAttributes() {
+            return modifiedAttributes;
+        }
+
+        @Override
+        public Set<String> getRemovedSessionAttributes() {
+            return removedAttributes;
+        }
     }
 }
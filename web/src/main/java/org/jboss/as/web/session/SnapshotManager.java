@@ -63,6 +63,47 @@ public abstract class SnapshotManager {
      */
     public abstract void stop();
 
+    /**
+     * Returns the number of modified sessions waiting to be replicated
+     */
+    public int getQueueDepth() {
+        return 0;
+    }
+
+    /**
+     * Returns the number of times queued sessions were replicated
+     */
+    public long getFlushCount() {
+        return 0;
+    }
+
+    /**
+     * Returns the number of queued sessions replicated
+     */
+    public long getFlushedSessionCount() {
+        return 0;
+    }
+
+    /**
+     * Returns the average time in ms taken to replicate queued sessions
+     */
+    public long getAverageFlushLatency() {
+        return 0;
+    }
+
+    /**
+     * Returns the maximum time in ms taken to replicate queued sessions
+     */
+    public long getMaxFlushLatency() {
+        return 0;
+    }
+
+    /**
+     * Resets the replication statistics of this snapshot manager
+     */
+    public void resetStatistics() {
+    }
+
     protected String getContextPath() {
         return contextPath;
     }
@@ -0,0 +1,142 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.web.session;
+
+import static org.jboss.as.web.WebMessages.MESSAGES;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.jboss.logging.Logger;
+
+/**
+ * Replicates the sessions queued by the {@link IntervalSnapshotManager}s of all web applications on the server from a
+ * single thread. Each snapshot manager is flushed once its snapshot interval elapses, or sooner once it has queued a
+ * full batch of sessions; a flush replicates at most one batch before the other snapshot managers get their turn.
+ */
+public class SnapshotScheduler implements Runnable {
+    static final String BATCH_SIZE_PROPERTY = "jboss.web.clustered.session.snapshot.batch.size";
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+    // Upper bound on how long the thread parks when no snapshot manager has queued sessions
+    static final long MAX_IDLE = 1000;
+
+    private static final Logger log = Logger.getLogger(SnapshotScheduler.class);
+    private static final SnapshotScheduler INSTANCE = new SnapshotScheduler(Integer.getInteger(BATCH_SIZE_PROPERTY, DEFAULT_BATCH_SIZE).intValue());
+
+    public static SnapshotScheduler getInstance() {
+        return INSTANCE;
+    }
+
+    private final int batchSize;
+    private final Set<IntervalSnapshotManager> managers = Collections.newSetFromMap(new ConcurrentHashMap<IntervalSnapshotManager, Boolean>());
+    private volatile Thread thread;
+
+    public SnapshotScheduler(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Returns the maximum number of sessions replicated by a single flush of a snapshot manager.
+     */
+    public int getBatchSize() {
+        return this.batchSize;
+    }
+
+    /**
+     * Starts flushing the specified snapshot manager, starting the scheduler thread if necessary.
+     */
+    public synchronized void register(IntervalSnapshotManager manager) {
+        this.managers.add(manager);
+        if (this.thread == null) {
+            Thread thread = new Thread(this, "ClusteredSessionDistributor");
+            thread.setDaemon(true);
+            // The thread is shared by all web applications, so it must not pin the class loader of the one that started it
+            thread.setContextClassLoader(SnapshotScheduler.class.getClassLoader());
+            this.thread = thread;
+            thread.start();
+        }
+    }
+
+    /**
+     * Stops flushing the specified snapshot manager, stopping the scheduler thread once no snapshot manager remains.
+     */
+    public synchronized void unregister(IntervalSnapshotManager manager) {
+        this.managers.remove(manager);
+        if (this.managers.isEmpty()) {
+            Thread thread = this.thread;
+            this.thread = null;
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+
+    /**
+     * Notifies the scheduler that a snapshot manager has a full batch of sessions to replicate.
+     */
+    void wakeup() {
+        Thread thread = this.thread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    @Override
+    public void run() {
+        Thread current = Thread.currentThread();
+        while (this.thread == current) {
+            long next = this.flushDue();
+            long delay = next - System.currentTimeMillis();
+            if (delay > 0) {
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(delay));
+                // Nobody else interrupts this thread; make sure a stray interrupt does not turn parking into a spin
+                Thread.interrupted();
+            }
+        }
+    }
+
+    /**
+     * Flushes the snapshot managers that are due, and returns the time at which the next one is due. Snapshot managers
+     * without queued sessions are not due at all, so they do not count; they wake the scheduler when they queue one.
+     */
+    long flushDue() {
+        long now = System.currentTimeMillis();
+        long next = now + MAX_IDLE;
+        for (IntervalSnapshotManager manager : this.managers) {
+            try {
+                if (manager.isFlushDue(now)) {
+                    manager.flush(this.batchSize);
+                    now = System.currentTimeMillis();
+                }
+                if (manager.isFlushPending()) {
+                    next = Math.min(next, manager.getNextFlushTime());
+                }
+            } catch (Throwable e) {
+                log.error(MESSAGES.exceptionProcessingSessions(), e);
+            }
+        }
+        return next;
+    }
+}
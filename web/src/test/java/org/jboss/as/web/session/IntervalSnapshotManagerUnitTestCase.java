@@ -0,0 +1,152 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.web.session;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.catalina.Session;
+import org.jboss.as.clustering.web.OutgoingDistributableSessionData;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+/**
+ * Tests of the IntervalSnapshotManager and SnapshotScheduler.
+ */
+public class IntervalSnapshotManagerUnitTestCase {
+
+    @Test
+    public void testIntervalFlush() throws Exception {
+        SessionManager manager = mock(SessionManager.class);
+        CountDownLatch stored = storeLatch(manager, 2);
+        SnapshotScheduler scheduler = new SnapshotScheduler(100);
+        IntervalSnapshotManager snapshotManager = new IntervalSnapshotManager(manager, "/test", 50, scheduler);
+
+        ClusteredSession<? extends OutgoingDistributableSessionData> session1 = mockSession();
+        ClusteredSession<? extends OutgoingDistributableSessionData> session2 = mockSession();
+
+        snapshotManager.start();
+        try {
+            snapshotManager.snapshot(session1);
+            snapshotManager.snapshot(session2);
+            // Queued only once
+            snapshotManager.snapshot(session1);
+
+            assertTrue(stored.await(5, TimeUnit.SECONDS));
+            // Let the flush complete
+            Thread.sleep(100);
+
+            verify(manager, times(1)).storeSession(session1);
+            verify(manager, times(1)).storeSession(session2);
+            assertEquals(0, snapshotManager.getQueueDepth());
+            assertEquals(2, snapshotManager.getFlushedSessionCount());
+            assertTrue(snapshotManager.getFlushCount() > 0);
+        } finally {
+            snapshotManager.stop();
+        }
+    }
+
+    @Test
+    public void testBatchFlush() throws Exception {
+        SessionManager manager = mock(SessionManager.class);
+        CountDownLatch stored = storeLatch(manager, 5);
+        SnapshotScheduler scheduler = new SnapshotScheduler(2);
+        // Far longer than the test, so only a full batch triggers replication
+        IntervalSnapshotManager snapshotManager = new IntervalSnapshotManager(manager, "/test", 3600000, scheduler);
+
+        snapshotManager.start();
+        try {
+            for (int i = 0; i < 4; ++i) {
+                snapshotManager.snapshot(mockSession());
+            }
+            // The remainder of a batch waits for the next full batch
+            snapshotManager.snapshot(mockSession());
+            snapshotManager.snapshot(mockSession());
+
+            assertTrue(stored.await(5, TimeUnit.SECONDS));
+            assertTrue(snapshotManager.getFlushCount() >= 3);
+        } finally {
+            snapshotManager.stop();
+        }
+        assertEquals(0, snapshotManager.getQueueDepth());
+    }
+
+    @Test
+    public void testStop() throws Exception {
+        SessionManager manager = mock(SessionManager.class);
+        SnapshotScheduler scheduler = new SnapshotScheduler(100);
+        IntervalSnapshotManager snapshotManager = new IntervalSnapshotManager(manager, "/test", 3600000, scheduler);
+
+        snapshotManager.start();
+        snapshotManager.snapshot(mockSession());
+        assertEquals(1, snapshotManager.getQueueDepth());
+        snapshotManager.stop();
+
+        assertEquals(0, snapshotManager.getQueueDepth());
+        verify(manager, never()).storeSession(any(Session.class));
+    }
+
+    @Test
+    public void testIdleManagerIsNotDue() throws Exception {
+        SessionManager manager = mock(SessionManager.class);
+        CountDownLatch stored = storeLatch(manager, 1);
+        SnapshotScheduler scheduler = new SnapshotScheduler(100);
+        IntervalSnapshotManager snapshotManager = new IntervalSnapshotManager(manager, "/test", 10, scheduler);
+
+        snapshotManager.start();
+        try {
+            // Let the interval elapse without queueing anything
+            Thread.sleep(50);
+            long now = System.currentTimeMillis();
+            long next = scheduler.flushDue();
+            assertTrue(String.format("scheduler wakes up after %d ms", next - now), next - now > SnapshotScheduler.MAX_IDLE / 2);
+
+            // The first queued session wakes up the scheduler, well before it would have woken up by itself
+            snapshotManager.snapshot(mockSession());
+            assertTrue(stored.await(SnapshotScheduler.MAX_IDLE / 2, TimeUnit.MILLISECONDS));
+        } finally {
+            snapshotManager.stop();
+        }
+    }
+
+    private static CountDownLatch storeLatch(SessionManager manager, int count) {
+        final CountDownLatch latch = new CountDownLatch(count);
+        when(manager.storeSession(any(Session.class))).thenAnswer(new Answer<Boolean>() {
+            @Override
+            public Boolean answer(InvocationOnMock invocation) {
+                latch.countDown();
+                return Boolean.TRUE;
+            }
+        });
+        return latch;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ClusteredSession<? extends OutgoingDistributableSessionData> mockSession() {
+        return mock(ClusteredSession.class);
+    }
+}
@@ -131,8 +131,9 @@ public class MockDistributedCacheManager implements DistributedCacheManager<Outg
         // no-op
     }
 
-    public void storeSessionData(OutgoingDistributableSessionData sessionData) {
+    public long storeSessionData(OutgoingDistributableSessionData sessionData) {
         // no-op
+        return 0;
     }
 
     public void setForceSynchronous(boolean forceSynchronous) {